@@ -0,0 +1,92 @@
+package de.rentacar.customer.application;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latenz der Kundensuche am Schalter über synthetische Namen (feste Saat, reproduzierbar).
+ * "prefix" tippt die ersten Buchstaben eines Nachnamens, "typo" vertauscht zwei Buchstaben,
+ * "combined" sucht Vor- und Nachnamenpräfix zusammen.
+ * Ausführen mit: ./gradlew jmh -Pjmh.includes=CustomerNameIndexBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CustomerNameIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Max", "Anna", "Peter", "Sarah", "Lukas", "Marie", "Jonas", "Lea", "Felix", "Sophie",
+            "Paul", "Laura", "Jan", "Julia", "Tim", "Lena", "Tobias", "Hannah", "Niklas", "Katharina"
+    };
+    private static final String[] SYLLABLES = {
+            "mül", "ler", "schm", "idt", "wag", "ner", "bek", "ker", "hof", "mann",
+            "krau", "se", "wolf", "rich", "ter", "bau", "er", "klein", "schu", "ster"
+    };
+
+    @Param({"110000"})
+    public int customers;
+
+    private CustomerNameIndex index;
+    private List<String> lastNames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new CustomerNameIndex(null);
+        Random random = new Random(42);
+        lastNames = new ArrayList<>(customers);
+        for (int id = 1; id <= customers; id++) {
+            String lastName = lastName(random);
+            lastNames.add(lastName);
+            index.index((long) id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], lastName);
+        }
+    }
+
+    @Benchmark
+    public List<Long> prefix() {
+        String lastName = nextLastName();
+        return index.search(lastName.substring(0, Math.min(4, lastName.length())), 20);
+    }
+
+    @Benchmark
+    public List<Long> typo() {
+        String lastName = nextLastName();
+        char[] chars = lastName.toCharArray();
+        char swap = chars[1];
+        chars[1] = chars[2];
+        chars[2] = swap;
+        return index.search(new String(chars), 20);
+    }
+
+    @Benchmark
+    public List<Long> combined() {
+        String lastName = nextLastName();
+        return index.search(FIRST_NAMES[next % FIRST_NAMES.length] + " " + lastName.substring(0, 3), 20);
+    }
+
+    private String nextLastName() {
+        next = (next + 7919) % lastNames.size();
+        return lastNames.get(next);
+    }
+
+    private static String lastName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
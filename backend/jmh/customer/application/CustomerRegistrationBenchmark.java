@@ -0,0 +1,164 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.customer.infrastructure.BlindIndexService;
+import de.rentacar.customer.infrastructure.EncryptionService;
+import de.rentacar.shared.domain.AuditService;
+import de.rentacar.shared.security.User;
+import de.rentacar.shared.security.UserDetailsCache;
+import de.rentacar.shared.security.UserRepository;
+import de.rentacar.shared.service.AsyncSideEffectExecutor;
+import de.rentacar.shared.service.EmailService;
+import org.jasypt.encryption.StringEncryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lasttest Registrierung: Registrierungen pro Sekunde und Kern (ein Thread je Benchmark).
+ * "legacy" bildet den alten Ablauf nach (BCrypt zweimal, vier PBE-Verschlüsselungen, E-Mail und Audit
+ * synchron), "current" nutzt CustomerService.registerCustomer. Repositories sind In-Memory-Attrappen,
+ * E-Mail- und Audit-Latenz werden über sideEffectLatencyMs simuliert.
+ * Ausführen mit: ./gradlew jmh -Pjmh.includes=CustomerRegistrationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+public class CustomerRegistrationBenchmark {
+
+    private static final String PASSWORD = "benchmark-secret";
+    private static final String BLIND_INDEX_KEY = "benchmark-blind-index-key-32-bytes";
+
+    @Param({"0", "20"})
+    public long sideEffectLatencyMs;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private PasswordEncoder passwordEncoder;
+    private StringEncryptor legacyEncryptor;
+    private EmailService emailService;
+    private AuditService auditService;
+    private AsyncSideEffectExecutor sideEffects;
+    private CustomerService customerService;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        legacyEncryptor = EncryptionService.createLegacyEncryptor(PASSWORD, 1);
+        emailService = (email, token) -> simulateLatency();
+        auditService = new AuditService(null, null, null) {
+            @Override
+            public void logAction(String username, String action, String resourceType, String resourceId,
+                                  String details, String ipAddress) {
+                simulateLatency();
+            }
+        };
+        sideEffects = new AsyncSideEffectExecutor(2, 10_000, 3, 500,
+                System.getProperty("java.io.tmpdir") + "/side-effects-dead-letter.jsonl");
+        CustomerRepository customerRepository = inMemoryRepository(CustomerRepository.class);
+        customerService = new CustomerService(
+                customerRepository,
+                inMemoryRepository(UserRepository.class),
+                new EncryptionService(PASSWORD),
+                passwordEncoder,
+                auditService,
+                emailService,
+                new CustomerProfileCache(60, 100),
+                new BlindIndexService(BLIND_INDEX_KEY),
+                sideEffects,
+                new CustomerNameIndex(customerRepository),
+                new UserDetailsCache(300, 100));
+    }
+
+    @TearDown
+    public void tearDown() {
+        sideEffects.shutdown();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        String username = "legacy-" + sequence.incrementAndGet();
+        User user = User.builder().username(username).password(passwordEncoder.encode(PASSWORD)).build();
+        Customer customer = Customer.builder()
+                .username(username)
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName("Max")
+                .lastName("Mustermann")
+                .build();
+        legacyEncryptor.encrypt(username + "@example.com");
+        legacyEncryptor.encrypt("+49 30 12345678");
+        legacyEncryptor.encrypt("Hauptstraße 123, 10115 Berlin");
+        legacyEncryptor.encrypt("B123456789");
+        emailService.sendActivationEmail(username + "@example.com", "token");
+        auditService.logAction(username, "CUSTOMER_REGISTERED", "Customer", "1", "Kunde registriert", "127.0.0.1");
+        return user.getPassword().length() + customer.getPassword().length();
+    }
+
+    @Benchmark
+    public CustomerRegistration current() {
+        String username = "current-" + sequence.incrementAndGet();
+        return customerService.registerCustomer(username, PASSWORD, "Max", "Mustermann",
+                username + "@example.com", "+49 30 12345678", "Hauptstraße 123, 10115 Berlin",
+                "B123456789", "127.0.0.1");
+    }
+
+    private void simulateLatency() {
+        if (sideEffectLatencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sideEffectLatencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Minimales Repository: nichts gefunden, save vergibt IDs und gibt die Entität zurück
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T inMemoryRepository(Class<T> type) {
+        AtomicLong ids = new AtomicLong();
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "save" -> {
+                    if (args[0] instanceof Customer customer) {
+                        customer.setId(ids.incrementAndGet());
+                    }
+                    return args[0];
+                }
+                case "findByUsername" -> {
+                    return Optional.empty();
+                }
+                case "existsByEmailBlindIndex" -> {
+                    return false;
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                default -> {
+                    return null;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package de.rentacar.customer.infrastructure;
+
+import org.jasypt.encryption.StringEncryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleich alte PBE-Verschlüsselung (PBEWithMD5AndDES, Pool-Größe 1) gegen AES-GCM.
+ * Die Multi-Thread-Varianten zeigen die Serialisierung durch den einzelnen Encryptor.
+ * Ausführen mit: ./gradlew jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class EncryptionServiceBenchmark {
+
+    private static final String PASSWORD = "benchmark-secret";
+    private static final String PLAIN_TEXT = "max.mustermann@example.com";
+
+    private StringEncryptor legacyEncryptor;
+    private EncryptionService encryptionService;
+    private String legacyCipherText;
+    private String gcmCipherText;
+
+    @Setup
+    public void setUp() {
+        legacyEncryptor = EncryptionService.createLegacyEncryptor(PASSWORD, 1);
+        encryptionService = new EncryptionService(PASSWORD);
+        legacyCipherText = legacyEncryptor.encrypt(PLAIN_TEXT);
+        gcmCipherText = encryptionService.encrypt(PLAIN_TEXT);
+    }
+
+    @Benchmark
+    public String legacyEncrypt() {
+        return legacyEncryptor.encrypt(PLAIN_TEXT);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() {
+        return legacyEncryptor.decrypt(legacyCipherText);
+    }
+
+    @Benchmark
+    public String gcmEncrypt() {
+        return encryptionService.encrypt(PLAIN_TEXT);
+    }
+
+    @Benchmark
+    public String gcmDecrypt() {
+        return encryptionService.decrypt(gcmCipherText);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyDecryptContended() {
+        return legacyEncryptor.decrypt(legacyCipherText);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String gcmDecryptContended() {
+        return encryptionService.decrypt(gcmCipherText);
+    }
+}
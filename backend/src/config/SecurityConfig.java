@@ -1,7 +1,9 @@
 package de.rentacar.shared.security;
 
 import de.rentacar.security.UserRole; // Import der UserRole Enum
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,12 +14,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import java.time.Duration;
 import java.util.Arrays;
 
 /**
@@ -47,9 +50,18 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    /**
+     * BCrypt auf eigenem, begrenztem Pool (Threads = Kerne, sofern nicht konfiguriert).
+     * Wird der Work-Factor erhöht, werden bestehende Hashes beim nächsten Login neu erzeugt.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${rentacar.security.bcrypt.strength:10}") int strength,
+            @Value("${rentacar.security.bcrypt.threads:0}") int threads,
+            @Value("${rentacar.security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${rentacar.security.bcrypt.timeout-ms:2000}") long timeoutMillis) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity,
+                Duration.ofMillis(timeoutMillis));
     }
 
     @Bean
@@ -60,19 +72,30 @@ public class SecurityConfig {
     // CustomUserDetailsService wird als @Service automatisch als Bean registriert
     // und lädt Benutzer aus der Datenbank
 
+    /**
+     * rentacar.security.auth-mode=session (Standard): serverseitige Sessions.
+     * rentacar.security.auth-mode=token: zustandslos mit signierten Access-Tokens und Refresh-Tokens,
+     * jeder Knoten kann jede Anfrage bedienen (kein Session-Lookup, keine Bindung an eine Instanz).
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtTokenService jwtTokenService) throws Exception {
+        boolean tokenMode = jwtTokenService.isEnabled();
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource())) // CORS aktivieren
             .csrf(csrf -> csrf.disable()) // Für REST API, in Produktion sollte CSRF aktiviert sein
-            .sessionManagement(session -> session
-                .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED) // Session-Verwaltung durch Spring Security
-                .maximumSessions(1) // Nur eine aktive Session pro Benutzer
-                .maxSessionsPreventsLogin(false) // Neue Login-Versuche invalidieren alte Sessions
-                .and()
-                .sessionFixation().migrateSession() // Session-Fixation-Schutz
-                .invalidSessionUrl("/api/auth/login?expired=true") // URL bei abgelaufener Session
-            )
+            .sessionManagement(session -> {
+                if (tokenMode) {
+                    session.sessionCreationPolicy(SessionCreationPolicy.STATELESS); // Keine Sessions, kein SessionRegistry
+                    return;
+                }
+                session
+                    .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED) // Session-Verwaltung durch Spring Security
+                    .maximumSessions(1) // Nur eine aktive Session pro Benutzer
+                    .maxSessionsPreventsLogin(false) // Neue Login-Versuche invalidieren alte Sessions
+                    .and()
+                    .sessionFixation().migrateSession() // Session-Fixation-Schutz
+                    .invalidSessionUrl("/api/auth/login?expired=true"); // URL bei abgelaufener Session
+            })
             .formLogin(form -> form
                 .permitAll() // Erlaubt allen Zugriff auf die Login-Seite
             )
@@ -84,10 +107,14 @@ public class SecurityConfig {
                 .permitAll() // Erlaubt allen Zugriff auf die Logout-Funktion
             )
             .authorizeHttpRequests(authz -> authz
+                // Async-Dispatches (SSE) wurden bereits beim ursprünglichen Request autorisiert
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Öffentliche Endpunkte
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
                 .requestMatchers("/api/auth/login").permitAll() // Login-Endpunkt öffentlich
+                .requestMatchers(HttpMethod.POST, "/api/auth/token/refresh", "/api/auth/token/revoke").permitAll() // Refresh-Token genügt
                 .requestMatchers(HttpMethod.GET, "/api/assets/image").permitAll()
                 .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/assets/**").permitAll()
@@ -119,6 +146,10 @@ public class SecurityConfig {
             )
             .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable())); // Für H2 Console
 
+        if (tokenMode) {
+            http.addFilterBefore(new JwtAuthenticationFilter(jwtTokenService), UsernamePasswordAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -136,7 +167,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true); // Wichtig für Session-Cookies
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Retry-After"));
         configuration.setMaxAge(3600L);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,59 @@
+package de.rentacar.shared.infrastructure;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Gemeinsamer Session-Speicher für den Betrieb mehrerer Instanzen (rentacar.session.store=jdbc).
+ * Ohne diese Einstellung bleiben die Sessions wie bisher im Tomcat-Heap.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rentacar.session.store", havingValue = "jdbc")
+@EnableSpringHttpSession
+public class SessionStoreConfig {
+
+    @Bean
+    public JdbcSessionRepository sessionRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${server.servlet.session.timeout:30m}") Duration sessionTimeout,
+            @Value("${rentacar.session.cache-ttl-ms:5000}") long cacheTtlMillis,
+            @Value("${rentacar.session.max-cached-sessions:10000}") int maxCachedSessions,
+            ObjectProvider<Clock> clock) {
+        // Eigene Clock-Bean nur in Tests, sonst Systemzeit
+        JdbcSessionRepository repository = new JdbcSessionRepository(jdbcTemplate, sessionTimeout,
+                Duration.ofMillis(cacheTtlMillis), maxCachedSessions, clock.getIfAvailable(Clock::systemUTC));
+        repository.initializeSchema();
+        return repository;
+    }
+
+    /**
+     * maximumSessions(1) in SecurityConfig greift damit instanzübergreifend
+     */
+    @Bean
+    public SessionRegistry sessionRegistry(JdbcSessionRepository sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+
+    /**
+     * Cookie-Name wie bisher, damit Frontend und Logout (deleteCookies("JSESSIONID")) unverändert funktionieren
+     */
+    @Bean
+    public CookieSerializer cookieSerializer() {
+        DefaultCookieSerializer serializer = new DefaultCookieSerializer();
+        serializer.setCookieName("JSESSIONID");
+        serializer.setUseBase64Encoding(false);
+        return serializer;
+    }
+}
@@ -0,0 +1,133 @@
+package de.rentacar.shared.web;
+
+import de.rentacar.shared.domain.AuditLogFilter;
+import de.rentacar.shared.domain.AuditQueryService;
+import de.rentacar.shared.domain.AuditRetentionService;
+import de.rentacar.shared.domain.AuditService;
+import de.rentacar.shared.infrastructure.AuditLogWriter;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
+import de.rentacar.shared.service.AsyncSideEffectExecutor;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * REST Controller für das Audit-Log (nur Admin)
+ */
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AuditController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final AuditLogWriter auditLogWriter;
+    private final SegmentedAuditLog segmentedAuditLog;
+    private final AuditQueryService auditQueryService;
+    private final AuditService auditService;
+    private final AuditRetentionService auditRetentionService;
+    private final AsyncSideEffectExecutor sideEffects;
+
+    /**
+     * Suche mit Keyset-Pagination: nextCursor der Antwort als cursor der nächsten Anfrage übergeben
+     */
+    @GetMapping
+    public ResponseEntity<AuditQueryService.AuditPage> search(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String resourceType,
+            @RequestParam(required = false) String resourceId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        AuditLogFilter filter = new AuditLogFilter(from, to, username, action, resourceType, resourceId);
+        return ResponseEntity.ok(auditQueryService.search(filter, cursor, size));
+    }
+
+    /**
+     * CSV-Export für Prüfer; wird gestreamt und selbst im Audit-Log vermerkt
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String resourceType,
+            @RequestParam(required = false) String resourceId,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+        AuditLogFilter filter = new AuditLogFilter(from, to, username, action, resourceType, resourceId);
+        auditService.logAction(authentication.getName(), "AUDIT_LOG_EXPORTED", "AuditLog", null,
+                filter.toString(), httpRequest.getRemoteAddr());
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            auditQueryService.exportCsv(filter, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-log.csv\"")
+                .contentType(TEXT_CSV)
+                .body(body);
+    }
+
+    @GetMapping("/writer/stats")
+    public ResponseEntity<AuditLogWriter.AuditWriterStats> getWriterStats() {
+        return ResponseEntity.ok(auditLogWriter.getStats());
+    }
+
+    @GetMapping("/segments/stats")
+    public ResponseEntity<SegmentedAuditLog.SegmentStats> getSegmentStats() {
+        return ResponseEntity.ok(segmentedAuditLog.getStats());
+    }
+
+    /**
+     * Nach dem Commit ausgeführte Nebeneffekte; failed > 0 heißt Einträge in der Dead-Letter-Datei nachtragen
+     */
+    @GetMapping("/side-effects/stats")
+    public ResponseEntity<AsyncSideEffectExecutor.SideEffectStats> getSideEffectStats() {
+        return ResponseEntity.ok(sideEffects.getStats());
+    }
+
+    @GetMapping("/retention")
+    public ResponseEntity<AuditRetentionService.RetentionStats> getRetentionStats() {
+        return ResponseEntity.ok(auditRetentionService.getStats());
+    }
+
+    /**
+     * Startet die Archivierung sofort statt zum nächsten geplanten Lauf; Fortschritt über GET /retention
+     */
+    @PostMapping("/retention/run")
+    public ResponseEntity<?> runRetention(Authentication authentication, HttpServletRequest httpRequest) {
+        try {
+            auditRetentionService.start();
+            auditService.logAction(authentication.getName(), "AUDIT_LOG_ARCHIVE_STARTED", "AuditLog", null,
+                    null, httpRequest.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(auditRetentionService.getStats());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package de.rentacar.shared.security;
 
 import de.rentacar.shared.security.LoginAttemptService;
+import de.rentacar.shared.web.ApiRateLimiter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -23,8 +31,12 @@ import java.util.stream.Collectors;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
     private final LoginAttemptService loginAttemptService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final JwtTokenService jwtTokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final ApiRateLimiter apiRateLimiter;
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest request,
@@ -41,12 +53,8 @@ public class AuthController {
                 ));
             }
 
-            // Prüfe ob Benutzer existiert
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> {
-                        loginAttemptService.recordFailedAttempt(ipAddress, username);
-                        return new BadCredentialsException("User not found");
-                    });
+            // Benutzer laden (aus dem Cache; authenticate() unten trifft denselben Eintrag)
+            UserDetails user = userDetailsService.loadUserByUsername(username);
 
             // Prüfe ob Account aktiviert ist
             if (!user.isEnabled()) {
@@ -67,13 +75,26 @@ public class AuthController {
             // Create response
             Map<String, Object> response = new HashMap<>();
             response.put("username", user.getUsername());
-            response.put("roles", user.getRoles().stream()
-                    .map(Role::name)
+            response.put("roles", user.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
                     .collect(Collectors.toList()));
             response.put("authenticated", true);
 
+            // Token-Modus: zustandslose Tokens statt Session
+            if (jwtTokenService.isEnabled() && user instanceof RentACarUserDetails details) {
+                response.putAll(tokenResponse(details, refreshTokenService.issue(details.getUsername())));
+            }
+
             return ResponseEntity.ok(response);
-        } catch (BadCredentialsException e) {
+        } catch (PasswordHashingUnavailableException e) {
+            // Überlast ist kein Fehlversuch: nicht zählen, Client soll später erneut versuchen
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "authenticated", false,
+                            "error", e.getMessage()
+                    ));
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
             // Fehlgeschlagener Login: Versuch registrieren
             loginAttemptService.recordFailedAttempt(ipAddress, username);
             return ResponseEntity.status(401).body(Map.of(
@@ -92,6 +113,72 @@ public class AuthController {
         }
     }
 
+    /**
+     * Token-Modus: Refresh-Token einlösen; liefert neues Access- und Refresh-Token.
+     * Rollen und Aktivierungsstatus werden dabei neu geladen.
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody RefreshTokenRequest request) {
+        if (!jwtTokenService.isEnabled()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Token-Modus ist nicht aktiviert"));
+        }
+        try {
+            RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotate(request.refreshToken());
+            UserDetails user = userDetailsService.loadUserByUsername(rotated.username());
+            if (!user.isEnabled() || !(user instanceof RentACarUserDetails details)) {
+                refreshTokenService.revokeAll(rotated.username());
+                return ResponseEntity.status(401).body(Map.of("error", "Account ist nicht aktiviert"));
+            }
+            return ResponseEntity.ok(tokenResponse(details, rotated.refreshToken()));
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
+            return ResponseEntity.status(401).body(Map.of("error", "Ungültiges Refresh-Token"));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Gleichzeitiges Einlösen desselben Tokens: wie Wiederverwendung behandeln
+            refreshTokenService.revoke(request.refreshToken());
+            return ResponseEntity.status(401).body(Map.of("error", "Refresh-Token wurde bereits verwendet"));
+        }
+    }
+
+    /**
+     * Token-Modus: Abmelden durch Widerruf des Refresh-Tokens (Access-Token läuft kurzfristig ab)
+     */
+    @PostMapping("/token/revoke")
+    public ResponseEntity<Void> revokeToken(@RequestBody RefreshTokenRequest request) {
+        if (request.refreshToken() != null && !request.refreshToken().isBlank()) {
+            refreshTokenService.revoke(request.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/login-attempts/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoginAttemptService.LoginAttemptStats> getLoginAttemptStats() {
+        return ResponseEntity.ok(loginAttemptService.getStats());
+    }
+
+    @GetMapping("/password-hashing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BoundedPasswordEncoder.PasswordHashingStats> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+
+    @GetMapping("/rate-limit/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ApiRateLimiter.RateLimitStats>> getRateLimitStats() {
+        return ResponseEntity.ok(apiRateLimiter.getStats());
+    }
+
+    private Map<String, Object> tokenResponse(RentACarUserDetails user, String refreshToken) {
+        Map<String, Object> tokens = new HashMap<>();
+        tokens.put("tokenType", "Bearer");
+        tokens.put("accessToken", jwtTokenService.createAccessToken(user));
+        tokens.put("expiresIn", jwtTokenService.getAccessTokenTtl().toSeconds());
+        tokens.put("refreshToken", refreshToken);
+        return tokens;
+    }
+
     public record LoginRequest(String username, String password) {}
+
+    public record RefreshTokenRequest(String refreshToken) {}
 }
 
@@ -73,11 +73,10 @@ public class BookingController {
     }
 
     @PutMapping("/{id}/cancel")
-    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')") // CUSTOMER darf eigene Buchungen stornieren, EMPLOYEE/ADMIN alle
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN') or (hasRole('CUSTOMER') and @ownership.ownsBooking(authentication, #id))") // CUSTOMER darf eigene Buchungen stornieren, EMPLOYEE/ADMIN alle
     public ResponseEntity<Void> cancelBooking(@PathVariable Long id,
                                              Authentication authentication,
                                              HttpServletRequest httpRequest) {
-        // TODO: Zusätzliche Logik im Service, um sicherzustellen, dass CUSTOMER nur eigene Buchungen stornieren kann
         bookingService.cancelBooking(id, authentication.getName(), httpRequest.getRemoteAddr());
         return ResponseEntity.noContent().build();
     }
@@ -89,7 +88,7 @@ public class BookingController {
     }
 
     @GetMapping("/customer/{customerId}")
-    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN') or (hasRole('CUSTOMER') and #customerId == authentication.principal.id)") // CUSTOMER darf nur eigene Buchungen sehen
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN') or (hasRole('CUSTOMER') and @ownership.isCustomer(authentication, #customerId))") // CUSTOMER darf nur eigene Buchungen sehen
     public ResponseEntity<List<Booking>> getBookingHistory(@PathVariable Long customerId) {
         return ResponseEntity.ok(bookingService.getBookingHistory(customerId));
     }
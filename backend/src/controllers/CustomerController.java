@@ -1,10 +1,14 @@
 package de.rentacar.customer.web;
 
+import de.rentacar.customer.application.CustomerProfile;
+import de.rentacar.customer.application.CustomerRegistration;
 import de.rentacar.customer.application.CustomerService;
 import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerSummary;
 import de.rentacar.shared.validation.ValidPassword;
 import lombok.RequiredArgsConstructor;
-import de.rentacar.customer.infrastructure.EncryptionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,14 +29,15 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CustomerController {
 
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final CustomerService customerService;
-    private final EncryptionService encryptionService;
 
     @PostMapping("/register")
     // Keine @PreAuthorize, da dies für die Registrierung neuer Benutzer ist
     public ResponseEntity<Map<String, Object>> registerCustomer(@Valid @RequestBody RegisterCustomerRequest request,
                                                     HttpServletRequest httpRequest) {
-        Customer customer = customerService.registerCustomer(
+        CustomerRegistration registration = customerService.registerCustomer(
                 request.username(),
                 request.password(),
                 request.firstName(),
@@ -45,10 +50,10 @@ public class CustomerController {
         );
         
         // Für Entwicklung: Token in der Antwort zurückgeben (da DummyEmailService keine echten E-Mails sendet)
-        String activationToken = customerService.getActivationTokenForUser(customer.getUsername());
+        String activationToken = registration.activationToken();
         
         Map<String, Object> response = new HashMap<>();
-        response.put("customer", customer);
+        response.put("customer", registration.customer());
         response.put("activationToken", activationToken);
         response.put("activationLink", "http://localhost:3000/activate?token=" + activationToken);
         response.put("message", "Registrierung erfolgreich! Bitte aktivieren Sie Ihren Account.");
@@ -79,7 +84,7 @@ public class CustomerController {
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN') or (hasRole('CUSTOMER') and @customerService.getCustomerById(#id).username == authentication.name)")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN') or (hasRole('CUSTOMER') and @ownership.isCustomer(authentication, #id))")
     public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
         return ResponseEntity.ok(customerService.getCustomerById(id));
     }
@@ -96,43 +101,55 @@ public class CustomerController {
         return ResponseEntity.ok(customerService.getAllCustomers());
     }
 
+    @GetMapping("/summary")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN')") // Schlanke, seitenweise Kundenliste ohne verschlüsselte Felder
+    public ResponseEntity<CustomerSummaryPage> getCustomerSummaries(@RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "50") int size,
+                                                                    @RequestParam(defaultValue = "lastName") String sort,
+                                                                    @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        Page<CustomerSummary> result = customerService.getCustomerSummaries(page, size, sort, direction);
+        return ResponseEntity.ok(new CustomerSummaryPage(result.getContent(), result.getNumber(), result.getSize(),
+                result.getTotalElements(), result.getTotalPages()));
+    }
+
+    @PostMapping("/{id}/reveal")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN')") // Entschlüsselt genau einen Kunden, wird protokolliert
+    public ResponseEntity<CustomerDetailsResponse> revealCustomer(@PathVariable Long id,
+                                                                  Authentication authentication,
+                                                                  HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(toDetailsResponse(
+                customerService.revealCustomer(id, authentication.getName(), httpRequest.getRemoteAddr())));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN')") // Namenssuche am Schalter (Präfix und Tippfehler)
+    public ResponseEntity<List<Long>> searchCustomers(@RequestParam("q") String query,
+                                                      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(customerService.searchCustomerIds(query, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("/lookup")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN')") // Exakte Suche auf verschlüsselten Feldern über Blind-Index
+    public ResponseEntity<List<CustomerLookupResponse>> lookupCustomers(@RequestParam(required = false) String email,
+                                                                        @RequestParam(required = false) String driverLicenseNumber) {
+        boolean hasEmail = email != null && !email.isBlank();
+        boolean hasLicense = driverLicenseNumber != null && !driverLicenseNumber.isBlank();
+        if (hasEmail == hasLicense) {
+            throw new IllegalArgumentException("Genau einer der Parameter 'email' oder 'driverLicenseNumber' ist erforderlich");
+        }
+        List<Customer> customers = hasEmail
+                ? customerService.findCustomersByEmail(email)
+                : customerService.findCustomersByDriverLicense(driverLicenseNumber);
+        return ResponseEntity.ok(customers.stream().map(CustomerLookupResponse::of).toList());
+    }
+
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()") // Jeder authentifizierte Benutzer darf seine eigenen Details abrufen
     public ResponseEntity<CustomerDetailsResponse> getOwnDetails(Authentication authentication) {
         try {
-            String username = authentication.getName();
-            Customer customer = customerService.getCustomerByUsername(username);
-            
-            if (customer == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-            }
-            
-            String email = customer.getEmail() != null ? encryptionService.decrypt(customer.getEmail().getEncryptedValue()) : null;
-            String phone = customer.getPhone() != null ? encryptionService.decrypt(customer.getPhone().getEncryptedValue()) : null;
-            String address = customer.getAddress() != null ? encryptionService.decrypt(customer.getAddress().getEncryptedValue()) : null;
-            String license = customer.getDriverLicenseNumber() != null ? encryptionService.decrypt(customer.getDriverLicenseNumber().getEncryptedValue()) : null;
-
-            // Debug: Log die Customer-Daten
-            System.out.println("Customer ID: " + customer.getId());
-            System.out.println("Customer Username: " + customer.getUsername());
-            System.out.println("Customer FirstName: " + customer.getFirstName());
-            
-            CustomerDetailsResponse dto = new CustomerDetailsResponse(
-                    customer.getId(),
-                    customer.getFirstName(),
-                    customer.getLastName(),
-                    email,
-                    phone,
-                    address,
-                    license,
-                    customer.getUsername()
-            );
-            
-            System.out.println("CustomerDetailsResponse ID: " + dto.id());
-            return ResponseEntity.ok(dto);
+            CustomerProfile profile = customerService.getOwnProfile(authentication.getName());
+            return ResponseEntity.ok(toDetailsResponse(profile));
         } catch (IllegalArgumentException e) {
-            System.err.println("Error in getOwnDetails: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(null);
         } catch (Exception e) {
@@ -154,6 +171,19 @@ public class CustomerController {
         }
     }
 
+    private CustomerDetailsResponse toDetailsResponse(CustomerProfile profile) {
+        return new CustomerDetailsResponse(
+                profile.id(),
+                profile.firstName(),
+                profile.lastName(),
+                profile.email(),
+                profile.phone(),
+                profile.address(),
+                profile.driverLicenseNumber(),
+                profile.username()
+        );
+    }
+
     public record RegisterCustomerRequest(
             String username,
             @ValidPassword String password,
@@ -183,4 +213,27 @@ public class CustomerController {
             String driverLicenseNumber,
             String username
     ) {}
+
+    /**
+     * Treffer der Blind-Index-Suche: nur Identifikation, keine verschlüsselten Felder oder Blind-Indizes
+     */
+    public record CustomerLookupResponse(
+            Long id,
+            String firstName,
+            String lastName,
+            String username
+    ) {
+        static CustomerLookupResponse of(Customer customer) {
+            return new CustomerLookupResponse(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                    customer.getUsername());
+        }
+    }
+
+    public record CustomerSummaryPage(
+            List<CustomerSummary> content,
+            int page,
+            int size,
+            long totalElements,
+            int totalPages
+    ) {}
 }
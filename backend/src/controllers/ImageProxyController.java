@@ -1,97 +1,211 @@
 package de.rentacar.shared.web;
 
+import de.rentacar.shared.infrastructure.ImageCache;
+import de.rentacar.shared.infrastructure.ImageCache.CachedImage;
+import de.rentacar.shared.infrastructure.ImageFetcher;
+import de.rentacar.shared.infrastructure.ImageResizer;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
+import java.io.OutputStream;
+import java.net.URI;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Liefert entfernte Bilder über den eigenen Origin aus, um Browser-ORB/CORP-Blockaden zu vermeiden.
  * Warum: Einige CDNs setzen restriktive CORP-Header. Durch Proxy-Auslieferung vermeiden wir Cross-Origin-Probleme.
+ *
+ * Bilder werden im ImageCache gehalten; Antworten tragen ein starkes ETag und beantworten If-None-Match mit 304.
+ * Abgelaufene Einträge werden beim Upstream bedingt (If-None-Match/If-Modified-Since) revalidiert.
+ * Upstream-Abrufe laufen asynchron über den ImageFetcher, der Tomcat-Thread wartet nicht auf den Upstream.
+ * Mit width (und optional quality) wird eine verkleinerte Variante über den ImageResizer ausgeliefert.
  */
 @RestController
+@RequiredArgsConstructor
 public class ImageProxyController {
     private static final Logger log = LoggerFactory.getLogger(ImageProxyController.class);
 
-    private static final int MAX_BYTES = 2 * 1024 * 1024; // 2MB Limit
+    private static final String CACHE_CONTROL = "max-age=3600, public";
+    private static final int DEFAULT_QUALITY = 80;
+
+    private final ImageCache imageCache;
+    private final ImageFetcher imageFetcher;
+    private final ImageResizer imageResizer;
 
     /**
      * Proxy für Bild-URLs. Nur erlaubte Hosts werden bedient, um SSRF zu verhindern.
      */
     @GetMapping("/api/assets/image")
-    public ResponseEntity<byte[]> proxyImage(@RequestParam("url") String urlParam) {
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> proxyImage(
+            @RequestParam("url") String urlParam,
+            @RequestParam(value = "width", required = false) Integer width,
+            @RequestParam(value = "quality", required = false) Integer quality,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        URI uri;
         try {
-            URL url = new URL(urlParam);
-            String host = url.getHost().toLowerCase();
-            if (!(host.equals("images.unsplash.com") || host.equals("source.unsplash.com") || host.equals("picsum.photos") || host.equals("fastly.picsum.photos"))) {
-                log.warn("Blocked image proxy for host: {}", host);
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(("Host not allowed: " + host).getBytes(StandardCharsets.UTF_8));
+            uri = new URL(urlParam).toURI();
+        } catch (Exception ex) {
+            return CompletableFuture.completedFuture(proxyError(ex));
+        }
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase() : "";
+        if (!imageFetcher.isAllowed(uri)) {
+            log.warn("Blocked image proxy for host: {}", host);
+            return CompletableFuture.completedFuture(text(HttpStatus.FORBIDDEN, "Host not allowed: " + host));
+        }
+        Variant variant = width != null ? new Variant(width, quality != null ? quality : DEFAULT_QUALITY) : null;
+        if (variant != null) {
+            try {
+                ImageResizer.validate(variant.width(), variant.quality());
+            } catch (IllegalArgumentException ex) {
+                return CompletableFuture.completedFuture(text(HttpStatus.BAD_REQUEST, ex.getMessage()));
             }
+        }
 
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(3000);
-            conn.setReadTimeout(5000);
-            conn.setRequestProperty("Accept", "image/*");
-            conn.setRequestProperty("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36");
-            conn.setRequestProperty("Referer", "https://" + host + "/");
-            conn.setInstanceFollowRedirects(true);
-
-            int status = conn.getResponseCode();
-            if (status >= 300 && status < 400) {
-                String loc = conn.getHeaderField("Location");
-                conn.disconnect();
-                conn = (HttpURLConnection) new URL(loc).openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(3000);
-                conn.setReadTimeout(5000);
-                conn.setRequestProperty("Accept", "image/*");
-                conn.setRequestProperty("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36");
-                conn.setRequestProperty("Referer", "https://" + host + "/");
-                status = conn.getResponseCode();
-            }
+        Optional<CachedImage> cached = imageCache.get(urlParam);
+        if (cached.isPresent() && imageCache.isFresh(cached.get())) {
+            return deliver(cached.get(), variant, ifNoneMatch);
+        }
+        return imageFetcher.fetch(uri, cached.orElse(null))
+                .thenCompose(download -> handle(urlParam, download, cached.orElse(null), variant, ifNoneMatch))
+                .exceptionally(ImageProxyController::failure);
+    }
 
-            if (status >= 400) {
-                try (InputStream es = conn.getErrorStream()) {
-                    byte[] err = es != null ? StreamUtils.copyToByteArray(es) : ("HTTP " + status).getBytes(StandardCharsets.UTF_8);
-                    return ResponseEntity.status(status).body(err);
-                } finally {
-                    conn.disconnect();
-                }
-            }
+    private CompletableFuture<ResponseEntity<StreamingResponseBody>> handle(String url, ImageFetcher.Download download,
+                                                                            CachedImage cached, Variant variant,
+                                                                            String ifNoneMatch) {
+        if (download.status() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            return deliver(imageCache.revalidated(cached), variant, ifNoneMatch);
+        }
+        if (download.status() != HttpStatus.OK.value()) {
+            return CompletableFuture.completedFuture(text(download.status() >= 400
+                    ? HttpStatusCode.valueOf(download.status()) : HttpStatus.BAD_GATEWAY, "HTTP " + download.status()));
+        }
+        if (download.tooLarge()) {
+            return CompletableFuture.completedFuture(text(HttpStatus.PAYLOAD_TOO_LARGE, "Image too large"));
+        }
+        if (download.error() != null) {
+            return CompletableFuture.completedFuture(proxyError(download.error()));
+        }
+        try {
+            String contentType = download.contentType();
+            return deliver(imageCache.store(url, download.file(), download.digest(),
+                    contentType != null && contentType.startsWith("image/") ? contentType : null,
+                    download.upstreamEtag(), download.upstreamLastModified()), variant, ifNoneMatch);
+        } catch (IOException ex) {
+            download.discard();
+            return CompletableFuture.completedFuture(proxyError(ex));
+        }
+    }
+
+    /**
+     * Liefert das Original oder die angefragte Variante
+     */
+    private CompletableFuture<ResponseEntity<StreamingResponseBody>> deliver(CachedImage image, Variant variant,
+                                                                             String ifNoneMatch) {
+        if (variant == null) {
+            return CompletableFuture.completedFuture(respond(image, ifNoneMatch));
+        }
+        return imageResizer.resize(image, variant.width(), variant.quality())
+                .thenApply(resized -> respond(resized, ifNoneMatch))
+                .exceptionally(ImageProxyController::failure);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> failure(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        if (ex instanceof RejectedExecutionException) {
+            log.warn("Image resizing rejected: queue full");
+            return text(HttpStatus.SERVICE_UNAVAILABLE, "Image resizing busy");
+        }
+        return proxyError(ex);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> respond(CachedImage image, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(image.etag());
+        headers.add("Cache-Control", CACHE_CONTROL);
+        if (matches(ifNoneMatch, image.etag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(image.contentType() != null
+                ? MediaType.parseMediaType(image.contentType()) : MediaType.IMAGE_JPEG);
+        headers.setContentLength(image.size());
+        if (image.data() != null) {
+            byte[] data = image.data();
+            return new ResponseEntity<>(out -> out.write(data), headers, HttpStatus.OK);
+        }
+        // Datei jetzt öffnen: wird der Inhalt danach verdrängt, bleibt der offene Kanal lesbar
+        FileChannel file;
+        try {
+            file = FileChannel.open(image.file(), StandardOpenOption.READ);
+        } catch (IOException ex) {
+            return proxyError(ex);
+        }
+        return new ResponseEntity<>(out -> transfer(file, out), headers, HttpStatus.OK);
+    }
 
-            try (InputStream is = conn.getInputStream()) {
-                byte[] data = StreamUtils.copyToByteArray(is);
-                if (data.length > MAX_BYTES) {
-                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
-                            .body("Image too large".getBytes(StandardCharsets.UTF_8));
-                }
-                String contentType = conn.getContentType();
-                MediaType mt = (contentType != null && contentType.startsWith("image/")
-                        ? MediaType.parseMediaType(contentType) : MediaType.IMAGE_JPEG);
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(mt);
-                headers.add("Cache-Control", "max-age=3600, public");
-                return new ResponseEntity<>(data, headers, HttpStatus.OK);
-            } finally {
-                conn.disconnect();
+    /**
+     * Kopiert die Datei in den Antwort-Stream. StreamingResponseBody bietet nur einen OutputStream,
+     * daher ist das eine gepufferte Kopie und kein sendfile.
+     */
+    private static void transfer(FileChannel file, OutputStream out) throws IOException {
+        try (InputStream in = Channels.newInputStream(file)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * If-None-Match vergleicht schwach: W/-Präfix wird ignoriert, * passt immer
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
             }
-        } catch (Exception ex) {
-            log.error("Image proxy failed: {}", ex.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(("Image proxy error: " + ex.getMessage()).getBytes(StandardCharsets.UTF_8));
         }
+        return false;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> proxyError(Throwable ex) {
+        log.error("Image proxy failed: {}", ex.getMessage());
+        return text(HttpStatus.BAD_REQUEST, "Image proxy error: " + ex.getMessage());
+    }
+
+    private record Variant(int width, int quality) {}
+
+    private static ResponseEntity<StreamingResponseBody> text(HttpStatusCode status, String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(body));
     }
 }
@@ -0,0 +1,48 @@
+package de.rentacar.customer.web;
+
+import de.rentacar.customer.application.CustomerKeyRotationService;
+import de.rentacar.customer.domain.KeyRotationCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * REST Controller für die Schlüsselrotation der verschlüsselten Kundendaten (nur Admin)
+ */
+@RestController
+@RequestMapping("/api/customers/encryption/rotation")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class KeyRotationController {
+
+    private final CustomerKeyRotationService keyRotationService;
+
+    @PostMapping
+    public ResponseEntity<?> startRotation(Authentication authentication, HttpServletRequest httpRequest) {
+        try {
+            KeyRotationCheckpoint checkpoint = keyRotationService.start(authentication.getName(), httpRequest.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(checkpoint);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<KeyRotationCheckpoint> getRotationStatus() {
+        return keyRotationService.getStatus()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> cancelRotation() {
+        keyRotationService.cancel();
+        return ResponseEntity.accepted().build();
+    }
+}
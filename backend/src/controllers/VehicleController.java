@@ -1,6 +1,7 @@
 package de.rentacar.vehicle.web;
 
 import de.rentacar.vehicle.application.VehicleManagementService;
+import de.rentacar.vehicle.application.VehicleTelemetryService;
 import de.rentacar.shared.infrastructure.DataInitializer;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleType;
@@ -12,6 +13,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -22,7 +24,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VehicleController {
 
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final VehicleManagementService vehicleManagementService;
+    private final VehicleTelemetryService vehicleTelemetryService;
     private final DataInitializer dataInitializer;
 
     @PostMapping
@@ -109,11 +114,38 @@ public class VehicleController {
         return ResponseEntity.ok(vehicleManagementService.getAllVehicles());
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<Long>> searchVehicles(@RequestParam("q") String query,
+                                                     @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return ResponseEntity.ok(vehicleManagementService.searchVehicleIds(query, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("/by-plate/{plate}")
+    public ResponseEntity<Vehicle> getVehicleByLicensePlate(@PathVariable String plate) {
+        return ResponseEntity.ok(vehicleManagementService.getVehicleByLicensePlate(plate));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Vehicle> getVehicleById(@PathVariable Long id) {
         return ResponseEntity.ok(vehicleManagementService.getVehicleById(id));
     }
 
+    @PostMapping("/telemetry")
+    @PreAuthorize("hasAnyRole('EMPLOYEE','ADMIN')")
+    public ResponseEntity<VehicleTelemetryService.IngestionResult> ingestTelemetry(
+            @RequestBody List<TelemetryReadingRequest> readings) {
+        VehicleTelemetryService.IngestionResult result = vehicleTelemetryService.ingest(readings.stream()
+                .map(r -> new VehicleTelemetryService.MileageReading(r.vehicleId(), r.licensePlate(), r.mileage(), r.timestamp()))
+                .toList());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @GetMapping("/telemetry/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<VehicleTelemetryService.TelemetryStats> telemetryStats() {
+        return ResponseEntity.ok(vehicleTelemetryService.getStats());
+    }
+
     @PostMapping("/admin/reset")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> resetVehicles(Authentication authentication, HttpServletRequest httpRequest) {
@@ -152,6 +184,13 @@ public class VehicleController {
             List<String> imageGallery
     ) {}
 
+    public record TelemetryReadingRequest(
+            Long vehicleId,
+            String licensePlate,
+            Long mileage,
+            Instant timestamp
+    ) {}
+
     public record UpdateLocationRequest(
             String location
     ) {}
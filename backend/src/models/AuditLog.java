@@ -13,7 +13,11 @@ import java.time.LocalDateTime;
  * Audit-Log Entity für sicherheitsrelevante Aktionen (NFR5)
  */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_logs_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_audit_logs_resource", columnList = "resource_type, resource_id, timestamp"),
+        @Index(name = "idx_audit_logs_username", columnList = "username, timestamp")
+})
 @Getter
 @Setter
 @NoArgsConstructor
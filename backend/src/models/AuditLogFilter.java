@@ -0,0 +1,30 @@
+package de.rentacar.shared.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Suchkriterien für Audit-Einträge; null schränkt nicht ein. from ist inklusiv, to exklusiv.
+ */
+public record AuditLogFilter(
+        LocalDateTime from,
+        LocalDateTime to,
+        String username,
+        String action,
+        String resourceType,
+        String resourceId
+) {
+
+    public AuditLogFilter {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Ende des Zeitraums liegt vor dem Beginn");
+        }
+        username = blankToNull(username);
+        action = blankToNull(action);
+        resourceType = blankToNull(resourceType);
+        resourceId = blankToNull(resourceId);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,103 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.domain.AuditLog;
+import de.rentacar.shared.domain.AuditLogFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Suche in audit_logs mit Keyset-Pagination über (timestamp, id).
+ * Es werden nur die gesetzten Kriterien in die Abfrage übernommen, damit die zusammengesetzten
+ * Indizes auf AuditLog greifen; seitenweises Blättern kostet unabhängig von der Seitenzahl gleich viel.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogSearchRepository {
+
+    private static final String SELECT_SQL = "SELECT id, username, action, resource_type, resource_id, details, "
+            + "timestamp, ip_address, created_at, updated_at, version FROM audit_logs";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> {
+        AuditLog auditLog = AuditLog.builder()
+                .username(rs.getString("username"))
+                .action(rs.getString("action"))
+                .resourceType(rs.getString("resource_type"))
+                .resourceId(rs.getString("resource_id"))
+                .details(rs.getString("details"))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .ipAddress(rs.getString("ip_address"))
+                .build();
+        auditLog.setId(rs.getLong("id"));
+        auditLog.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        auditLog.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        auditLog.setVersion(rs.getLong("version"));
+        return auditLog;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Liefert bis zu limit Einträge aufsteigend nach (timestamp, id), beginnend nach dem Cursor
+     * (afterTimestamp/afterId, beide null für die erste Seite)
+     */
+    public List<AuditLog> search(AuditLogFilter filter, LocalDateTime afterTimestamp, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (filter.from() != null) {
+            sql.append(" AND timestamp >= ?");
+            parameters.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND timestamp < ?");
+            parameters.add(Timestamp.valueOf(filter.to()));
+        }
+        appendEquals(sql, parameters, "username", filter.username());
+        appendEquals(sql, parameters, "action", filter.action());
+        appendEquals(sql, parameters, "resource_type", filter.resourceType());
+        appendEquals(sql, parameters, "resource_id", filter.resourceId());
+        if (afterTimestamp != null && afterId != null) {
+            Timestamp after = Timestamp.valueOf(afterTimestamp);
+            sql.append(" AND (timestamp > ? OR (timestamp = ? AND id > ?))");
+            parameters.add(after);
+            parameters.add(after);
+            parameters.add(afterId);
+        }
+        sql.append(" ORDER BY timestamp, id LIMIT ?");
+        parameters.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, parameters.toArray());
+    }
+
+    /**
+     * Ältester Zeitpunkt in audit_logs (über den Zeitindex), null bei leerer Tabelle
+     */
+    public LocalDateTime findOldestTimestamp() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM audit_logs", Timestamp.class);
+        return oldest != null ? oldest.toLocalDateTime() : null;
+    }
+
+    /**
+     * Löscht die Einträge in einer eigenen kurzen Anweisung (ohne umgebende Transaktion)
+     */
+    public int deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM audit_logs WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    private static void appendEquals(StringBuilder sql, List<Object> parameters, String column, String value) {
+        if (value != null) {
+            sql.append(" AND ").append(column).append(" = ?");
+            parameters.add(value);
+        }
+    }
+}
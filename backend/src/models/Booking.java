@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
  * Aggregate Root für Buchungen (Booking Context)
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_customer_status", columnList = "customer_id, status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
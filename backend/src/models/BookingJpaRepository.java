@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JPA Repository Implementation (Infrastructure Layer)
@@ -15,6 +16,10 @@ import java.util.List;
 @Repository
 public interface BookingJpaRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByCustomerId(Long customerId);
+
+    @Query("SELECT b.customerId FROM Booking b WHERE b.id = :id")
+    Optional<Long> findCustomerIdById(@Param("id") Long id);
+
     List<Booking> findByVehicleId(Long vehicleId);
     @Query("SELECT b FROM Booking b JOIN FETCH b.vehicle WHERE b.customerId = :customerId")
     List<Booking> findByCustomerIdWithVehicle(@Param("customerId") Long customerId);
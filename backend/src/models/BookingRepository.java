@@ -10,6 +10,7 @@ import java.util.Optional;
 public interface BookingRepository {
     Booking save(Booking booking);
     Optional<Booking> findById(Long id);
+    Optional<Long> findCustomerIdById(Long id);
     List<Booking> findAll();
     List<Booking> findByCustomerId(Long customerId);
     List<Booking> findByCustomerIdWithVehicle(Long customerId);
@@ -28,6 +28,11 @@ public class BookingRepositoryImpl implements BookingRepository {
         return jpaRepository.findById(id);
     }
 
+    @Override
+    public Optional<Long> findCustomerIdById(Long id) {
+        return jpaRepository.findCustomerIdById(id);
+    }
+
     @Override
     public List<Booking> findAll() {
         return jpaRepository.findAll();
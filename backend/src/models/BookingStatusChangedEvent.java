@@ -0,0 +1,20 @@
+package de.rentacar.booking.domain;
+
+/**
+ * Domain Event: Statuswechsel einer Buchung (z.B. ANFRAGE -> BESTÄTIGT)
+ * previousStatus ist null, wenn die Buchung neu angelegt wurde.
+ */
+public record BookingStatusChangedEvent(
+        Long bookingId,
+        Long vehicleId,
+        BookingStatus previousStatus,
+        BookingStatus newStatus
+) {
+    public static BookingStatusChangedEvent of(Booking booking, BookingStatus previousStatus) {
+        return new BookingStatusChangedEvent(
+                booking.getId(),
+                booking.getVehicle() != null ? booking.getVehicle().getId() : null,
+                previousStatus,
+                booking.getStatus());
+    }
+}
@@ -1,6 +1,7 @@
 package de.rentacar.customer.domain;
 
 import de.rentacar.shared.domain.BaseEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,7 +9,10 @@ import lombok.*;
  * Aggregate Root für Kunden (Customer Context)
  */
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_email_bidx", columnList = "email_blind_index"),
+        @Index(name = "idx_customers_license_bidx", columnList = "license_blind_index")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,9 +42,24 @@ public class Customer extends BaseEntity {
     @AttributeOverride(name = "encryptedValue", column = @Column(name = "encrypted_license_number"))
     private EncryptedString driverLicenseNumber;
 
+    // Blind-Indizes (HMAC) für exakte Suche auf verschlüsselten Feldern
+    @JsonIgnore
+    @Column(name = "email_blind_index", length = 64)
+    private String emailBlindIndex;
+
+    @JsonIgnore
+    @Column(name = "license_blind_index", length = 64)
+    private String licenseBlindIndex;
+
+    // Schlüsselversion, mit der die Blind-Indizes berechnet wurden
+    @JsonIgnore
+    @Column(name = "blind_index_key_version", length = 16)
+    private String blindIndexKeyVersion;
+
     @Column(nullable = false, unique = true)
     private String username; // Für Login
 
+    @JsonIgnore
     @Column(nullable = false)
     private String password; // Sollte gehasht sein (BCrypt)
 
@@ -1,9 +1,18 @@
 package de.rentacar.customer.infrastructure;
 
+import de.rentacar.booking.domain.BookingStatus;
 import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerName;
+import de.rentacar.customer.domain.CustomerSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,5 +21,29 @@ import java.util.Optional;
 @Repository
 public interface CustomerJpaRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByUsername(String username);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    List<Customer> findByEmailBlindIndex(String emailBlindIndex);
+    List<Customer> findByLicenseBlindIndex(String licenseBlindIndex);
+    boolean existsByEmailBlindIndex(String emailBlindIndex);
+
+    // Nur Zeilen, deren Quellfeld gesetzt ist; Kunden ohne Führerschein/E-Mail nicht bei jedem Start erneut laden
+    @Query("SELECT c FROM Customer c "
+            + "WHERE (c.emailBlindIndex IS NULL AND c.email.encryptedValue IS NOT NULL) "
+            + "OR (c.licenseBlindIndex IS NULL AND c.driverLicenseNumber.encryptedValue IS NOT NULL) "
+            + "OR ((c.blindIndexKeyVersion IS NULL OR c.blindIndexKeyVersion <> :keyVersion) "
+            + "AND (c.email.encryptedValue IS NOT NULL OR c.driverLicenseNumber.encryptedValue IS NOT NULL))")
+    List<Customer> findWithStaleBlindIndex(@Param("keyVersion") String keyVersion);
+
+    @Query("SELECT new de.rentacar.customer.domain.CustomerName(c.id, c.firstName, c.lastName) FROM Customer c")
+    List<CustomerName> findAllNames();
+
+    @Query(value = "SELECT new de.rentacar.customer.domain.CustomerSummary(c.id, c.firstName, c.lastName, c.username, "
+            + "(SELECT COUNT(b) FROM Booking b WHERE b.customerId = c.id AND b.status IN :activeStatuses)) "
+            + "FROM Customer c",
+            countQuery = "SELECT COUNT(c) FROM Customer c")
+    Page<CustomerSummary> findSummaries(@Param("activeStatuses") Collection<BookingStatus> activeStatuses, Pageable pageable);
 }
 
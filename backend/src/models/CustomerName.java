@@ -0,0 +1,6 @@
+package de.rentacar.customer.domain;
+
+/**
+ * Minimale Projektion für den Aufbau des Namensindex
+ */
+public record CustomerName(Long id, String firstName, String lastName) {}
@@ -1,5 +1,8 @@
 package de.rentacar.customer.domain;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +13,13 @@ public interface CustomerRepository {
     Customer save(Customer customer);
     Optional<Customer> findById(Long id);
     Optional<Customer> findByUsername(String username);
+    Optional<Long> findIdByUsername(String username);
+    List<Customer> findByEmailBlindIndex(String emailBlindIndex);
+    List<Customer> findByLicenseBlindIndex(String licenseBlindIndex);
+    boolean existsByEmailBlindIndex(String emailBlindIndex);
+    List<Customer> findWithStaleBlindIndex(String keyVersion);
+    Page<CustomerSummary> findSummaries(Pageable pageable);
+    List<CustomerName> findAllNames();
     List<Customer> findAll();
     void deleteById(Long id);
 }
@@ -1,10 +1,16 @@
 package de.rentacar.customer.infrastructure;
 
+import de.rentacar.booking.domain.BookingStatus;
 import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerName;
 import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.customer.domain.CustomerSummary;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +21,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CustomerRepositoryImpl implements CustomerRepository {
 
+    private static final EnumSet<BookingStatus> ACTIVE_BOOKING_STATUSES =
+            EnumSet.of(BookingStatus.ANFRAGE, BookingStatus.BESTÄTIGT);
+
     private final CustomerJpaRepository jpaRepository;
 
     @Override
@@ -32,6 +41,41 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         return jpaRepository.findByUsername(username);
     }
 
+    @Override
+    public Optional<Long> findIdByUsername(String username) {
+        return jpaRepository.findIdByUsername(username);
+    }
+
+    @Override
+    public List<Customer> findByEmailBlindIndex(String emailBlindIndex) {
+        return jpaRepository.findByEmailBlindIndex(emailBlindIndex);
+    }
+
+    @Override
+    public List<Customer> findByLicenseBlindIndex(String licenseBlindIndex) {
+        return jpaRepository.findByLicenseBlindIndex(licenseBlindIndex);
+    }
+
+    @Override
+    public boolean existsByEmailBlindIndex(String emailBlindIndex) {
+        return jpaRepository.existsByEmailBlindIndex(emailBlindIndex);
+    }
+
+    @Override
+    public List<Customer> findWithStaleBlindIndex(String keyVersion) {
+        return jpaRepository.findWithStaleBlindIndex(keyVersion);
+    }
+
+    @Override
+    public Page<CustomerSummary> findSummaries(Pageable pageable) {
+        return jpaRepository.findSummaries(ACTIVE_BOOKING_STATUSES, pageable);
+    }
+
+    @Override
+    public List<CustomerName> findAllNames() {
+        return jpaRepository.findAllNames();
+    }
+
     @Override
     public List<Customer> findAll() {
         return jpaRepository.findAll();
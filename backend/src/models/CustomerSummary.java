@@ -0,0 +1,12 @@
+package de.rentacar.customer.domain;
+
+/**
+ * Schmale Lese-Projektion für Kundenlisten (ohne verschlüsselte Felder und Passwort-Hash)
+ */
+public record CustomerSummary(
+        Long id,
+        String firstName,
+        String lastName,
+        String username,
+        long activeBookingCount
+) {}
@@ -0,0 +1,49 @@
+package de.rentacar.customer.domain;
+
+import de.rentacar.shared.domain.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fortschritt einer Schlüsselrotation über die Kundentabelle.
+ * Wird je Chunk in derselben Transaktion wie die neu verschlüsselten Zeilen geschrieben,
+ * sodass ein abgebrochener Lauf exakt nach der letzten bestätigten Kunden-ID fortgesetzt werden kann.
+ */
+@Entity
+@Table(name = "key_rotation_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KeyRotationCheckpoint extends BaseEntity {
+
+    @Column(nullable = false, length = 50)
+    private String targetKeyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private KeyRotationStatus status;
+
+    @Column(nullable = false)
+    private Long lastProcessedId;
+
+    private long scannedRows;
+
+    private long reEncryptedRows;
+
+    private long conflictRows;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private String startedBy;
+}
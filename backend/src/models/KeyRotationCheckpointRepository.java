@@ -0,0 +1,14 @@
+package de.rentacar.customer.infrastructure;
+
+import de.rentacar.customer.domain.KeyRotationCheckpoint;
+import de.rentacar.customer.domain.KeyRotationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface KeyRotationCheckpointRepository extends JpaRepository<KeyRotationCheckpoint, Long> {
+    Optional<KeyRotationCheckpoint> findFirstByOrderByIdDesc();
+    Optional<KeyRotationCheckpoint> findFirstByTargetKeyIdAndStatusNotOrderByIdDesc(String targetKeyId, KeyRotationStatus status);
+}
@@ -0,0 +1,11 @@
+package de.rentacar.customer.domain;
+
+/**
+ * Status eines Schlüsselrotations-Laufs
+ */
+public enum KeyRotationStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -7,6 +7,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.util.Locale;
+
 /**
  * Value Object für Kennzeichen
  */
@@ -24,7 +26,14 @@ public class LicensePlate {
         if (value == null || value.trim().isEmpty()) {
             throw new IllegalArgumentException("Kennzeichen darf nicht leer sein");
         }
-        return new LicensePlate(value.trim().toUpperCase());
+        return new LicensePlate(normalize(value));
+    }
+
+    /**
+     * Normalisierung wie in of(); auch Schlüssel für Kennzeichen-Lookups
+     */
+    public static String normalize(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
     }
 
     @Override
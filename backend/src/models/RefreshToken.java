@@ -0,0 +1,45 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.shared.domain.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh-Token für den zustandslosen Token-Modus.
+ * Gespeichert wird nur der SHA-256-Hash des Tokens; jedes Token ist einmal verwendbar und wird
+ * beim Erneuern durch ein neues derselben Familie ersetzt (Rotation mit Wiederverwendungserkennung).
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken extends BaseEntity {
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    // Alle durch Rotation auseinander hervorgegangenen Tokens einer Anmeldung
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt;
+
+    public boolean isActive(LocalDateTime now) {
+        return revokedAt == null && now.isBefore(expiresAt);
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidationListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,7 +35,9 @@ public class Vehicle extends BaseEntity {
     @Column(name = "model_year")
     private Integer year;
 
-    @Column(nullable = false)
+    // Nicht per JPA-Update geschrieben: VehicleRepository erhöht den Stand monoton, damit ein
+    // veraltet geladenes Fahrzeug den Stand der Telemetrie nicht zurücksetzt
+    @Column(nullable = false, updatable = false)
     private Long mileage;
 
     @Column(nullable = false, length = 100)
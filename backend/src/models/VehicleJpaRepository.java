@@ -19,6 +19,9 @@ import java.util.Optional;
 @Repository
 public interface VehicleJpaRepository extends JpaRepository<Vehicle, Long> {
     Optional<Vehicle> findByLicensePlateValue(String licensePlate);
+
+    @Query("SELECT v.id, v.licensePlate.value FROM Vehicle v")
+    List<Object[]> findAllLicensePlates();
     
     List<Vehicle> findByType(VehicleType type);
     
@@ -2,6 +2,7 @@ package de.rentacar.vehicle.domain;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -11,11 +12,17 @@ public interface VehicleRepository {
     Vehicle save(Vehicle vehicle);
     Optional<Vehicle> findById(Long id);
     Optional<Vehicle> findByLicensePlate(LicensePlate licensePlate);
+    Optional<Long> findIdByLicensePlate(LicensePlate licensePlate);
     List<Vehicle> findAll();
     List<Vehicle> findByType(VehicleType type);
     List<Vehicle> findByStatus(VehicleStatus status);
     List<Vehicle> findByLocation(String location);
     List<Vehicle> findAvailableVehicles(VehicleType type, String location, LocalDate startDate, LocalDate endDate);
+    /**
+     * Setzt Kilometerstände mengenbasiert, aber nur wenn sie den gespeicherten Wert übersteigen
+     * @return Anzahl tatsächlich aktualisierter Fahrzeuge
+     */
+    int updateMileages(Map<Long, Long> mileageByVehicleId);
     void deleteById(Long id);
     void deleteAll();
 }
@@ -6,10 +6,15 @@ import de.rentacar.vehicle.domain.VehicleRepository;
 import de.rentacar.vehicle.domain.VehicleStatus;
 import de.rentacar.vehicle.domain.VehicleType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,11 +24,31 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class VehicleRepositoryImpl implements VehicleRepository {
 
+    private static final int MILEAGE_BATCH_SIZE = 500;
+
+    // Version bleibt unverändert: Telemetrie soll parallele Check-ins/Check-outs nicht mit
+    // OptimisticLockException scheitern lassen; der Stand steigt nur monoton. JPA schreibt mileage
+    // nie, sodass auch ein veraltet geladenes Fahrzeug den Stand nicht zurücksetzt
+    private static final String UPDATE_MILEAGE_SQL =
+            "UPDATE vehicles SET mileage = ?, updated_at = ? WHERE id = ? AND mileage < ?";
+
     private final VehicleJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LicensePlateCache licensePlateCache;
 
+    /**
+     * Speichert das Fahrzeug; der Kilometerstand wird bei bestehenden Fahrzeugen nur monoton erhöht
+     * (mileage ist für JPA nicht aktualisierbar, siehe Vehicle)
+     */
     @Override
     public Vehicle save(Vehicle vehicle) {
-        return jpaRepository.save(vehicle);
+        boolean existing = vehicle.getId() != null;
+        Vehicle savedVehicle = jpaRepository.save(vehicle);
+        if (existing && savedVehicle.getMileage() != null) {
+            updateMileages(Map.of(savedVehicle.getId(), savedVehicle.getMileage()));
+        }
+        licensePlateCache.put(savedVehicle);
+        return savedVehicle;
     }
 
     @Override
@@ -33,7 +58,31 @@ public class VehicleRepositoryImpl implements VehicleRepository {
 
     @Override
     public Optional<Vehicle> findByLicensePlate(LicensePlate licensePlate) {
-        return jpaRepository.findByLicensePlateValue(licensePlate.getValue());
+        Optional<Vehicle> cached = licensePlateCache.findVehicleId(licensePlate)
+                .flatMap(jpaRepository::findById)
+                .filter(vehicle -> licensePlate.equals(vehicle.getLicensePlate()));
+        if (cached.isPresent()) {
+            return cached;
+        }
+        // Veralteter Eintrag (z.B. nach Rollback) - aus dem Cache entfernen
+        licensePlateCache.evict(licensePlate);
+        return loadByLicensePlate(licensePlate);
+    }
+
+    @Override
+    public Optional<Long> findIdByLicensePlate(LicensePlate licensePlate) {
+        Optional<Long> cached = licensePlateCache.findVehicleId(licensePlate);
+        return cached.isPresent() ? cached : loadByLicensePlate(licensePlate).map(Vehicle::getId);
+    }
+
+    /**
+     * Cache-Miss: ein anderer Knoten kann das Fahrzeug angelegt haben, daher die Datenbank fragen.
+     * Nur Treffer werden gecacht, damit ein später angelegtes Kennzeichen sofort gefunden wird
+     */
+    private Optional<Vehicle> loadByLicensePlate(LicensePlate licensePlate) {
+        Optional<Vehicle> vehicle = jpaRepository.findByLicensePlateValue(licensePlate.getValue());
+        vehicle.ifPresent(licensePlateCache::put);
+        return vehicle;
     }
 
     @Override
@@ -62,13 +111,34 @@ public class VehicleRepositoryImpl implements VehicleRepository {
                 VehicleStatus.VERFÜGBAR, de.rentacar.booking.domain.BookingStatus.BESTÄTIGT);
     }
 
+    @Override
+    public int updateMileages(Map<Long, Long> mileageByVehicleId) {
+        if (mileageByVehicleId.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_MILEAGE_SQL, mileageByVehicleId.entrySet(), MILEAGE_BATCH_SIZE,
+                (ps, entry) -> {
+                    ps.setLong(1, entry.getValue());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, entry.getKey());
+                    ps.setLong(4, entry.getValue());
+                });
+        return (int) Arrays.stream(counts)
+                .flatMapToInt(Arrays::stream)
+                .filter(count -> count > 0)
+                .count();
+    }
+
     @Override
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
+        licensePlateCache.evictVehicle(id);
     }
 
     @Override
     public void deleteAll() {
         jpaRepository.deleteAll();
+        licensePlateCache.invalidate();
     }
 }
@@ -0,0 +1,20 @@
+package de.rentacar.vehicle.domain;
+
+/**
+ * Domain Event: Statuswechsel eines Fahrzeugs (z.B. VERFÜGBAR -> VERMIETET)
+ * previousStatus ist null, wenn das Fahrzeug neu angelegt wurde.
+ */
+public record VehicleStatusChangedEvent(
+        Long vehicleId,
+        String licensePlate,
+        VehicleStatus previousStatus,
+        VehicleStatus newStatus
+) {
+    public static VehicleStatusChangedEvent of(Vehicle vehicle, VehicleStatus previousStatus) {
+        return new VehicleStatusChangedEvent(
+                vehicle.getId(),
+                vehicle.getLicensePlate() != null ? vehicle.getLicensePlate().getValue() : null,
+                previousStatus,
+                vehicle.getStatus());
+    }
+}
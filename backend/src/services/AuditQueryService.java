@@ -0,0 +1,135 @@
+package de.rentacar.shared.domain;
+
+import de.rentacar.shared.infrastructure.AuditLogSearchRepository;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Domain Service für die Audit-Suche (nur Admin) mit Keyset-Pagination und CSV-Export.
+ * Sucht im aktiven Speicher (rentacar.audit.store): Tabelle audit_logs oder Segmentdateien.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditQueryService {
+
+    static final int MAX_PAGE_SIZE = 500;
+    static final int EXPORT_PAGE_SIZE = 1000;
+
+    static final String CSV_HEADER = "id,timestamp,username,action,resourceType,resourceId,ipAddress,details\n";
+
+    private final AuditLogSearchRepository searchRepository;
+    private final SegmentedAuditLog segmentedAuditLog;
+
+    /**
+     * Liefert eine Seite aufsteigend nach Zeitpunkt. nextCursor ist null, wenn keine weiteren Einträge folgen.
+     *
+     * @throws IllegalArgumentException bei ungültigem Cursor
+     */
+    public AuditPage search(AuditLogFilter filter, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<AuditLog> items = fetch(filter, Cursor.decode(cursor), limit + 1);
+        if (items.size() <= limit) {
+            return new AuditPage(items, null);
+        }
+        List<AuditLog> page = items.subList(0, limit);
+        return new AuditPage(List.copyOf(page), Cursor.of(page.get(limit - 1)).encode());
+    }
+
+    /**
+     * Schreibt alle passenden Einträge als CSV. Es wird seitenweise gelesen und nach jeder Seite
+     * geflusht, der Heap hält also nie mehr als eine Seite.
+     *
+     * @return Anzahl exportierter Einträge
+     */
+    public long exportCsv(AuditLogFilter filter, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        long exported = 0;
+        Cursor after = null;
+        while (true) {
+            List<AuditLog> page = fetch(filter, after, EXPORT_PAGE_SIZE);
+            for (AuditLog auditLog : page) {
+                writeCsvRow(writer, auditLog);
+            }
+            exported += page.size();
+            writer.flush();
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                return exported;
+            }
+            after = Cursor.of(page.get(page.size() - 1));
+        }
+    }
+
+    private List<AuditLog> fetch(AuditLogFilter filter, Cursor after, int limit) {
+        if (segmentedAuditLog.isEnabled()) {
+            return segmentedAuditLog.scan(filter, after != null ? after.id() : -1, limit);
+        }
+        return searchRepository.search(filter, after != null ? after.timestamp() : null,
+                after != null ? after.id() : null, limit);
+    }
+
+    static void writeCsvRow(Writer writer, AuditLog auditLog) throws IOException {
+        writer.write(String.valueOf(auditLog.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(auditLog.getTimestamp()));
+        for (String value : new String[]{auditLog.getUsername(), auditLog.getAction(), auditLog.getResourceType(),
+                auditLog.getResourceId(), auditLog.getIpAddress(), auditLog.getDetails()}) {
+            writer.write(',');
+            writer.write(csvValue(value));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Maskiert Trennzeichen und verhindert Formel-Injection beim Öffnen in Tabellenkalkulationen
+     */
+    static String csvValue(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String escaped = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (escaped.contains(",") || escaped.contains("\"") || escaped.contains("\n") || escaped.contains("\r")) {
+            return "\"" + escaped.replace("\"", "\"\"") + "\"";
+        }
+        return escaped;
+    }
+
+    /**
+     * Keyset-Cursor: Zeitpunkt und ID des letzten Eintrags der vorherigen Seite
+     */
+    record Cursor(LocalDateTime timestamp, long id) {
+
+        static Cursor of(AuditLog auditLog) {
+            return new Cursor(auditLog.getTimestamp(), auditLog.getId());
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Ungültiger Cursor");
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public record AuditPage(List<AuditLog> items, String nextCursor) {}
+}
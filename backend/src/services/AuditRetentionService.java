@@ -0,0 +1,365 @@
+package de.rentacar.shared.domain;
+
+import de.rentacar.shared.infrastructure.AuditLogSearchRepository;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Domain Service für die Aufbewahrung des Audit-Logs (NFR5).
+ *
+ * Die Tabelle audit_logs wird in Kalendermonate eingeteilt (über den Index auf timestamp; H2 kennt
+ * keine deklarative Partitionierung). Monate, die vollständig vor der Aufbewahrungsfrist liegen, werden
+ * in kleinen Batches als gzip-CSV nach archive-directory/audit_logs-JJJJ-MM.csv.gz geschrieben und
+ * danach aus der Tabelle gelöscht. Jeder Batch ist ein eigenes gzip-Member; eine Checkpoint-Datei hält
+ * Archivlänge und letzten archivierten Eintrag fest, sodass nach einem Abbruch weder Einträge fehlen
+ * noch doppelt archiviert werden. Gelöscht wird je Batch in einer kurzen Anweisung mit Pause dazwischen,
+ * laufende Schreibzugriffe (aktueller Monat) werden nicht blockiert.
+ *
+ * Bei rentacar.audit.store=segments werden zusätzlich alte Segmente komprimiert ins Archiv verschoben.
+ *
+ * Die Archivierung ist opt-in (enabled=false) und läuft auf einem eigenen Thread, nicht auf dem
+ * gemeinsamen Scheduler-Thread. Je Lauf werden höchstens max-batches-per-run Batches verarbeitet;
+ * ein größerer Rückstand wird in den folgenden Läufen abgebaut.
+ */
+@Service
+@Slf4j
+public class AuditRetentionService {
+
+    private final AuditLogSearchRepository searchRepository;
+    private final SegmentedAuditLog segmentedAuditLog;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final Path archiveDirectory;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final int maxBatchesPerRun;
+    private final Clock clock;
+    private final ExecutorService executor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+    private int batchesLeft;
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong archivedSegments = new AtomicLong();
+    private volatile RetentionRun lastRun;
+
+    @Autowired
+    public AuditRetentionService(AuditLogSearchRepository searchRepository,
+                                 SegmentedAuditLog segmentedAuditLog,
+                                 @Value("${rentacar.audit.retention.enabled:false}") boolean enabled,
+                                 @Value("${rentacar.audit.retention.months:12}") int retentionMonths,
+                                 @Value("${rentacar.audit.retention.archive-directory:./data/audit-archive}") String archiveDirectory,
+                                 @Value("${rentacar.audit.retention.batch-size:1000}") int batchSize,
+                                 @Value("${rentacar.audit.retention.batch-pause-ms:50}") long batchPauseMs,
+                                 @Value("${rentacar.audit.retention.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this(searchRepository, segmentedAuditLog, enabled, retentionMonths, Paths.get(archiveDirectory), batchSize,
+                batchPauseMs, maxBatchesPerRun, Clock.systemDefaultZone());
+    }
+
+    AuditRetentionService(AuditLogSearchRepository searchRepository, SegmentedAuditLog segmentedAuditLog,
+                          boolean enabled, int retentionMonths, Path archiveDirectory, int batchSize,
+                          long batchPauseMs, int maxBatchesPerRun, Clock clock) {
+        this.searchRepository = searchRepository;
+        this.segmentedAuditLog = segmentedAuditLog;
+        this.enabled = enabled;
+        this.retentionMonths = Math.max(1, retentionMonths);
+        this.archiveDirectory = archiveDirectory;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPauseMs = batchPauseMs;
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Übergibt den Lauf nur an den eigenen Thread, damit der gemeinsame Scheduler-Thread frei bleibt
+     */
+    @Scheduled(fixedDelayString = "${rentacar.audit.retention.interval-ms:3600000}",
+            initialDelayString = "${rentacar.audit.retention.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        if (enabled && !running.get()) {
+            try {
+                start();
+            } catch (IllegalStateException e) {
+                log.debug("Archivierung nicht gestartet: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Startet einen Lauf im Hintergrund
+     *
+     * @throws IllegalStateException wenn die Archivierung deaktiviert ist, bereits läuft oder der Dienst beendet wird
+     */
+    public void start() {
+        if (!enabled) {
+            throw new IllegalStateException("Archivierung ist deaktiviert (rentacar.audit.retention.enabled)");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Archivierung läuft bereits");
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    archive();
+                } catch (RuntimeException e) {
+                    log.error("Archivierung des Audit-Logs fehlgeschlagen", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw new IllegalStateException("Archivierung wird beendet", e);
+        }
+    }
+
+    /**
+     * Archiviert Einträge vor der Aufbewahrungsgrenze im aufrufenden Thread, höchstens max-batches-per-run Batches
+     *
+     * @throws IllegalStateException wenn bereits eine Archivierung läuft
+     */
+    RetentionRun run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Archivierung läuft bereits");
+        }
+        try {
+            return archive();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+    }
+
+    private RetentionRun archive() {
+        try {
+            LocalDateTime cutoff = cutoff();
+            Files.createDirectories(archiveDirectory);
+            int segments = segmentedAuditLog.archiveSegmentsBefore(cutoff, archiveDirectory.resolve("segments"));
+            archivedSegments.addAndGet(segments);
+
+            batchesLeft = maxBatchesPerRun;
+            long rows = 0;
+            int months = 0;
+            LocalDateTime oldest;
+            while (hasBudget() && (oldest = oldestBefore(cutoff)) != null) {
+                YearMonth month = YearMonth.from(oldest);
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                rows += archiveMonth(month, monthEnd.isBefore(cutoff) ? monthEnd : cutoff);
+                months++;
+            }
+            boolean complete = oldestBefore(cutoff) == null;
+            RetentionRun run = new RetentionRun(LocalDateTime.now(clock), cutoff, months, rows, segments, complete);
+            lastRun = run;
+            if (rows > 0 || segments > 0) {
+                log.info("Audit-Log archiviert: {} Einträge aus {} Monaten, {} Segmente (vor {}){}",
+                        rows, months, segments, cutoff, complete ? "" : ", Rest folgt im nächsten Lauf");
+            }
+            return run;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Audit-Archiv konnte nicht geschrieben werden", e);
+        }
+    }
+
+    private LocalDateTime oldestBefore(LocalDateTime cutoff) {
+        LocalDateTime oldest = searchRepository.findOldestTimestamp();
+        return oldest != null && oldest.isBefore(cutoff) ? oldest : null;
+    }
+
+    private boolean hasBudget() {
+        return batchesLeft > 0 && !stopping;
+    }
+
+    public RetentionStats getStats() {
+        return new RetentionStats(enabled, retentionMonths, cutoff(), running.get(), archivedRows.get(),
+                archivedSegments.get(), lastRun);
+    }
+
+    /**
+     * Beginn des ältesten aufbewahrten Monats: der laufende Monat und die retentionMonths - 1 davor bleiben
+     */
+    LocalDateTime cutoff() {
+        return YearMonth.now(clock).minusMonths(retentionMonths - 1L).atDay(1).atStartOfDay();
+    }
+
+    private long archiveMonth(YearMonth month, LocalDateTime end) throws IOException {
+        Path archive = archiveDirectory.resolve("audit_logs-" + month + ".csv.gz");
+        Path checkpointFile = archiveDirectory.resolve("audit_logs-" + month + ".checkpoint");
+        AuditLogFilter range = new AuditLogFilter(month.atDay(1).atStartOfDay(), end, null, null, null, null);
+
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        if (checkpoint != null) {
+            resume(archive, range, checkpoint);
+        } else {
+            checkpoint = new Checkpoint(Files.exists(archive) ? Files.size(archive) : 0, null, null);
+            checkpoint.write(checkpointFile);
+        }
+
+        long archived = 0;
+        List<AuditLog> batch;
+        while (!(batch = searchRepository.search(range, null, null, batchSize)).isEmpty()) {
+            if (!hasBudget()) {
+                // Checkpoint bleibt stehen, der nächste Lauf setzt dort fort
+                log.debug("Audit-Monat {}: {} Einträge archiviert, Budget des Laufs erschöpft", month, archived);
+                return archived;
+            }
+            batchesLeft--;
+            long length = appendMember(archive, batch);
+            AuditLog last = batch.get(batch.size() - 1);
+            new Checkpoint(length, last.getTimestamp(), last.getId()).write(checkpointFile);
+            searchRepository.deleteByIds(batch.stream().map(AuditLog::getId).toList());
+            archived += batch.size();
+            archivedRows.addAndGet(batch.size());
+            pause();
+        }
+        Files.deleteIfExists(checkpointFile);
+        log.debug("Audit-Monat {} archiviert: {} Einträge", month, archived);
+        return archived;
+    }
+
+    /**
+     * Nach einem Abbruch: unvollständiges gzip-Member abschneiden und bereits archivierte,
+     * aber noch nicht gelöschte Einträge entfernen
+     */
+    private void resume(Path archive, AuditLogFilter range, Checkpoint checkpoint) throws IOException {
+        if (Files.exists(archive) && Files.size(archive) > checkpoint.archiveLength()) {
+            try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.WRITE)) {
+                channel.truncate(checkpoint.archiveLength());
+            }
+            log.warn("Unvollständigen Batch in {} verworfen", archive.getFileName());
+        }
+        if (checkpoint.timestamp() == null) {
+            return;
+        }
+        List<AuditLog> batch;
+        do {
+            batch = searchRepository.search(range, null, null, batchSize);
+            List<Long> alreadyArchived = batch.stream()
+                    .filter(entry -> !checkpoint.isBefore(entry))
+                    .map(AuditLog::getId)
+                    .toList();
+            searchRepository.deleteByIds(alreadyArchived);
+            if (alreadyArchived.size() < batch.size()) {
+                return;
+            }
+        } while (!batch.isEmpty());
+    }
+
+    /**
+     * Hängt den Batch als eigenes gzip-Member an und schreibt ihn auf den Datenträger
+     *
+     * @return neue Länge der Archivdatei
+     */
+    private static long appendMember(Path archive, List<AuditLog> batch) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            boolean first = channel.size() == 0;
+            GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            if (first) {
+                writer.write(AuditQueryService.CSV_HEADER);
+            }
+            for (AuditLog auditLog : batch) {
+                AuditQueryService.writeCsvRow(writer, auditLog);
+            }
+            writer.flush();
+            gzip.finish();
+            channel.force(true);
+            return channel.size();
+        }
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fortschritt je Monat: Länge der Archivdatei nach dem letzten vollständigen Batch und dessen letzter Eintrag
+     */
+    record Checkpoint(long archiveLength, LocalDateTime timestamp, Long id) {
+
+        boolean isBefore(AuditLog entry) {
+            int compared = timestamp.compareTo(entry.getTimestamp());
+            return compared < 0 || (compared == 0 && id < entry.getId());
+        }
+
+        static Checkpoint read(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            String[] parts = Files.readString(file, StandardCharsets.UTF_8).trim().split("\\|", -1);
+            return new Checkpoint(Long.parseLong(parts[0]),
+                    parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]),
+                    parts[2].isEmpty() ? null : Long.valueOf(parts[2]));
+        }
+
+        void write(Path file) throws IOException {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, archiveLength + "|" + (timestamp != null ? timestamp : "") + "|"
+                    + (id != null ? id : ""), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * complete ist false, wenn das Batch-Budget des Laufs vor dem Ende des Rückstands erschöpft war
+     */
+    public record RetentionRun(LocalDateTime finishedAt, LocalDateTime cutoff, int months, long rows, int segments,
+                               boolean complete) {}
+
+    public record RetentionStats(
+            boolean enabled,
+            int retentionMonths,
+            LocalDateTime cutoff,
+            boolean running,
+            long archivedRows,
+            long archivedSegments,
+            RetentionRun lastRun
+    ) {}
+}
@@ -1,21 +1,37 @@
 package de.rentacar.shared.domain;
 
 import de.rentacar.shared.infrastructure.AuditLogRepository;
+import de.rentacar.shared.infrastructure.AuditLogWriter;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Domain Service für Audit-Logging (NFR5)
+ * Domain Service für Audit-Logging (NFR5).
+ * Speicherung je nach rentacar.audit.store in Segmentdateien ({@link SegmentedAuditLog}) oder in
+ * der Tabelle audit_logs, dort je nach rentacar.audit.mode direkt per JPA in der laufenden Transaktion
+ * oder über den gepufferten {@link AuditLogWriter}.
  */
 @Service
 @RequiredArgsConstructor
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final SegmentedAuditLog segmentedAuditLog;
 
-    @Transactional
+    /**
+     * Im Modus sync nimmt der Eintrag an der laufenden Transaktion teil (save ist selbst transaktional)
+     */
     public void logAction(String username, String action, String resourceType, String resourceId, String details, String ipAddress) {
+        if (segmentedAuditLog != null && segmentedAuditLog.isEnabled()) {
+            segmentedAuditLog.append(username, action, resourceType, resourceId, details, ipAddress);
+            return;
+        }
+        if (auditLogWriter != null && auditLogWriter.isBuffered()) {
+            auditLogWriter.append(username, action, resourceType, resourceId, details, ipAddress);
+            return;
+        }
         AuditLog auditLog = AuditLog.builder()
                 .username(username)
                 .action(action)
@@ -27,4 +43,3 @@ public class AuditService {
         auditLogRepository.save(auditLog);
     }
 }
-
@@ -0,0 +1,107 @@
+package de.rentacar.customer.infrastructure;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Berechnet Blind-Indizes (HMAC-SHA256 mit eigenem Schlüssel) für verschlüsselte Kundenfelder.
+ * Da die Chiffrate zufällig gesalzen sind, ermöglichen erst diese deterministischen Werte eine
+ * exakte Suche per indiziertem Datenbankzugriff, ohne den Klartext zu speichern.
+ * Der Schlüssel (rentacar.customer.blind-index-key, mindestens 32 Byte) ist Pflicht und unabhängig vom
+ * Verschlüsselungspasswort. Jeder Index wird mit der Schlüsselversion gespeichert; nach einem
+ * Schlüsselwechsel berechnet CustomerService beim Start alle Indizes neu.
+ */
+@Service
+public class BlindIndexService {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] KEY_CONTEXT = "rentacar-blind-index-v1".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VERSION_CONTEXT = "rentacar-blind-index-version".getBytes(StandardCharsets.UTF_8);
+    static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final String keyVersion;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    /**
+     * @throws IllegalStateException wenn kein oder ein zu kurzer Schlüssel konfiguriert ist
+     */
+    public BlindIndexService(@Value("${rentacar.customer.blind-index-key:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("rentacar.customer.blind-index-key (RENTACAR_BLIND_INDEX_KEY) muss gesetzt sein");
+        }
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                    "rentacar.customer.blind-index-key muss mindestens " + MIN_SECRET_BYTES + " Byte lang sein");
+        }
+        // Eigener Schlüssel je Zweck: aus dem Geheimnis abgeleitet, nie identisch mit dem Verschlüsselungsschlüssel
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM),
+                KEY_CONTEXT), MAC_ALGORITHM);
+        // Fingerabdruck des Schlüssels, verrät den Schlüssel selbst nicht
+        this.keyVersion = Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(key, VERSION_CONTEXT))
+                .substring(0, 16);
+    }
+
+    /**
+     * Version des aktuellen Schlüssels; Indizes mit anderer Version sind veraltet
+     */
+    public String getKeyVersion() {
+        return keyVersion;
+    }
+
+    /**
+     * Blind-Index für E-Mail-Adressen (Groß-/Kleinschreibung und Leerzeichen am Rand ignoriert)
+     */
+    public String emailIndex(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return compute("email", email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Blind-Index für Führerscheinnummern (Leerzeichen und Bindestriche ignoriert)
+     */
+    public String driverLicenseIndex(String driverLicenseNumber) {
+        if (driverLicenseNumber == null || driverLicenseNumber.isBlank()) {
+            return null;
+        }
+        return compute("license", driverLicenseNumber.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT));
+    }
+
+    private String compute(String field, String normalizedValue) {
+        // Feldname fließt ein, damit gleiche Werte in verschiedenen Spalten nicht korrelierbar sind
+        Mac mac = macs.get();
+        mac.update(field.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        byte[] digest = mac.doFinal(normalizedValue.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC nicht verfügbar", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC nicht verfügbar", e);
+        }
+    }
+}
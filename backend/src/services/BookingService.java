@@ -5,8 +5,11 @@ import de.rentacar.customer.domain.CustomerRepository;
 import de.rentacar.shared.domain.AuditService;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleRepository;
+import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
 import de.rentacar.vehicle.domain.VehicleType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +30,7 @@ public class BookingService {
     private final PriceCalculationService priceCalculationService;
     private final AvailabilityService availabilityService;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Use Case: Fahrzeuge suchen (Zeitraum, Typ, Standort)
@@ -92,10 +96,13 @@ public class BookingService {
                 String.format("Buchung erstellt für Fahrzeug %s", vehicle.getLicensePlate()),
                 ipAddress);
 
+        VehicleStatus previousVehicleStatus = vehicle.getStatus();
         savedBooking.confirm();
         vehicle.markAsRented();
         bookingRepository.save(savedBooking);
         vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(savedBooking, null));
+        publishVehicleStatusChange(vehicle, previousVehicleStatus);
 
         auditService.logAction(username, "BOOKING_CONFIRMED", "Booking",
                 savedBooking.getId() != null ? savedBooking.getId().toString() : "NEW",
@@ -194,11 +201,16 @@ public class BookingService {
         booking.setDamageCost(dmgCost);
         booking.setExtraMileageCost(extraMileage);
         booking.setLateFee(lateFee);
+        BookingStatus previousBookingStatus = booking.getStatus();
         booking.setStatus(de.rentacar.booking.domain.BookingStatus.ABGESCHLOSSEN);
 
+        VehicleStatus previousVehicleStatus = vehicle.getStatus();
         vehicle.updateMileage(mileage.longValue());
         vehicle.markAsAvailable();
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        publishBookingStatusChange(savedBooking, previousBookingStatus);
+        publishVehicleStatusChange(vehicle, previousVehicleStatus);
+        return savedBooking;
     }
 
     public java.util.List<Booking> getReturnsForDate(LocalDate date) {
@@ -219,11 +231,15 @@ public class BookingService {
             throw new IllegalStateException("Fahrzeug ist nicht mehr verfügbar");
         }
 
+        BookingStatus previousBookingStatus = booking.getStatus();
+        VehicleStatus previousVehicleStatus = booking.getVehicle().getStatus();
         booking.confirm();
         booking.getVehicle().markAsRented();
         
         bookingRepository.save(booking);
         vehicleRepository.save(booking.getVehicle());
+        publishBookingStatusChange(booking, previousBookingStatus);
+        publishVehicleStatusChange(booking.getVehicle(), previousVehicleStatus);
 
         auditService.logAction(username, "BOOKING_CONFIRMED", "Booking", 
                 bookingId.toString(), "Buchung bestätigt", ipAddress);
@@ -237,15 +253,19 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Buchung nicht gefunden"));
 
+        BookingStatus previousBookingStatus = booking.getStatus();
         booking.cancel();
         
         // Fahrzeug wieder verfügbar machen, wenn es bestätigt war
         if (booking.getStatus() == BookingStatus.STORNIERT) {
+            VehicleStatus previousVehicleStatus = booking.getVehicle().getStatus();
             booking.getVehicle().markAsAvailable();
             vehicleRepository.save(booking.getVehicle());
+            publishVehicleStatusChange(booking.getVehicle(), previousVehicleStatus);
         }
         
         bookingRepository.save(booking);
+        publishBookingStatusChange(booking, previousBookingStatus);
 
         auditService.logAction(username, "BOOKING_CANCELLED", "Booking", 
                 bookingId.toString(), "Buchung storniert", ipAddress);
@@ -267,6 +287,18 @@ public class BookingService {
         return bookingRepository.findAll();
     }
 
+    private void publishBookingStatusChange(Booking booking, BookingStatus previousStatus) {
+        if (booking.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, previousStatus));
+        }
+    }
+
+    private void publishVehicleStatusChange(Vehicle vehicle, VehicleStatus previousStatus) {
+        if (vehicle.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(VehicleStatusChangedEvent.of(vehicle, previousStatus));
+        }
+    }
+
     private void validateDateRange(LocalDate startDate, LocalDate endDate) {
         if (startDate == null || endDate == null) {
             throw new IllegalArgumentException("Datum darf nicht null sein");
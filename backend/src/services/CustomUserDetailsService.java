@@ -1,33 +1,78 @@
 package de.rentacar.shared.security;
 
+import de.rentacar.customer.domain.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final CustomerRepository customerRepository;
+    private final UserDetailsCache userDetailsCache;
 
+    /**
+     * Liefert Benutzerdaten aus dem Cache; nur bei Fehltreffer wird die Datenbank abgefragt
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Optional<RentACarUserDetails> cached = userDetailsCache.get(username);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long generation = userDetailsCache.generation();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Benutzer nicht gefunden: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(getAuthorities(user))
-                .disabled(!user.isEnabled())
-                .build();
+        // Kunden-ID einmalig beim Login auflösen, damit Besitzprüfungen ohne DB-Zugriff auskommen
+        Long customerId = customerRepository.findIdByUsername(user.getUsername()).orElse(null);
+
+        RentACarUserDetails userDetails = new RentACarUserDetails(
+                user.getId(),
+                customerId,
+                user.getUsername(),
+                user.getPassword(),
+                user.isEnabled(),
+                getAuthorities(user));
+        userDetailsCache.put(userDetails, generation);
+        return userDetails;
+    }
+
+    /**
+     * Speichert nach erfolgreichem Login einen mit aktuellem Work-Factor neu erzeugten Hash
+     * (von Spring Security aufgerufen, wenn PasswordEncoder.upgradeEncoding true liefert)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        String username = userDetails.getUsername();
+        userRepository.findByUsername(username).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+        });
+        customerRepository.findByUsername(username).ifPresent(customer -> {
+            customer.setPassword(newPassword);
+            customerRepository.save(customer);
+        });
+        userDetailsCache.invalidate(username);
+
+        Long userId = userDetails instanceof RentACarUserDetails details ? details.getUserId() : null;
+        Long customerId = userDetails instanceof RentACarUserDetails details ? details.getCustomerId() : null;
+        return new RentACarUserDetails(userId, customerId, username, newPassword, userDetails.isEnabled(),
+                userDetails.getAuthorities());
     }
 
     private Collection<? extends GrantedAuthority> getAuthorities(User user) {
@@ -0,0 +1,290 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.KeyRotationCheckpoint;
+import de.rentacar.customer.domain.KeyRotationStatus;
+import de.rentacar.customer.infrastructure.EncryptionService;
+import de.rentacar.customer.infrastructure.KeyRotationCheckpointRepository;
+import de.rentacar.shared.domain.AuditService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hintergrund-Job zur Schlüsselrotation der verschlüsselten Kundendaten.
+ * Liest die Kundentabelle in nach ID sortierten Chunks (Keyset-Pagination), verschlüsselt veraltete Werte
+ * parallel mit dem aktiven Schlüssel neu und schreibt sie per JDBC-Batch zurück. Der Fortschritt wird je
+ * Chunk transaktional gesichert; der Durchsatz ist begrenzt, damit der Online-Betrieb nicht leidet.
+ */
+@Service
+@Slf4j
+public class CustomerKeyRotationService {
+
+    private static final String SELECT_CHUNK =
+            "SELECT id, encrypted_email, encrypted_phone, encrypted_address, encrypted_license_number "
+                    + "FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+
+    // Nur schreiben, wenn die Zeile seit dem Lesen nicht online geändert wurde
+    private static final String UPDATE_ROW =
+            "UPDATE customers SET encrypted_email = ?, encrypted_phone = ?, encrypted_address = ?, "
+                    + "encrypted_license_number = ?, updated_at = ?, version = COALESCE(version, 0) + 1 "
+                    + "WHERE id = ? AND encrypted_email IS NOT DISTINCT FROM ? AND encrypted_phone IS NOT DISTINCT FROM ? "
+                    + "AND encrypted_address IS NOT DISTINCT FROM ? AND encrypted_license_number IS NOT DISTINCT FROM ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EncryptionService encryptionService;
+    private final KeyRotationCheckpointRepository checkpointRepository;
+    private final AuditService auditService;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+    private final boolean resumeOnStartup;
+    private final ForkJoinPool workers;
+    private final ExecutorService coordinator;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelRequested;
+
+    public CustomerKeyRotationService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      EncryptionService encryptionService,
+                                      KeyRotationCheckpointRepository checkpointRepository,
+                                      AuditService auditService,
+                                      @Value("${rentacar.encryption.rotation.chunk-size:500}") int chunkSize,
+                                      @Value("${rentacar.encryption.rotation.parallelism:0}") int parallelism,
+                                      @Value("${rentacar.encryption.rotation.max-rows-per-second:2000}") int maxRowsPerSecond,
+                                      @Value("${rentacar.encryption.rotation.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encryptionService = encryptionService;
+        this.checkpointRepository = checkpointRepository;
+        this.auditService = auditService;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.resumeOnStartup = resumeOnStartup;
+        // Standard: halbe Kernzahl, damit Anfragen weiterhin CPU bekommen
+        int workerCount = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = new ForkJoinPool(workerCount);
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-key-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Use Case: Schlüsselrotation starten bzw. einen unterbrochenen Lauf für den aktiven Schlüssel fortsetzen
+     */
+    public KeyRotationCheckpoint start(String username, String ipAddress) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Schlüsselrotation läuft bereits");
+        }
+        try {
+            cancelRequested = false;
+            String targetKeyId = encryptionService.getActiveKeyId();
+            KeyRotationCheckpoint checkpoint = transactionTemplate.execute(status -> {
+                KeyRotationCheckpoint current = checkpointRepository
+                        .findFirstByTargetKeyIdAndStatusNotOrderByIdDesc(targetKeyId, KeyRotationStatus.COMPLETED)
+                        .orElseGet(() -> KeyRotationCheckpoint.builder()
+                                .targetKeyId(targetKeyId)
+                                .lastProcessedId(0L)
+                                .startedAt(LocalDateTime.now())
+                                .startedBy(username)
+                                .build());
+                current.setStatus(KeyRotationStatus.RUNNING);
+                current.setFinishedAt(null);
+                current.setLastError(null);
+                return checkpointRepository.save(current);
+            });
+            auditService.logAction(username, "KEY_ROTATION_STARTED", "Customer", null,
+                    "Schlüsselrotation auf Schlüssel " + targetKeyId + " ab Kunden-ID " + checkpoint.getLastProcessedId(),
+                    ipAddress);
+            Long checkpointId = checkpoint.getId();
+            coordinator.execute(() -> run(checkpointId));
+            return checkpoint;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Use Case: Laufende Rotation nach dem aktuellen Chunk anhalten (später fortsetzbar)
+     */
+    public void cancel() {
+        if (running.get()) {
+            cancelRequested = true;
+        }
+    }
+
+    public Optional<KeyRotationCheckpoint> getStatus() {
+        return checkpointRepository.findFirstByOrderByIdDesc();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Setzt einen durch Absturz oder Neustart unterbrochenen Lauf automatisch fort
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRotation() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        checkpointRepository.findFirstByOrderByIdDesc()
+                .filter(checkpoint -> checkpoint.getStatus() == KeyRotationStatus.RUNNING)
+                .filter(checkpoint -> checkpoint.getTargetKeyId().equals(encryptionService.getActiveKeyId()))
+                .ifPresent(checkpoint -> {
+                    log.info("Setze unterbrochene Schlüsselrotation ab Kunden-ID {} fort", checkpoint.getLastProcessedId());
+                    start(checkpoint.getStartedBy(), null);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelRequested = true;
+        coordinator.shutdown();
+        try {
+            coordinator.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+    }
+
+    private void run(Long checkpointId) {
+        try {
+            KeyRotationCheckpoint checkpoint = checkpointRepository.findById(checkpointId).orElseThrow();
+            long lastId = checkpoint.getLastProcessedId();
+            while (!cancelRequested) {
+                long chunkStart = System.nanoTime();
+                List<CustomerCiphertexts> rows = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new CustomerCiphertexts(
+                        rs.getLong("id"),
+                        rs.getString("encrypted_email"),
+                        rs.getString("encrypted_phone"),
+                        rs.getString("encrypted_address"),
+                        rs.getString("encrypted_license_number")), lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    finish(checkpointId, KeyRotationStatus.COMPLETED, null);
+                    log.info("Schlüsselrotation auf Schlüssel {} abgeschlossen", checkpoint.getTargetKeyId());
+                    return;
+                }
+
+                List<RowUpdate> updates = workers.submit(() -> rows.parallelStream()
+                        .map(this::reEncrypt)
+                        .filter(Objects::nonNull)
+                        .toList()).get();
+                long chunkLastId = rows.get(rows.size() - 1).id();
+                writeChunk(checkpointId, updates, rows.size(), chunkLastId);
+                lastId = chunkLastId;
+
+                throttle(rows.size(), chunkStart);
+            }
+            finish(checkpointId, KeyRotationStatus.CANCELLED, null);
+            log.info("Schlüsselrotation nach Kunden-ID {} angehalten", lastId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(checkpointId, KeyRotationStatus.CANCELLED, "Unterbrochen");
+        } catch (Exception e) {
+            log.error("Schlüsselrotation fehlgeschlagen", e);
+            finish(checkpointId, KeyRotationStatus.FAILED, e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Schreibt neu verschlüsselte Zeilen und den Fortschritt atomar in einer Transaktion
+     */
+    private void writeChunk(Long checkpointId, List<RowUpdate> updates, int scanned, long chunkLastId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int written = 0;
+            if (!updates.isEmpty()) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> batch = new ArrayList<>(updates.size());
+                for (RowUpdate update : updates) {
+                    CustomerCiphertexts current = update.current();
+                    CustomerCiphertexts target = update.target();
+                    batch.add(new Object[]{target.email(), target.phone(), target.address(), target.driverLicenseNumber(),
+                            now, current.id(), current.email(), current.phone(), current.address(),
+                            current.driverLicenseNumber()});
+                }
+                for (int count : jdbcTemplate.batchUpdate(UPDATE_ROW, batch)) {
+                    // SUCCESS_NO_INFO (-2) zählt als geschrieben
+                    if (count != 0) {
+                        written++;
+                    }
+                }
+            }
+            KeyRotationCheckpoint checkpoint = checkpointRepository.findById(checkpointId).orElseThrow();
+            checkpoint.setLastProcessedId(chunkLastId);
+            checkpoint.setScannedRows(checkpoint.getScannedRows() + scanned);
+            checkpoint.setReEncryptedRows(checkpoint.getReEncryptedRows() + written);
+            // Konflikte: Zeile wurde zwischenzeitlich online gespeichert und ist damit bereits aktuell
+            checkpoint.setConflictRows(checkpoint.getConflictRows() + updates.size() - written);
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private void finish(Long checkpointId, KeyRotationStatus status, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> checkpointRepository.findById(checkpointId).ifPresent(checkpoint -> {
+                checkpoint.setStatus(status);
+                checkpoint.setFinishedAt(LocalDateTime.now());
+                checkpoint.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+                checkpointRepository.save(checkpoint);
+            }));
+        } catch (Exception e) {
+            log.error("Status der Schlüsselrotation konnte nicht gespeichert werden", e);
+        }
+    }
+
+    /**
+     * Begrenzt den Durchsatz auf maxRowsPerSecond, indem nach jedem Chunk die Restzeit gewartet wird
+     */
+    private void throttle(int rows, long chunkStartNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long minimumNanos = TimeUnit.SECONDS.toNanos(rows) / maxRowsPerSecond;
+        long remainingNanos = minimumNanos - (System.nanoTime() - chunkStartNanos);
+        if (remainingNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        }
+    }
+
+    /**
+     * Verschlüsselt alle nicht mit dem aktiven Schlüssel geschriebenen Felder einer Zeile neu
+     * @return null, wenn die Zeile bereits aktuell ist
+     */
+    RowUpdate reEncrypt(CustomerCiphertexts row) {
+        CustomerCiphertexts target = new CustomerCiphertexts(row.id(),
+                encryptionService.reEncrypt(row.email()),
+                encryptionService.reEncrypt(row.phone()),
+                encryptionService.reEncrypt(row.address()),
+                encryptionService.reEncrypt(row.driverLicenseNumber()));
+        return target.equals(row) ? null : new RowUpdate(row, target);
+    }
+
+    record CustomerCiphertexts(long id, String email, String phone, String address, String driverLicenseNumber) {}
+
+    record RowUpdate(CustomerCiphertexts current, CustomerCiphertexts target) {}
+}
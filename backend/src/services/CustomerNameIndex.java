@@ -0,0 +1,89 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.shared.infrastructure.TokenIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * In-Memory Namensindex für die Kundensuche am Schalter (Vor- und Nachname), mit Tippfehlertoleranz.
+ * Wird beim Start aufgebaut und von CustomerService inkrementell gepflegt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerNameIndex {
+
+    private final CustomerRepository customerRepository;
+
+    private final TokenIndex tokenIndex = new TokenIndex(true);
+
+    /**
+     * Baut den Index aus allen Kundennamen neu auf (lädt nur ID und Namen)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        tokenIndex.clear();
+        customerRepository.findAllNames().forEach(name -> index(name.id(), name.firstName(), name.lastName()));
+        log.info("Kunden-Namensindex aufgebaut: {} Kunden, {} Tokens", tokenIndex.size(), tokenIndex.tokenCount());
+    }
+
+    public void index(Customer customer) {
+        if (customer != null) {
+            index(customer.getId(), customer.getFirstName(), customer.getLastName());
+        }
+    }
+
+    /**
+     * Wie {@link #index(Customer)}, innerhalb einer Transaktion aber erst nach dem Commit,
+     * damit ein Rollback keine Namen im Index hinterlässt
+     */
+    public void indexAfterCommit(Customer customer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(customer);
+                }
+            });
+        } else {
+            index(customer);
+        }
+    }
+
+    /**
+     * Nimmt einen Kunden in den Index auf bzw. aktualisiert dessen Einträge
+     */
+    public void index(Long customerId, String firstName, String lastName) {
+        tokenIndex.index(customerId, firstName, lastName);
+    }
+
+    public void remove(Long customerId) {
+        tokenIndex.remove(customerId);
+    }
+
+    public void clear() {
+        tokenIndex.clear();
+    }
+
+    /**
+     * Sucht Kunden, bei denen jedes Suchwort exakt, als Präfix oder mit wenigen Tippfehlern
+     * (1 Fehler bis 5 Zeichen, sonst 2) in Vor- oder Nachname vorkommt.
+     * @return Kunden-IDs absteigend nach Relevanz
+     */
+    public List<Long> search(String query, int limit) {
+        return tokenIndex.search(query, limit);
+    }
+
+    public int size() {
+        return tokenIndex.size();
+    }
+}
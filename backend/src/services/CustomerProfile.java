@@ -0,0 +1,15 @@
+package de.rentacar.customer.application;
+
+/**
+ * Entschlüsselte Sicht auf die Kundendaten (nur für die Auslieferung, wird nie persistiert)
+ */
+public record CustomerProfile(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String address,
+        String driverLicenseNumber,
+        String username
+) {}
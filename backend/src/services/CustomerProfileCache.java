@@ -0,0 +1,176 @@
+package de.rentacar.customer.application;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Kurzlebiger Cache entschlüsselter Kundenprofile für GET /api/customers/me.
+ * Klartext liegt ausschließlich im Speicher, als char[] das beim Verdrängen (TTL, LRU,
+ * Aktualisierung) überschrieben wird. Größe und Lebensdauer sind streng begrenzt.
+ */
+@Component
+public class CustomerProfileCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Wird bei jeder Invalidierung erhöht; verhindert, dass vorher geladene Profile wieder eingetragen werden
+    private long generation;
+
+    @Autowired
+    public CustomerProfileCache(@Value("${rentacar.customer.profile-cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${rentacar.customer.profile-cache.max-entries:1000}") int maxEntries) {
+        this(Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC());
+    }
+
+    CustomerProfileCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // Zugriffsreihenfolge = LRU; ältester Eintrag wird beim Überlauf gelöscht und überschrieben
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CustomerProfileCache.this.maxEntries) {
+                    eldest.getValue().wipe();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Optional<CustomerProfile> get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(username);
+            entry.wipe();
+            return Optional.empty();
+        }
+        return Optional.of(entry.toProfile());
+    }
+
+    /**
+     * Stand vor dem Laden aus der Datenbank; an {@link #put(CustomerProfile, long)} übergeben
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Trägt ein geladenes Profil ein, sofern seit {@code loadedAtGeneration} nichts entfernt wurde
+     */
+    public synchronized void put(CustomerProfile profile, long loadedAtGeneration) {
+        if (maxEntries <= 0 || profile.username() == null || loadedAtGeneration != generation) {
+            return;
+        }
+        Entry previous = entries.put(profile.username(), new Entry(profile, clock.instant().plus(ttl)));
+        if (previous != null) {
+            previous.wipe();
+        }
+    }
+
+    public synchronized void evict(String username) {
+        generation++;
+        Entry entry = entries.remove(username);
+        if (entry != null) {
+            entry.wipe();
+        }
+    }
+
+    /**
+     * Entfernt abgelaufene Einträge auch ohne erneuten Zugriff, damit kein Klartext liegen bleibt
+     */
+    @Scheduled(fixedDelayString = "${rentacar.customer.profile-cache.sweep-interval-ms:30000}")
+    public synchronized void purgeExpired() {
+        Instant now = clock.instant();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isExpired(now)) {
+                iterator.remove();
+                entry.wipe();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.values().forEach(Entry::wipe);
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String username;
+        private final char[] email;
+        private final char[] phone;
+        private final char[] address;
+        private final char[] driverLicenseNumber;
+        private final Instant expiresAt;
+
+        Entry(CustomerProfile profile, Instant expiresAt) {
+            this.id = profile.id();
+            this.firstName = profile.firstName();
+            this.lastName = profile.lastName();
+            this.username = profile.username();
+            this.email = toChars(profile.email());
+            this.phone = toChars(profile.phone());
+            this.address = toChars(profile.address());
+            this.driverLicenseNumber = toChars(profile.driverLicenseNumber());
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+
+        CustomerProfile toProfile() {
+            return new CustomerProfile(id, firstName, lastName, toString(email), toString(phone),
+                    toString(address), toString(driverLicenseNumber), username);
+        }
+
+        void wipe() {
+            wipe(email);
+            wipe(phone);
+            wipe(address);
+            wipe(driverLicenseNumber);
+        }
+
+        private static char[] toChars(String value) {
+            return value != null ? value.toCharArray() : null;
+        }
+
+        private static String toString(char[] value) {
+            return value != null ? new String(value) : null;
+        }
+
+        private static void wipe(char[] value) {
+            if (value != null) {
+                Arrays.fill(value, '\0');
+            }
+        }
+    }
+}
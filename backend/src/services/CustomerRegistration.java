@@ -0,0 +1,8 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.Customer;
+
+/**
+ * Ergebnis einer Registrierung: angelegter Kunde und Aktivierungstoken
+ */
+public record CustomerRegistration(Customer customer, String activationToken) {}
@@ -2,21 +2,34 @@ package de.rentacar.customer.application;
 
 import de.rentacar.customer.domain.Customer;
 import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.customer.domain.CustomerSummary;
 import de.rentacar.customer.domain.EncryptedString;
+import de.rentacar.customer.infrastructure.BlindIndexService;
 import de.rentacar.customer.infrastructure.EncryptionService;
 import de.rentacar.shared.domain.AuditService;
 import de.rentacar.shared.security.Role;
 import de.rentacar.shared.security.User;
+import de.rentacar.shared.security.UserDetailsCache;
 import de.rentacar.shared.security.UserRepository;
+import de.rentacar.shared.service.AsyncSideEffectExecutor;
 import de.rentacar.shared.service.EmailService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -24,20 +37,31 @@ import java.util.Set;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CustomerService {
 
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "lastName", "firstName", "username", "createdAt");
+
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
     private final EncryptionService encryptionService;
     private final PasswordEncoder passwordEncoder;
     private final AuditService auditService;
     private final EmailService emailService;
+    private final CustomerProfileCache profileCache;
+    private final BlindIndexService blindIndexService;
+    private final AsyncSideEffectExecutor sideEffects;
+    private final CustomerNameIndex nameIndex;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Use Case: Kunde registrieren
+     * E-Mail-Versand und Audit laufen nach dem Commit asynchron (mit Wiederholung).
      */
     @Transactional
-    public Customer registerCustomer(String username, String password, String firstName, 
+    public CustomerRegistration registerCustomer(String username, String password, String firstName, 
                                     String lastName, String email, String phone, 
                                     String address, String driverLicenseNumber,
                                     String ipAddress) {
@@ -46,13 +70,22 @@ public class CustomerService {
             throw new IllegalArgumentException("Benutzername bereits vergeben");
         }
 
+        // Prüfe ob E-Mail-Adresse bereits registriert ist (über Blind-Index, ohne Entschlüsselung)
+        String emailBlindIndex = blindIndexService.emailIndex(email);
+        if (emailBlindIndex != null && customerRepository.existsByEmailBlindIndex(emailBlindIndex)) {
+            throw new IllegalArgumentException("E-Mail-Adresse bereits registriert");
+        }
+
         // Generiere Aktivierungstoken
         String activationToken = generateActivationToken();
-        
+
+        // BCrypt ist bewusst teuer: nur einmal hashen und für User und Customer verwenden
+        String passwordHash = passwordEncoder.encode(password);
+
         // Erstelle User für Spring Security (standardmäßig deaktiviert)
         User user = User.builder()
                 .username(username)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHash)
                 .roles(Set.of(Role.ROLE_CUSTOMER))
                 .enabled(false) // Account muss per E-Mail aktiviert werden
                 .activationToken(activationToken)
@@ -67,26 +100,35 @@ public class CustomerService {
 
         Customer customer = Customer.builder()
                 .username(username)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHash)
                 .firstName(firstName)
                 .lastName(lastName)
                 .email(encryptedEmail)
                 .phone(encryptedPhone)
                 .address(encryptedAddress)
                 .driverLicenseNumber(encryptedLicense)
+                .emailBlindIndex(emailBlindIndex)
+                .licenseBlindIndex(blindIndexService.driverLicenseIndex(driverLicenseNumber))
+                .blindIndexKeyVersion(blindIndexService.getKeyVersion())
                 .build();
 
         Customer savedCustomer = customerRepository.save(customer);
+        nameIndex.indexAfterCommit(savedCustomer);
 
         // Sende Aktivierungs-E-Mail
-        emailService.sendActivationEmail(email, activationToken);
+        sideEffects.runAfterCommit("Aktivierungs-E-Mail an " + username,
+                () -> emailService.sendActivationEmail(email, activationToken));
 
-        auditService.logAction(username, "CUSTOMER_REGISTERED", "Customer", 
-                savedCustomer.getId().toString(), 
-                "Kunde registriert",
-                ipAddress);
+        String customerId = savedCustomer.getId().toString();
+        sideEffects.runAfterCommit("Audit CUSTOMER_REGISTERED " + username,
+                () -> auditService.logAction(username, "CUSTOMER_REGISTERED", "Customer",
+                        customerId,
+                        "Kunde registriert",
+                        ipAddress),
+                Map.of("username", username, "action", "CUSTOMER_REGISTERED", "resourceType", "Customer",
+                        "resourceId", customerId, "details", "Kunde registriert", "ipAddress", String.valueOf(ipAddress)));
 
-        return savedCustomer;
+        return new CustomerRegistration(savedCustomer, activationToken);
     }
 
     /**
@@ -104,25 +146,17 @@ public class CustomerService {
         user.setEnabled(true);
         user.setActivationToken(null); // Token nach Aktivierung löschen
         userRepository.save(user);
-    }
 
-    /**
-     * Holt den Aktivierungstoken für einen Benutzer (für Entwicklung)
-     */
-    @Transactional(readOnly = true)
-    public String getActivationTokenForUser(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("Benutzer nicht gefunden"));
-        return user.getActivationToken();
+        // Gecachter Benutzer ist noch deaktiviert
+        userDetailsCache.invalidate(user.getUsername());
     }
 
     /**
      * Generiert einen sicheren Aktivierungstoken
      */
     private String generateActivationToken() {
-        SecureRandom random = new SecureRandom();
         byte[] tokenBytes = new byte[32];
-        random.nextBytes(tokenBytes);
+        TOKEN_RANDOM.nextBytes(tokenBytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
     }
 
@@ -144,9 +178,22 @@ public class CustomerService {
         EncryptedString encryptedAddress = address != null ? 
                 EncryptedString.of(encryptionService.encrypt(address)) : null;
 
+        if (email != null) {
+            String emailBlindIndex = blindIndexService.emailIndex(email);
+            boolean takenByOther = emailBlindIndex != null && customerRepository.findByEmailBlindIndex(emailBlindIndex)
+                    .stream().anyMatch(other -> !other.getId().equals(customerId));
+            if (takenByOther) {
+                throw new IllegalArgumentException("E-Mail-Adresse bereits registriert");
+            }
+            customer.setEmailBlindIndex(emailBlindIndex);
+        }
+
         customer.updatePersonalData(firstName, lastName, encryptedEmail, encryptedPhone, encryptedAddress);
+        upgradeLegacyCiphertexts(customer);
         
         Customer savedCustomer = customerRepository.save(customer);
+        nameIndex.indexAfterCommit(savedCustomer);
+        evictProfile(customer.getUsername());
 
         auditService.logAction(username, "CUSTOMER_UPDATED", "Customer", 
                 customerId.toString(), 
@@ -156,6 +203,99 @@ public class CustomerService {
         return savedCustomer;
     }
 
+    /**
+     * Verschlüsselt beim Schreiben noch vorhandene Altwerte (PBE) im aktuellen Format neu
+     */
+    private void upgradeLegacyCiphertexts(Customer customer) {
+        customer.setEmail(reEncryptIfLegacy(customer.getEmail()));
+        customer.setPhone(reEncryptIfLegacy(customer.getPhone()));
+        customer.setAddress(reEncryptIfLegacy(customer.getAddress()));
+        customer.setDriverLicenseNumber(reEncryptIfLegacy(customer.getDriverLicenseNumber()));
+    }
+
+    private EncryptedString reEncryptIfLegacy(EncryptedString value) {
+        if (value == null || !encryptionService.needsReEncryption(value.getEncryptedValue())) {
+            return value;
+        }
+        return EncryptedString.of(encryptionService.reEncrypt(value.getEncryptedValue()));
+    }
+
+    /**
+     * Entfernt das zwischengespeicherte Profil erst nach dem Commit: vorher würden parallele
+     * Lesezugriffe die noch nicht committeten Altdaten erneut in den Cache legen
+     */
+    private void evictProfile(String customerUsername) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    profileCache.evict(customerUsername);
+                }
+            });
+        } else {
+            profileCache.evict(customerUsername);
+        }
+    }
+
+    /**
+     * Use Case: Eigenes Profil entschlüsselt abrufen (GET /api/customers/me).
+     * Das Ergebnis wird kurzzeitig im Speicher gehalten, um wiederholtes Entschlüsseln zu vermeiden.
+     */
+    @Transactional(readOnly = true)
+    public CustomerProfile getOwnProfile(String username) {
+        return profileCache.get(username).orElseGet(() -> {
+            // Vor dem Laden lesen: ein Commit mit evict() währenddessen verwirft das Ergebnis
+            long generation = profileCache.generation();
+            CustomerProfile profile = toProfile(getCustomerByUsername(username));
+            profileCache.put(profile, generation);
+            return profile;
+        });
+    }
+
+    /**
+     * Use Case: Einzelnen Kunden für Mitarbeiter entschlüsseln (explizit angefordert und protokolliert)
+     */
+    @Transactional
+    public CustomerProfile revealCustomer(Long customerId, String username, String ipAddress) {
+        CustomerProfile profile = toProfile(getCustomerById(customerId));
+        auditService.logAction(username, "CUSTOMER_DATA_REVEALED", "Customer",
+                customerId.toString(),
+                "Verschlüsselte Kundendaten angezeigt",
+                ipAddress);
+        return profile;
+    }
+
+    /**
+     * Use Case: Kundenliste für Mitarbeiter (seitenweise, nur unverschlüsselte Stammdaten)
+     */
+    @Transactional(readOnly = true)
+    public Page<CustomerSummary> getCustomerSummaries(int page, int size, String sortBy, Sort.Direction direction) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Sortierung nach '" + sortBy + "' nicht unterstützt");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // ID als zweites Kriterium, damit die Seitengrenzen bei gleichen Namen stabil bleiben
+        Sort sort = Sort.by(direction, sortBy).and(Sort.by("id"));
+        return customerRepository.findSummaries(PageRequest.of(Math.max(0, page), pageSize, sort));
+    }
+
+    private CustomerProfile toProfile(Customer customer) {
+        return new CustomerProfile(
+                customer.getId(),
+                customer.getFirstName(),
+                customer.getLastName(),
+                decrypt(customer.getEmail()),
+                decrypt(customer.getPhone()),
+                decrypt(customer.getAddress()),
+                decrypt(customer.getDriverLicenseNumber()),
+                customer.getUsername()
+        );
+    }
+
+    private String decrypt(EncryptedString value) {
+        return value != null ? encryptionService.decrypt(value.getEncryptedValue()) : null;
+    }
+
     /**
      * Use Case: Kunde nach ID abrufen
      */
@@ -174,6 +314,58 @@ public class CustomerService {
                 .orElseThrow(() -> new IllegalArgumentException("Kunde nicht gefunden"));
     }
 
+    /**
+     * Use Case: Kunden am Schalter per (Teil-)Namen finden, tippfehlertolerant
+     */
+    public List<Long> searchCustomerIds(String query, int limit) {
+        return nameIndex.search(query, limit);
+    }
+
+    /**
+     * Use Case: Kunden per E-Mail-Adresse finden (exakte Suche über Blind-Index)
+     */
+    @Transactional(readOnly = true)
+    public List<Customer> findCustomersByEmail(String email) {
+        String emailBlindIndex = blindIndexService.emailIndex(email);
+        return emailBlindIndex != null ? customerRepository.findByEmailBlindIndex(emailBlindIndex) : List.of();
+    }
+
+    /**
+     * Use Case: Kunden per Führerscheinnummer finden (exakte Suche über Blind-Index)
+     */
+    @Transactional(readOnly = true)
+    public List<Customer> findCustomersByDriverLicense(String driverLicenseNumber) {
+        String licenseBlindIndex = blindIndexService.driverLicenseIndex(driverLicenseNumber);
+        return licenseBlindIndex != null ? customerRepository.findByLicenseBlindIndex(licenseBlindIndex) : List.of();
+    }
+
+    /**
+     * Ergänzt fehlende Blind-Indizes und berechnet nach einem Wechsel des Blind-Index-Schlüssels
+     * alle mit altem Schlüssel berechneten neu (einmalig nach dem Start)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int backfillBlindIndexes() {
+        String keyVersion = blindIndexService.getKeyVersion();
+        int updated = 0;
+        for (Customer customer : customerRepository.findWithStaleBlindIndex(keyVersion)) {
+            boolean stale = !keyVersion.equals(customer.getBlindIndexKeyVersion());
+            if (customer.getEmail() != null && (stale || customer.getEmailBlindIndex() == null)) {
+                customer.setEmailBlindIndex(blindIndexService.emailIndex(decrypt(customer.getEmail())));
+            }
+            if (customer.getDriverLicenseNumber() != null && (stale || customer.getLicenseBlindIndex() == null)) {
+                customer.setLicenseBlindIndex(blindIndexService.driverLicenseIndex(decrypt(customer.getDriverLicenseNumber())));
+            }
+            customer.setBlindIndexKeyVersion(keyVersion);
+            customerRepository.save(customer);
+            updated++;
+        }
+        if (updated > 0) {
+            log.info("Blind-Indizes für {} Bestandskunden ergänzt bzw. neu berechnet", updated);
+        }
+        return updated;
+    }
+
     /**
      * Use Case: Alle Kunden abrufen (für Mitarbeiter/Admin)
      */
@@ -3,43 +3,203 @@ package de.rentacar.customer.infrastructure;
 import org.jasypt.encryption.StringEncryptor;
 import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
 import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Service für Verschlüsselung von Kundendaten (DSGVO-konform)
+ *
+ * Neue Werte werden mit AES-256-GCM verschlüsselt. Der Schlüssel wird einmalig beim Start aus dem
+ * Passwort abgeleitet, jeder Thread nutzt eine eigene Cipher-Instanz.
+ * Format: "v1:&lt;keyId&gt;:&lt;Base64(IV || Ciphertext || Tag)&gt;".
+ * Ältere Jasypt-PBE-Werte (reines Base64 ohne Präfix) werden weiterhin entschlüsselt und
+ * beim nächsten Schreiben neu verschlüsselt (siehe needsReEncryption).
+ *
+ * Schlüsselrotation: Schlüssel "1" stammt aus jasypt.encryptor.password, weitere Schlüssel werden über
+ * rentacar.encryption.keys ("id=passwort,...") ergänzt. Verschlüsselt wird immer mit dem aktiven Schlüssel,
+ * entschlüsselt mit dem Schlüssel aus dem Präfix - so bleiben Lesezugriffe während einer Rotation möglich.
  */
 @Service
 public class EncryptionService {
 
-    private final StringEncryptor encryptor;
+    static final String FORMAT_PREFIX = "v1:";
+    static final String DEFAULT_KEY_ID = "1";
+
+    private static final String CIPHER_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int KEY_DERIVATION_ITERATIONS = 100_000;
+    private static final int KEY_LENGTH_BITS = 256;
+    private static final int IV_LENGTH_BYTES = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final byte[] KEY_DERIVATION_SALT = "rentacar-customer-pii".getBytes(StandardCharsets.UTF_8);
+
+    private final String password;
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keys;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(EncryptionService::newCipher);
+    private volatile StringEncryptor legacyEncryptor;
+
+    public EncryptionService(String password) {
+        this(password, "", DEFAULT_KEY_ID);
+    }
+
+    @Autowired
+    public EncryptionService(@Value("${jasypt.encryptor.password}") String password,
+                             @Value("${rentacar.encryption.keys:}") String additionalKeys,
+                             @Value("${rentacar.encryption.active-key-id:1}") String activeKeyId) {
+        this.password = password;
+        Map<String, SecretKey> keyring = new LinkedHashMap<>();
+        keyring.put(DEFAULT_KEY_ID, deriveKey(password));
+        for (String entry : additionalKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            String id = separator > 0 ? entry.substring(0, separator).trim() : "";
+            if (id.isEmpty() || id.contains(":") || separator == entry.length() - 1) {
+                throw new IllegalStateException("Ungültiger Schlüsseleintrag in rentacar.encryption.keys");
+            }
+            keyring.put(id, deriveKey(entry.substring(separator + 1)));
+        }
+        if (!keyring.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Aktiver Schlüssel nicht konfiguriert: " + activeKeyId);
+        }
+        this.keys = Map.copyOf(keyring);
+        this.activeKeyId = activeKeyId;
+        this.activeKey = keyring.get(activeKeyId);
+    }
+
+    public String encrypt(String plainText) {
+        if (plainText == null) {
+            return null;
+        }
+        byte[] iv = new byte[IV_LENGTH_BYTES];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, activeKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] cipherText = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+            byte[] payload = ByteBuffer.allocate(iv.length + cipherText.length).put(iv).put(cipherText).array();
+            return FORMAT_PREFIX + activeKeyId + ":" + Base64.getEncoder().encodeToString(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Verschlüsselung fehlgeschlagen", e);
+        }
+    }
+
+    public String decrypt(String encryptedText) {
+        if (encryptedText == null) {
+            return null;
+        }
+        if (!encryptedText.startsWith(FORMAT_PREFIX)) {
+            return legacyEncryptor().decrypt(encryptedText);
+        }
+        int keyIdEnd = encryptedText.indexOf(':', FORMAT_PREFIX.length());
+        if (keyIdEnd < 0) {
+            throw new IllegalArgumentException("Ungültiges Chiffrat-Format");
+        }
+        String valueKeyId = encryptedText.substring(FORMAT_PREFIX.length(), keyIdEnd);
+        SecretKey key = keys.get(valueKeyId);
+        if (key == null) {
+            throw new IllegalStateException("Unbekannte Schlüssel-ID: " + valueKeyId);
+        }
+        byte[] payload = Base64.getDecoder().decode(encryptedText.substring(keyIdEnd + 1));
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH_BYTES));
+            byte[] plainText = cipher.doFinal(payload, IV_LENGTH_BYTES, payload.length - IV_LENGTH_BYTES);
+            return new String(plainText, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Entschlüsselung fehlgeschlagen", e);
+        }
+    }
+
+    /**
+     * Prüft ob ein gespeicherter Wert im alten PBE-Format oder mit einem nicht mehr aktiven Schlüssel
+     * vorliegt und beim Schreiben neu verschlüsselt werden sollte
+     */
+    public boolean needsReEncryption(String encryptedText) {
+        return encryptedText != null && !encryptedText.startsWith(FORMAT_PREFIX + activeKeyId + ":");
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Entschlüsselt einen Altwert und verschlüsselt ihn im aktuellen Format
+     */
+    public String reEncrypt(String encryptedText) {
+        return needsReEncryption(encryptedText) ? encrypt(decrypt(encryptedText)) : encryptedText;
+    }
 
-    public EncryptionService(@Value("${jasypt.encryptor.password}") String password) {
+    /**
+     * Jasypt-Encryptor nur für Altdaten; wird erst bei Bedarf erzeugt
+     */
+    private StringEncryptor legacyEncryptor() {
+        StringEncryptor encryptor = legacyEncryptor;
+        if (encryptor == null) {
+            synchronized (this) {
+                encryptor = legacyEncryptor;
+                if (encryptor == null) {
+                    encryptor = createLegacyEncryptor(password, Runtime.getRuntime().availableProcessors());
+                    legacyEncryptor = encryptor;
+                }
+            }
+        }
+        return encryptor;
+    }
+
+    static StringEncryptor createLegacyEncryptor(String password, int poolSize) {
         PooledPBEStringEncryptor pooledEncryptor = new PooledPBEStringEncryptor();
         SimpleStringPBEConfig config = new SimpleStringPBEConfig();
         config.setPassword(password);
         config.setAlgorithm("PBEWithMD5AndDES");
         config.setKeyObtentionIterations("1000");
-        config.setPoolSize("1");
+        config.setPoolSize(String.valueOf(poolSize));
         config.setProviderName("SunJCE");
         config.setSaltGeneratorClassName("org.jasypt.salt.RandomSaltGenerator");
         config.setStringOutputType("base64");
         pooledEncryptor.setConfig(config);
-        this.encryptor = pooledEncryptor;
+        return pooledEncryptor;
     }
 
-    public String encrypt(String plainText) {
-        if (plainText == null) {
-            return null;
+    private static SecretKey deriveKey(String password) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), KEY_DERIVATION_SALT,
+                    KEY_DERIVATION_ITERATIONS, KEY_LENGTH_BITS);
+            try {
+                byte[] keyBytes = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM).generateSecret(spec).getEncoded();
+                return new SecretKeySpec(keyBytes, "AES");
+            } finally {
+                spec.clearPassword();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Schlüsselableitung fehlgeschlagen", e);
         }
-        return encryptor.encrypt(plainText);
     }
 
-    public String decrypt(String encryptedText) {
-        if (encryptedText == null) {
-            return null;
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(CIPHER_TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM nicht verfügbar", e);
         }
-        return encryptor.decrypt(encryptedText);
     }
 }
-
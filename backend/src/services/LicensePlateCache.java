@@ -0,0 +1,94 @@
+package de.rentacar.vehicle.infrastructure;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.Vehicle;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache Kennzeichen -> Fahrzeug-ID für Dublettenprüfung und Schalter-Suche.
+ * Wird von VehicleRepositoryImpl bei jedem Schreibzugriff gepflegt; die Unique-Constraint
+ * auf license_plate bleibt die letzte Absicherung. Der Cache ist je Knoten: ein fehlender Eintrag
+ * bedeutet nicht, dass das Kennzeichen unbekannt ist (VehicleRepositoryImpl fragt dann die Datenbank).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LicensePlateCache {
+
+    private final VehicleJpaRepository jpaRepository;
+
+    private final Map<String, Long> vehicleIdsByPlate = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Lädt den Cache beim Start vor; vorherige Zugriffe (z.B. DataInitializer) laden ihn bei Bedarf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+        log.info("Kennzeichen-Cache geladen: {} Fahrzeuge", vehicleIdsByPlate.size());
+    }
+
+    public Optional<Long> findVehicleId(LicensePlate licensePlate) {
+        ensureLoaded();
+        return Optional.ofNullable(vehicleIdsByPlate.get(key(licensePlate)));
+    }
+
+    public void put(Vehicle vehicle) {
+        if (vehicle == null || vehicle.getId() == null || vehicle.getLicensePlate() == null) {
+            return;
+        }
+        ensureLoaded();
+        vehicleIdsByPlate.put(key(vehicle.getLicensePlate()), vehicle.getId());
+    }
+
+    public void evict(LicensePlate licensePlate) {
+        vehicleIdsByPlate.remove(key(licensePlate));
+    }
+
+    public void evictVehicle(Long vehicleId) {
+        vehicleIdsByPlate.values().removeIf(vehicleId::equals);
+    }
+
+    /**
+     * Verwirft alle Einträge; der nächste Zugriff lädt neu aus der Datenbank
+     */
+    public synchronized void invalidate() {
+        vehicleIdsByPlate.clear();
+        loaded = false;
+    }
+
+    public int size() {
+        return vehicleIdsByPlate.size();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (Object[] row : jpaRepository.findAllLicensePlates()) {
+                    vehicleIdsByPlate.put(key((String) row[1]), (Long) row[0]);
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    private static String key(LicensePlate licensePlate) {
+        return key(licensePlate.getValue());
+    }
+
+    private static String key(String plate) {
+        return LicensePlate.normalize(plate);
+    }
+}
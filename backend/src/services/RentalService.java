@@ -2,13 +2,18 @@ package de.rentacar.rental.application;
 
 import de.rentacar.booking.domain.Booking;
 import de.rentacar.booking.domain.BookingRepository;
+import de.rentacar.booking.domain.BookingStatus;
+import de.rentacar.booking.domain.BookingStatusChangedEvent;
 import de.rentacar.rental.domain.DamageReport;
 import de.rentacar.rental.domain.Rental;
 import de.rentacar.rental.domain.RentalRepository;
 import de.rentacar.shared.domain.AuditService;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleRepository;
+import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +32,7 @@ public class RentalService {
     private final BookingRepository bookingRepository;
     private final VehicleRepository vehicleRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Use Case: Check-out durchführen (Übergabe)
@@ -55,10 +61,12 @@ public class RentalService {
 
         rental.performCheckout(mileage, condition);
         
+        VehicleStatus previousVehicleStatus = vehicle.getStatus();
         vehicle.markAsRented();
         
         Rental savedRental = rentalRepository.save(rental);
         vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(VehicleStatusChangedEvent.of(vehicle, previousVehicleStatus));
 
         auditService.logAction(username, "RENTAL_CHECKOUT", "Rental", 
                 savedRental.getId().toString(), 
@@ -82,6 +90,7 @@ public class RentalService {
         Vehicle vehicle = vehicleRepository.findById(rental.getVehicleId())
                 .orElseThrow(() -> new IllegalArgumentException("Fahrzeug nicht gefunden"));
         
+        VehicleStatus previousVehicleStatus = vehicle.getStatus();
         vehicle.updateMileage(mileage);
         vehicle.markAsAvailable();
 
@@ -97,12 +106,17 @@ public class RentalService {
 
         Rental savedRental = rentalRepository.save(rental);
         vehicleRepository.save(vehicle);
+        if (previousVehicleStatus != vehicle.getStatus()) {
+            eventPublisher.publishEvent(VehicleStatusChangedEvent.of(vehicle, previousVehicleStatus));
+        }
 
         // Buchung abschließen
         Booking booking = bookingRepository.findById(rental.getBookingId())
                 .orElseThrow(() -> new IllegalArgumentException("Buchung nicht gefunden"));
+        BookingStatus previousBookingStatus = booking.getStatus();
         booking.complete();
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, previousBookingStatus));
 
         auditService.logAction(username, "RENTAL_CHECKIN", "Rental", 
                 rentalId.toString(), 
@@ -5,8 +5,10 @@ import de.rentacar.vehicle.domain.LicensePlate;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleRepository;
 import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
 import de.rentacar.vehicle.domain.VehicleType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,8 @@ public class VehicleManagementService {
 
     private final VehicleRepository vehicleRepository;
     private final AuditService auditService;
+    private final VehicleSearchIndex vehicleSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Use Case: Fahrzeug hinzufügen (Mitarbeiter)
@@ -53,6 +57,8 @@ public class VehicleManagementService {
                 .build();
 
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        vehicleSearchIndex.indexAfterCommit(savedVehicle);
+        eventPublisher.publishEvent(VehicleStatusChangedEvent.of(savedVehicle, null));
 
         auditService.logAction(username, "VEHICLE_ADDED", "Vehicle", 
                 savedVehicle.getId().toString(), 
@@ -102,6 +108,7 @@ public class VehicleManagementService {
         if (imageGallery != null) vehicle.setImageGallery(imageGallery);
 
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        vehicleSearchIndex.indexAfterCommit(savedVehicle);
 
         auditService.logAction(username, "VEHICLE_UPDATED", "Vehicle", 
                 vehicleId.toString(), 
@@ -137,8 +144,12 @@ public class VehicleManagementService {
         Vehicle vehicle = vehicleRepository.findById(vehicleId)
                 .orElseThrow(() -> new IllegalArgumentException("Fahrzeug nicht gefunden"));
 
+        VehicleStatus previousStatus = vehicle.getStatus();
         vehicle.markAsOutOfService();
         vehicleRepository.save(vehicle);
+        if (previousStatus != vehicle.getStatus()) {
+            eventPublisher.publishEvent(VehicleStatusChangedEvent.of(vehicle, previousStatus));
+        }
 
         auditService.logAction(username, "VEHICLE_OUT_OF_SERVICE", "Vehicle", 
                 vehicleId.toString(), 
@@ -162,4 +173,20 @@ public class VehicleManagementService {
         return vehicleRepository.findById(vehicleId)
                 .orElseThrow(() -> new IllegalArgumentException("Fahrzeug nicht gefunden"));
     }
+
+    /**
+     * Use Case: Fahrzeug nach Kennzeichen abrufen (Schalter)
+     */
+    @Transactional(readOnly = true)
+    public Vehicle getVehicleByLicensePlate(String licensePlate) {
+        return vehicleRepository.findByLicensePlate(LicensePlate.of(licensePlate))
+                .orElseThrow(() -> new IllegalArgumentException("Fahrzeug nicht gefunden"));
+    }
+
+    /**
+     * Use Case: Freitextsuche nach Marke, Modell, Typ und Standort (ohne Datenbankzugriff)
+     */
+    public List<Long> searchVehicleIds(String query, int limit) {
+        return vehicleSearchIndex.search(query, limit);
+    }
 }
@@ -0,0 +1,90 @@
+package de.rentacar.vehicle.application;
+
+import de.rentacar.shared.infrastructure.TokenIndex;
+import de.rentacar.vehicle.domain.Vehicle;
+import de.rentacar.vehicle.domain.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * In-Memory invertierter Index für die Freitextsuche über Marke, Modell, Typ und Standort.
+ * Wird beim Start aus dem Fuhrpark aufgebaut und von VehicleManagementService inkrementell gepflegt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleSearchIndex {
+
+    private final VehicleRepository vehicleRepository;
+
+    private final TokenIndex tokenIndex = new TokenIndex(false);
+
+    /**
+     * Baut den Index aus dem aktuellen Fuhrpark neu auf
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        tokenIndex.clear();
+        vehicleRepository.findAll().forEach(this::index);
+        log.info("Fahrzeug-Suchindex aufgebaut: {} Fahrzeuge, {} Tokens", tokenIndex.size(), tokenIndex.tokenCount());
+    }
+
+    /**
+     * Nimmt ein Fahrzeug in den Index auf bzw. aktualisiert dessen Einträge
+     */
+    public void index(Vehicle vehicle) {
+        if (vehicle == null || vehicle.getId() == null) {
+            return;
+        }
+        tokenIndex.index(vehicle.getId(), vehicle.getBrand(), vehicle.getModel(),
+                vehicle.getType() != null ? vehicle.getType().name() : null, vehicle.getLocation());
+    }
+
+    /**
+     * Wie {@link #index(Vehicle)}, innerhalb einer Transaktion aber erst nach dem Commit,
+     * damit ein Rollback keine Einträge im Index hinterlässt
+     */
+    public void indexAfterCommit(Vehicle vehicle) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(vehicle);
+                }
+            });
+        } else {
+            index(vehicle);
+        }
+    }
+
+    /**
+     * Entfernt ein Fahrzeug aus dem Index
+     */
+    public void remove(Long vehicleId) {
+        tokenIndex.remove(vehicleId);
+    }
+
+    public void clear() {
+        tokenIndex.clear();
+    }
+
+    /**
+     * Sucht Fahrzeuge, bei denen jedes Suchwort exakt oder als Präfix eines indexierten Tokens vorkommt.
+     * Exakte Treffer werden höher gewichtet als Präfixtreffer.
+     * @return Fahrzeug-IDs absteigend nach Relevanz
+     */
+    public List<Long> search(String query, int limit) {
+        return tokenIndex.search(query, limit);
+    }
+
+    public int size() {
+        return tokenIndex.size();
+    }
+}
@@ -0,0 +1,158 @@
+package de.rentacar.vehicle.application;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.VehicleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application Service für Kilometerstand-Telemetrie vernetzter Fahrzeuge.
+ * Messwerte werden pro Fahrzeug im Speicher auf den Höchstwert verdichtet und
+ * in festen Intervallen per JDBC-Batch geschrieben, statt jedes Aggregat einzeln zu laden.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VehicleTelemetryService {
+
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private final VehicleRepository vehicleRepository;
+
+    // Fahrzeug-ID -> höchster noch nicht geschriebener Kilometerstand
+    private final Map<Long, Long> pendingMileage = new ConcurrentHashMap<>();
+
+    private final AtomicLong acceptedReadings = new AtomicLong();
+    private final AtomicLong rejectedReadings = new AtomicLong();
+    private final AtomicLong flushedVehicles = new AtomicLong();
+
+    /**
+     * Use Case: Telemetrie-Batch annehmen (Fahrzeug per ID oder Kennzeichen).
+     * Erst werden alle Messwerte geprüft und aufgelöst, danach übernommen; ein Fehler mitten im Batch
+     * hinterlässt daher keine halb übernommenen Messwerte.
+     */
+    public IngestionResult ingest(List<MileageReading> readings) {
+        Map<String, Optional<Long>> resolvedPlates = new HashMap<>();
+        List<Map.Entry<Long, Long>> valid = new ArrayList<>(readings.size());
+        int rejected = 0;
+        Instant latestAllowed = Instant.now().plus(MAX_CLOCK_SKEW);
+
+        for (MileageReading reading : readings) {
+            if (reading == null || reading.mileage() == null || reading.mileage() < 0
+                    || (reading.timestamp() != null && reading.timestamp().isAfter(latestAllowed))) {
+                rejected++;
+                continue;
+            }
+            Long vehicleId = reading.vehicleId() != null
+                    ? reading.vehicleId()
+                    : resolvePlate(reading.licensePlate(), resolvedPlates).orElse(null);
+            if (vehicleId == null) {
+                rejected++;
+                continue;
+            }
+            valid.add(Map.entry(vehicleId, reading.mileage()));
+        }
+        valid.forEach(entry -> pendingMileage.merge(entry.getKey(), entry.getValue(), Math::max));
+
+        acceptedReadings.addAndGet(valid.size());
+        rejectedReadings.addAndGet(rejected);
+        return new IngestionResult(valid.size(), rejected);
+    }
+
+    /**
+     * Schreibt alle verdichteten Kilometerstände. Das Repository erhöht nur monoton,
+     * veraltete Messwerte werden dabei verworfen (wie in Vehicle.updateMileage).
+     * Scheitert das Schreiben oder der Commit, kommen die Werte zurück in den Puffer.
+     */
+    @Scheduled(fixedDelayString = "${rentacar.telemetry.flush-interval-ms:1000}")
+    @Transactional
+    public int flush() {
+        if (pendingMileage.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long vehicleId : pendingMileage.keySet()) {
+            Long mileage = pendingMileage.remove(vehicleId);
+            if (mileage != null) {
+                batch.put(vehicleId, mileage);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        requeue(batch);
+                    }
+                }
+            });
+        }
+        int updated;
+        try {
+            updated = vehicleRepository.updateMileages(batch);
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        }
+        flushedVehicles.addAndGet(updated);
+        log.debug("Telemetrie geschrieben: {} Fahrzeuge verdichtet, {} aktualisiert", batch.size(), updated);
+        return updated;
+    }
+
+    /**
+     * Legt nicht geschriebene Werte zurück; mehrfaches Zurücklegen ist wegen max unschädlich
+     */
+    private void requeue(Map<Long, Long> batch) {
+        batch.forEach((vehicleId, mileage) -> pendingMileage.merge(vehicleId, mileage, Math::max));
+        log.warn("Telemetrie für {} Fahrzeuge nicht geschrieben, wird erneut versucht", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Telemetrie konnte beim Herunterfahren nicht geschrieben werden: {}", e.getMessage());
+        }
+    }
+
+    public TelemetryStats getStats() {
+        return new TelemetryStats(acceptedReadings.get(), rejectedReadings.get(),
+                flushedVehicles.get(), pendingMileage.size());
+    }
+
+    private Optional<Long> resolvePlate(String licensePlate, Map<String, Optional<Long>> resolvedPlates) {
+        if (licensePlate == null || licensePlate.isBlank()) {
+            return Optional.empty();
+        }
+        return resolvedPlates.computeIfAbsent(licensePlate, plate -> {
+            try {
+                return vehicleRepository.findIdByLicensePlate(LicensePlate.of(plate));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    public record MileageReading(Long vehicleId, String licensePlate, Long mileage, Instant timestamp) {}
+
+    public record IngestionResult(int accepted, int rejected) {}
+
+    public record TelemetryStats(long acceptedReadings, long rejectedReadings, long flushedVehicles, int pendingVehicles) {}
+}
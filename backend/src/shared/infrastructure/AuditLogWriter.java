@@ -0,0 +1,426 @@
+package de.rentacar.shared.infrastructure;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gepufferter Schreiber für Audit-Einträge (NFR5).
+ *
+ * Aufrufer legen Einträge lock-frei in einen begrenzten Ringpuffer; ein Hintergrund-Thread schreibt
+ * sie per JDBC-Batch in audit_logs, statt je Anwendungsfall einen eigenen IDENTITY-Insert abzusetzen.
+ *
+ * Modi (rentacar.audit.mode):
+ * - sync (Standard): kein Puffer, AuditService speichert wie bisher per JPA in der laufenden Transaktion
+ * - async: Aufrufer kehrt sofort zurück; Einträge seit dem letzten Batch gehen bei einem Absturz verloren
+ * - group-commit: außerhalb einer Transaktion wartet der Aufrufer, bis der Batch mit seinem Eintrag
+ *   committet ist; gleichzeitige Aufrufer teilen sich einen Batch
+ *
+ * Läuft eine fachliche Transaktion, wird der Eintrag erst nach deren Commit gepuffert (afterCommit):
+ * bei Rollback entsteht kein Audit-Eintrag, und der Aufrufer wartet nie mit belegter Verbindung auf den
+ * Writer. Zwischen Commit und Batch kann ein Absturz den Eintrag kosten; wer das nicht hinnehmen kann,
+ * bleibt bei sync. Ist der Puffer voll, wartet der Aufrufer bis offer-timeout-ms (Backpressure);
+ * danach wird der Eintrag verworfen und nur noch im Log ausgegeben.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    static final String INSERT_SQL = "INSERT INTO audit_logs (username, action, resource_type, resource_id, details, "
+            + "timestamp, ip_address, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final int MAX_DETAILS_LENGTH = 1000;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public enum DurabilityMode {
+        SYNC, ASYNC, GROUP_COMMIT;
+
+        static DurabilityMode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DurabilityMode mode;
+    private final RingBuffer<Entry> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Duration groupCommitTimeout;
+    private final Clock clock;
+
+    private volatile Thread writerThread;
+    private volatile boolean running;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong commitTimeouts = new AtomicLong();
+
+    @Autowired
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${rentacar.audit.mode:sync}") String mode,
+                          @Value("${rentacar.audit.buffer-capacity:8192}") int bufferCapacity,
+                          @Value("${rentacar.audit.batch-size:256}") int batchSize,
+                          @Value("${rentacar.audit.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${rentacar.audit.offer-timeout-ms:50}") long offerTimeoutMs,
+                          @Value("${rentacar.audit.group-commit-timeout-ms:2000}") long groupCommitTimeoutMs) {
+        this(jdbcTemplate, transactionManager, DurabilityMode.parse(mode), bufferCapacity, batchSize,
+                Duration.ofMillis(flushIntervalMs), Duration.ofMillis(offerTimeoutMs),
+                Duration.ofMillis(groupCommitTimeoutMs), Clock.systemDefaultZone());
+    }
+
+    AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, DurabilityMode mode,
+                   int bufferCapacity, int batchSize, Duration flushInterval, Duration offerTimeout,
+                   Duration groupCommitTimeout, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Eigene Transaktion je Batch, unabhängig von einer eventuell laufenden fachlichen Transaktion
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = mode;
+        this.buffer = new RingBuffer<>(bufferCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.groupCommitTimeout = groupCommitTimeout;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode == DurabilityMode.SYNC || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("Audit-Writer gestartet (Modus {}, Puffer {}, Batch {})", mode, buffer.capacity(), batchSize);
+    }
+
+    /**
+     * true, wenn Einträge über den Puffer statt direkt per JPA geschrieben werden
+     */
+    public boolean isBuffered() {
+        return mode != DurabilityMode.SYNC;
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Übernimmt einen Eintrag in den Puffer, innerhalb einer Transaktion erst nach deren Commit.
+     * Im Modus group-commit kehrt der Aufruf außerhalb einer Transaktion erst zurück, wenn der Eintrag
+     * committet ist.
+     *
+     * @throws IllegalStateException wenn der Eintrag im Modus group-commit nicht geschrieben werden konnte
+     */
+    public void append(String username, String action, String resourceType, String resourceId,
+                       String details, String ipAddress) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        Entry entry = new Entry(username, action, resourceType, resourceId, truncate(details), ipAddress,
+                LocalDateTime.now(clock),
+                mode == DurabilityMode.GROUP_COMMIT && !inTransaction ? new CompletableFuture<>() : null);
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+            return;
+        }
+        enqueue(entry);
+    }
+
+    private void enqueue(Entry entry) {
+        published.incrementAndGet();
+
+        if (!running) {
+            // Vor dem Start bzw. nach dem Herunterfahren direkt schreiben
+            writeBatch(List.of(entry));
+        } else if (!offer(entry)) {
+            dropped.incrementAndGet();
+            log.warn("Audit-Puffer voll, Eintrag verworfen: {} {} {}/{} von {} ({})", entry.timestamp(),
+                    entry.action(), entry.resourceType(), entry.resourceId(), entry.username(), entry.ipAddress());
+            if (entry.committed() != null) {
+                throw new IllegalStateException("Audit-Eintrag konnte nicht gepuffert werden");
+            }
+            return;
+        } else if (mode == DurabilityMode.GROUP_COMMIT || buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+
+        if (entry.committed() != null) {
+            awaitCommit(entry);
+        }
+    }
+
+    /**
+     * Schreibt alle gepufferten Einträge im aufrufenden Thread. Nur aufrufen, solange kein
+     * Writer-Thread läuft (Tests, Herunterfahren).
+     *
+     * @return Anzahl geschriebener Einträge
+     */
+    int drain() {
+        int total = 0;
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            total += writeBatch(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = writerThread;
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("Audit-Writer nicht rechtzeitig beendet, {} Einträge noch im Puffer", buffer.size());
+            return;
+        }
+        int remaining = drain();
+        if (remaining > 0) {
+            log.info("{} Audit-Einträge beim Herunterfahren geschrieben", remaining);
+        }
+    }
+
+    public AuditWriterStats getStats() {
+        return new AuditWriterStats(mode, buffer.capacity(), buffer.size(), published.get(), written.get(),
+                batches.get(), dropped.get(), backpressureWaits.get(), failedBatches.get(), commitTimeouts.get());
+    }
+
+    private boolean offer(Entry entry) {
+        if (buffer.offer(entry)) {
+            return true;
+        }
+        // Backpressure: Writer wecken und kurz warten, bis wieder Platz ist
+        backpressureWaits.incrementAndGet();
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        do {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(this, BACKPRESSURE_PARK_NANOS);
+            if (buffer.offer(entry)) {
+                return true;
+            }
+        } while (System.nanoTime() < deadline && running);
+        return false;
+    }
+
+    private void awaitCommit(Entry entry) {
+        try {
+            entry.committed().get(groupCommitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Eintrag bleibt im Puffer und wird später geschrieben
+            commitTimeouts.incrementAndGet();
+            log.warn("Audit-Eintrag {} nach {} ms noch nicht committet", entry.action(), groupCommitTimeout.toMillis());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit-Eintrag konnte nicht geschrieben werden", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Schreibt einen Batch in einer Transaktion, bei Fehlern mit wenigen Wiederholungen
+     *
+     * @return Anzahl geschriebener Einträge
+     */
+    private int writeBatch(List<Entry> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, entry) -> {
+                            Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+                            statement.setString(1, entry.username());
+                            statement.setString(2, entry.action());
+                            statement.setString(3, entry.resourceType());
+                            statement.setString(4, entry.resourceId());
+                            statement.setString(5, entry.details());
+                            statement.setTimestamp(6, Timestamp.valueOf(entry.timestamp()));
+                            statement.setString(7, entry.ipAddress());
+                            statement.setTimestamp(8, now);
+                            statement.setTimestamp(9, now);
+                        }));
+                written.addAndGet(batch.size());
+                batches.incrementAndGet();
+                batch.forEach(entry -> {
+                    if (entry.committed() != null) {
+                        entry.committed().complete(null);
+                    }
+                });
+                return batch.size();
+            } catch (DataAccessException e) {
+                failedBatches.incrementAndGet();
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    dropped.addAndGet(batch.size());
+                    log.error("Audit-Batch mit {} Einträgen nach {} Versuchen verworfen", batch.size(), attempt, e);
+                    batch.forEach(entry -> {
+                        log.error("Verworfener Audit-Eintrag: {} {} {}/{} von {} ({})", entry.timestamp(),
+                                entry.action(), entry.resourceType(), entry.resourceId(), entry.username(),
+                                entry.ipAddress());
+                        if (entry.committed() != null) {
+                            entry.committed().completeExceptionally(e);
+                        }
+                    });
+                    return 0;
+                }
+                log.warn("Audit-Batch fehlgeschlagen (Versuch {}): {}", attempt, e.getMessage());
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100L * attempt));
+            }
+        }
+    }
+
+    private static String truncate(String details) {
+        return details != null && details.length() > MAX_DETAILS_LENGTH
+                ? details.substring(0, MAX_DETAILS_LENGTH)
+                : details;
+    }
+
+    record Entry(String username, String action, String resourceType, String resourceId, String details,
+                 String ipAddress, LocalDateTime timestamp, CompletableFuture<Void> committed) {}
+
+    /**
+     * Begrenzter lock-freier Ringpuffer für viele Produzenten und einen Konsumenten.
+     * Jeder Slot trägt eine Sequenznummer, die anzeigt, ob er frei oder belegt ist (Vyukov-Queue);
+     * Produzenten reservieren Slots per CAS auf dem Schreibzähler.
+     */
+    static final class RingBuffer<E> {
+        private final int mask;
+        private final AtomicReferenceArray<E> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong head = new AtomicLong();
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) - 1) << 1;
+            this.mask = capacity - 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        /**
+         * @return false, wenn der Puffer voll ist
+         */
+        boolean offer(E element) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.set(index, element);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        /**
+         * Entnimmt bis zu max Elemente; darf nur von einem Thread gleichzeitig aufgerufen werden
+         */
+        int drainTo(List<E> target, int max) {
+            long position = head.get();
+            int count = 0;
+            while (count < max) {
+                int index = (int) (position & mask);
+                if (sequences.get(index) != position + 1) {
+                    break;
+                }
+                target.add(slots.get(index));
+                slots.set(index, null);
+                sequences.set(index, position + mask + 1);
+                position++;
+                count++;
+            }
+            head.set(position);
+            return count;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head.get());
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    public record AuditWriterStats(
+            DurabilityMode mode,
+            int capacity,
+            int buffered,
+            long published,
+            long written,
+            long batches,
+            long dropped,
+            long backpressureWaits,
+            long failedBatches,
+            long commitTimeouts
+    ) {}
+}
@@ -0,0 +1,563 @@
+package de.rentacar.shared.infrastructure;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ein Segment des dateibasierten Audit-Logs (siehe {@link SegmentedAuditLog}).
+ *
+ * Datei &lt;basis&gt;.seg: Kopf (32 Byte), danach Datensätze [Länge][CRC32][Nutzdaten]; Länge 0 markiert das Ende.
+ * Das aktive Segment ist per mmap eingeblendet. Beim Versiegeln entsteht &lt;basis&gt;.idx mit Metadaten,
+ * dünnem Zeitindex (jeder INDEX_INTERVAL-te Datensatz) und Bloom-Filter über Benutzer und Ressourcen;
+ * später wird die Datendatei zu &lt;basis&gt;.seg.gz komprimiert. Nicht thread-sicher beim Schreiben,
+ * das übernimmt SegmentedAuditLog.
+ */
+@Slf4j
+final class AuditSegment {
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final int INDEX_INTERVAL = 64;
+
+    private static final int DATA_MAGIC = 0x52414C47;
+    private static final int INDEX_MAGIC = 0x52414C49;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 3;
+    private static final int MAX_FIELD_CHARS = 1000;
+
+    private final Path directory;
+    private final long baseSequence;
+
+    private MappedByteBuffer buffer;
+    private volatile int writePosition = HEADER_SIZE;
+    private volatile long recordCount;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private volatile boolean sealed;
+    private volatile boolean compressed;
+    private long createdAtMillis;
+    private boolean discardedTail;
+
+    private long[] indexTimestamps = new long[16];
+    private int[] indexOffsets = new int[16];
+    private volatile int indexSize;
+    private final long[] bloom = new long[BLOOM_BITS / 64];
+
+    private AuditSegment(Path directory, long baseSequence) {
+        this.directory = directory;
+        this.baseSequence = baseSequence;
+    }
+
+    /**
+     * Legt ein neues aktives Segment an
+     */
+    static AuditSegment create(Path directory, long baseSequence, int capacity, long nowMillis) throws IOException {
+        AuditSegment segment = new AuditSegment(directory, baseSequence);
+        segment.map(capacity);
+        segment.createdAtMillis = nowMillis;
+        segment.buffer.putInt(0, DATA_MAGIC);
+        segment.buffer.putInt(4, FORMAT_VERSION);
+        segment.buffer.putLong(8, baseSequence);
+        segment.buffer.putLong(16, nowMillis);
+        return segment;
+    }
+
+    /**
+     * Öffnet ein vorhandenes Segment: versiegelt (mit .idx) oder aktiv, dann werden die
+     * Datensätze bis zum ersten unvollständigen oder beschädigten gelesen
+     */
+    static AuditSegment open(Path directory, long baseSequence, int capacity) throws IOException {
+        AuditSegment segment = new AuditSegment(directory, baseSequence);
+        if (Files.exists(segment.indexFile())) {
+            segment.readIndex();
+            segment.sealed = true;
+            segment.compressed = !Files.exists(segment.dataFile()) && Files.exists(segment.compressedFile());
+            return segment;
+        }
+        segment.map(Math.max(capacity, (int) Files.size(segment.dataFile())));
+        if (segment.buffer.getInt(0) != DATA_MAGIC || segment.buffer.getLong(8) != baseSequence) {
+            throw new IOException("Kein gültiges Audit-Segment: " + segment.dataFile());
+        }
+        segment.createdAtMillis = segment.buffer.getLong(16);
+        segment.recover();
+        return segment;
+    }
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    long getNextSequence() {
+        return baseSequence + recordCount;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    int getSize() {
+        return writePosition;
+    }
+
+    int getCapacity() {
+        return buffer != null ? buffer.capacity() : writePosition;
+    }
+
+    /**
+     * true, wenn beim Öffnen ein unvollständiger Datensatz am Ende verworfen wurde
+     */
+    boolean hasDiscardedTail() {
+        return discardedTail;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Hängt einen Datensatz an
+     *
+     * @return false, wenn das Segment dafür zu voll ist
+     */
+    boolean append(long timestamp, String username, String action, String resourceType, String resourceId,
+                   String details, String ipAddress) {
+        byte[] payload = encode(getNextSequence(), timestamp, username, action, resourceType, resourceId, details, ipAddress);
+        int position = writePosition;
+        if (position + RECORD_HEADER_SIZE + payload.length + 4 > buffer.capacity()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // Länge zuletzt: erst dann gilt der Datensatz als geschrieben
+        buffer.putInt(position, payload.length);
+        track(position, timestamp, username, resourceType, resourceId);
+        writePosition = position + RECORD_HEADER_SIZE + payload.length;
+        return true;
+    }
+
+    void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Kürzt die Datendatei auf die geschriebenen Datensätze und schreibt Index und Bloom-Filter;
+     * danach ist das Segment unveränderlich
+     */
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        force();
+        // Vorbelegten Rest abschneiden: versiegelte Segmente enden mit dem letzten Datensatz,
+        // Nullbytes am Dateiende kommen damit nur noch in aktiven Segmenten vor
+        try (FileChannel channel = FileChannel.open(dataFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(writePosition);
+            channel.force(true);
+        }
+        Path temp = directory.resolve(indexFile().getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(baseSequence);
+            out.writeLong(recordCount);
+            out.writeLong(minTimestamp);
+            out.writeLong(maxTimestamp);
+            out.writeLong(createdAtMillis);
+            out.writeInt(writePosition);
+            out.writeInt(indexSize);
+            for (int i = 0; i < indexSize; i++) {
+                out.writeLong(indexTimestamps[i]);
+                out.writeInt(indexOffsets[i]);
+            }
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(temp, indexFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sealed = true;
+        buffer = null;
+    }
+
+    /**
+     * Komprimiert die Datendatei eines versiegelten Segments (gzip) und löscht das Original
+     */
+    void compress() throws IOException {
+        if (!sealed || compressed) {
+            return;
+        }
+        Path temp = directory.resolve(compressedFile().getFileName() + ".tmp");
+        try (InputStream in = Files.newInputStream(dataFile());
+             OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            byte[] chunk = new byte[64 * 1024];
+            long remaining = writePosition;
+            while (remaining > 0) {
+                int read = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                out.write(chunk, 0, read);
+                remaining -= read;
+            }
+        }
+        Files.move(temp, compressedFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        compressed = true;
+        Files.deleteIfExists(dataFile());
+    }
+
+    /**
+     * Prüft anhand von Zeitspanne und Bloom-Filter, ob das Segment passende Datensätze enthalten kann
+     */
+    boolean mayContain(long from, long to, String username, String resourceType, String resourceId) {
+        if (recordCount == 0 || maxTimestamp < from || minTimestamp > to) {
+            return false;
+        }
+        if (username != null && !bloomContains("u:" + username)) {
+            return false;
+        }
+        if (resourceType != null && resourceId != null) {
+            return bloomContains("r:" + resourceType + "/" + resourceId);
+        }
+        return resourceType == null || bloomContains("t:" + resourceType);
+    }
+
+    /**
+     * Liest alle Datensätze ab dem ersten mit Zeitstempel &gt;= from in Schreibreihenfolge
+     */
+    RecordReader openReader(long from) throws IOException {
+        int start = startOffset(from);
+        if (!sealed) {
+            MappedByteBuffer mapped = buffer;
+            if (mapped != null) {
+                ByteBuffer view = mapped.duplicate();
+                view.limit(writePosition).position(start);
+                return new RecordReader(new DataInputStream(new ByteBufferInputStream(view)));
+            }
+        }
+        if (!compressed) {
+            try {
+                FileChannel channel = FileChannel.open(dataFile(), StandardOpenOption.READ);
+                channel.position(start);
+                return new RecordReader(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+            } catch (NoSuchFileException e) {
+                // zwischenzeitlich komprimiert
+            }
+        }
+        InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(compressedFile())));
+        in.skipNBytes(start);
+        return new RecordReader(new DataInputStream(in));
+    }
+
+    /**
+     * Verschiebt ein komprimiertes Segment samt Index in ein anderes Verzeichnis
+     */
+    void moveTo(Path targetDirectory) throws IOException {
+        if (!compressed) {
+            throw new IllegalStateException("Nur komprimierte Segmente können verschoben werden");
+        }
+        Files.createDirectories(targetDirectory);
+        Files.move(compressedFile(), targetDirectory.resolve(compressedFile().getFileName()),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.move(indexFile(), targetDirectory.resolve(indexFile().getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Path dataFile() {
+        return directory.resolve(fileName(baseSequence) + ".seg");
+    }
+
+    Path compressedFile() {
+        return directory.resolve(fileName(baseSequence) + ".seg.gz");
+    }
+
+    Path indexFile() {
+        return directory.resolve(fileName(baseSequence) + ".idx");
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("%020d", baseSequence);
+    }
+
+    private void map(int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataFile(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private void recover() {
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return;
+            }
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            Record record = decode(payload);
+            track(position, record.timestamp(), record.username(), record.resourceType(), record.resourceId());
+            position += RECORD_HEADER_SIZE + length;
+            writePosition = position;
+        }
+        if (position + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return;
+        }
+        // Unvollständiger Datensatz (Absturz beim Schreiben): Rest leeren, damit er nicht später als gültig gilt
+        log.warn("Audit-Segment {}: unvollständiger Datensatz an Position {} verworfen", dataFile().getFileName(), position);
+        discardedTail = true;
+        for (int i = position; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void track(int position, long timestamp, String username, String resourceType, String resourceId) {
+        if (recordCount % INDEX_INTERVAL == 0) {
+            if (indexSize == indexTimestamps.length) {
+                indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+            }
+            indexTimestamps[indexSize] = timestamp;
+            indexOffsets[indexSize] = position;
+            indexSize++;
+        }
+        bloomAdd("u:" + username);
+        bloomAdd("t:" + resourceType);
+        bloomAdd("r:" + resourceType + "/" + resourceId);
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        recordCount++;
+    }
+
+    /**
+     * Zeitstempel sind je Segment nicht fallend; Start beim letzten Indexeintrag vor from
+     */
+    private int startOffset(long from) {
+        int low = 0;
+        int high = indexSize - 1;
+        int start = HEADER_SIZE;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (indexTimestamps[middle] < from) {
+                start = indexOffsets[middle];
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return start;
+    }
+
+    private void readIndex() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile())))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != baseSequence) {
+                throw new IOException("Kein gültiger Audit-Index: " + indexFile());
+            }
+            recordCount = in.readLong();
+            minTimestamp = in.readLong();
+            maxTimestamp = in.readLong();
+            createdAtMillis = in.readLong();
+            writePosition = in.readInt();
+            int size = in.readInt();
+            indexTimestamps = new long[Math.max(1, size)];
+            indexOffsets = new int[Math.max(1, size)];
+            for (int i = 0; i < size; i++) {
+                indexTimestamps[i] = in.readLong();
+                indexOffsets[i] = in.readInt();
+            }
+            indexSize = size;
+            for (int i = 0; i < bloom.length; i++) {
+                bloom[i] = in.readLong();
+            }
+        }
+    }
+
+    private void bloomAdd(String key) {
+        int hash1 = key.hashCode();
+        int hash2 = Integer.reverse(hash1) * 0x9E3779B9;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash1 + i * hash2) & (BLOOM_BITS - 1);
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean bloomContains(String key) {
+        int hash1 = key.hashCode();
+        int hash2 = Integer.reverse(hash1) * 0x9E3779B9;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (hash1 + i * hash2) & (BLOOM_BITS - 1);
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] encode(long sequence, long timestamp, String username, String action, String resourceType,
+                         String resourceId, String details, String ipAddress) {
+        byte[][] fields = {utf8(username), utf8(action), utf8(resourceType), utf8(resourceId), utf8(details), utf8(ipAddress)};
+        int length = 16;
+        for (byte[] field : fields) {
+            length += 2 + (field != null ? field.length : 0);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putLong(sequence).putLong(timestamp);
+        for (byte[] field : fields) {
+            if (field == null) {
+                payload.putShort((short) -1);
+            } else {
+                payload.putShort((short) field.length).put(field);
+            }
+        }
+        return payload.array();
+    }
+
+    static Record decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        return new Record(in.getLong(), in.getLong(), readString(in), readString(in), readString(in),
+                readString(in), readString(in), readString(in));
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        String limited = value.length() > MAX_FIELD_CHARS ? value.substring(0, MAX_FIELD_CHARS) : value;
+        return limited.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Dekodierter Datensatz; timestamp in Millisekunden (LocalDateTime als UTC gerechnet)
+     */
+    record Record(long sequence, long timestamp, String username, String action, String resourceType,
+                  String resourceId, String details, String ipAddress) {}
+
+    /**
+     * Liest Datensätze sequenziell und prüft die CRC
+     */
+    static final class RecordReader implements AutoCloseable {
+        private final DataInputStream in;
+        private final CRC32 crc = new CRC32();
+        private boolean corrupt;
+
+        RecordReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return nächster Datensatz oder null am Ende bzw. bei beschädigten Daten (siehe {@link #isCorrupt()})
+         */
+        Record next() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (length <= 0) {
+                return null;
+            }
+            int expected = in.readInt();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) {
+                corrupt = true;
+                return null;
+            }
+            return decode(payload);
+        }
+
+        boolean isCorrupt() {
+            return corrupt;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer source;
+
+        ByteBufferInputStream(ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read() {
+            return source.hasRemaining() ? source.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!source.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, source.remaining());
+            source.get(target, offset, count);
+            return count;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import de.rentacar.shared.security.Role;
 import de.rentacar.shared.security.User;
 import de.rentacar.shared.security.UserRepository;
 import de.rentacar.vehicle.application.VehicleManagementService;
+import de.rentacar.vehicle.application.VehicleSearchIndex;
 import de.rentacar.vehicle.domain.VehicleRepository;
 import de.rentacar.vehicle.domain.VehicleType;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class DataInitializer implements CommandLineRunner {
     private final PasswordEncoder passwordEncoder;
     private final CustomerService customerService;
     private final VehicleManagementService vehicleManagementService;
+    private final VehicleSearchIndex vehicleSearchIndex;
 
     @Override
     public void run(String... args) {
@@ -83,6 +85,7 @@ public class DataInitializer implements CommandLineRunner {
         } catch (Exception e) {
             throw new RuntimeException("Konnte Fahrzeuge nicht löschen", e);
         }
+        vehicleSearchIndex.clear();
         seedVehicles();
     }
 
@@ -0,0 +1,413 @@
+package de.rentacar.shared.infrastructure;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Zweistufiger Cache für den Bild-Proxy: LRU im Speicher (begrenzt nach Bytes) vor einem Cache auf der
+ * Platte. Die Platte ist inhaltsadressiert (blobs/ab/SHA-256 des Inhalts), gleiche Bilder unter
+ * verschiedenen URLs liegen nur einmal vor; je URL verweist eine kleine Metadatei (urls/SHA-256 der URL)
+ * auf den Inhalt. Der Hash des Inhalts ist zugleich das starke ETag der Antwort.
+ *
+ * Einträge sind fresh-seconds lang frisch und werden danach beim Upstream bedingt revalidiert.
+ * Downloads werden als Datei übernommen, ohne sie in den Heap zu lesen. Treffer auf der Platte bis
+ * 1/16 von memory-max-mb werden in den Speicher übernommen; größere werden aus der Datei gestreamt,
+ * dort übernimmt der Page-Cache des Betriebssystems die Rolle des Speichers.
+ */
+@Component
+@Slf4j
+public class ImageCache {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int MEMORY_ENTRY_FRACTION = 16;
+
+    private final long memoryMaxBytes;
+    private final Path directory;
+    private final long diskMaxBytes;
+    private final Duration freshFor;
+    private final Clock clock;
+
+    // Zugriffsreihenfolge = LRU
+    private final LinkedHashMap<String, CachedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public ImageCache(@Value("${rentacar.images.cache.memory-max-mb:64}") long memoryMaxMb,
+                      @Value("${rentacar.images.cache.directory:./data/image-cache}") String directory,
+                      @Value("${rentacar.images.cache.disk-max-mb:512}") long diskMaxMb,
+                      @Value("${rentacar.images.cache.fresh-seconds:3600}") long freshSeconds) {
+        this(memoryMaxMb * 1024 * 1024, Paths.get(directory), diskMaxMb * 1024 * 1024,
+                Duration.ofSeconds(freshSeconds), Clock.systemUTC());
+    }
+
+    ImageCache(long memoryMaxBytes, Path directory, long diskMaxBytes, Duration freshFor, Clock clock) {
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.directory = directory;
+        this.diskMaxBytes = diskMaxBytes;
+        this.freshFor = freshFor;
+        this.clock = clock;
+    }
+
+    /**
+     * Entfernt abgebrochene Downloads eines früheren Laufs
+     */
+    @PostConstruct
+    public void cleanUpDownloads() {
+        Path downloads = directory.resolve("tmp");
+        if (!Files.isDirectory(downloads)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(downloads)) {
+            files.forEach(ImageCache::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Temporäre Downloads konnten nicht gelöscht werden: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sucht zuerst im Speicher, dann auf der Platte. Treffer auf der Platte haben keine data, nur file.
+     */
+    public Optional<CachedImage> get(String url) {
+        synchronized (memory) {
+            CachedImage image = memory.get(url);
+            if (image != null) {
+                memoryHits.incrementAndGet();
+                return Optional.of(image);
+            }
+        }
+        CachedImage image = readFromDisk(url);
+        if (image == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        diskHits.incrementAndGet();
+        return Optional.of(promote(image));
+    }
+
+    public boolean isFresh(CachedImage image) {
+        return clock.instant().isBefore(image.fetchedAt().plus(freshFor));
+    }
+
+    /**
+     * Übernimmt ein Bild aus dem Speicher in beide Stufen
+     */
+    public CachedImage put(String url, byte[] data, String contentType, String upstreamEtag, String upstreamLastModified) {
+        String digest = sha256(data);
+        CachedImage image = new CachedImage(url, digest, contentType, upstreamEtag, upstreamLastModified,
+                clock.instant(), data.length, data, blobFile(digest));
+        try {
+            Files.createDirectories(image.file().getParent());
+            Path temp = Files.createTempFile(image.file().getParent(), digest, ".tmp");
+            Files.write(temp, data);
+            addBlob(temp, image);
+            writeMetadata(image);
+        } catch (IOException e) {
+            // Ohne Platte bleibt der Speicher-Cache nutzbar
+            log.warn("Bild konnte nicht im Plattencache abgelegt werden: {}", e.getMessage());
+        }
+        remember(image);
+        return image;
+    }
+
+    /**
+     * Übernimmt einen fertigen Download (aus createDownloadFile) als Inhalt; die Datei wird verschoben,
+     * nicht gelesen. In den Speicher kommt das Bild erst beim nächsten Treffer (siehe get).
+     */
+    public CachedImage store(String url, Path download, String digest, String contentType, String upstreamEtag,
+                             String upstreamLastModified) throws IOException {
+        CachedImage image = new CachedImage(url, digest, contentType, upstreamEtag, upstreamLastModified,
+                clock.instant(), Files.size(download), null, blobFile(digest));
+        Files.createDirectories(image.file().getParent());
+        addBlob(download, image);
+        writeMetadata(image);
+        synchronized (memory) {
+            // Veralteten Inhalt derselben URL nicht weiter aus dem Speicher liefern
+            CachedImage previous = memory.remove(url);
+            if (previous != null) {
+                memoryBytes -= previous.data().length;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Temporäre Datei für einen Download auf demselben Dateisystem wie der Cache (atomares Verschieben)
+     */
+    public Path createDownloadFile() throws IOException {
+        Path downloads = Files.createDirectories(directory.resolve("tmp"));
+        return Files.createTempFile(downloads, "download", ".tmp");
+    }
+
+    /**
+     * Upstream hat mit 304 bestätigt: Eintrag ist wieder fresh-seconds lang frisch
+     */
+    public CachedImage revalidated(CachedImage image) {
+        CachedImage refreshed = new CachedImage(image.url(), image.digest(), image.contentType(), image.upstreamEtag(),
+                image.upstreamLastModified(), clock.instant(), image.size(), image.data(), image.file());
+        try {
+            writeMetadata(refreshed);
+        } catch (IOException e) {
+            log.warn("Metadaten des Bildcaches konnten nicht aktualisiert werden: {}", e.getMessage());
+        }
+        remember(refreshed);
+        return refreshed;
+    }
+
+    public ImageCacheStats getStats() {
+        synchronized (memory) {
+            return new ImageCacheStats(memory.size(), memoryBytes, memoryMaxBytes, Math.max(diskBytes.get(), 0),
+                    diskMaxBytes, memoryHits.get(), diskHits.get(), misses.get());
+        }
+    }
+
+    private void remember(CachedImage image) {
+        if (image.data() == null || image.size() > memoryMaxBytes) {
+            return;
+        }
+        long size = image.size();
+        synchronized (memory) {
+            CachedImage previous = memory.put(image.url(), image);
+            memoryBytes += size - (previous != null ? previous.data().length : 0);
+            var iterator = memory.values().iterator();
+            while (memoryBytes > memoryMaxBytes && iterator.hasNext()) {
+                memoryBytes -= iterator.next().data().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Lädt kleine Treffer von der Platte in den Speicher; schlägt das fehl, wird aus der Datei geliefert
+     */
+    private CachedImage promote(CachedImage image) {
+        if (image.size() > memoryMaxBytes / MEMORY_ENTRY_FRACTION) {
+            return image;
+        }
+        try {
+            CachedImage loaded = new CachedImage(image.url(), image.digest(), image.contentType(), image.upstreamEtag(),
+                    image.upstreamLastModified(), image.fetchedAt(), image.size(), Files.readAllBytes(image.file()),
+                    image.file());
+            remember(loaded);
+            return loaded;
+        } catch (IOException e) {
+            log.debug("Bild konnte nicht in den Speicher geladen werden: {}", e.getMessage());
+            return image;
+        }
+    }
+
+    private CachedImage readFromDisk(String url) {
+        Path metadataFile = metadataFile(url);
+        if (!Files.exists(metadataFile)) {
+            return null;
+        }
+        try {
+            Properties metadata = new Properties();
+            try (Reader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8)) {
+                metadata.load(reader);
+            }
+            String digest = metadata.getProperty("digest");
+            Path blob = blobFile(digest);
+            long size = Files.size(blob);
+            // Zugriffszeit für die Verdrängung auf der Platte
+            Files.setLastModifiedTime(blob, FileTime.from(clock.instant()));
+            return new CachedImage(url, digest, metadata.getProperty("contentType"),
+                    metadata.getProperty("upstreamEtag"), metadata.getProperty("upstreamLastModified"),
+                    Instant.parse(metadata.getProperty("fetchedAt")), size, null, blob);
+        } catch (NoSuchFileException e) {
+            // Inhalt wurde verdrängt, die Metadatei ist verwaist
+            deleteQuietly(metadataFile);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Eintrag im Bildcache unlesbar, wird verworfen: {}", e.getMessage());
+            deleteQuietly(metadataFile);
+            return null;
+        }
+    }
+
+    /**
+     * Verschiebt temp an die Stelle des Inhalts; ist der Inhalt schon vorhanden, wird temp verworfen
+     */
+    private void addBlob(Path temp, CachedImage image) throws IOException {
+        Path blob = image.file();
+        if (Files.exists(blob)) {
+            Files.delete(temp);
+            Files.setLastModifiedTime(blob, FileTime.from(clock.instant()));
+            return;
+        }
+        Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.setLastModifiedTime(blob, FileTime.from(clock.instant()));
+        if (diskBytes.get() < 0) {
+            diskBytes.set(scanDiskBytes());
+        } else {
+            diskBytes.addAndGet(image.size());
+        }
+        if (diskBytes.get() > diskMaxBytes) {
+            evictFromDisk();
+        }
+    }
+
+    private void writeMetadata(CachedImage image) throws IOException {
+        Properties metadata = new Properties();
+        metadata.setProperty("url", image.url());
+        metadata.setProperty("digest", image.digest());
+        metadata.setProperty("fetchedAt", image.fetchedAt().toString());
+        if (image.contentType() != null) {
+            metadata.setProperty("contentType", image.contentType());
+        }
+        if (image.upstreamEtag() != null) {
+            metadata.setProperty("upstreamEtag", image.upstreamEtag());
+        }
+        if (image.upstreamLastModified() != null) {
+            metadata.setProperty("upstreamLastModified", image.upstreamLastModified());
+        }
+        Path metadataFile = metadataFile(image.url());
+        Files.createDirectories(metadataFile.getParent());
+        Path temp = Files.createTempFile(metadataFile.getParent(), "url", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            metadata.store(writer, null);
+        }
+        Files.move(temp, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Löscht die am längsten nicht genutzten Inhalte, bis 90 % von disk-max-mb erreicht sind.
+     * Verwaiste Metadateien werden beim nächsten Zugriff entfernt.
+     */
+    private synchronized void evictFromDisk() {
+        List<Path> blobs = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory.resolve("blobs"))) {
+            files.filter(Files::isRegularFile).filter(file -> !file.toString().endsWith(".tmp")).forEach(blobs::add);
+        } catch (IOException e) {
+            log.warn("Plattencache konnte nicht aufgeräumt werden: {}", e.getMessage());
+            return;
+        }
+        blobs.sort(Comparator.comparing(ImageCache::lastModified));
+        long target = diskMaxBytes * 9 / 10;
+        long total = blobs.stream().mapToLong(ImageCache::size).sum();
+        for (Path blob : blobs) {
+            if (total <= target) {
+                break;
+            }
+            long size = size(blob);
+            deleteQuietly(blob);
+            total -= size;
+        }
+        diskBytes.set(total);
+    }
+
+    private long scanDiskBytes() {
+        try (Stream<Path> files = Files.walk(directory.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).mapToLong(ImageCache::size).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path blobFile(String digest) {
+        return directory.resolve("blobs").resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    private Path metadataFile(String url) {
+        return directory.resolve("urls").resolve(sha256(url.getBytes(StandardCharsets.UTF_8)) + ".properties");
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("{} konnte nicht gelöscht werden: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Zwischengespeichertes Bild; digest ist der SHA-256 des Inhalts. data ist nur bei Treffern im Speicher
+     * gesetzt, file (Inhalt auf der Platte) immer.
+     */
+    public record CachedImage(
+            String url,
+            String digest,
+            String contentType,
+            String upstreamEtag,
+            String upstreamLastModified,
+            Instant fetchedAt,
+            long size,
+            byte[] data,
+            Path file
+    ) {
+
+        /**
+         * Starkes ETag: gleicher Inhalt ergibt dasselbe ETag, auch über Neustarts und Instanzen hinweg
+         */
+        public String etag() {
+            return "\"" + digest + "\"";
+        }
+    }
+
+    public record ImageCacheStats(
+            int memoryEntries,
+            long memoryBytes,
+            long memoryMaxBytes,
+            long diskBytes,
+            long diskMaxBytes,
+            long memoryHits,
+            long diskHits,
+            long misses
+    ) {}
+}
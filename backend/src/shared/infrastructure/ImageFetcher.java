@@ -0,0 +1,331 @@
+package de.rentacar.shared.infrastructure;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lädt Bilder für den Bild-Proxy über einen gemeinsamen java.net.http.HttpClient (Keep-Alive, HTTP/2,
+ * Verbindungen werden wiederverwendet). Der Body wird asynchron in eine temporäre Datei des ImageCache
+ * geschrieben und dabei gezählt und gehasht; überschreitet er max-bytes, wird der Download sofort
+ * abgebrochen statt erst nach dem vollständigen Lesen.
+ *
+ * Weiterleitungen folgt der Client nicht selbst: jede Location wird gegen die erlaubten Hosts geprüft
+ * (SSRF), höchstens MAX_REDIRECTS Mal.
+ */
+@Component
+@Slf4j
+public class ImageFetcher {
+
+    /** Hosts, die der Bild-Proxy abrufen darf, auch als Ziel einer Weiterleitung */
+    public static final Set<String> ALLOWED_HOSTS = Set.of(
+            "images.unsplash.com", "source.unsplash.com", "picsum.photos", "fastly.picsum.photos");
+    private static final int MAX_REDIRECTS = 5;
+    private static final Set<Integer> REDIRECT_STATUS = Set.of(301, 302, 303, 307, 308);
+    private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36";
+
+    private final ImageCache imageCache;
+    private final Set<String> allowedHosts;
+    private final long maxBytes;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    @Autowired
+    public ImageFetcher(ImageCache imageCache,
+                        @Value("${rentacar.images.proxy.max-bytes:2097152}") long maxBytes,
+                        @Value("${rentacar.images.proxy.connect-timeout-ms:3000}") long connectTimeoutMs,
+                        @Value("${rentacar.images.proxy.request-timeout-ms:8000}") long requestTimeoutMs,
+                        @Value("${rentacar.images.proxy.threads:4}") int threads) {
+        this(imageCache, ALLOWED_HOSTS, maxBytes, connectTimeoutMs, requestTimeoutMs, threads);
+    }
+
+    ImageFetcher(ImageCache imageCache, Set<String> allowedHosts, long maxBytes, long connectTimeoutMs,
+                 long requestTimeoutMs, int threads) {
+        this.imageCache = imageCache;
+        this.allowedHosts = allowedHosts;
+        this.maxBytes = maxBytes;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "image-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * true, wenn das Ziel per http(s) auf einem erlaubten Host liegt
+     */
+    public boolean isAllowed(URI uri) {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        return (scheme.equals("https") || scheme.equals("http")) && allowedHosts.contains(host);
+    }
+
+    /**
+     * Lädt das Bild; ist cached gesetzt, wird bedingt angefragt (If-None-Match/If-Modified-Since).
+     * Der Future endet spätestens nach request-timeout-ms, auch wenn der Upstream den Body nur tröpfelnd sendet.
+     * Weiterleitungen auf nicht erlaubte Hosts enden mit einem Download mit error.
+     */
+    public CompletableFuture<Download> fetch(URI uri, ImageCache.CachedImage cached) {
+        AtomicReference<CompletableFuture<HttpResponse<Download>>> current = new AtomicReference<>();
+        return send(uri, cached, 0, current)
+                .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((download, error) -> {
+                    CompletableFuture<HttpResponse<Download>> exchange = current.get();
+                    if (error != null && exchange != null) {
+                        // Austausch abbrechen; ein doch noch fertiger Download wird verworfen
+                        exchange.cancel(true);
+                        exchange.thenAccept(response -> response.body().discard());
+                    }
+                });
+    }
+
+    private CompletableFuture<Download> send(URI uri, ImageCache.CachedImage cached, int redirects,
+                                             AtomicReference<CompletableFuture<HttpResponse<Download>>> current) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header(HttpHeaders.ACCEPT, "image/*")
+                .header(HttpHeaders.USER_AGENT, USER_AGENT)
+                .header(HttpHeaders.REFERER, "https://" + uri.getHost() + "/")
+                .GET();
+        if (cached != null && cached.upstreamEtag() != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, cached.upstreamEtag());
+        }
+        if (cached != null && cached.upstreamLastModified() != null) {
+            request.header(HttpHeaders.IF_MODIFIED_SINCE, cached.upstreamLastModified());
+        }
+        CompletableFuture<HttpResponse<Download>> exchange = httpClient.sendAsync(request.build(), this::subscriber);
+        current.set(exchange);
+        return exchange.thenCompose(response -> {
+            Optional<String> location = response.headers().firstValue(HttpHeaders.LOCATION);
+            if (!REDIRECT_STATUS.contains(response.statusCode()) || location.isEmpty()) {
+                return CompletableFuture.completedFuture(response.body());
+            }
+            if (redirects >= MAX_REDIRECTS) {
+                return CompletableFuture.completedFuture(
+                        Download.failed(new IOException("Too many redirects for " + uri)));
+            }
+            URI target;
+            try {
+                target = uri.resolve(location.get());
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(
+                        Download.failed(new IOException("Invalid redirect: " + location.get())));
+            }
+            if (!isAllowed(target)) {
+                log.warn("Weiterleitung von {} auf nicht erlaubten Host {} blockiert", uri.getHost(), target.getHost());
+                return CompletableFuture.completedFuture(
+                        Download.failed(new IOException("Redirect to host not allowed: " + target.getHost())));
+            }
+            return send(target, cached, redirects + 1, current);
+        });
+    }
+
+    private BodySubscriber<Download> subscriber(HttpResponse.ResponseInfo info) {
+        String contentType = info.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+        if (info.statusCode() != 200) {
+            return BodySubscribers.replacing(Download.withoutBody(info.statusCode()));
+        }
+        long contentLength = info.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1);
+        if (contentLength > maxBytes) {
+            return BodySubscribers.replacing(Download.oversized());
+        }
+        try {
+            return new CappedFileSubscriber(imageCache.createDownloadFile(), maxBytes, contentType,
+                    info.headers().firstValue(HttpHeaders.ETAG).orElse(null),
+                    info.headers().firstValue(HttpHeaders.LAST_MODIFIED).orElse(null));
+        } catch (IOException e) {
+            return BodySubscribers.replacing(Download.failed(e));
+        }
+    }
+
+    /**
+     * Ergebnis eines Downloads. file ist nur bei Status 200 gesetzt und gehört danach dem Aufrufer.
+     */
+    public record Download(int status, Path file, long size, String digest, String contentType,
+                           String upstreamEtag, String upstreamLastModified, boolean tooLarge, IOException error) {
+
+        static Download withoutBody(int status) {
+            return new Download(status, null, 0, null, null, null, null, false, null);
+        }
+
+        static Download oversized() {
+            return new Download(200, null, 0, null, null, null, null, true, null);
+        }
+
+        static Download failed(IOException error) {
+            return new Download(200, null, 0, null, null, null, null, false, error);
+        }
+
+        public void discard() {
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Temporäre Bilddatei {} konnte nicht gelöscht werden: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Schreibt den Body blockweise in die Datei, zählt und hasht dabei mit und bricht beim Überschreiten
+     * von maxBytes ab. Es wird immer nur ein Block angefordert, damit ein langsamer Datenträger den
+     * Upstream bremst statt den Heap zu füllen.
+     */
+    private static final class CappedFileSubscriber implements BodySubscriber<Download> {
+
+        private final Path file;
+        private final long maxBytes;
+        private final String contentType;
+        private final String upstreamEtag;
+        private final String upstreamLastModified;
+        private final CompletableFuture<Download> result = new CompletableFuture<>();
+        private final MessageDigest digest;
+        private FileChannel channel;
+        private Flow.Subscription subscription;
+        private long size;
+
+        CappedFileSubscriber(Path file, long maxBytes, String contentType, String upstreamEtag,
+                             String upstreamLastModified) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+            this.contentType = contentType;
+            this.upstreamEtag = upstreamEtag;
+            this.upstreamLastModified = upstreamLastModified;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+            }
+        }
+
+        @Override
+        public CompletionStage<Download> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                subscription.request(1);
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    size += buffer.remaining();
+                    if (size > maxBytes) {
+                        subscription.cancel();
+                        discard();
+                        result.complete(Download.oversized());
+                        return;
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                subscription.request(1);
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            discard();
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                channel.close();
+                result.complete(new Download(200, file, size, HexFormat.of().formatHex(digest.digest()), contentType,
+                        upstreamEtag, upstreamLastModified, false, null));
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void fail(IOException e) {
+            discard();
+            result.complete(Download.failed(e));
+        }
+
+        private void discard() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Temporäre Bilddatei {} konnte nicht gelöscht werden: {}", file, e.getMessage());
+            }
+        }
+    }
+}
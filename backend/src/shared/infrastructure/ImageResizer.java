@@ -0,0 +1,251 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.infrastructure.ImageCache.CachedImage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Erzeugt verkleinerte Varianten (Breite, JPEG-Qualität) für den Bild-Proxy mit ImageIO.
+ *
+ * Varianten liegen im ImageCache unter "URL#w=...,q=..." (bei PNG ohne Qualität, da verlustfrei) und verweisen
+ * über upstreamEtag auf das ETag des Originals; ändert sich das Original, wird die Variante neu erzeugt.
+ * Ist das Original nicht breiter als angefragt, wird es selbst geliefert und keine Kopie abgelegt. Skaliert wird auf einem
+ * begrenzten Pool (threads, queue-capacity); gleichzeitige Anfragen nach derselben Variante teilen sich
+ * eine Berechnung. Ist die Warteschlange voll, schlägt die Anfrage mit RejectedExecutionException fehl.
+ */
+@Component
+@Slf4j
+public class ImageResizer {
+
+    public static final int MIN_WIDTH = 16;
+    public static final int MAX_WIDTH = 2048;
+
+    private final ImageCache imageCache;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<CachedImage>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong resized = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    @Autowired
+    public ImageResizer(ImageCache imageCache,
+                        @Value("${rentacar.images.resize.threads:2}") int threads,
+                        @Value("${rentacar.images.resize.queue-capacity:64}") int queueCapacity,
+                        @Value("${rentacar.images.resize.max-pixels:40000000}") long maxPixels) {
+        this.imageCache = imageCache;
+        this.maxPixels = maxPixels;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-resize-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws IllegalArgumentException bei Breite oder Qualität außerhalb der erlaubten Grenzen
+     */
+    public static void validate(int width, int quality) {
+        if (width < MIN_WIDTH || width > MAX_WIDTH) {
+            throw new IllegalArgumentException("width muss zwischen " + MIN_WIDTH + " und " + MAX_WIDTH + " liegen");
+        }
+        if (quality < 1 || quality > 100) {
+            throw new IllegalArgumentException("quality muss zwischen 1 und 100 liegen");
+        }
+    }
+
+    /**
+     * Liefert die Variante des Originals. Vorhandene Varianten kommen sofort aus dem Cache; ist das
+     * Original nicht breiter oder kein von ImageIO lesbares Format, wird das Original geliefert.
+     */
+    public CompletableFuture<CachedImage> resize(CachedImage original, int width, int quality) {
+        validate(width, quality);
+        String key = variantKey(original, width, quality);
+        Optional<CachedImage> cached = cachedVariant(key, original);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        CompletableFuture<CachedImage> created = new CompletableFuture<>();
+        CompletableFuture<CachedImage> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            deduplicated.incrementAndGet();
+            return running;
+        }
+        // Eine eben fertig gewordene Berechnung hat die Variante schon abgelegt
+        cached = cachedVariant(key, original);
+        if (cached.isPresent()) {
+            inFlight.remove(key, created);
+            created.complete(cached.get());
+            return created;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(createVariant(key, original, width, quality));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * PNG wird verlustfrei kodiert, die Qualität gehört dort nicht in den Schlüssel
+     */
+    static String variantKey(CachedImage original, int width, int quality) {
+        String key = original.url() + "#w=" + width;
+        return "image/png".equalsIgnoreCase(baseType(original.contentType())) ? key : key + ",q=" + quality;
+    }
+
+    private Optional<CachedImage> cachedVariant(String key, CachedImage original) {
+        return imageCache.get(key).filter(variant -> original.etag().equals(variant.upstreamEtag()));
+    }
+
+    public ResizerStats getStats() {
+        return new ResizerStats(executor.getActiveCount(), executor.getQueue().size(), inFlight.size(),
+                resized.get(), deduplicated.get());
+    }
+
+    private CachedImage createVariant(String key, CachedImage original, int width, int quality) {
+        try {
+            BufferedImage image = "image/gif".equalsIgnoreCase(baseType(original.contentType())) ? null : read(original, width);
+            if (image == null || image.getWidth() <= width) {
+                // Original ausliefern; für schmale Bilder liest read() nur den Kopf, eine Kopie lohnt nicht
+                return original;
+            }
+            int height = Math.max(1, Math.round(image.getHeight() * (width / (float) image.getWidth())));
+            boolean png = "image/png".equalsIgnoreCase(baseType(original.contentType())) || image.getColorModel().hasAlpha();
+            BufferedImage scaled = new BufferedImage(width, height,
+                    png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            byte[] encoded = png ? encodePng(scaled) : encodeJpeg(scaled, quality);
+            resized.incrementAndGet();
+            return imageCache.put(key, encoded, png ? "image/png" : "image/jpeg", original.etag(), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Liest das Bild; bei starker Verkleinerung wird schon beim Dekodieren jede n-te Zeile/Spalte gelesen.
+     * Bilder über max-pixels oder nicht breiter als die Zielbreite werden nicht dekodiert.
+     *
+     * @return null, wenn ImageIO das Bild nicht lesen kann, es zu groß oder schon schmal genug ist
+     */
+    private BufferedImage read(CachedImage original, int targetWidth) {
+        try (InputStream in = original.data() != null
+                ? new ByteArrayInputStream(original.data()) : Files.newInputStream(original.file());
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    log.warn("Bild mit {}x{} Pixeln wird nicht skaliert", sourceWidth, sourceHeight);
+                    return null;
+                }
+                if (sourceWidth <= targetWidth) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (targetWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // z.B. CMYK-JPEG oder beschädigte Datei
+            log.debug("Bild konnte nicht dekodiert werden: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, int quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality / 100f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String baseType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int separator = contentType.indexOf(';');
+        return (separator >= 0 ? contentType.substring(0, separator) : contentType).trim();
+    }
+
+    public record ResizerStats(int active, int queued, int inFlight, long resized, long deduplicated) {}
+}
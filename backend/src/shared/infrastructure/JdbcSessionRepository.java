@@ -0,0 +1,436 @@
+package de.rentacar.shared.infrastructure;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session-Speicher in der Anwendungsdatenbank, damit mehrere Backend-Instanzen hinter nginx
+ * dieselben Sessions sehen. Ein lokaler Front-Cache beantwortet die Session-Abfrage je Request
+ * in der Regel aus dem Speicher:
+ *
+ * - Neue Sessions, geänderte Attribute (Login, Logout) und Session-ID-Wechsel werden sofort
+ *   geschrieben, damit der nächste Request auf einer anderen Instanz sie findet.
+ * - Die reine Aktualisierung des letzten Zugriffs wird gesammelt und periodisch per Batch
+ *   geschrieben (write-behind).
+ * - Cache-Einträge gelten höchstens cacheTtl lang und werden danach aus der Datenbank neu gelesen;
+ *   Änderungen anderer Instanzen (z.B. Logout) sind damit spätestens nach cacheTtl sichtbar.
+ * - Der Cache fasst höchstens maxCachedSessions Einträge; ist er voll, werden veraltete und
+ *   abgelaufene Einträge verdrängt (höchstens einmal je cacheTtl), sonst wird nicht gecacht.
+ */
+@Slf4j
+public class JdbcSessionRepository implements FindByIndexNameSessionRepository<JdbcSessionRepository.StoredSession> {
+
+    static final String TABLE = "rentacar_sessions";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT session_id, creation_time, last_access_time, max_inactive_interval, attributes FROM " + TABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactiveInterval;
+    private final long cacheTtlMillis;
+    private final int maxCachedSessions;
+    private final Clock clock;
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<String, PendingTouch> pendingTouches = new ConcurrentHashMap<>();
+    private final PrincipalNameIndexResolver<Session> principalNameResolver = new PrincipalNameIndexResolver<>();
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong writeThroughs = new AtomicLong();
+    private final AtomicLong flushedTouches = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long lastEvictionSweep;
+
+    public JdbcSessionRepository(JdbcTemplate jdbcTemplate, Duration defaultMaxInactiveInterval, Duration cacheTtl,
+                                 int maxCachedSessions, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.maxCachedSessions = maxCachedSessions;
+        this.clock = clock;
+        this.deserializer = new DeserializingConverter(getClass().getClassLoader());
+    }
+
+    /**
+     * Legt die Session-Tabelle an, falls sie noch nicht existiert
+     */
+    public void initializeSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "session_id VARCHAR(64) NOT NULL PRIMARY KEY, "
+                + "principal_name VARCHAR(255), "
+                + "creation_time BIGINT NOT NULL, "
+                + "last_access_time BIGINT NOT NULL, "
+                + "max_inactive_interval INT NOT NULL, "
+                + "expiry_time BIGINT NOT NULL, "
+                + "attributes BLOB)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_principal ON " + TABLE + " (principal_name)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_expiry ON " + TABLE + " (expiry_time)");
+    }
+
+    @Override
+    public StoredSession createSession() {
+        Instant now = clock.instant();
+        return new StoredSession(UUID.randomUUID().toString(), now, now, defaultMaxInactiveInterval,
+                new LinkedHashMap<>(), true, clock);
+    }
+
+    @Override
+    public void save(StoredSession session) {
+        if (session.isNew || session.changed || !session.getId().equals(session.originalId)) {
+            writeThrough(session);
+        } else {
+            touch(session);
+        }
+    }
+
+    @Override
+    public StoredSession findById(String id) {
+        Instant now = clock.instant();
+        CacheEntry entry = cache.get(id);
+        if (entry != null && now.toEpochMilli() - entry.loadedAt < cacheTtlMillis && !entry.session.isExpired(now)) {
+            cacheHits.incrementAndGet();
+            return entry.session.copy();
+        }
+        // Nicht im Cache, veraltet oder lokal abgelaufen (eine andere Instanz kann die Session verlängert haben)
+        cacheMisses.incrementAndGet();
+        List<StoredSession> rows = jdbcTemplate.query(SELECT_COLUMNS + " WHERE session_id = ?", sessionMapper(), id);
+        if (rows.isEmpty()) {
+            cache.remove(id);
+            pendingTouches.remove(id);
+            return null;
+        }
+        StoredSession session = rows.get(0);
+        PendingTouch pending = pendingTouches.get(id);
+        if (pending != null && pending.lastAccessedTime.isAfter(session.getLastAccessedTime())) {
+            session.lastAccessedTime = pending.lastAccessedTime;
+        }
+        if (session.isExpired(now)) {
+            // Nur löschen, wenn auch der gespeicherte Stand abgelaufen ist
+            jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE session_id = ? AND expiry_time <= ?",
+                    id, now.toEpochMilli());
+            cache.remove(id);
+            pendingTouches.remove(id);
+            return null;
+        }
+        cache(session, now);
+        return session.copy();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE session_id = ?", id);
+        cache.remove(id);
+        pendingTouches.remove(id);
+    }
+
+    /**
+     * Sessions eines Benutzers über alle Instanzen (für die Begrenzung auf eine aktive Session)
+     */
+    @Override
+    public Map<String, StoredSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName) || indexValue == null) {
+            return Map.of();
+        }
+        Instant now = clock.instant();
+        Map<String, StoredSession> sessions = new HashMap<>();
+        jdbcTemplate.query(SELECT_COLUMNS + " WHERE principal_name = ?", sessionMapper(), indexValue)
+                .stream()
+                .filter(session -> !session.isExpired(now))
+                .forEach(session -> sessions.put(session.getId(), session));
+        return sessions;
+    }
+
+    /**
+     * Schreibt gesammelte Zugriffszeitpunkte per Batch; ältere Werte überschreiben keine neueren
+     */
+    @Scheduled(fixedDelayString = "${rentacar.session.flush-interval-ms:5000}")
+    public void flushPendingTouches() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (String id : Set.copyOf(pendingTouches.keySet())) {
+            PendingTouch touch = pendingTouches.remove(id);
+            if (touch != null) {
+                long lastAccess = touch.lastAccessedTime.toEpochMilli();
+                batch.add(new Object[]{lastAccess, expiryTime(lastAccess, touch.maxInactiveInterval), id, lastAccess});
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + TABLE + " SET last_access_time = ?, expiry_time = ? "
+                    + "WHERE session_id = ? AND last_access_time < ?", batch);
+            flushedTouches.addAndGet(batch.size());
+        }
+    }
+
+    /**
+     * Entfernt abgelaufene Sessions aus Datenbank und Cache
+     */
+    @Scheduled(fixedDelayString = "${rentacar.session.cleanup-interval-ms:60000}")
+    public void cleanupExpiredSessions() {
+        flushPendingTouches();
+        Instant now = clock.instant();
+        int deleted = jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE expiry_time < ?", now.toEpochMilli());
+        evictStaleEntries(now);
+        if (deleted > 0) {
+            log.debug("{} abgelaufene Sessions entfernt", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingTouches();
+    }
+
+    public SessionStoreStats getStats() {
+        return new SessionStoreStats(cache.size(), pendingTouches.size(), cacheHits.get(), cacheMisses.get(),
+                writeThroughs.get(), flushedTouches.get(), evictions.get());
+    }
+
+    private void writeThrough(StoredSession session) {
+        Instant now = clock.instant();
+        long lastAccess = session.getLastAccessedTime().toEpochMilli();
+        int maxInactive = (int) session.getMaxInactiveInterval().toSeconds();
+        String principalName = principalNameResolver.resolveIndexValueFor(session);
+        byte[] attributes = serializer.convert(new HashMap<>(session.attributes));
+
+        if (session.isNew) {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (session_id, principal_name, creation_time, "
+                            + "last_access_time, max_inactive_interval, expiry_time, attributes) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    session.getId(), principalName, session.getCreationTime().toEpochMilli(), lastAccess,
+                    maxInactive, expiryTime(lastAccess, maxInactive), attributes);
+        } else {
+            // Session-ID-Wechsel (Session-Fixation-Schutz) benennt die Zeile um
+            int updated = jdbcTemplate.update("UPDATE " + TABLE + " SET session_id = ?, principal_name = ?, "
+                            + "last_access_time = ?, max_inactive_interval = ?, expiry_time = ?, attributes = ? "
+                            + "WHERE session_id = ?",
+                    session.getId(), principalName, lastAccess, maxInactive, expiryTime(lastAccess, maxInactive),
+                    attributes, session.originalId);
+            if (updated == 0) {
+                // Inzwischen gelöscht (z.B. Logout auf einer anderen Instanz): nicht wiederbeleben
+                cache.remove(session.originalId);
+                pendingTouches.remove(session.originalId);
+                return;
+            }
+        }
+        writeThroughs.incrementAndGet();
+
+        cache.remove(session.originalId);
+        pendingTouches.remove(session.originalId);
+        session.markSaved();
+        cache(session.copy(), now);
+    }
+
+    private void touch(StoredSession session) {
+        pendingTouches.merge(session.getId(),
+                new PendingTouch(session.getLastAccessedTime(), (int) session.getMaxInactiveInterval().toSeconds()),
+                (previous, next) -> next.lastAccessedTime.isAfter(previous.lastAccessedTime) ? next : previous);
+        CacheEntry entry = cache.get(session.getId());
+        if (entry != null && session.getLastAccessedTime().isAfter(entry.session.lastAccessedTime)) {
+            entry.session.lastAccessedTime = session.getLastAccessedTime();
+        }
+    }
+
+    private void cache(StoredSession session, Instant now) {
+        if (cache.size() >= maxCachedSessions && !cache.containsKey(session.getId())) {
+            // Voller Scan nur einmal je cacheTtl, damit ein mit frischen Einträgen gefüllter Cache nicht jeden Request bremst
+            long nowMillis = now.toEpochMilli();
+            if (nowMillis - lastEvictionSweep < cacheTtlMillis) {
+                return;
+            }
+            lastEvictionSweep = nowMillis;
+            evictStaleEntries(now);
+            if (cache.size() >= maxCachedSessions) {
+                return;
+            }
+        }
+        cache.put(session.getId(), new CacheEntry(session, now.toEpochMilli()));
+    }
+
+    private void evictStaleEntries(Instant now) {
+        cache.values().removeIf(entry -> {
+            boolean stale = entry.session.isExpired(now) || now.toEpochMilli() - entry.loadedAt >= cacheTtlMillis;
+            if (stale) {
+                evictions.incrementAndGet();
+            }
+            return stale;
+        });
+    }
+
+    private static long expiryTime(long lastAccess, int maxInactiveSeconds) {
+        return maxInactiveSeconds < 0 ? Long.MAX_VALUE : lastAccess + maxInactiveSeconds * 1000L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private RowMapper<StoredSession> sessionMapper() {
+        return (rs, rowNum) -> {
+            byte[] bytes = rs.getBytes("attributes");
+            Map<String, Object> attributes = bytes != null
+                    ? new LinkedHashMap<>((Map<String, Object>) deserializer.convert(bytes))
+                    : new LinkedHashMap<>();
+            return new StoredSession(
+                    rs.getString("session_id"),
+                    Instant.ofEpochMilli(rs.getLong("creation_time")),
+                    Instant.ofEpochMilli(rs.getLong("last_access_time")),
+                    Duration.ofSeconds(rs.getInt("max_inactive_interval")),
+                    attributes,
+                    false,
+                    clock);
+        };
+    }
+
+    private record CacheEntry(StoredSession session, long loadedAt) {}
+
+    private record PendingTouch(Instant lastAccessedTime, int maxInactiveInterval) {}
+
+    public record SessionStoreStats(
+            int cachedSessions,
+            int pendingTouches,
+            long cacheHits,
+            long cacheMisses,
+            long writeThroughs,
+            long flushedTouches,
+            long evictions
+    ) {}
+
+    /**
+     * Session mit Änderungsverfolgung: nur Attribut-, Timeout- und ID-Änderungen erfordern
+     * einen sofortigen Schreibzugriff
+     */
+    public static final class StoredSession implements Session {
+
+        private String id;
+        private String originalId;
+        private final Instant creationTime;
+        private volatile Instant lastAccessedTime;
+        private Duration maxInactiveInterval;
+        private final Map<String, Object> attributes;
+        private boolean isNew;
+        private boolean changed;
+        private final Clock clock;
+
+        StoredSession(String id, Instant creationTime, Instant lastAccessedTime, Duration maxInactiveInterval,
+                      Map<String, Object> attributes, boolean isNew, Clock clock) {
+            this.id = id;
+            this.originalId = id;
+            this.creationTime = creationTime;
+            this.lastAccessedTime = lastAccessedTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.attributes = attributes;
+            this.isNew = isNew;
+            this.clock = clock;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            id = UUID.randomUUID().toString();
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String attributeName) {
+            return (T) attributes.get(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return Set.copyOf(attributes.keySet());
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+                return;
+            }
+            attributes.put(attributeName, attributeValue);
+            changed = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (attributes.remove(attributeName) != null) {
+                changed = true;
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            this.lastAccessedTime = lastAccessedTime;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return lastAccessedTime;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(maxInactiveInterval)) {
+                maxInactiveInterval = interval;
+                changed = true;
+            }
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return maxInactiveInterval;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return isExpired(clock.instant());
+        }
+
+        boolean isExpired(Instant now) {
+            return !maxInactiveInterval.isNegative()
+                    && !now.isBefore(lastAccessedTime.plus(maxInactiveInterval));
+        }
+
+        private void markSaved() {
+            originalId = id;
+            isNew = false;
+            changed = false;
+        }
+
+        private StoredSession copy() {
+            return new StoredSession(id, creationTime, lastAccessedTime, maxInactiveInterval,
+                    new LinkedHashMap<>(attributes), isNew, clock);
+        }
+    }
+}
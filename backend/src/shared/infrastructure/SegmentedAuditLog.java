@@ -0,0 +1,361 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.domain.AuditLog;
+import de.rentacar.shared.domain.AuditLogFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Dateibasierter Speicher für Audit-Einträge (rentacar.audit.store=segments) als Alternative zur
+ * Tabelle audit_logs, die bei großen Installationen die H2-Datei dominiert.
+ *
+ * Einträge werden als kompakte Binärdatensätze mit CRC an ein per mmap eingeblendetes Segment
+ * angehängt (nur anhängen, nie ändern). Ein Segment wird versiegelt, wenn es voll oder älter als
+ * max-segment-age ist; versiegelte Segmente erhalten einen Zeitindex und werden nach compress-after
+ * komprimiert. Abfragen nach Zeitraum, Benutzer oder Ressource überspringen Segmente anhand von
+ * Zeitspanne und Bloom-Filter.
+ *
+ * Geschriebene Datensätze überstehen einen Absturz des Prozesses sofort (Page-Cache), einen Absturz
+ * des Betriebssystems erst nach dem nächsten force (force-interval-ms).
+ */
+@Component
+@Slf4j
+public class SegmentedAuditLog {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration maxSegmentAge;
+    private final Duration compressAfter;
+    private final Clock clock;
+
+    private final Object writeLock = new Object();
+    // Komprimieren und Archivieren nicht gleichzeitig
+    private final Object maintenanceLock = new Object();
+    // Alle Segmente in Schreibreihenfolge, das letzte ist das aktive
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile AuditSegment active;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong corruptRecords = new AtomicLong();
+
+    @Autowired
+    public SegmentedAuditLog(@Value("${rentacar.audit.store:jpa}") String store,
+                             @Value("${rentacar.audit.segments.directory:./data/audit}") String directory,
+                             @Value("${rentacar.audit.segments.segment-size-mb:64}") int segmentSizeMb,
+                             @Value("${rentacar.audit.segments.max-segment-age-hours:24}") long maxSegmentAgeHours,
+                             @Value("${rentacar.audit.segments.compress-after-hours:24}") long compressAfterHours) {
+        this("segments".equalsIgnoreCase(store.trim()), Paths.get(directory), segmentSizeMb * 1024 * 1024,
+                Duration.ofHours(maxSegmentAgeHours), Duration.ofHours(compressAfterHours), Clock.systemDefaultZone());
+    }
+
+    SegmentedAuditLog(boolean enabled, Path directory, int segmentSize, Duration maxSegmentAge,
+                      Duration compressAfter, Clock clock) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegmentAge = maxSegmentAge;
+        this.compressAfter = compressAfter;
+        this.clock = clock;
+    }
+
+    /**
+     * Öffnet vorhandene Segmente; ein nach einem Absturz unvollständiger letzter Datensatz wird verworfen
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        TreeSet<Long> baseSequences = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.matches("\\d{20}\\.(seg|seg\\.gz|idx)")) {
+                    baseSequences.add(Long.parseLong(name.substring(0, 20)));
+                }
+            }
+        }
+
+        synchronized (writeLock) {
+            for (Long baseSequence : baseSequences) {
+                AuditSegment segment = AuditSegment.open(directory, baseSequence, segmentSize);
+                if (segment.hasDiscardedTail()) {
+                    corruptRecords.incrementAndGet();
+                }
+                // Nur das letzte Segment bleibt offen
+                if (!segment.isSealed() && !baseSequence.equals(baseSequences.last())) {
+                    segment.seal();
+                }
+                segments.add(segment);
+            }
+            AuditSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && !last.isSealed()) {
+                active = last;
+            } else {
+                startSegment(last != null ? last.getNextSequence() : 0);
+            }
+            for (AuditSegment segment : segments) {
+                lastTimestamp = Math.max(lastTimestamp, segment.getMaxTimestamp());
+            }
+        }
+        log.info("Audit-Segmente geöffnet: {} Segmente in {}, nächste Sequenz {}",
+                segments.size(), directory.toAbsolutePath(), active.getNextSequence());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hängt einen Eintrag an. Zeitstempel sind nicht fallend, damit der Zeitindex
+     * auch bei Uhrzeit-Korrekturen gültig bleibt.
+     */
+    public void append(String username, String action, String resourceType, String resourceId,
+                       String details, String ipAddress) {
+        synchronized (writeLock) {
+            long timestamp = Math.max(lastTimestamp, toMillis(LocalDateTime.now(clock)));
+            try {
+                if (active.getRecordCount() > 0 && isExpired(active)) {
+                    roll();
+                }
+                if (!active.append(timestamp, username, action, resourceType, resourceId, details, ipAddress)) {
+                    roll();
+                    if (!active.append(timestamp, username, action, resourceType, resourceId, details, ipAddress)) {
+                        throw new IllegalStateException("Audit-Eintrag ist größer als ein Segment");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Audit-Segment konnte nicht gewechselt werden", e);
+            }
+            lastTimestamp = timestamp;
+            appended.incrementAndGet();
+        }
+    }
+
+    /**
+     * Liefert passende Einträge aufsteigend nach Zeit; id ist die fortlaufende Sequenznummer.
+     * Da Zeitstempel in Schreibreihenfolge nicht fallen, entspricht das der Reihenfolge nach (timestamp, id);
+     * afterSequence dient als Keyset-Cursor (-1 für die erste Seite).
+     */
+    public List<AuditLog> scan(AuditLogFilter filter, long afterSequence, int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        long fromMillis = filter.from() != null ? toMillis(filter.from()) : Long.MIN_VALUE;
+        long toMillis = filter.to() != null ? toMillis(filter.to()) : Long.MAX_VALUE;
+        List<AuditLog> result = new ArrayList<>();
+        for (AuditSegment segment : segments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (segment.getNextSequence() <= afterSequence + 1
+                    || !segment.mayContain(fromMillis, toMillis - 1, filter.username(), filter.resourceType(),
+                    filter.resourceId())) {
+                continue;
+            }
+            try (AuditSegment.RecordReader reader = segment.openReader(fromMillis)) {
+                AuditSegment.Record record;
+                while (result.size() < limit && (record = reader.next()) != null) {
+                    if (record.timestamp() >= toMillis) {
+                        break;
+                    }
+                    if (record.sequence() > afterSequence && record.timestamp() >= fromMillis && matches(record, filter)) {
+                        result.add(toAuditLog(record));
+                    }
+                }
+                if (reader.isCorrupt()) {
+                    corruptRecords.incrementAndGet();
+                    log.warn("Audit-Segment {}: beschädigter Datensatz, Rest des Segments übersprungen",
+                            segment.dataFile().getFileName());
+                }
+            } catch (NoSuchFileException e) {
+                // zwischenzeitlich archiviert
+            } catch (IOException e) {
+                throw new UncheckedIOException("Audit-Segment konnte nicht gelesen werden", e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Schreibt das aktive Segment auf den Datenträger
+     */
+    @Scheduled(fixedDelayString = "${rentacar.audit.segments.force-interval-ms:1000}")
+    public void force() {
+        AuditSegment current = active;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Versiegelt ein zu altes aktives Segment und komprimiert alte versiegelte Segmente
+     */
+    @Scheduled(fixedDelayString = "${rentacar.audit.segments.maintenance-interval-ms:300000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (active.getRecordCount() > 0 && isExpired(active)) {
+                try {
+                    roll();
+                } catch (IOException e) {
+                    log.error("Audit-Segment konnte nicht versiegelt werden", e);
+                }
+            }
+        }
+        long compressBefore = toMillis(LocalDateTime.now(clock).minus(compressAfter));
+        synchronized (maintenanceLock) {
+            for (AuditSegment segment : segments) {
+                if (segment.isSealed() && !segment.isCompressed() && segment.getMaxTimestamp() < compressBefore) {
+                    try {
+                        long size = segment.getSize();
+                        segment.compress();
+                        log.info("Audit-Segment {} komprimiert ({} → {} Byte)", segment.dataFile().getFileName(),
+                                size, Files.size(segment.compressedFile()));
+                    } catch (IOException e) {
+                        log.error("Audit-Segment {} konnte nicht komprimiert werden", segment.dataFile().getFileName(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Verschiebt versiegelte Segmente, deren jüngster Eintrag vor cutoff liegt, komprimiert in das
+     * Archivverzeichnis. Sie werden danach von scan nicht mehr gelesen.
+     *
+     * @return Anzahl archivierter Segmente
+     */
+    public int archiveSegmentsBefore(LocalDateTime cutoff, Path archiveDirectory) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        long cutoffMillis = toMillis(cutoff);
+        int archived = 0;
+        synchronized (maintenanceLock) {
+            for (AuditSegment segment : segments) {
+                if (!segment.isSealed() || segment.getMaxTimestamp() >= cutoffMillis) {
+                    continue;
+                }
+                segment.compress();
+                segments.remove(segment);
+                segment.moveTo(archiveDirectory);
+                archived++;
+            }
+        }
+        if (archived > 0) {
+            log.info("{} Audit-Segmente nach {} archiviert", archived, archiveDirectory.toAbsolutePath());
+        }
+        return archived;
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    public SegmentStats getStats() {
+        int sealed = 0;
+        int compressed = 0;
+        long records = 0;
+        for (AuditSegment segment : segments) {
+            sealed += segment.isSealed() ? 1 : 0;
+            compressed += segment.isCompressed() ? 1 : 0;
+            records += segment.getRecordCount();
+        }
+        AuditSegment current = active;
+        return new SegmentStats(enabled, segments.size(), sealed, compressed, records, appended.get(),
+                current != null ? current.getSize() : 0, current != null ? current.getCapacity() : 0,
+                corruptRecords.get());
+    }
+
+    private void roll() throws IOException {
+        AuditSegment previous = active;
+        previous.seal();
+        startSegment(previous.getNextSequence());
+        log.info("Audit-Segment {} versiegelt ({} Einträge)", previous.dataFile().getFileName(), previous.getRecordCount());
+    }
+
+    private void startSegment(long baseSequence) throws IOException {
+        AuditSegment segment = AuditSegment.create(directory, baseSequence, segmentSize, clock.millis());
+        segments.add(segment);
+        active = segment;
+    }
+
+    private boolean isExpired(AuditSegment segment) {
+        return clock.millis() - segment.getCreatedAtMillis() >= maxSegmentAge.toMillis();
+    }
+
+    private static boolean matches(AuditSegment.Record record, AuditLogFilter filter) {
+        return (filter.username() == null || filter.username().equals(record.username()))
+                && (filter.action() == null || filter.action().equals(record.action()))
+                && (filter.resourceType() == null || filter.resourceType().equals(record.resourceType()))
+                && (filter.resourceId() == null || filter.resourceId().equals(record.resourceId()));
+    }
+
+    private static AuditLog toAuditLog(AuditSegment.Record record) {
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneOffset.UTC);
+        AuditLog auditLog = AuditLog.builder()
+                .username(record.username())
+                .action(record.action())
+                .resourceType(record.resourceType())
+                .resourceId(record.resourceId())
+                .details(record.details())
+                .timestamp(timestamp)
+                .ipAddress(record.ipAddress())
+                .build();
+        auditLog.setId(record.sequence());
+        auditLog.setCreatedAt(timestamp);
+        auditLog.setUpdatedAt(timestamp);
+        return auditLog;
+    }
+
+    /**
+     * LocalDateTime wird als UTC gerechnet; es kommt nur auf Reihenfolge und Umkehrbarkeit an
+     */
+    static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public record SegmentStats(
+            boolean enabled,
+            int segments,
+            int sealedSegments,
+            int compressedSegments,
+            long records,
+            long appendedSinceStart,
+            int activeSegmentBytes,
+            int activeSegmentCapacity,
+            long corruptRecords
+    ) {}
+}
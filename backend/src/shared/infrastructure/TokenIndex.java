@@ -0,0 +1,244 @@
+package de.rentacar.shared.infrastructure;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Invertierter In-Memory-Index von Tokens auf Entitäts-IDs, Basis für VehicleSearchIndex und CustomerNameIndex.
+ * Präfixsuche über eine sortierte Token-Map; optional Tippfehlertoleranz über einen Trigramm-Index,
+ * dessen Kandidaten per begrenzter Levenshtein-Distanz geprüft werden.
+ * Lesezugriffe sind lock-frei, Schreibzugriffe werden serialisiert.
+ */
+public class TokenIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int EXACT_MATCH_SCORE = 3;
+    private static final int PREFIX_MATCH_SCORE = 2;
+    private static final int FUZZY_MATCH_SCORE = 1;
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 3;
+
+    private final boolean fuzzy;
+
+    // Token -> IDs; sortiert, damit Präfixsuchen als Bereichsabfrage laufen
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    // Trigramm -> Tokens, liefert Kandidaten für die fehlertolerante Suche (nur wenn fuzzy)
+    private final Map<String, Set<String>> tokensByTrigram = new ConcurrentHashMap<>();
+
+    // ID -> indexierte Tokens, um veraltete Einträge bei Updates zu entfernen
+    private final Map<Long, Set<String>> tokensById = new ConcurrentHashMap<>();
+
+    /**
+     * @param fuzzy Suchwörter ab 3 Zeichen auch mit Tippfehlern (1 Fehler bis 5 Zeichen, sonst 2) finden
+     */
+    public TokenIndex(boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+
+    /**
+     * Nimmt eine ID mit den Tokens der übergebenen Texte auf bzw. ersetzt deren bisherige Einträge
+     */
+    public synchronized void index(Long id, String... texts) {
+        if (id == null) {
+            return;
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            tokens.addAll(tokenize(text));
+        }
+
+        Set<String> previous = tokensById.put(id, tokens);
+        if (previous != null) {
+            previous.stream()
+                    .filter(token -> !tokens.contains(token))
+                    .forEach(token -> removePosting(token, id));
+        }
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> {
+                if (fuzzy) {
+                    trigrams(k).forEach(gram -> tokensByTrigram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(k));
+                }
+                return ConcurrentHashMap.newKeySet();
+            }).add(id);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        Set<String> previous = tokensById.remove(id);
+        if (previous != null) {
+            previous.forEach(token -> removePosting(token, id));
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        tokensByTrigram.clear();
+        tokensById.clear();
+    }
+
+    /**
+     * Sucht IDs, bei denen jedes Suchwort exakt, als Präfix oder (wenn fuzzy) mit wenigen Tippfehlern vorkommt.
+     * Exakte Treffer werden höher gewichtet als Präfixtreffer, diese höher als Tippfehler-Treffer.
+     * @return IDs absteigend nach Relevanz, bei Gleichstand aufsteigend nach ID
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true)
+                    .forEach((token, ids) -> {
+                        int score = token.equals(queryToken) ? EXACT_MATCH_SCORE : PREFIX_MATCH_SCORE;
+                        ids.forEach(id -> tokenScores.merge(id, score, Math::max));
+                    });
+            if (fuzzy) {
+                for (String token : fuzzyMatches(queryToken)) {
+                    Set<Long> ids = postings.get(token);
+                    if (ids != null) {
+                        ids.forEach(id -> tokenScores.merge(id, FUZZY_MATCH_SCORE, Math::max));
+                    }
+                }
+            }
+
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int size() {
+        return tokensById.size();
+    }
+
+    public int tokenCount() {
+        return postings.size();
+    }
+
+    /**
+     * Kandidaten über gemeinsame Trigramme (q-Gramm-Lemma als Vorfilter), danach exakte Distanzprüfung
+     */
+    private Set<String> fuzzyMatches(String queryToken) {
+        Set<String> matches = new LinkedHashSet<>();
+        if (queryToken.length() < MIN_FUZZY_TOKEN_LENGTH) {
+            return matches;
+        }
+        int maxDistance = queryToken.length() <= 5 ? 1 : 2;
+        Set<String> queryGrams = trigrams(queryToken);
+        int minSharedGrams = queryGrams.size() - 3 * maxDistance;
+
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> tokens = tokensByTrigram.get(gram);
+            if (tokens != null) {
+                tokens.forEach(token -> sharedGrams.merge(token, 1, Integer::sum));
+            }
+        }
+        sharedGrams.forEach((token, shared) -> {
+            if (shared >= minSharedGrams
+                    && Math.abs(token.length() - queryToken.length()) <= maxDistance
+                    && editDistance(queryToken, token, maxDistance) <= maxDistance) {
+                matches.add(token);
+            }
+        });
+        return matches;
+    }
+
+    private void removePosting(String token, Long id) {
+        postings.computeIfPresent(token, (k, ids) -> {
+            ids.remove(id);
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            if (fuzzy) {
+                trigrams(k).forEach(gram -> tokensByTrigram.computeIfPresent(gram, (g, tokens) -> {
+                    tokens.remove(k);
+                    return tokens.isEmpty() ? null : tokens;
+                }));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Trigramme des mit Randmarkierungen aufgefüllten Tokens ("meier" -> "$$m", "$me", ..., "er$")
+     */
+    static Set<String> trigrams(String token) {
+        String padded = "$$" + token + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein-Distanz mit Abbruch, sobald eine Zeile die Schranke überschreitet
+     */
+    static int editDistance(String a, String b, int bound) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Zerlegt Text in kleingeschriebene Tokens ohne Diakritika ("München" -> "munchen", "Strauß" -> "strauss")
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : TOKEN_SEPARATOR.split(normalized.toLowerCase(Locale.ROOT).replace("ß", "ss"))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
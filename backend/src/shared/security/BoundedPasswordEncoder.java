@@ -0,0 +1,167 @@
+package de.rentacar.shared.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PasswordEncoder, der das (bewusst teure) Hashen auf einem eigenen, begrenzten Thread-Pool ausführt.
+ * Ein Login-Ansturm belegt damit höchstens so viele Kerne wie konfiguriert; ist die Warteschlange voll
+ * oder wird die Wartezeit überschritten, wird sofort mit {@link PasswordHashingUnavailableException}
+ * abgelehnt statt Tomcat-Threads zu blockieren.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Liefert true, wenn der gespeicherte Hash mit geringerem Work-Factor erzeugt wurde;
+     * Spring Security hasht das Passwort dann nach erfolgreichem Login neu (UserDetailsPasswordService)
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStats getStats() {
+        long done = completed.get();
+        return new PasswordHashingStats(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                done,
+                rejected.get(),
+                timedOut.get(),
+                done > 0 ? TimeUnit.NANOSECONDS.toMicros(totalHashNanos.get() / done) : 0,
+                TimeUnit.NANOSECONDS.toMicros(maxHashNanos.get()),
+                done > 0 ? TimeUnit.NANOSECONDS.toMicros(totalQueueNanos.get() / done) : 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> hashing) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hashing.call();
+                } finally {
+                    recordLatency(startedAt - enqueuedAt, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Passwort-Hashing abgelehnt: Warteschlange voll ({} wartend)", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException(retryAfterSeconds());
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Noch wartende Aufgaben entfallen; laufendes Hashen ist nicht unterbrechbar
+            future.cancel(false);
+            timedOut.incrementAndGet();
+            log.warn("Passwort-Hashing nach {} ms abgebrochen", timeoutMillis);
+            throw new PasswordHashingUnavailableException(retryAfterSeconds());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException(retryAfterSeconds());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Passwort-Hashing fehlgeschlagen", e.getCause());
+        }
+    }
+
+    private void recordLatency(long queueNanos, long hashNanos) {
+        completed.incrementAndGet();
+        totalQueueNanos.addAndGet(queueNanos);
+        totalHashNanos.addAndGet(hashNanos);
+        maxHashNanos.accumulateAndGet(hashNanos, Math::max);
+    }
+
+    /**
+     * Geschätzte Zeit bis die aktuelle Warteschlange abgearbeitet ist (mindestens 1 Sekunde)
+     */
+    private long retryAfterSeconds() {
+        long done = completed.get();
+        long averageNanos = done > 0 ? totalHashNanos.get() / done : TimeUnit.MILLISECONDS.toNanos(100);
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        long drainNanos = backlog * averageNanos / Math.max(1, executor.getMaximumPoolSize());
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(drainNanos) + 1);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public record PasswordHashingStats(
+            int threads,
+            int activeHashes,
+            int queueDepth,
+            int queueCapacity,
+            long completedHashes,
+            long rejectedHashes,
+            long timedOutHashes,
+            long averageHashMicros,
+            long maxHashMicros,
+            long averageQueueMicros
+    ) {}
+}
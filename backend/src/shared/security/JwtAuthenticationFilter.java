@@ -0,0 +1,44 @@
+package de.rentacar.shared.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authentifiziert Anfragen im Token-Modus über "Authorization: Bearer &lt;token&gt;".
+ * Die Prüfung erfolgt rein kryptographisch, ohne Session und ohne Datenbankzugriff.
+ * Ungültige Tokens führen nicht zum Abbruch; die Anfrage bleibt dann anonym und
+ * wird von den Autorisierungsregeln abgewiesen.
+ */
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            jwtTokenService.parseAccessToken(header.substring(BEARER_PREFIX.length()).trim())
+                    .ifPresent(user -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(
+                                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+                        SecurityContextHolder.setContext(context);
+                    });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,163 @@
+package de.rentacar.shared.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Signierte Access-Tokens (JWT, HS256) für den zustandslosen Authentifizierungsmodus.
+ * Das Token trägt Benutzer-ID, Kunden-ID und Rollen, sodass jeder Knoten es ohne Datenbank-
+ * oder Session-Zugriff prüfen und daraus den Principal für @PreAuthorize aufbauen kann.
+ * Im Token-Modus ist ein eigenes Geheimnis (rentacar.security.jwt.secret, mindestens 32 Byte) Pflicht;
+ * ohne startet die Anwendung nicht.
+ */
+@Service
+public class JwtTokenService {
+
+    private static final String ISSUER = "rentacar";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_CUSTOMER_ID = "cid";
+    private static final String CLAIM_ROLES = "roles";
+    private static final byte[] KEY_CONTEXT = "rentacar-jwt-v1".getBytes(StandardCharsets.UTF_8);
+    static final int MIN_SECRET_BYTES = 32;
+
+    private final boolean enabled;
+    private final SecretKey key;
+    private final Duration accessTokenTtl;
+    private final Clock clock;
+    private final JwtParser parser;
+
+    @Autowired
+    public JwtTokenService(@Value("${rentacar.security.auth-mode:session}") String authMode,
+                           @Value("${rentacar.security.jwt.secret:}") String secret,
+                           @Value("${rentacar.security.jwt.access-token-minutes:15}") long accessTokenMinutes) {
+        this("token".equalsIgnoreCase(authMode), secret, Duration.ofMinutes(accessTokenMinutes), Clock.systemUTC());
+    }
+
+    JwtTokenService(boolean enabled, String secret, Duration accessTokenTtl, Clock clock) {
+        this.enabled = enabled;
+        // Eigener Schlüssel je Zweck (256 Bit); ohne Token-Modus werden keine Tokens ausgestellt,
+        // ein fehlendes Geheimnis wird dann durch einen Zufallsschlüssel ersetzt
+        this.key = enabled || (secret != null && !secret.isBlank()) ? deriveKey(requireSecret(secret)) : randomKey();
+        this.accessTokenTtl = accessTokenTtl;
+        this.clock = clock;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(ISSUER)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+    }
+
+    /**
+     * Stellt ein Access-Token für den angemeldeten Benutzer aus
+     */
+    public String createAccessToken(RentACarUserDetails user) {
+        Instant now = clock.instant();
+        return Jwts.builder()
+                .issuer(ISSUER)
+                .id(UUID.randomUUID().toString())
+                .subject(user.getUsername())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(accessTokenTtl)))
+                .claim(CLAIM_USER_ID, user.getUserId())
+                .claim(CLAIM_CUSTOMER_ID, user.getCustomerId())
+                .claim(CLAIM_ROLES, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Prüft Signatur und Ablauf und baut daraus den Principal (ohne Passwort)
+     * @return leer bei ungültigem, manipuliertem oder abgelaufenem Token
+     */
+    public Optional<RentACarUserDetails> parseAccessToken(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return Optional.of(new RentACarUserDetails(
+                    toLong(claims.get(CLAIM_USER_ID)),
+                    toLong(claims.get(CLAIM_CUSTOMER_ID)),
+                    claims.getSubject(),
+                    "",
+                    true,
+                    toAuthorities(claims.get(CLAIM_ROLES))));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return true im zustandslosen Token-Modus (rentacar.security.auth-mode=token)
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static Collection<GrantedAuthority> toAuthorities(Object roles) {
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+    }
+
+    /**
+     * @throws IllegalStateException wenn kein eigenes oder ein zu kurzes Geheimnis konfiguriert ist
+     */
+    static String requireSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException(
+                    "rentacar.security.jwt.secret (RENTACAR_JWT_SECRET) muss im Token-Modus gesetzt sein");
+        }
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                    "rentacar.security.jwt.secret muss mindestens " + MIN_SECRET_BYTES + " Byte lang sein");
+        }
+        return secret;
+    }
+
+    private static SecretKey randomKey() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return new SecretKeySpec(bytes, "HmacSHA256");
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return new SecretKeySpec(mac.doFinal(KEY_CONTEXT), "HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("JWT-Schlüssel konnte nicht abgeleitet werden", e);
+        }
+    }
+}
@@ -1,28 +1,73 @@
 package de.rentacar.shared.security;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Service für Rate Limiting von Login-Versuchen
  * Verhindert Brute-Force-Angriffe durch Begrenzung der Login-Versuche
+ *
+ * Fehlversuche werden je IP und Benutzername in einem gleitenden Zeitfenster aus Minuten-Buckets
+ * gezählt (lock-frei per CAS). Beide Tabellen sind in der Größe begrenzt; bei Überlauf wird der
+ * am längsten ungenutzte, nicht blockierte Eintrag aus einer zufälligen Stichprobe verdrängt. Ein Sweeper
+ * entfernt regelmäßig abgelaufene Einträge.
  */
 @Service
 @Slf4j
 public class LoginAttemptService {
 
-    private static final int MAX_ATTEMPTS = 5;
-    private static final int BLOCK_DURATION_MINUTES = 15;
-    
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+    private static final long BUCKET_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final long blockMillis;
+    private final int maxTrackedKeys;
+    private final int bucketCount;
+    private final Clock clock;
+
     // Speichert Login-Versuche pro IP-Adresse
-    private final Map<String, LoginAttempt> attemptsByIp = new ConcurrentHashMap<>();
-    
+    private final Map<String, AttemptWindow> attemptsByIp = new ConcurrentHashMap<>();
+
     // Speichert Login-Versuche pro Benutzername
-    private final Map<String, LoginAttempt> attemptsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, AttemptWindow> attemptsByUsername = new ConcurrentHashMap<>();
+
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong rejectedAttempts = new AtomicLong();
+    private final AtomicLong blocks = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public LoginAttemptService(@Value("${rentacar.login.max-attempts:5}") int maxAttempts,
+                               @Value("${rentacar.login.window-minutes:15}") int windowMinutes,
+                               @Value("${rentacar.login.block-minutes:15}") int blockMinutes,
+                               @Value("${rentacar.login.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this(maxAttempts, Duration.ofMinutes(windowMinutes), Duration.ofMinutes(blockMinutes), maxTrackedKeys,
+                Clock.systemUTC());
+    }
+
+    LoginAttemptService(int maxAttempts, Duration window, Duration block, int maxTrackedKeys, Clock clock) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = window.toMillis();
+        this.blockMillis = block.toMillis();
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.bucketCount = (int) Math.max(1, (windowMillis + BUCKET_MILLIS - 1) / BUCKET_MILLIS);
+        this.clock = clock;
+    }
 
     /**
      * Prüft ob ein Login-Versuch erlaubt ist
@@ -31,20 +76,24 @@ public class LoginAttemptService {
      * @return true wenn Login erlaubt, false wenn blockiert
      */
     public boolean isAllowed(String ipAddress, String username) {
+        long now = clock.millis();
+
         // Prüfe IP-basierte Blockierung
-        LoginAttempt ipAttempt = attemptsByIp.get(ipAddress);
-        if (ipAttempt != null && ipAttempt.isBlocked()) {
+        AttemptWindow ipAttempt = attemptsByIp.get(key(ipAddress));
+        if (ipAttempt != null && ipAttempt.isBlocked(now)) {
+            rejectedAttempts.incrementAndGet();
             log.warn("Login blockiert für IP {} - zu viele fehlgeschlagene Versuche", ipAddress);
             return false;
         }
-        
+
         // Prüfe Benutzername-basierte Blockierung
-        LoginAttempt usernameAttempt = attemptsByUsername.get(username);
-        if (usernameAttempt != null && usernameAttempt.isBlocked()) {
+        AttemptWindow usernameAttempt = attemptsByUsername.get(key(username));
+        if (usernameAttempt != null && usernameAttempt.isBlocked(now)) {
+            rejectedAttempts.incrementAndGet();
             log.warn("Login blockiert für Benutzer {} - zu viele fehlgeschlagene Versuche", username);
             return false;
         }
-        
+
         return true;
     }
 
@@ -54,26 +103,19 @@ public class LoginAttemptService {
      * @param username Benutzername
      */
     public void recordFailedAttempt(String ipAddress, String username) {
-        LocalDateTime now = LocalDateTime.now();
-        
+        long now = clock.millis();
+        failedAttempts.incrementAndGet();
+
         // IP-basierte Blockierung
-        LoginAttempt ipAttempt = attemptsByIp.computeIfAbsent(ipAddress, 
-            k -> new LoginAttempt());
-        ipAttempt.increment(now);
-        if (ipAttempt.getAttemptCount() >= MAX_ATTEMPTS) {
-            ipAttempt.setBlockedUntil(now.plusMinutes(BLOCK_DURATION_MINUTES));
-            log.warn("IP {} für {} Minuten blockiert nach {} fehlgeschlagenen Login-Versuchen", 
-                ipAddress, BLOCK_DURATION_MINUTES, MAX_ATTEMPTS);
-        }
-        
+        if (record(attemptsByIp, key(ipAddress), now)) {
+            log.warn("IP {} für {} Minuten blockiert nach {} fehlgeschlagenen Login-Versuchen",
+                ipAddress, Duration.ofMillis(blockMillis).toMinutes(), maxAttempts);
+        }
+
         // Benutzername-basierte Blockierung
-        LoginAttempt usernameAttempt = attemptsByUsername.computeIfAbsent(username, 
-            k -> new LoginAttempt());
-        usernameAttempt.increment(now);
-        if (usernameAttempt.getAttemptCount() >= MAX_ATTEMPTS) {
-            usernameAttempt.setBlockedUntil(now.plusMinutes(BLOCK_DURATION_MINUTES));
-            log.warn("Benutzer {} für {} Minuten blockiert nach {} fehlgeschlagenen Login-Versuchen", 
-                username, BLOCK_DURATION_MINUTES, MAX_ATTEMPTS);
+        if (record(attemptsByUsername, key(username), now)) {
+            log.warn("Benutzer {} für {} Minuten blockiert nach {} fehlgeschlagenen Login-Versuchen",
+                username, Duration.ofMillis(blockMillis).toMinutes(), maxAttempts);
         }
     }
 
@@ -83,67 +125,166 @@ public class LoginAttemptService {
      * @param username Benutzername
      */
     public void recordSuccessfulAttempt(String ipAddress, String username) {
-        attemptsByIp.remove(ipAddress);
-        attemptsByUsername.remove(username);
+        attemptsByIp.remove(key(ipAddress));
+        attemptsByUsername.remove(key(username));
     }
 
     /**
-     * Bereinigt abgelaufene Blockierungen
+     * Bereinigt abgelaufene Blockierungen und Zählfenster ohne aktuelle Fehlversuche
      */
+    @Scheduled(fixedDelayString = "${rentacar.login.sweep-interval-ms:60000}")
     public void cleanup() {
-        LocalDateTime now = LocalDateTime.now();
-        attemptsByIp.entrySet().removeIf(entry -> 
-            entry.getValue().getBlockedUntil() != null && 
-            entry.getValue().getBlockedUntil().isBefore(now) &&
-            entry.getValue().getAttemptCount() < MAX_ATTEMPTS);
-        attemptsByUsername.entrySet().removeIf(entry -> 
-            entry.getValue().getBlockedUntil() != null && 
-            entry.getValue().getBlockedUntil().isBefore(now) &&
-            entry.getValue().getAttemptCount() < MAX_ATTEMPTS);
+        long now = clock.millis();
+        int removed = sweep(attemptsByIp, now) + sweep(attemptsByUsername, now);
+        if (removed > 0) {
+            log.debug("Login-Limiter: {} abgelaufene Einträge entfernt", removed);
+        }
+    }
+
+    public LoginAttemptStats getStats() {
+        return new LoginAttemptStats(attemptsByIp.size(), attemptsByUsername.size(), failedAttempts.get(),
+                rejectedAttempts.get(), blocks.get(), evictions.get());
     }
 
     /**
-     * Innere Klasse für Login-Versuche
+     * @return true, wenn der Schlüssel durch diesen Versuch blockiert wurde
      */
-    private static class LoginAttempt {
-        private int attemptCount = 0;
-        private LocalDateTime lastAttempt;
-        private LocalDateTime blockedUntil;
-
-        public void increment(LocalDateTime now) {
-            this.attemptCount++;
-            this.lastAttempt = now;
+    private boolean record(Map<String, AttemptWindow> attempts, String key, long now) {
+        AttemptWindow window = attempts.get(key);
+        if (window == null) {
+            if (attempts.size() >= maxTrackedKeys) {
+                evict(attempts, now);
+            }
+            window = attempts.computeIfAbsent(key, k -> new AttemptWindow(bucketCount));
+        }
+        int count = window.increment(now);
+        if (count >= maxAttempts && window.block(now + blockMillis, now)) {
+            blocks.incrementAndGet();
+            return true;
         }
+        return false;
+    }
+
+    private int sweep(Map<String, AttemptWindow> attempts, long now) {
+        int before = attempts.size();
+        attempts.values().removeIf(window -> window.isExpired(now));
+        return Math.max(0, before - attempts.size());
+    }
 
-        public boolean isBlocked() {
-            if (blockedUntil == null) {
-                return false;
+    /**
+     * Verdrängt aus einer Stichprobe den am längsten ungenutzten Eintrag, bevorzugt nicht blockierte.
+     * Die Stichprobe beginnt an zufälliger Stelle: bei fester Iterationsreihenfolge könnten Angreifer
+     * Schlüssel wählen, die immer zuerst geprüft werden. Das Überspringen kostet höchstens einen
+     * Durchlauf über die Tabelle und fällt neben der Passwortprüfung jedes Fehlversuchs nicht ins Gewicht.
+     */
+    private void evict(Map<String, AttemptWindow> attempts, long now) {
+        String victim = null;
+        long victimAccess = Long.MAX_VALUE;
+        boolean victimBlocked = true;
+        int skip = ThreadLocalRandom.current().nextInt(Math.max(1, attempts.size() - EVICTION_SAMPLE_SIZE + 1));
+        Iterator<Map.Entry<String, AttemptWindow>> iterator = attempts.entrySet().iterator();
+        for (int skipped = 0; skipped < skip && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        for (int sampled = 0; sampled < EVICTION_SAMPLE_SIZE; sampled++) {
+            if (!iterator.hasNext()) {
+                // Ende erreicht (kleine oder inzwischen geschrumpfte Tabelle): vorne weiter
+                iterator = attempts.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    break;
+                }
+            }
+            Map.Entry<String, AttemptWindow> entry = iterator.next();
+            AttemptWindow window = entry.getValue();
+            if (window.isExpired(now)) {
+                victim = entry.getKey();
+                break;
+            }
+            boolean blocked = window.isBlocked(now);
+            long access = window.lastAccess.get();
+            if ((victimBlocked && !blocked) || (blocked == victimBlocked && access < victimAccess)) {
+                victim = entry.getKey();
+                victimAccess = access;
+                victimBlocked = blocked;
             }
-            // Wenn Blockierung abgelaufen ist, zurücksetzen
-            if (blockedUntil.isBefore(LocalDateTime.now())) {
-                attemptCount = 0;
-                blockedUntil = null;
-                return false;
+        }
+        if (victim != null && attempts.remove(victim) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static String key(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Gleitendes Fenster aus Minuten-Buckets. Jeder Bucket speichert Epoche und Zähler in einem long,
+     * sodass Zurücksetzen und Hochzählen in einem einzigen CAS erfolgen.
+     */
+    private final class AttemptWindow {
+        private final AtomicLongArray buckets;
+        private final AtomicLong blockedUntil = new AtomicLong();
+        private final AtomicLong lastAccess = new AtomicLong();
+
+        AttemptWindow(int bucketCount) {
+            this.buckets = new AtomicLongArray(bucketCount);
+        }
+
+        int increment(long now) {
+            lastAccess.set(now);
+            long epoch = now / BUCKET_MILLIS;
+            int index = (int) (epoch % buckets.length());
+            while (true) {
+                long current = buckets.get(index);
+                long updated = (current >>> COUNT_BITS) == epoch
+                        ? (current & COUNT_MASK) < COUNT_MASK ? current + 1 : current
+                        : (epoch << COUNT_BITS) | 1;
+                if (buckets.compareAndSet(index, current, updated)) {
+                    break;
+                }
             }
-            return attemptCount >= MAX_ATTEMPTS;
+            return count(now);
         }
 
-        public int getAttemptCount() {
-            return attemptCount;
+        int count(long now) {
+            long oldestEpoch = (now - windowMillis) / BUCKET_MILLIS;
+            int total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                long value = buckets.get(i);
+                if ((value >>> COUNT_BITS) > oldestEpoch) {
+                    total += (int) (value & COUNT_MASK);
+                }
+            }
+            return total;
         }
 
-        public LocalDateTime getLastAttempt() {
-            return lastAttempt;
+        /**
+         * Blockiert bis "until" und setzt die Zähler zurück, damit nach Ablauf wieder voll gezählt wird
+         * @return true, wenn die Blockierung neu gesetzt wurde (nicht bereits aktiv war)
+         */
+        boolean block(long until, long now) {
+            long previous = blockedUntil.getAndAccumulate(until, Math::max);
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            return previous <= now;
         }
 
-        public LocalDateTime getBlockedUntil() {
-            return blockedUntil;
+        boolean isBlocked(long now) {
+            return blockedUntil.get() > now;
         }
 
-        public void setBlockedUntil(LocalDateTime blockedUntil) {
-            this.blockedUntil = blockedUntil;
+        boolean isExpired(long now) {
+            return !isBlocked(now) && now - lastAccess.get() >= windowMillis;
         }
     }
-}
-
 
+    public record LoginAttemptStats(
+            int trackedIps,
+            int trackedUsernames,
+            long failedAttempts,
+            long rejectedAttempts,
+            long blocks,
+            long evictions
+    ) {}
+}
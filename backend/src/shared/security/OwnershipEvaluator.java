@@ -0,0 +1,79 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.booking.domain.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Besitzprüfungen für Method-Security, verwendbar als @ownership in @PreAuthorize.
+ * Die Kunden-ID kommt aus dem Principal; die Zuordnung Buchung -> Kunde ändert sich nie
+ * (auch nicht bei Änderung oder Stornierung, Buchungen werden nicht gelöscht) und wird daher
+ * ohne Invalidierung begrenzt zwischengespeichert (LRU).
+ */
+@Component("ownership")
+public class OwnershipEvaluator {
+
+    private static final int MAX_CACHED_BOOKINGS = 50_000;
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, Long> customerIdByBooking;
+
+    @Autowired
+    public OwnershipEvaluator(BookingRepository bookingRepository) {
+        this(bookingRepository, MAX_CACHED_BOOKINGS);
+    }
+
+    OwnershipEvaluator(BookingRepository bookingRepository, int maxCachedBookings) {
+        this.bookingRepository = bookingRepository;
+        // Zugriffsreihenfolge = LRU; ältester Eintrag wird beim Überlauf verdrängt statt den Cache zu leeren
+        this.customerIdByBooking = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxCachedBookings;
+            }
+        });
+    }
+
+    /**
+     * Prüft ob der angemeldete Benutzer der Kunde mit der angegebenen ID ist
+     */
+    public boolean isCustomer(Authentication authentication, Long customerId) {
+        return customerId != null && customerId.equals(currentCustomerId(authentication));
+    }
+
+    /**
+     * Prüft ob die Buchung dem angemeldeten Kunden gehört
+     */
+    public boolean ownsBooking(Authentication authentication, Long bookingId) {
+        Long customerId = currentCustomerId(authentication);
+        if (customerId == null || bookingId == null) {
+            return false;
+        }
+        return Objects.equals(customerId, bookingCustomerId(bookingId).orElse(null));
+    }
+
+    private Optional<Long> bookingCustomerId(Long bookingId) {
+        Long cached = customerIdByBooking.get(bookingId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> customerId = bookingRepository.findCustomerIdById(bookingId);
+        customerId.ifPresent(id -> customerIdByBooking.put(bookingId, id));
+        return customerId;
+    }
+
+    private Long currentCustomerId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof RentACarUserDetails principal) {
+            return principal.getCustomerId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package de.rentacar.shared.security;
+
+/**
+ * Passwort-Hashing derzeit überlastet (Warteschlange voll oder Wartezeit überschritten).
+ * Wird als 503 mit Retry-After beantwortet.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(long retryAfterSeconds) {
+        super("Anmeldedienst ist ausgelastet. Bitte versuchen Sie es in " + retryAfterSeconds + " Sekunden erneut.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,146 @@
+package de.rentacar.shared.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Verwaltung der Refresh-Tokens im Token-Modus (Tabelle refresh_tokens).
+ * Tokens sind einmal verwendbar: beim Erneuern wird das alte widerrufen und ein neues derselben
+ * Familie ausgestellt. Wird ein bereits verbrauchtes Token erneut vorgelegt, gilt die Familie als
+ * kompromittiert und wird vollständig widerrufen.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration refreshTokenTtl;
+    private final Clock clock;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${rentacar.security.jwt.refresh-token-days:14}") long refreshTokenDays) {
+        this(refreshTokenRepository, Duration.ofDays(refreshTokenDays), Clock.systemUTC());
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, Duration refreshTokenTtl, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Use Case: Refresh-Token nach erfolgreichem Login ausstellen (neue Familie)
+     * @return das Token im Klartext; gespeichert wird nur dessen Hash
+     */
+    @Transactional
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Use Case: Refresh-Token einlösen und durch ein neues ersetzen
+     * @throws BadCredentialsException bei unbekanntem, abgelaufenem oder bereits verbrauchtem Token
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public RotatedRefreshToken rotate(String rawToken) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Ungültiges Refresh-Token"));
+
+        if (token.getRevokedAt() != null) {
+            // Wiederverwendung: Token wurde gestohlen oder doppelt eingelöst
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Wiederverwendetes Refresh-Token für Benutzer {} - {} Tokens der Familie widerrufen",
+                    token.getUsername(), revoked);
+            throw new BadCredentialsException("Refresh-Token wurde bereits verwendet");
+        }
+        if (!token.isActive(now)) {
+            throw new BadCredentialsException("Refresh-Token abgelaufen");
+        }
+
+        token.setRevokedAt(now);
+        refreshTokenRepository.save(token);
+        return new RotatedRefreshToken(token.getUsername(), issue(token.getUsername(), token.getFamilyId()));
+    }
+
+    /**
+     * Use Case: Abmelden (Token-Familie widerrufen)
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now(clock)));
+    }
+
+    /**
+     * Use Case: Alle Anmeldungen eines Benutzers beenden (z.B. nach Deaktivierung)
+     */
+    @Transactional
+    public void revokeAll(String username) {
+        refreshTokenRepository.revokeAllForUser(username, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Entfernt seit mindestens einem Tag abgelaufene Tokens
+     */
+    @Scheduled(fixedDelayString = "${rentacar.security.jwt.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now(clock).minusDays(1));
+        if (deleted > 0) {
+            log.info("{} abgelaufene Refresh-Tokens entfernt", deleted);
+        }
+    }
+
+    public Duration getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        TOKEN_RANDOM.nextBytes(tokenBytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .username(username)
+                .expiresAt(LocalDateTime.now(clock).plus(refreshTokenTtl))
+                .build());
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new BadCredentialsException("Refresh-Token fehlt");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    public record RotatedRefreshToken(String username, String refreshToken) {}
+}
@@ -0,0 +1,27 @@
+package de.rentacar.shared.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal mit Benutzer- und Kunden-ID, damit Besitzprüfungen in @PreAuthorize-Ausdrücken
+ * (z.B. authentication.principal.customerId) ohne Datenbankzugriff auskommen
+ */
+@Getter
+public class RentACarUserDetails extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final Long customerId; // null für Mitarbeiter und Admins ohne Kundenkonto
+
+    public RentACarUserDetails(Long userId, Long customerId, String username, String password, boolean enabled,
+                               Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+        this.customerId = customerId;
+    }
+}
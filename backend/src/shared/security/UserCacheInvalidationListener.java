@@ -0,0 +1,23 @@
+package de.rentacar.shared.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-Listener für User: jede Änderung (Passwort, Rollen, Aktivierung) oder Löschung
+ * invalidiert den zwischengespeicherten Benutzer, unabhängig davon, welcher Service sie auslöst
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userDetailsCache.invalidate(user.getUsername());
+    }
+}
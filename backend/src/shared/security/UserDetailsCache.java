@@ -0,0 +1,146 @@
+package de.rentacar.shared.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache der geladenen Benutzerdaten (inkl. Rollen und Kunden-ID) für CustomUserDetailsService.
+ * Größe und Lebensdauer sind begrenzt; Aktivierung, Passwort- und Rollenänderungen invalidieren
+ * den Eintrag sofort und erneut nach dem Commit.
+ *
+ * Gespeichert wird ein unveränderlicher Schnappschuss: Spring Security löscht nach der
+ * Authentifizierung das Passwort im zurückgegebenen UserDetails-Objekt, daher erhält jeder
+ * Aufrufer eine eigene Instanz.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Wird bei jeder Invalidierung erhöht; verhindert, dass vorher geladene Daten wieder eingetragen werden
+    private long generation;
+
+    @Autowired
+    public UserDetailsCache(@Value("${rentacar.security.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${rentacar.security.user-cache.max-entries:10000}") int maxEntries) {
+        this(Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC());
+    }
+
+    UserDetailsCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // Zugriffsreihenfolge = LRU; ältester Eintrag wird beim Überlauf verdrängt
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDetailsCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<RentACarUserDetails> get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(username);
+            return Optional.empty();
+        }
+        return Optional.of(entry.toUserDetails());
+    }
+
+    /**
+     * Stand vor dem Laden aus der Datenbank; an {@link #put(RentACarUserDetails, long)} übergeben
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Trägt geladene Benutzerdaten ein, sofern seit {@code loadedAtGeneration} nichts invalidiert wurde
+     */
+    public synchronized void put(RentACarUserDetails userDetails, long loadedAtGeneration) {
+        if (maxEntries <= 0 || userDetails.getUsername() == null || loadedAtGeneration != generation) {
+            return;
+        }
+        entries.put(userDetails.getUsername(), new Entry(userDetails, clock.instant().plus(ttl)));
+    }
+
+    public synchronized void evict(String username) {
+        generation++;
+        entries.remove(username);
+    }
+
+    /**
+     * Entfernt den Eintrag sofort und nochmals nach dem Commit, damit zwischenzeitlich
+     * gelesene, noch nicht committete Altdaten nicht im Cache verbleiben
+     */
+    public void invalidate(String username) {
+        evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rentacar.security.user-cache.sweep-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        Instant now = clock.instant();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(
+            Long userId,
+            Long customerId,
+            String username,
+            String password,
+            boolean enabled,
+            List<GrantedAuthority> authorities,
+            Instant expiresAt
+    ) {
+        Entry(RentACarUserDetails userDetails, Instant expiresAt) {
+            this(userDetails.getUserId(), userDetails.getCustomerId(), userDetails.getUsername(),
+                    userDetails.getPassword(), userDetails.isEnabled(),
+                    List.copyOf(userDetails.getAuthorities()), expiresAt);
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+
+        RentACarUserDetails toUserDetails() {
+            return new RentACarUserDetails(userId, customerId, username, password, enabled, authorities);
+        }
+    }
+}
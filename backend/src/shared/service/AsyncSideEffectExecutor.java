@@ -0,0 +1,188 @@
+package de.rentacar.shared.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Führt Nebeneffekte (E-Mail-Versand, Audit-Einträge) asynchron nach dem Commit aus.
+ * Fehlgeschlagene Aufgaben werden mit exponentiellem Backoff wiederholt; ist die Warteschlange voll,
+ * läuft die Aufgabe im aufrufenden Thread, damit nichts verloren geht.
+ * Scheitert auch der letzte Versuch, wird die Aufgabe samt Nutzdaten als JSON-Zeile in die
+ * Dead-Letter-Datei geschrieben (z.B. Audit-Einträge zum späteren Nachtragen).
+ */
+@Component
+@Slf4j
+public class AsyncSideEffectExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final Path deadLetterFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong deadLetterErrors = new AtomicLong();
+
+    public AsyncSideEffectExecutor(@Value("${rentacar.side-effects.threads:2}") int threads,
+                                   @Value("${rentacar.side-effects.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${rentacar.side-effects.max-attempts:3}") int maxAttempts,
+                                   @Value("${rentacar.side-effects.initial-backoff-ms:500}") long initialBackoffMs,
+                                   @Value("${rentacar.side-effects.dead-letter-file:./data/side-effects-dead-letter.jsonl}") String deadLetterFile) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.deadLetterFile = Path.of(deadLetterFile);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "side-effects-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "side-effects-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Plant die Aufgabe für nach dem erfolgreichen Commit der laufenden Transaktion
+     * (ohne aktive Transaktion sofort). Bei Rollback wird sie verworfen.
+     */
+    public void runAfterCommit(String description, Runnable task) {
+        runAfterCommit(description, task, Map.of());
+    }
+
+    /**
+     * Wie {@link #runAfterCommit(String, Runnable)}; deadLetter enthält die Daten, die bei endgültigem
+     * Fehlschlag in die Dead-Letter-Datei geschrieben werden, damit die Aufgabe nachgeholt werden kann
+     */
+    public void runAfterCommit(String description, Runnable task, Map<String, String> deadLetter) {
+        SideEffect sideEffect = new SideEffect(description, task, deadLetter);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(sideEffect, 1);
+                }
+            });
+        } else {
+            dispatch(sideEffect, 1);
+        }
+    }
+
+    public void submit(String description, Runnable task) {
+        dispatch(new SideEffect(description, task, Map.of()), 1);
+    }
+
+    public SideEffectStats getStats() {
+        return new SideEffectStats(executor.getQueue().size(), succeeded.get(), retried.get(), failed.get(),
+                deadLettered.get(), deadLetterErrors.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} Nebeneffekte beim Herunterfahren nicht ausgeführt", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void dispatch(SideEffect sideEffect, int attempt) {
+        try {
+            executor.execute(() -> runAttempt(sideEffect, attempt));
+        } catch (RejectedExecutionException e) {
+            // Executor bereits heruntergefahren
+            runAttempt(sideEffect, attempt);
+        }
+    }
+
+    private void runAttempt(SideEffect sideEffect, int attempt) {
+        try {
+            sideEffect.task().run();
+            succeeded.incrementAndGet();
+        } catch (RuntimeException e) {
+            if (attempt >= maxAttempts || retryScheduler.isShutdown()) {
+                giveUp(sideEffect, attempt, e);
+                return;
+            }
+            long backoffMs = initialBackoffMs << (attempt - 1);
+            retried.incrementAndGet();
+            log.warn("Nebeneffekt '{}' fehlgeschlagen (Versuch {}), erneuter Versuch in {} ms: {}",
+                    sideEffect.description(), attempt, backoffMs, e.getMessage());
+            try {
+                retryScheduler.schedule(() -> dispatch(sideEffect, attempt + 1), backoffMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                giveUp(sideEffect, attempt, e);
+            }
+        }
+    }
+
+    private void giveUp(SideEffect sideEffect, int attempts, RuntimeException error) {
+        failed.incrementAndGet();
+        log.error("Nebeneffekt '{}' nach {} Versuchen fehlgeschlagen", sideEffect.description(), attempts, error);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("failedAt", Instant.now().toString());
+        record.put("description", sideEffect.description());
+        record.put("attempts", attempts);
+        record.put("error", String.valueOf(error.getMessage()));
+        record.put("data", sideEffect.deadLetter());
+        try {
+            String line = objectMapper.writeValueAsString(record) + System.lineSeparator();
+            synchronized (this) {
+                Path parent = deadLetterFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(deadLetterFile, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+            }
+            deadLettered.incrementAndGet();
+        } catch (IOException e) {
+            // Letzte Rückfallebene: vollständige Daten im Log, damit sie von Hand nachgetragen werden können
+            deadLetterErrors.incrementAndGet();
+            log.error("Dead-Letter für '{}' nicht schreibbar, Daten: {}", sideEffect.description(), record, e);
+        }
+    }
+
+    private record SideEffect(String description, Runnable task, Map<String, String> deadLetter) {}
+
+    /**
+     * failed = endgültig fehlgeschlagen; davon deadLettered in der Datei, deadLetterErrors nur im Log
+     */
+    public record SideEffectStats(int queued, long succeeded, long retried, long failed,
+                                  long deadLettered, long deadLetterErrors) {}
+}
@@ -0,0 +1,277 @@
+package de.rentacar.shared.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ratenbegrenzung der API je Client (angemeldeter Benutzer, sonst IP) und Routengruppe.
+ *
+ * Jeder Client hat je Gruppe einen Token-Bucket, umgesetzt als GCRA: der Zustand ist ein einzelner
+ * Zeitstempel (theoretische Ankunftszeit), der lock-frei per CAS fortgeschrieben wird. Zusätzlich
+ * begrenzt eine Gruppe optional die gleichzeitig laufenden Anfragen, damit teure Endpunkte
+ * (Suche, Bilder) unter Last die Worker-Threads nicht aufbrauchen.
+ *
+ * Jede Gruppe hat eine eigene Bucket-Tabelle mit höchstens max-tracked-clients Einträgen (insgesamt also
+ * bis zu Gruppenanzahl × max-tracked-clients). Volle Buckets tragen keinen Zustand und werden verworfen;
+ * ist die Tabelle trotzdem voll, teilen sich neue Clients der Gruppe einen gemeinsamen Bucket.
+ *
+ * Konfiguration: rentacar.rate-limit.groups=search,images,default und je Gruppe
+ * rentacar.rate-limit.&lt;gruppe&gt;.{paths,capacity,refill-per-second,max-concurrent}.
+ * Die erste passende Gruppe gilt. Statistik je Gruppe: GET /api/auth/rate-limit/stats (Admin).
+ */
+@Component
+@Slf4j
+public class ApiRateLimiter {
+
+    private static final long SWEEP_THROTTLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final List<RouteGroup> groups;
+    private final int maxTrackedClients;
+    private final Clock clock;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public ApiRateLimiter(Environment environment) {
+        this(environment.getProperty("rentacar.rate-limit.enabled", Boolean.class, true),
+                readGroups(environment),
+                environment.getProperty("rentacar.rate-limit.max-tracked-clients", Integer.class, 50_000),
+                Clock.systemUTC());
+    }
+
+    ApiRateLimiter(boolean enabled, List<RouteGroup> groups, int maxTrackedClients, Clock clock) {
+        this.enabled = enabled;
+        this.groups = groups;
+        this.maxTrackedClients = maxTrackedClients;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prüft, ob die Anfrage bearbeitet werden darf. Ein erteiltes Decision-Objekt muss nach
+     * der Bearbeitung mit {@link Decision#release()} freigegeben werden.
+     */
+    public Decision tryAcquire(String clientKey, String path) {
+        RouteGroup group = resolve(path);
+        if (group == null) {
+            return Decision.ALLOWED;
+        }
+
+        long now = nanoTime();
+        Bucket bucket = group.bucketFor(clientKey, now, maxTrackedClients);
+        long waitNanos = bucket.tryConsume(now, group.intervalNanos, group.burstNanos);
+        if (waitNanos > 0) {
+            group.throttled.incrementAndGet();
+            return Decision.rejected(toRetryAfterSeconds(waitNanos));
+        }
+
+        // Lastabwurf: teure Gruppen nur mit begrenzter Parallelität
+        if (group.inFlight != null && !group.inFlight.tryAcquire()) {
+            group.shed.incrementAndGet();
+            return Decision.rejected(1);
+        }
+        group.allowed.incrementAndGet();
+        return group.inFlight != null ? new Decision(true, 0, group.inFlight) : Decision.ALLOWED;
+    }
+
+    /**
+     * Entfernt volle (zustandslose) Buckets
+     */
+    @Scheduled(fixedDelayString = "${rentacar.rate-limit.sweep-interval-ms:30000}")
+    public void sweepIdleBuckets() {
+        long now = nanoTime();
+        groups.forEach(group -> group.sweep(now));
+    }
+
+    public List<RateLimitStats> getStats() {
+        return groups.stream()
+                .map(group -> new RateLimitStats(group.name, group.buckets.size(), group.allowed.get(),
+                        group.throttled.get(), group.shed.get(), group.overflowed.get()))
+                .toList();
+    }
+
+    private RouteGroup resolve(String path) {
+        for (RouteGroup group : groups) {
+            for (String pattern : group.paths) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private long nanoTime() {
+        Instant now = clock.instant();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static List<RouteGroup> readGroups(Environment environment) {
+        List<RouteGroup> groups = new ArrayList<>();
+        String names = environment.getProperty("rentacar.rate-limit.groups", "search,images,default");
+        for (String name : names.split(",")) {
+            String prefix = "rentacar.rate-limit." + name.trim() + ".";
+            String paths = environment.getProperty(prefix + "paths");
+            if (paths == null || paths.isBlank()) {
+                log.warn("Rate-Limit-Gruppe {} ohne Pfade wird ignoriert", name.trim());
+                continue;
+            }
+            groups.add(new RouteGroup(
+                    name.trim(),
+                    Arrays.stream(paths.split(",")).map(String::trim).filter(path -> !path.isEmpty()).toList(),
+                    environment.getProperty(prefix + "capacity", Integer.class, 60),
+                    environment.getProperty(prefix + "refill-per-second", Double.class, 20.0),
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, 0)));
+        }
+        return groups;
+    }
+
+    /**
+     * Routengruppe mit eigenem Limit und eigener Bucket-Tabelle
+     */
+    static final class RouteGroup {
+        private final String name;
+        private final List<String> paths;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Semaphore inFlight;
+        private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+        // Gemeinsamer Bucket für neue Clients, solange die Tabelle voll ist
+        private final Bucket overflowBucket = new Bucket();
+        private final AtomicLong lastSweep = new AtomicLong();
+
+        private final AtomicLong allowed = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+        private final AtomicLong overflowed = new AtomicLong();
+
+        RouteGroup(String name, List<String> paths, int capacity, double refillPerSecond, int maxConcurrent) {
+            this.name = name;
+            this.paths = paths;
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            this.burstNanos = intervalNanos * Math.max(1, capacity);
+            this.inFlight = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        }
+
+        Bucket bucketFor(String clientKey, long now, int maxTrackedClients) {
+            Bucket bucket = buckets.get(clientKey);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxTrackedClients) {
+                long previous = lastSweep.get();
+                if (now - previous >= SWEEP_THROTTLE_NANOS && lastSweep.compareAndSet(previous, now)) {
+                    sweep(now);
+                }
+                if (buckets.size() >= maxTrackedClients) {
+                    overflowed.incrementAndGet();
+                    return overflowBucket;
+                }
+            }
+            return buckets.computeIfAbsent(clientKey, key -> new Bucket());
+        }
+
+        void sweep(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    /**
+     * Token-Bucket als GCRA: erlaubt capacity Anfragen am Stück, danach eine je intervalNanos
+     */
+    static final class Bucket {
+        private final AtomicLong theoreticalArrival = new AtomicLong();
+
+        /**
+         * @return 0 wenn ein Token verfügbar war, sonst die Wartezeit bis zum nächsten Token in Nanosekunden
+         */
+        long tryConsume(long now, long intervalNanos, long burstNanos) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long allowedAt = next - burstNanos;
+                if (allowedAt > now) {
+                    return allowedAt - now;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return theoreticalArrival.get() <= now;
+        }
+    }
+
+    /**
+     * Ergebnis einer Prüfung; hält ggf. einen Parallelitäts-Slot bis zur Freigabe
+     */
+    public static final class Decision {
+        static final Decision ALLOWED = new Decision(true, 0, null);
+
+        private final boolean allowed;
+        private final long retryAfterSeconds;
+        private final Semaphore permit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Decision(boolean allowed, long retryAfterSeconds, Semaphore permit) {
+            this.allowed = allowed;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.permit = permit;
+        }
+
+        static Decision rejected(long retryAfterSeconds) {
+            return new Decision(false, retryAfterSeconds, null);
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /**
+         * Gibt den Slot frei; weitere Aufrufe sind wirkungslos
+         */
+        public void release() {
+            if (permit != null && released.compareAndSet(false, true)) {
+                permit.release();
+            }
+        }
+    }
+
+    public record RateLimitStats(
+            String group,
+            int trackedClients,
+            long allowedRequests,
+            long throttledRequests,
+            long shedRequests,
+            long overflowedRequests
+    ) {}
+}
@@ -0,0 +1,105 @@
+package de.rentacar.shared.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Servlet-Filter für die API-Ratenbegrenzung (siehe {@link ApiRateLimiter}).
+ * Läuft nach der Security-Filterkette, damit angemeldete Benutzer nach Benutzername und
+ * anonyme Clients nach IP-Adresse begrenzt werden. Abgelehnte Anfragen erhalten 429 mit Retry-After.
+ * Hinter einem Reverse-Proxy muss server.forward-headers-strategy gesetzt sein, damit die
+ * Client-IP und nicht die des Proxys verwendet wird.
+ * Bei asynchroner Verarbeitung (z.B. Bild-Proxy) bleibt der Parallelitäts-Slot belegt, bis die
+ * Antwort fertig ist, nicht nur bis zum Ende des ersten Dispatches.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"Zu viele Anfragen. Bitte versuchen Sie es später erneut.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ApiRateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        ApiRateLimiter.Decision decision = rateLimiter.tryAcquire(clientKey(request), path);
+        if (!decision.isAllowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(REJECTED_BODY);
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(decision));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                decision.release();
+            }
+        }
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Gibt den Slot frei, sobald die asynchrone Antwort abgeschlossen, abgelaufen oder fehlgeschlagen ist
+     */
+    private record ReleasingAsyncListener(ApiRateLimiter.Decision decision) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            decision.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            decision.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            decision.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package de.rentacar.shared.web;
+
+import de.rentacar.booking.domain.BookingStatusChangedEvent;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Verteilt Status-Änderungen von Fahrzeugen und Buchungen per Server-Sent Events an Mitarbeiter-Dashboards.
+ * Jeder Abonnent hat einen begrenzten Puffer; ist dieser voll, wird das älteste Ereignis verworfen,
+ * damit langsame Clients weder Speicher noch die veröffentlichenden Transaktionen blockieren.
+ *
+ * Gesendet wird (auch der Heartbeat) nur aus dem Sender-Pool, je Abonnent höchstens ein Thread gleichzeitig;
+ * der Pool wächst bis max-subscribers, sodass ein hängender Client keinen anderen aufhält. Dauert ein
+ * Senden länger als send-timeout-ms, wird der Abonnent beim nächsten Heartbeat verdrängt.
+ */
+@Component
+@Slf4j
+public class StatusEventBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long sendTimeoutNanos;
+    private final Supplier<SseEmitter> emitters;
+    private final LongSupplier nanoTime;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventSequence = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong slowEvictions = new AtomicLong();
+    private final ExecutorService senderPool;
+
+    @Autowired
+    public StatusEventBroadcaster(@Value("${rentacar.events.buffer-size:256}") int bufferSize,
+                                  @Value("${rentacar.events.max-subscribers:200}") int maxSubscribers,
+                                  @Value("${rentacar.events.sender-threads:4}") int senderThreads,
+                                  @Value("${rentacar.events.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this(bufferSize, maxSubscribers, Duration.ofMillis(sendTimeoutMs), newSenderPool(senderThreads, maxSubscribers),
+                () -> new SseEmitter(EMITTER_TIMEOUT_MS), System::nanoTime);
+    }
+
+    StatusEventBroadcaster(int bufferSize, int maxSubscribers, Duration sendTimeout, ExecutorService senderPool,
+                           Supplier<SseEmitter> emitters, LongSupplier nanoTime) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senderPool = senderPool;
+        this.emitters = emitters;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * senderThreads bleiben warm; darüber hinaus entsteht je gleichzeitig sendendem Abonnent ein Thread.
+     * Verdrängte Abonnenten können ihren Thread bis zum Schreib-Timeout des Containers belegen, daher der Puffer.
+     */
+    private static ExecutorService newSenderPool(int senderThreads, int maxSubscribers) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return new ThreadPoolExecutor(senderThreads, maxSubscribers + senderThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "status-events-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Registriert einen neuen Abonnenten
+     * @return leer, wenn die maximale Anzahl an Verbindungen erreicht ist
+     */
+    public Optional<SseEmitter> subscribe(String username) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("SSE-Abonnement für {} abgelehnt: {} Verbindungen offen", username, subscribers.size());
+            return Optional.empty();
+        }
+        long id = subscriberIds.incrementAndGet();
+        SseEmitter emitter = emitters.get();
+        Subscriber subscriber = new Subscriber(id, emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(id));
+        emitter.onTimeout(() -> subscribers.remove(id));
+        emitter.onError(e -> subscribers.remove(id));
+        subscribers.put(id, subscriber);
+        log.debug("SSE-Abonnent {} für {} registriert", id, username);
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleStatusChanged(VehicleStatusChangedEvent event) {
+        broadcast("VEHICLE_STATUS_CHANGED", "Vehicle", event.vehicleId(),
+                event.previousStatus() != null ? event.previousStatus().name() : null,
+                event.newStatus() != null ? event.newStatus().name() : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        broadcast("BOOKING_STATUS_CHANGED", "Booking", event.bookingId(),
+                event.previousStatus() != null ? event.previousStatus().name() : null,
+                event.newStatus() != null ? event.newStatus().name() : null);
+    }
+
+    /**
+     * Hält Verbindungen über Proxies hinweg offen und erkennt getrennte Clients. Läuft auf dem
+     * Scheduler-Pool und blockiert nie: der Heartbeat wird nur vorgemerkt und vom Sender-Pool geschickt.
+     * Abonnenten, deren laufendes Senden länger als send-timeout-ms dauert, werden verdrängt.
+     */
+    @Scheduled(fixedDelayString = "${rentacar.events.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        long now = nanoTime.getAsLong();
+        subscribers.values().forEach(subscriber -> {
+            long started = subscriber.sendStartedAt().get();
+            if (started != IDLE && now - started > sendTimeoutNanos) {
+                evictSlow(subscriber);
+                return;
+            }
+            subscriber.heartbeatPending().set(true);
+            scheduleDrain(subscriber);
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    public long getSlowEvictionCount() {
+        return slowEvictions.get();
+    }
+
+    /**
+     * Noch nicht gesendete Ereignisse aller Abonnenten (für Tests)
+     */
+    List<StatusEvent> getPendingEvents() {
+        return subscribers.values().stream()
+                .flatMap(subscriber -> subscriber.buffer().stream())
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Zuerst hängende Sender unterbrechen, damit complete() nicht auf deren Emitter-Monitor wartet
+        senderPool.shutdownNow();
+        subscribers.values().forEach(this::remove);
+    }
+
+    private void broadcast(String type, String resourceType, Long resourceId, String previousStatus, String newStatus) {
+        StatusEvent event = new StatusEvent(eventSequence.incrementAndGet(), type, resourceType, resourceId,
+                previousStatus, newStatus, LocalDateTime.now());
+        subscribers.values().forEach(subscriber -> {
+            // Drop-Oldest: Platz schaffen, statt den Publisher zu blockieren
+            while (!subscriber.buffer().offer(event)) {
+                if (subscriber.buffer().poll() != null) {
+                    droppedEvents.incrementAndGet();
+                }
+            }
+            scheduleDrain(subscriber);
+        });
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                senderPool.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining().set(false);
+                remove(subscriber);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        subscriber.sender().set(Thread.currentThread());
+        try {
+            if (subscriber.heartbeatPending().getAndSet(false)) {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+            StatusEvent event;
+            while (subscribers.containsKey(subscriber.id()) && (event = subscriber.buffer().poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(String.valueOf(event.sequence()))
+                        .name(event.type())
+                        .data(event));
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.sender().set(null);
+            // Unterbrechung durch evictSlow nicht an die nächste Aufgabe des Pool-Threads weitergeben
+            Thread.interrupted();
+            subscriber.draining().set(false);
+        }
+        if (!subscribers.containsKey(subscriber.id())) {
+            // Während des Sendens verdrängt: Emitter hier abschließen, nicht im Scheduler-Thread
+            remove(subscriber);
+            return;
+        }
+        // Ereignisse, die nach dem letzten poll() eingetroffen sind, nicht liegen lassen
+        if (!subscriber.buffer().isEmpty() || subscriber.heartbeatPending().get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedAt().set(nanoTime.getAsLong());
+        try {
+            subscriber.emitter().send(event);
+        } finally {
+            subscriber.sendStartedAt().set(IDLE);
+        }
+    }
+
+    /**
+     * Verdrängt einen hängenden Abonnenten ohne den Emitter anzufassen (dessen Monitor hält der sendende
+     * Thread); der Sender wird unterbrochen und schließt den Emitter, sobald send() zurückkehrt
+     */
+    private void evictSlow(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id()) == null) {
+            return;
+        }
+        subscriber.buffer().clear();
+        slowEvictions.incrementAndGet();
+        log.warn("SSE-Abonnent {} verdrängt: Senden dauert länger als {} ms", subscriber.id(),
+                TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+        Thread sender = subscriber.sender().get();
+        if (sender != null) {
+            sender.interrupt();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber.id());
+        subscriber.buffer().clear();
+        if (subscriber.completed().compareAndSet(false, true)) {
+            try {
+                subscriber.emitter().complete();
+            } catch (IllegalStateException ignored) {
+                // Emitter bereits abgeschlossen
+            }
+        }
+    }
+
+    private record Subscriber(long id, SseEmitter emitter, BlockingQueue<StatusEvent> buffer, AtomicBoolean draining,
+                              AtomicBoolean heartbeatPending, AtomicBoolean completed, AtomicLong sendStartedAt,
+                              AtomicReference<Thread> sender) {
+        Subscriber(long id, SseEmitter emitter, BlockingQueue<StatusEvent> buffer) {
+            this(id, emitter, buffer, new AtomicBoolean(), new AtomicBoolean(), new AtomicBoolean(),
+                    new AtomicLong(IDLE), new AtomicReference<>());
+        }
+    }
+
+    public record StatusEvent(
+            long sequence,
+            String type,
+            String resourceType,
+            Long resourceId,
+            String previousStatus,
+            String newStatus,
+            LocalDateTime occurredAt
+    ) {}
+}
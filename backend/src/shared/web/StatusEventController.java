@@ -0,0 +1,31 @@
+package de.rentacar.shared.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SSE-Endpunkt für Status-Änderungen (ersetzt das Polling der Abhol-/Rückgabe-Ansichten)
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class StatusEventController {
+
+    private final StatusEventBroadcaster statusEventBroadcaster;
+
+    @GetMapping(value = "/status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('EMPLOYEE','ADMIN')")
+    public ResponseEntity<SseEmitter> streamStatusEvents(Authentication authentication) {
+        return statusEventBroadcaster.subscribe(authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -8,6 +8,7 @@ import de.rentacar.vehicle.domain.LicensePlate;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleRepository;
 import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
 import de.rentacar.vehicle.domain.VehicleType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -54,6 +56,9 @@ class BookingServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -138,6 +143,10 @@ class BookingServiceTest {
         verify(vehicleRepository).save(any(Vehicle.class));
         verify(auditService).logAction(anyString(), eq("BOOKING_CREATED"), anyString(), anyString(), anyString(), anyString());
         verify(auditService).logAction(anyString(), eq("BOOKING_CONFIRMED"), anyString(), anyString(), anyString(), anyString());
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(
+                booking.getId(), 1L, null, BookingStatus.BESTÄTIGT));
+        verify(eventPublisher).publishEvent(new VehicleStatusChangedEvent(
+                1L, "B-AB 1234", VehicleStatus.VERFÜGBAR, VehicleStatus.VERMIETET));
     }
 
     @Test
@@ -240,6 +249,10 @@ class BookingServiceTest {
         verify(bookingRepository).save(booking);
         verify(vehicleRepository).save(testVehicle);
         verify(auditService).logAction(anyString(), eq("BOOKING_CONFIRMED"), anyString(), anyString(), anyString(), anyString());
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(
+                1L, 1L, BookingStatus.ANFRAGE, BookingStatus.BESTÄTIGT));
+        verify(eventPublisher).publishEvent(new VehicleStatusChangedEvent(
+                1L, "B-AB 1234", VehicleStatus.VERFÜGBAR, VehicleStatus.VERMIETET));
     }
 
     @Test
@@ -264,6 +277,7 @@ class BookingServiceTest {
                 .hasMessageContaining("nicht mehr verfügbar");
 
         verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -279,6 +293,7 @@ class BookingServiceTest {
                 .status(BookingStatus.BESTÄTIGT)
                 .build();
         booking.setId(1L);
+        testVehicle.markAsRented();
 
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -294,6 +309,10 @@ class BookingServiceTest {
         verify(bookingRepository).save(booking);
         verify(vehicleRepository).save(testVehicle);
         verify(auditService).logAction(anyString(), eq("BOOKING_CANCELLED"), anyString(), anyString(), anyString(), anyString());
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(
+                1L, 1L, BookingStatus.BESTÄTIGT, BookingStatus.STORNIERT));
+        verify(eventPublisher).publishEvent(new VehicleStatusChangedEvent(
+                1L, "B-AB 1234", VehicleStatus.VERMIETET, VehicleStatus.VERFÜGBAR));
     }
 
     @Test
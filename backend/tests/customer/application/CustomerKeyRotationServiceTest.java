@@ -0,0 +1,106 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.KeyRotationCheckpoint;
+import de.rentacar.customer.domain.KeyRotationStatus;
+import de.rentacar.customer.infrastructure.EncryptionService;
+import de.rentacar.customer.infrastructure.KeyRotationCheckpointRepository;
+import de.rentacar.shared.domain.AuditService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit-Tests für CustomerKeyRotationService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerKeyRotationService Tests")
+class CustomerKeyRotationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private KeyRotationCheckpointRepository checkpointRepository;
+
+    @Mock
+    private AuditService auditService;
+
+    private EncryptionService oldKey;
+    private CustomerKeyRotationService rotationService;
+
+    @BeforeEach
+    void setUp() {
+        oldKey = new EncryptionService("test-password");
+        EncryptionService newKey = new EncryptionService("test-password", "2=new-password", "2");
+        rotationService = new CustomerKeyRotationService(jdbcTemplate, transactionManager, newKey,
+                checkpointRepository, auditService, 100, 2, 0, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rotationService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte nur Felder mit veraltetem Schlüssel neu verschlüsseln")
+    void shouldReEncryptOnlyStaleFields() {
+        // Given
+        CustomerKeyRotationService.CustomerCiphertexts row = new CustomerKeyRotationService.CustomerCiphertexts(
+                1L, oldKey.encrypt("max@example.com"), null, oldKey.encrypt("Teststraße 1"), oldKey.encrypt("B123"));
+
+        // When
+        CustomerKeyRotationService.RowUpdate update = rotationService.reEncrypt(row);
+
+        // Then
+        assertThat(update).isNotNull();
+        assertThat(update.target().email()).startsWith("v1:2:");
+        assertThat(update.target().phone()).isNull();
+        assertThat(update.target().address()).startsWith("v1:2:");
+        assertThat(update.current()).isEqualTo(row);
+    }
+
+    @Test
+    @DisplayName("Sollte bereits rotierte Zeilen überspringen")
+    void shouldSkipRowsAlreadyOnActiveKey() {
+        // Given
+        EncryptionService newKey = new EncryptionService("test-password", "2=new-password", "2");
+        CustomerKeyRotationService.CustomerCiphertexts row = new CustomerKeyRotationService.CustomerCiphertexts(
+                1L, newKey.encrypt("max@example.com"), null, null, null);
+
+        // When/Then
+        assertThat(rotationService.reEncrypt(row)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte unterbrochenen Lauf für anderen Schlüssel nicht automatisch fortsetzen")
+    void shouldNotResumeRotationForOtherKey() {
+        // Given
+        KeyRotationCheckpoint checkpoint = KeyRotationCheckpoint.builder()
+                .targetKeyId("3")
+                .status(KeyRotationStatus.RUNNING)
+                .lastProcessedId(42L)
+                .startedBy("admin")
+                .build();
+        when(checkpointRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(checkpoint));
+
+        // When
+        rotationService.resumeInterruptedRotation();
+
+        // Then
+        assertThat(rotationService.isRunning()).isFalse();
+    }
+}
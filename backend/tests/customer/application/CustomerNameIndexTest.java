@@ -0,0 +1,100 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerName;
+import de.rentacar.customer.domain.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit-Tests für CustomerNameIndex
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerNameIndex Tests")
+class CustomerNameIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CustomerNameIndex(customerRepository);
+        when(customerRepository.findAllNames()).thenReturn(List.of(
+                new CustomerName(1L, "Max", "Mustermann"),
+                new CustomerName(2L, "Peter", "Müller"),
+                new CustomerName(3L, "Anna", "Müllerschön"),
+                new CustomerName(4L, "Sarah", "Schmidt")
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Sollte Kunden über Präfix des Nachnamens finden und exakte Treffer vorziehen")
+    void shouldFindByPrefixAndRankExactFirst() {
+        assertThat(index.search("mul", 10)).containsExactly(2L, 3L);
+        assertThat(index.search("Müller", 10)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Sollte Tippfehler im Nachnamen tolerieren")
+    void shouldTolerateTypos() {
+        assertThat(index.search("Schmitd", 10)).containsExactly(4L);
+        assertThat(index.search("Musterman", 10)).containsExactly(1L);
+        assertThat(index.search("Mueller", 10)).contains(2L);
+    }
+
+    @Test
+    @DisplayName("Sollte Vor- und Nachname kombiniert einschränken")
+    void shouldCombineFirstAndLastName() {
+        assertThat(index.search("anna mül", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Sollte veraltete Namen bei Aktualisierung entfernen")
+    void shouldReplaceTokensOnUpdate() {
+        index.index(4L, "Sarah", "Weber");
+
+        assertThat(index.search("schmidt", 10)).isEmpty();
+        assertThat(index.search("weber", 10)).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Sollte innerhalb einer Transaktion erst nach dem Commit indizieren")
+    void shouldIndexAfterCommit() {
+        // Given
+        Customer customer = Customer.builder().firstName("Lena").lastName("Krüger").build();
+        customer.setId(5L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            index.indexAfterCommit(customer);
+
+            // Then
+            assertThat(index.search("krüger", 10)).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(index.search("krüger", 10)).containsExactly(5L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte leere Anfragen ignorieren")
+    void shouldIgnoreBlankQueries() {
+        assertThat(index.search(" ", 10)).isEmpty();
+        assertThat(index.search(null, 10)).isEmpty();
+    }
+}
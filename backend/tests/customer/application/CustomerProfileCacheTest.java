@@ -0,0 +1,106 @@
+package de.rentacar.customer.application;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für CustomerProfileCache
+ */
+@DisplayName("CustomerProfileCache Tests")
+class CustomerProfileCacheTest {
+
+    private MutableClock clock;
+    private CustomerProfileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        cache = new CustomerProfileCache(Duration.ofSeconds(60), 2, clock);
+    }
+
+    @Test
+    @DisplayName("Sollte Profil innerhalb der TTL liefern")
+    void shouldReturnProfileWithinTtl() {
+        // Given
+        cache.put(profile("alice"), cache.generation());
+
+        // When
+        clock.advance(Duration.ofSeconds(59));
+
+        // Then
+        assertThat(cache.get("alice")).contains(profile("alice"));
+    }
+
+    @Test
+    @DisplayName("Sollte Profil nach Ablauf der TTL verwerfen")
+    void shouldExpireProfileAfterTtl() {
+        // Given
+        cache.put(profile("alice"), cache.generation());
+        cache.put(profile("bob"), cache.generation());
+
+        // When
+        clock.advance(Duration.ofSeconds(60));
+        cache.purgeExpired();
+
+        // Then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("alice")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte am längsten ungenutzten Eintrag bei Überlauf verdrängen")
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        // Given
+        cache.put(profile("alice"), cache.generation());
+        cache.put(profile("bob"), cache.generation());
+        cache.get("alice");
+
+        // When
+        cache.put(profile("carol"), cache.generation());
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("bob")).isEmpty();
+        assertThat(cache.get("alice")).isPresent();
+        assertThat(cache.get("carol")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Sollte Profil gezielt entfernen")
+    void shouldEvictProfile() {
+        // Given
+        cache.put(profile("alice"), cache.generation());
+
+        // When
+        cache.evict("alice");
+
+        // Then
+        assertThat(cache.get("alice")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte vor einer Entfernung geladene Profile nicht cachen")
+    void shouldNotCacheStaleLoad() {
+        // Given
+        long generation = cache.generation();
+
+        // When
+        cache.evict("alice");
+        cache.put(profile("alice"), generation);
+
+        // Then
+        assertThat(cache.get("alice")).isEmpty();
+    }
+
+    private CustomerProfile profile(String username) {
+        return new CustomerProfile(1L, "Max", "Mustermann", username + "@example.com",
+                "0123456789", "Teststraße 1", "B123456", username);
+    }
+}
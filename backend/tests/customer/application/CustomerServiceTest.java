@@ -2,12 +2,16 @@ package de.rentacar.customer.application;
 
 import de.rentacar.customer.domain.Customer;
 import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.customer.domain.CustomerSummary;
 import de.rentacar.customer.domain.EncryptedString;
+import de.rentacar.customer.infrastructure.BlindIndexService;
 import de.rentacar.customer.infrastructure.EncryptionService;
 import de.rentacar.shared.domain.AuditService;
 import de.rentacar.shared.security.Role;
 import de.rentacar.shared.security.User;
+import de.rentacar.shared.security.UserDetailsCache;
 import de.rentacar.shared.security.UserRepository;
+import de.rentacar.shared.service.AsyncSideEffectExecutor;
 import de.rentacar.shared.service.EmailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,8 +20,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -52,6 +64,21 @@ class CustomerServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private CustomerProfileCache profileCache;
+
+    @Mock
+    private BlindIndexService blindIndexService;
+
+    @Mock
+    private AsyncSideEffectExecutor sideEffects;
+
+    @Mock
+    private CustomerNameIndex nameIndex;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -93,14 +120,24 @@ class CustomerServiceTest {
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(customerRepository.save(any(Customer.class))).thenReturn(savedCustomer);
         doNothing().when(emailService).sendActivationEmail(anyString(), anyString());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(sideEffects).runAfterCommit(anyString(), any(Runnable.class));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(sideEffects).runAfterCommit(anyString(), any(Runnable.class), anyMap());
 
         // When
-        Customer result = customerService.registerCustomer(
+        CustomerRegistration registration = customerService.registerCustomer(
                 "newuser", "password123", "John", "Doe",
                 "john@example.com", "0123456789", "Teststraße 1",
                 "B123456", "127.0.0.1");
+        Customer result = registration.customer();
 
         // Then
+        assertThat(registration.activationToken()).isNotBlank();
         assertThat(result).isNotNull();
         assertThat(result.getUsername()).isEqualTo("newuser");
         assertThat(result.getFirstName()).isEqualTo("John");
@@ -109,10 +146,33 @@ class CustomerServiceTest {
         verify(userRepository).save(any(User.class));
         verify(customerRepository).save(any(Customer.class));
         verify(encryptionService, times(4)).encrypt(anyString());
-        verify(emailService).sendActivationEmail(anyString(), anyString());
+        verify(passwordEncoder, times(1)).encode("password123");
+        verify(emailService).sendActivationEmail("john@example.com", registration.activationToken());
         verify(auditService).logAction(anyString(), eq("CUSTOMER_REGISTERED"), anyString(), anyString(), anyString(), anyString());
     }
 
+    @Test
+    @DisplayName("Sollte Account aktivieren und gecachten Benutzer invalidieren")
+    void shouldActivateCustomerAndInvalidateUserCache() {
+        // Given
+        User user = User.builder()
+                .username("newuser")
+                .password("hashed-password")
+                .enabled(false)
+                .activationToken("token")
+                .build();
+        when(userRepository.findByActivationToken("token")).thenReturn(Optional.of(user));
+
+        // When
+        customerService.activateCustomer("token");
+
+        // Then
+        assertThat(user.isEnabled()).isTrue();
+        assertThat(user.getActivationToken()).isNull();
+        verify(userRepository).save(user);
+        verify(userDetailsCache).invalidate("newuser");
+    }
+
     @Test
     @DisplayName("Sollte Exception werfen wenn Benutzername bereits existiert")
     void shouldThrowExceptionWhenUsernameExists() {
@@ -155,6 +215,30 @@ class CustomerServiceTest {
         verify(customerRepository).save(testCustomer);
         verify(encryptionService, times(3)).encrypt(anyString());
         verify(auditService).logAction(anyString(), eq("CUSTOMER_UPDATED"), anyString(), anyString(), anyString(), anyString());
+        verify(profileCache).evict("testuser");
+        verify(nameIndex).indexAfterCommit(testCustomer);
+    }
+
+    @Test
+    @DisplayName("Sollte das Profil innerhalb einer Transaktion erst nach dem Commit aus dem Cache entfernen")
+    void shouldEvictProfileAfterCommit() {
+        // Given
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(encryptionService.encrypt(anyString())).thenReturn("new-encrypted-value");
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            customerService.updateCustomerData(1L, "John", "Doe", "john@example.com",
+                    "0987654321", "Neue Straße 2", "testuser", "127.0.0.1");
+
+            // Then
+            verify(profileCache, never()).evict(anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(profileCache).evict("testuser");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -236,5 +320,181 @@ class CustomerServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("nicht gefunden");
     }
-}
 
+    @Test
+    @DisplayName("Sollte Altchiffrate beim Aktualisieren neu verschlüsseln")
+    void shouldReEncryptLegacyFieldsOnUpdate() {
+        // Given
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(encryptionService.needsReEncryption(anyString())).thenReturn(false);
+        when(encryptionService.needsReEncryption("encrypted-license")).thenReturn(true);
+        when(encryptionService.reEncrypt("encrypted-license")).thenReturn("v1:1:upgraded");
+
+        // When
+        Customer result = customerService.updateCustomerData(
+                1L, "John", null, null, null, null, "testuser", "127.0.0.1");
+
+        // Then
+        assertThat(result.getDriverLicenseNumber().getEncryptedValue()).isEqualTo("v1:1:upgraded");
+        assertThat(result.getEmail().getEncryptedValue()).isEqualTo("encrypted-email");
+        verify(encryptionService, never()).encrypt(anyString());
+    }
+
+    @Test
+    @DisplayName("Sollte eigenes Profil entschlüsseln und zwischenspeichern")
+    void shouldDecryptAndCacheOwnProfile() {
+        // Given
+        when(profileCache.get("testuser")).thenReturn(Optional.empty());
+        when(profileCache.generation()).thenReturn(7L);
+        when(customerRepository.findByUsername("testuser")).thenReturn(Optional.of(testCustomer));
+        when(encryptionService.decrypt(anyString())).thenAnswer(invocation -> "plain-" + invocation.getArgument(0));
+
+        // When
+        CustomerProfile profile = customerService.getOwnProfile("testuser");
+
+        // Then
+        assertThat(profile.id()).isEqualTo(1L);
+        assertThat(profile.email()).isEqualTo("plain-encrypted-email");
+        assertThat(profile.driverLicenseNumber()).isEqualTo("plain-encrypted-license");
+        verify(profileCache).put(profile, 7L);
+    }
+
+    @Test
+    @DisplayName("Sollte zwischengespeichertes Profil ohne Entschlüsselung liefern")
+    void shouldReturnCachedProfileWithoutDecrypting() {
+        // Given
+        CustomerProfile cached = new CustomerProfile(1L, "Max", "Mustermann", "max@example.com",
+                "0123", "Teststraße 1", "B123", "testuser");
+        when(profileCache.get("testuser")).thenReturn(Optional.of(cached));
+
+        // When
+        CustomerProfile profile = customerService.getOwnProfile("testuser");
+
+        // Then
+        assertThat(profile).isEqualTo(cached);
+        verify(customerRepository, never()).findByUsername(anyString());
+        verify(encryptionService, never()).decrypt(anyString());
+    }
+
+    @Test
+    @DisplayName("Sollte Registrierung mit bereits verwendeter E-Mail ablehnen")
+    void shouldRejectRegistrationWithDuplicateEmail() {
+        // Given
+        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty());
+        when(blindIndexService.emailIndex("john@example.com")).thenReturn("email-bidx");
+        when(customerRepository.existsByEmailBlindIndex("email-bidx")).thenReturn(true);
+
+        // When/Then
+        assertThatThrownBy(() -> customerService.registerCustomer(
+                "newuser", "password", "John", "Doe",
+                "john@example.com", "0123456789", "Teststraße 1",
+                "B123456", "127.0.0.1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("E-Mail-Adresse bereits registriert");
+
+        verify(userRepository, never()).save(any(User.class));
+        verify(customerRepository, never()).save(any(Customer.class));
+    }
+
+    @Test
+    @DisplayName("Sollte Blind-Index bei E-Mail-Änderung aktualisieren")
+    void shouldUpdateEmailBlindIndexOnUpdate() {
+        // Given
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(blindIndexService.emailIndex("neu@example.com")).thenReturn("new-bidx");
+        when(customerRepository.findByEmailBlindIndex("new-bidx")).thenReturn(List.of());
+        when(encryptionService.encrypt(anyString())).thenReturn("new-encrypted-value");
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Customer result = customerService.updateCustomerData(
+                1L, null, null, "neu@example.com", null, null, "testuser", "127.0.0.1");
+
+        // Then
+        assertThat(result.getEmailBlindIndex()).isEqualTo("new-bidx");
+    }
+
+    @Test
+    @DisplayName("Sollte nach einem Schlüsselwechsel alle Blind-Indizes neu berechnen")
+    void shouldRecomputeBlindIndexesAfterKeyChange() {
+        // Given
+        testCustomer.setEmailBlindIndex("old-email-bidx");
+        testCustomer.setLicenseBlindIndex("old-license-bidx");
+        testCustomer.setBlindIndexKeyVersion("old-version");
+        when(blindIndexService.getKeyVersion()).thenReturn("new-version");
+        when(customerRepository.findWithStaleBlindIndex("new-version")).thenReturn(List.of(testCustomer));
+        when(encryptionService.decrypt("encrypted-email")).thenReturn("max@example.com");
+        when(encryptionService.decrypt("encrypted-license")).thenReturn("B123456");
+        when(blindIndexService.emailIndex("max@example.com")).thenReturn("new-email-bidx");
+        when(blindIndexService.driverLicenseIndex("B123456")).thenReturn("new-license-bidx");
+
+        // When
+        int updated = customerService.backfillBlindIndexes();
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(testCustomer.getEmailBlindIndex()).isEqualTo("new-email-bidx");
+        assertThat(testCustomer.getLicenseBlindIndex()).isEqualTo("new-license-bidx");
+        assertThat(testCustomer.getBlindIndexKeyVersion()).isEqualTo("new-version");
+        verify(customerRepository).save(testCustomer);
+    }
+
+    @Test
+    @DisplayName("Sollte Kunden per E-Mail über den Blind-Index finden")
+    void shouldFindCustomersByEmailBlindIndex() {
+        // Given
+        when(blindIndexService.emailIndex("max@example.com")).thenReturn("email-bidx");
+        when(customerRepository.findByEmailBlindIndex("email-bidx")).thenReturn(List.of(testCustomer));
+
+        // When
+        List<Customer> result = customerService.findCustomersByEmail("max@example.com");
+
+        // Then
+        assertThat(result).containsExactly(testCustomer);
+        verify(encryptionService, never()).decrypt(anyString());
+    }
+
+    @Test
+    @DisplayName("Sollte Kundenliste seitenweise mit begrenzter Seitengröße laden")
+    void shouldLoadCustomerSummariesWithCappedPageSize() {
+        // Given
+        CustomerSummary summary = new CustomerSummary(1L, "Max", "Mustermann", "testuser", 2);
+        when(customerRepository.findSummaries(any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(summary), invocation.getArgument(0), 1));
+
+        // When
+        Page<CustomerSummary> result = customerService.getCustomerSummaries(0, 10_000, "lastName", Sort.Direction.ASC);
+
+        // Then
+        assertThat(result.getContent()).containsExactly(summary);
+        assertThat(result.getSize()).isEqualTo(200);
+        assertThat(result.getSort().getOrderFor("lastName")).isNotNull();
+        verify(encryptionService, never()).decrypt(anyString());
+    }
+
+    @Test
+    @DisplayName("Sollte Sortierung nach nicht freigegebenen Feldern ablehnen")
+    void shouldRejectUnsupportedSortField() {
+        assertThatThrownBy(() -> customerService.getCustomerSummaries(0, 50, "password", Sort.Direction.ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(customerRepository, never()).findSummaries(any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Sollte Kundendaten nur auf Anforderung entschlüsseln und protokollieren")
+    void shouldRevealCustomerAndAudit() {
+        // Given
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(encryptionService.decrypt(anyString())).thenAnswer(invocation -> "plain-" + invocation.getArgument(0));
+
+        // When
+        CustomerProfile profile = customerService.revealCustomer(1L, "employee", "127.0.0.1");
+
+        // Then
+        assertThat(profile.email()).isEqualTo("plain-encrypted-email");
+        verify(auditService).logAction("employee", "CUSTOMER_DATA_REVEALED", "Customer", "1",
+                "Verschlüsselte Kundendaten angezeigt", "127.0.0.1");
+    }
+}
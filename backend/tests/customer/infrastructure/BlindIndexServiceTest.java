@@ -0,0 +1,73 @@
+package de.rentacar.customer.infrastructure;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit-Tests für BlindIndexService
+ */
+@DisplayName("BlindIndexService Tests")
+class BlindIndexServiceTest {
+
+    private BlindIndexService blindIndexService;
+
+    @BeforeEach
+    void setUp() {
+        blindIndexService = new BlindIndexService("test-schluessel-mit-mindestens-32-byte");
+    }
+
+    @Test
+    @DisplayName("Sollte für gleiche E-Mail deterministisch denselben Index liefern")
+    void shouldProduceDeterministicEmailIndex() {
+        // When
+        String first = blindIndexService.emailIndex("Max@Example.com ");
+        String second = blindIndexService.emailIndex("max@example.com");
+
+        // Then
+        assertThat(first).isEqualTo(second);
+        assertThat(first).doesNotContain("max");
+    }
+
+    @Test
+    @DisplayName("Sollte Führerscheinnummern unabhängig von Formatierung indizieren")
+    void shouldNormalizeDriverLicenseNumbers() {
+        assertThat(blindIndexService.driverLicenseIndex("b12-345 67"))
+                .isEqualTo(blindIndexService.driverLicenseIndex("B1234567"));
+    }
+
+    @Test
+    @DisplayName("Sollte je Feld und Schlüssel unterschiedliche Indizes liefern")
+    void shouldSeparateFieldsAndKeys() {
+        BlindIndexService otherKey = new BlindIndexService("anderer-schluessel-mit-mindestens-32-byte");
+
+        assertThat(blindIndexService.emailIndex("B1234567"))
+                .isNotEqualTo(blindIndexService.driverLicenseIndex("B1234567"));
+        assertThat(otherKey.emailIndex("max@example.com"))
+                .isNotEqualTo(blindIndexService.emailIndex("max@example.com"));
+        assertThat(otherKey.getKeyVersion()).isNotEqualTo(blindIndexService.getKeyVersion());
+        assertThat(new BlindIndexService("test-schluessel-mit-mindestens-32-byte").getKeyVersion())
+                .isEqualTo(blindIndexService.getKeyVersion());
+    }
+
+    @Test
+    @DisplayName("Sollte ohne eigenen oder mit zu kurzem Schlüssel nicht starten")
+    void shouldRequireDedicatedKey() {
+        assertThatThrownBy(() -> new BlindIndexService(""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("RENTACAR_BLIND_INDEX_KEY");
+        assertThatThrownBy(() -> new BlindIndexService("rentacar-secret-key"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("32 Byte");
+    }
+
+    @Test
+    @DisplayName("Sollte für leere Werte keinen Index liefern")
+    void shouldReturnNullForBlankValues() {
+        assertThat(blindIndexService.emailIndex(null)).isNull();
+        assertThat(blindIndexService.driverLicenseIndex("  ")).isNull();
+    }
+}
@@ -4,8 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Base64;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit-Tests für EncryptionService
@@ -101,5 +104,72 @@ class EncryptionServiceTest {
         assertThat(encryptionService.decrypt(encrypted1)).isEqualTo(text);
         assertThat(encryptionService.decrypt(encrypted2)).isEqualTo(text);
     }
-}
 
+    @Test
+    @DisplayName("Sollte versioniertes AES-GCM-Format schreiben")
+    void shouldWriteVersionedFormat() {
+        // When
+        String encrypted = encryptionService.encrypt("test@example.com");
+
+        // Then
+        assertThat(encrypted).startsWith("v1:1:");
+        assertThat(encryptionService.needsReEncryption(encrypted)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sollte alte PBE-Chiffrate entschlüsseln und neu verschlüsseln können")
+    void shouldDecryptAndUpgradeLegacyCiphertext() {
+        // Given
+        String legacy = EncryptionService.createLegacyEncryptor("test-password", 1).encrypt("B123456");
+
+        // When
+        String upgraded = encryptionService.reEncrypt(legacy);
+
+        // Then
+        assertThat(encryptionService.needsReEncryption(legacy)).isTrue();
+        assertThat(encryptionService.decrypt(legacy)).isEqualTo("B123456");
+        assertThat(upgraded).startsWith("v1:");
+        assertThat(encryptionService.decrypt(upgraded)).isEqualTo("B123456");
+    }
+
+    @Test
+    @DisplayName("Sollte manipulierte Chiffrate ablehnen")
+    void shouldRejectTamperedCiphertext() {
+        // Given
+        String encrypted = encryptionService.encrypt("test@example.com");
+        String prefix = encrypted.substring(0, encrypted.lastIndexOf(':') + 1);
+        byte[] payload = Base64.getDecoder().decode(encrypted.substring(prefix.length()));
+        payload[payload.length - 1] ^= 0x01;
+        String tampered = prefix + Base64.getEncoder().encodeToString(payload);
+
+        // When/Then
+        assertThatThrownBy(() -> encryptionService.decrypt(tampered))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Sollte nach Schlüsselrotation alte Werte lesen und mit neuem Schlüssel schreiben")
+    void shouldDecryptOldKeyAfterRotation() {
+        // Given
+        String oldValue = encryptionService.encrypt("test@example.com");
+        EncryptionService rotated = new EncryptionService("test-password", "2=new-password", "2");
+
+        // When
+        String newValue = rotated.encrypt("test@example.com");
+
+        // Then
+        assertThat(rotated.decrypt(oldValue)).isEqualTo("test@example.com");
+        assertThat(newValue).startsWith("v1:2:");
+        assertThat(rotated.needsReEncryption(oldValue)).isTrue();
+        assertThat(rotated.needsReEncryption(newValue)).isFalse();
+        assertThatThrownBy(() -> encryptionService.decrypt(newValue))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Sollte nicht konfigurierten aktiven Schlüssel ablehnen")
+    void shouldRejectUnknownActiveKey() {
+        assertThatThrownBy(() -> new EncryptionService("test-password", "", "2"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -3,6 +3,7 @@ package de.rentacar.rental.application;
 import de.rentacar.booking.domain.Booking;
 import de.rentacar.booking.domain.BookingRepository;
 import de.rentacar.booking.domain.BookingStatus;
+import de.rentacar.booking.domain.BookingStatusChangedEvent;
 import de.rentacar.rental.domain.DamageReport;
 import de.rentacar.rental.domain.Rental;
 import de.rentacar.rental.domain.RentalRepository;
@@ -12,6 +13,7 @@ import de.rentacar.vehicle.domain.LicensePlate;
 import de.rentacar.vehicle.domain.Vehicle;
 import de.rentacar.vehicle.domain.VehicleRepository;
 import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
 import de.rentacar.vehicle.domain.VehicleType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -50,6 +53,9 @@ class RentalServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RentalService rentalService;
 
@@ -128,6 +134,8 @@ class RentalServiceTest {
         verify(rentalRepository).save(any(Rental.class));
         verify(vehicleRepository).save(testVehicle);
         verify(auditService).logAction(anyString(), eq("RENTAL_CHECKOUT"), anyString(), anyString(), anyString(), anyString());
+        verify(eventPublisher).publishEvent(new VehicleStatusChangedEvent(
+                1L, "B-AB 1234", VehicleStatus.VERFÜGBAR, VehicleStatus.VERMIETET));
     }
 
     @Test
@@ -160,6 +168,7 @@ class RentalServiceTest {
     void shouldPerformCheckin() {
         // Given
         testRental.performCheckout(50000L, "Gut");
+        testVehicle.markAsRented();
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
         when(vehicleRepository.findById(1L)).thenReturn(Optional.of(testVehicle));
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
@@ -181,6 +190,10 @@ class RentalServiceTest {
         verify(vehicleRepository).save(testVehicle);
         verify(bookingRepository).save(testBooking);
         verify(auditService).logAction(anyString(), eq("RENTAL_CHECKIN"), anyString(), anyString(), anyString(), anyString());
+        verify(eventPublisher).publishEvent(new VehicleStatusChangedEvent(
+                1L, "B-AB 1234", VehicleStatus.VERMIETET, VehicleStatus.VERFÜGBAR));
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(
+                1L, 1L, BookingStatus.BESTÄTIGT, BookingStatus.ABGESCHLOSSEN));
     }
 
     @Test
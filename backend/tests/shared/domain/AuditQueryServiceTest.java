@@ -0,0 +1,132 @@
+package de.rentacar.shared.domain;
+
+import de.rentacar.shared.infrastructure.AuditLogSearchRepository;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit-Tests für AuditQueryService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditQueryService Tests")
+class AuditQueryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private static final AuditLogFilter ALL = new AuditLogFilter(null, null, null, null, null, null);
+
+    @Mock
+    private AuditLogSearchRepository searchRepository;
+
+    @Mock
+    private SegmentedAuditLog segmentedAuditLog;
+
+    @InjectMocks
+    private AuditQueryService auditQueryService;
+
+    @Test
+    @DisplayName("Sollte Cursor für die nächste Seite liefern und beim Weiterblättern verwenden")
+    void shouldReturnCursorForNextPage() {
+        // Given
+        when(searchRepository.search(ALL, null, null, 3)).thenReturn(entries(1, 3));
+        when(searchRepository.search(ALL, START.plusSeconds(2), 2L, 3)).thenReturn(entries(3, 1));
+
+        // When
+        AuditQueryService.AuditPage first = auditQueryService.search(ALL, null, 2);
+        AuditQueryService.AuditPage second = auditQueryService.search(ALL, first.nextCursor(), 2);
+
+        // Then
+        assertThat(first.items()).extracting(AuditLog::getId).containsExactly(1L, 2L);
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(second.items()).extracting(AuditLog::getId).containsExactly(3L);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte ungültigen Cursor und umgekehrten Zeitraum ablehnen")
+    void shouldRejectInvalidInput() {
+        assertThatThrownBy(() -> auditQueryService.search(ALL, "kein-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AuditLogFilter(START, START.minusDays(1), null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Sollte bei Segment-Speicher in den Segmentdateien suchen")
+    void shouldSearchSegmentsWhenEnabled() {
+        // Given
+        when(segmentedAuditLog.isEnabled()).thenReturn(true);
+        when(segmentedAuditLog.scan(ALL, -1, 51)).thenReturn(entries(0, 1));
+
+        // When
+        AuditQueryService.AuditPage page = auditQueryService.search(ALL, null, 50);
+
+        // Then
+        assertThat(page.items()).hasSize(1);
+        verifyNoInteractions(searchRepository);
+    }
+
+    @Test
+    @DisplayName("Sollte CSV seitenweise exportieren und Werte maskieren")
+    void shouldExportCsvInPages() throws Exception {
+        // Given
+        List<AuditLog> firstPage = entries(1, AuditQueryService.EXPORT_PAGE_SIZE);
+        firstPage.get(0).setDetails("Preis: 10,50 \"EUR\"");
+        firstPage.get(1).setDetails("=HYPERLINK(\"x\")");
+        AuditLog last = firstPage.get(firstPage.size() - 1);
+        when(searchRepository.search(eq(ALL), isNull(), isNull(), anyInt())).thenReturn(firstPage);
+        when(searchRepository.search(eq(ALL), eq(last.getTimestamp()), eq(last.getId()), anyInt()))
+                .thenReturn(entries(AuditQueryService.EXPORT_PAGE_SIZE + 1, 5));
+        StringWriter writer = new StringWriter();
+
+        // When
+        long exported = auditQueryService.exportCsv(ALL, writer);
+
+        // Then
+        String[] lines = writer.toString().split("\n");
+        assertThat(exported).isEqualTo(AuditQueryService.EXPORT_PAGE_SIZE + 5);
+        assertThat(lines).hasSize(AuditQueryService.EXPORT_PAGE_SIZE + 6);
+        assertThat(lines[0]).isEqualTo("id,timestamp,username,action,resourceType,resourceId,ipAddress,details");
+        assertThat(lines[1]).endsWith(",\"Preis: 10,50 \"\"EUR\"\"\"");
+        assertThat(lines[2]).endsWith(",\"'=HYPERLINK(\"\"x\"\")\"");
+        verify(searchRepository, times(2)).search(eq(ALL), any(), any(), eq(AuditQueryService.EXPORT_PAGE_SIZE));
+    }
+
+    private static List<AuditLog> entries(int firstId, int count) {
+        List<AuditLog> entries = new ArrayList<>();
+        IntStream.range(firstId, firstId + count).forEach(id -> {
+            AuditLog auditLog = AuditLog.builder()
+                    .username("admin")
+                    .action("BOOKING_CREATED")
+                    .resourceType("Booking")
+                    .resourceId(String.valueOf(id))
+                    .timestamp(START.plusSeconds(id))
+                    .ipAddress("127.0.0.1")
+                    .build();
+            auditLog.setId((long) id);
+            entries.add(auditLog);
+        });
+        return entries;
+    }
+}
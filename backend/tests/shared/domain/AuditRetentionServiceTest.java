@@ -0,0 +1,202 @@
+package de.rentacar.shared.domain;
+
+import de.rentacar.shared.infrastructure.AuditLogSearchRepository;
+import de.rentacar.shared.infrastructure.AuditLogWriter;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests für AuditRetentionService gegen eine H2-In-Memory-Datenbank und ein temporäres Archivverzeichnis
+ */
+@DisplayName("AuditRetentionService Tests")
+class AuditRetentionServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-15T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path archiveDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:audit-retention-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, version BIGINT, "
+                + "username VARCHAR(255) NOT NULL, action VARCHAR(255) NOT NULL, resource_type VARCHAR(255) NOT NULL, "
+                + "resource_id VARCHAR(255), details VARCHAR(1000), timestamp TIMESTAMP NOT NULL, ip_address VARCHAR(255))");
+        SegmentedAuditLog segmentedAuditLog = new SegmentedAuditLog("jpa",
+                archiveDirectory.resolve("segments").toString(), 1, 24, 24);
+        // Aufbewahrung 3 Monate: April bis Juni bleiben, alles vor dem 01.04.2024 wird archiviert
+        retentionService = new AuditRetentionService(new AuditLogSearchRepository(jdbcTemplate), segmentedAuditLog,
+                true, 3, archiveDirectory, 4, 0, 100, CLOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        retentionService.shutdown();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Sollte abgelaufene Monate in Batches archivieren und aus der Tabelle löschen")
+    void shouldArchiveExpiredMonths() throws IOException {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            insert("BOOKING_CREATED", String.valueOf(i), LocalDateTime.of(2024, 1, 10, 8, 0).plusHours(i));
+        }
+        insert("BOOKING_CANCELLED", "=1+1", LocalDateTime.of(2024, 3, 31, 23, 59));
+        insert("BOOKING_CONFIRMED", "20", LocalDateTime.of(2024, 4, 1, 0, 0));
+
+        // When
+        AuditRetentionService.RetentionRun run = retentionService.run();
+
+        // Then
+        assertThat(run.cutoff()).isEqualTo(LocalDateTime.of(2024, 4, 1, 0, 0));
+        assertThat(run.rows()).isEqualTo(11);
+        assertThat(run.months()).isEqualTo(2);
+        assertThat(run.complete()).isTrue();
+        assertThat(jdbcTemplate.queryForList("SELECT resource_id FROM audit_logs", String.class)).containsExactly("20");
+
+        List<String> january = readArchive("audit_logs-2024-01.csv.gz");
+        assertThat(january).hasSize(11);
+        assertThat(january.get(0)).isEqualTo(AuditQueryService.CSV_HEADER.trim());
+        assertThat(january.get(1)).contains("BOOKING_CREATED,Booking,0,");
+        assertThat(readArchive("audit_logs-2024-03.csv.gz")).last().asString().contains("'=1+1");
+        assertThat(Files.exists(archiveDirectory.resolve("audit_logs-2024-01.checkpoint"))).isFalse();
+        assertThat(retentionService.getStats().archivedRows()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Sollte nach einem Abbruch am Checkpoint fortsetzen, ohne Einträge doppelt zu archivieren")
+    void shouldResumeFromCheckpoint() throws IOException {
+        // Given: erster Batch archiviert, danach abgebrochen (Member halb geschrieben, Einträge nicht gelöscht)
+        LocalDateTime start = LocalDateTime.of(2024, 2, 1, 8, 0);
+        for (int i = 0; i < 4; i++) {
+            insert("BOOKING_CREATED", String.valueOf(i), start.plusHours(i));
+        }
+        retentionService.run();
+        Path archive = archiveDirectory.resolve("audit_logs-2024-02.csv.gz");
+        long firstBatchLength = Files.size(archive);
+        Files.write(archive, new byte[]{0x1f, (byte) 0x8b, 8, 0, 0}, StandardOpenOption.APPEND);
+
+        for (int i = 0; i < 6; i++) {
+            insert("BOOKING_CREATED", String.valueOf(i), start.plusHours(i));
+        }
+        AuditLog lastArchived = new AuditLogSearchRepository(jdbcTemplate)
+                .search(new AuditLogFilter(null, null, null, null, null, null), null, null, 4).get(3);
+        Files.writeString(archiveDirectory.resolve("audit_logs-2024-02.checkpoint"),
+                firstBatchLength + "|" + lastArchived.getTimestamp() + "|" + lastArchived.getId());
+
+        // When
+        AuditRetentionService.RetentionRun run = retentionService.run();
+
+        // Then
+        assertThat(run.rows()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Long.class)).isZero();
+        assertThat(readArchive("audit_logs-2024-02.csv.gz"))
+                .extracting(line -> line.split(",")[5])
+                .containsExactly("resourceId", "0", "1", "2", "3", "4", "5");
+    }
+
+    @Test
+    @DisplayName("Sollte je Lauf höchstens max-batches-per-run Batches verarbeiten und danach fortsetzen")
+    void shouldCapBatchesPerRun() throws IOException {
+        // Given
+        retentionService = new AuditRetentionService(new AuditLogSearchRepository(jdbcTemplate),
+                new SegmentedAuditLog("jpa", archiveDirectory.resolve("segments").toString(), 1, 24, 24),
+                true, 3, archiveDirectory, 4, 0, 2, CLOCK);
+        for (int i = 0; i < 10; i++) {
+            insert("BOOKING_CREATED", String.valueOf(i), LocalDateTime.of(2024, 1, 10, 8, 0).plusHours(i));
+        }
+
+        // When
+        AuditRetentionService.RetentionRun first = retentionService.run();
+        AuditRetentionService.RetentionRun second = retentionService.run();
+
+        // Then
+        assertThat(first.rows()).isEqualTo(8);
+        assertThat(first.complete()).isFalse();
+        assertThat(second.rows()).isEqualTo(2);
+        assertThat(second.complete()).isTrue();
+        assertThat(readArchive("audit_logs-2024-01.csv.gz")).hasSize(11);
+        assertThat(Files.exists(archiveDirectory.resolve("audit_logs-2024-01.checkpoint"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sollte im Hintergrund laufen und nur bei aktivierter Aufbewahrung starten")
+    void shouldRunInBackgroundWhenEnabled() throws InterruptedException {
+        // Given
+        insert("BOOKING_CREATED", "1", LocalDateTime.of(2024, 1, 10, 8, 0));
+        AuditRetentionService disabled = new AuditRetentionService(new AuditLogSearchRepository(jdbcTemplate),
+                new SegmentedAuditLog("jpa", archiveDirectory.resolve("segments").toString(), 1, 24, 24),
+                false, 3, archiveDirectory, 4, 0, 100, CLOCK);
+
+        // When
+        retentionService.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (retentionService.getStats().lastRun() == null && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        // Then
+        assertThat(retentionService.getStats().lastRun()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Long.class)).isZero();
+        assertThatThrownBy(disabled::start).isInstanceOf(IllegalStateException.class);
+        disabled.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte nichts archivieren, solange alle Einträge innerhalb der Aufbewahrung liegen")
+    void shouldKeepEntriesWithinRetention() {
+        // Given
+        insert("BOOKING_CREATED", "1", LocalDateTime.of(2024, 4, 1, 0, 0));
+        insert("BOOKING_CREATED", "2", LocalDateTime.of(2024, 6, 15, 11, 0));
+
+        // When
+        AuditRetentionService.RetentionRun run = retentionService.run();
+
+        // Then
+        assertThat(run.rows()).isZero();
+        assertThat(run.months()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Long.class)).isEqualTo(2);
+    }
+
+    private List<String> readArchive(String fileName) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archiveDirectory.resolve(fileName)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    private void insert(String action, String resourceId, LocalDateTime timestamp) {
+        jdbcTemplate.update(AuditLogWriter.INSERT_SQL, "max", action, "Booking", resourceId, null,
+                Timestamp.valueOf(timestamp), "127.0.0.1", Timestamp.valueOf(timestamp), Timestamp.valueOf(timestamp));
+    }
+}
@@ -1,6 +1,8 @@
 package de.rentacar.shared.domain;
 
 import de.rentacar.shared.infrastructure.AuditLogRepository;
+import de.rentacar.shared.infrastructure.AuditLogWriter;
+import de.rentacar.shared.infrastructure.SegmentedAuditLog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit-Tests für AuditService
@@ -24,6 +28,12 @@ class AuditServiceTest {
     @Mock
     private AuditLogRepository auditLogRepository;
 
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
+    @Mock
+    private SegmentedAuditLog segmentedAuditLog;
+
     @InjectMocks
     private AuditService auditService;
 
@@ -68,5 +78,32 @@ class AuditServiceTest {
         
         assertThat(captor.getValue().getResourceId()).isNull();
     }
-}
 
+    @Test
+    @DisplayName("Sollte im gepufferten Modus an den Audit-Writer übergeben statt per JPA zu speichern")
+    void shouldAppendToWriterWhenBuffered() {
+        // Given
+        when(auditLogWriter.isBuffered()).thenReturn(true);
+
+        // When
+        auditService.logAction("user", "BOOKING_CREATED", "Booking", "42", "Details", "127.0.0.1");
+
+        // Then
+        verify(auditLogWriter).append("user", "BOOKING_CREATED", "Booking", "42", "Details", "127.0.0.1");
+        verifyNoInteractions(auditLogRepository);
+    }
+
+    @Test
+    @DisplayName("Sollte bei Segment-Speicher in Segmentdateien statt in die Tabelle schreiben")
+    void shouldAppendToSegmentsWhenEnabled() {
+        // Given
+        when(segmentedAuditLog.isEnabled()).thenReturn(true);
+
+        // When
+        auditService.logAction("user", "VEHICLE_ADDED", "Vehicle", "7", "Details", "127.0.0.1");
+
+        // Then
+        verify(segmentedAuditLog).append("user", "VEHICLE_ADDED", "Vehicle", "7", "Details", "127.0.0.1");
+        verifyNoInteractions(auditLogRepository, auditLogWriter);
+    }
+}
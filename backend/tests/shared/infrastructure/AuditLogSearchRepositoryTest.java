@@ -0,0 +1,94 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.domain.AuditLog;
+import de.rentacar.shared.domain.AuditLogFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für AuditLogSearchRepository gegen eine H2-In-Memory-Datenbank
+ */
+@DisplayName("AuditLogSearchRepository Tests")
+class AuditLogSearchRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditLogSearchRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:audit-search-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, version BIGINT, "
+                + "username VARCHAR(255) NOT NULL, action VARCHAR(255) NOT NULL, resource_type VARCHAR(255) NOT NULL, "
+                + "resource_id VARCHAR(255), details VARCHAR(1000), timestamp TIMESTAMP NOT NULL, ip_address VARCHAR(255))");
+        repository = new AuditLogSearchRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Sollte nach Ressource und Zeitraum filtern")
+    void shouldFilterByResourceAndTimeRange() {
+        // Given
+        insert("max", "BOOKING_CREATED", "Booking", "123", START);
+        insert("anna", "BOOKING_CONFIRMED", "Booking", "123", START.plusHours(1));
+        insert("anna", "BOOKING_CREATED", "Booking", "124", START.plusHours(1));
+        insert("max", "BOOKING_CANCELLED", "Booking", "123", START.plusHours(3));
+
+        // When
+        List<AuditLog> touched = repository.search(
+                new AuditLogFilter(null, null, null, null, "Booking", "123"), null, null, 10);
+        List<AuditLog> inRange = repository.search(
+                new AuditLogFilter(START.plusMinutes(30), START.plusHours(3), null, null, "Booking", "123"), null, null, 10);
+        List<AuditLog> byUserAndAction = repository.search(
+                new AuditLogFilter(null, null, "anna", "BOOKING_CREATED", null, null), null, null, 10);
+
+        // Then
+        assertThat(touched).extracting(AuditLog::getUsername).containsExactly("max", "anna", "max");
+        assertThat(inRange).extracting(AuditLog::getAction).containsExactly("BOOKING_CONFIRMED");
+        assertThat(byUserAndAction).extracting(AuditLog::getResourceId).containsExactly("124");
+        assertThat(touched.get(0).getTimestamp()).isEqualTo(START);
+    }
+
+    @Test
+    @DisplayName("Sollte bei gleichem Zeitpunkt über die ID weiterblättern")
+    void shouldPageByTimestampAndId() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            insert("max", "VEHICLE_UPDATED", "Vehicle", String.valueOf(i), START);
+        }
+        insert("max", "VEHICLE_UPDATED", "Vehicle", "5", START.plusSeconds(1));
+        AuditLogFilter filter = new AuditLogFilter(null, null, "max", null, null, null);
+
+        // When
+        List<AuditLog> first = repository.search(filter, null, null, 2);
+        AuditLog last = first.get(1);
+        List<AuditLog> rest = repository.search(filter, last.getTimestamp(), last.getId(), 10);
+
+        // Then
+        assertThat(first).extracting(AuditLog::getResourceId).containsExactly("0", "1");
+        assertThat(rest).extracting(AuditLog::getResourceId).containsExactly("2", "3", "4", "5");
+    }
+
+    private void insert(String username, String action, String resourceType, String resourceId, LocalDateTime timestamp) {
+        jdbcTemplate.update(AuditLogWriter.INSERT_SQL, username, action, resourceType, resourceId, null,
+                Timestamp.valueOf(timestamp), "127.0.0.1", Timestamp.valueOf(timestamp), Timestamp.valueOf(timestamp));
+    }
+}
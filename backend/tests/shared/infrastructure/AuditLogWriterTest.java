@@ -0,0 +1,272 @@
+package de.rentacar.shared.infrastructure;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für AuditLogWriter gegen eine H2-In-Memory-Datenbank
+ */
+@DisplayName("AuditLogWriter Tests")
+class AuditLogWriterTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private String url;
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        url = "jdbc:h2:mem:audit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        dataSource = new DriverManagerDataSource(url, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, version BIGINT, "
+                + "username VARCHAR(255) NOT NULL, action VARCHAR(255) NOT NULL, resource_type VARCHAR(255) NOT NULL, "
+                + "resource_id VARCHAR(255), details VARCHAR(1000), timestamp TIMESTAMP NOT NULL, ip_address VARCHAR(255))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Sollte gepufferte Einträge in Batches schreiben und beim Herunterfahren leeren")
+    void shouldWriteBufferedEntriesInBatches() {
+        // Given
+        writer = createWriter(AuditLogWriter.DurabilityMode.ASYNC, 64, 2);
+        writer.start();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            writer.append("employee", "VEHICLE_UPDATED", "Vehicle", String.valueOf(i), "Details", "127.0.0.1");
+        }
+        writer.shutdown();
+
+        // Then
+        assertThat(countRows()).isEqualTo(5);
+        AuditLogWriter.AuditWriterStats stats = writer.getStats();
+        assertThat(stats.published()).isEqualTo(5);
+        assertThat(stats.written()).isEqualTo(5);
+        assertThat(stats.batches()).isGreaterThanOrEqualTo(3);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.buffered()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte im Modus group-commit erst nach dem Commit zurückkehren")
+    void shouldReturnAfterCommitInGroupCommitMode() throws Exception {
+        // Given
+        writer = createWriter(AuditLogWriter.DurabilityMode.GROUP_COMMIT, 64, 32);
+        writer.start();
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < callers; i++) {
+            String resourceId = String.valueOf(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                writer.append("customer", "BOOKING_CREATED", "Booking", resourceId, null, "127.0.0.1");
+                return jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM audit_logs WHERE resource_id = ?", Integer.class, resourceId);
+            }));
+        }
+        start.countDown();
+
+        // Then
+        for (Future<Integer> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+        executor.shutdown();
+        assertThat(writer.getStats().batches()).isLessThanOrEqualTo(callers);
+        assertThat(writer.getStats().commitTimeouts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte mehr gleichzeitige Transaktionen als Pool-Verbindungen bedienen")
+    void shouldNotExhaustConnectionPoolInGroupCommitMode() throws Exception {
+        // Given
+        int poolSize = 2;
+        int callers = 4 * poolSize;
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(3000);
+        try (HikariDataSource pool = new HikariDataSource(config)) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(pool);
+            JdbcTemplate pooledJdbc = new JdbcTemplate(pool);
+            writer = new AuditLogWriter(pooledJdbc, transactionManager, AuditLogWriter.DurabilityMode.GROUP_COMMIT,
+                    64, 32, Duration.ofMillis(20), Duration.ofMillis(50), Duration.ofSeconds(5), CLOCK);
+            writer.start();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < callers; i++) {
+                String resourceId = String.valueOf(i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    transaction.executeWithoutResult(status -> {
+                        pooledJdbc.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+                        writer.append("customer", "BOOKING_CREATED", "Booking", resourceId, null, "127.0.0.1");
+                    });
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            writer.shutdown();
+
+            // Then
+            assertThat(countRows()).isEqualTo(callers);
+            assertThat(writer.getStats().commitTimeouts()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte bei Rollback der fachlichen Transaktion keinen Eintrag schreiben")
+    void shouldSkipEntryWhenTransactionRollsBack() {
+        // Given
+        writer = createWriter(AuditLogWriter.DurabilityMode.GROUP_COMMIT, 64, 16);
+        writer.start();
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // When
+        transaction.executeWithoutResult(status -> {
+            writer.append("employee", "VEHICLE_UPDATED", "Vehicle", "1", null, "127.0.0.1");
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status ->
+                writer.append("employee", "VEHICLE_UPDATED", "Vehicle", "2", null, "127.0.0.1"));
+        writer.shutdown();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList("SELECT resource_id FROM audit_logs", String.class)).containsExactly("2");
+        assertThat(writer.getStats().published()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sollte nach dem Herunterfahren direkt schreiben und Details kürzen")
+    void shouldWriteDirectlyWhenStopped() {
+        // Given
+        writer = createWriter(AuditLogWriter.DurabilityMode.ASYNC, 64, 16);
+
+        // When
+        writer.append("admin", "KEY_ROTATION_STARTED", "Customer", null, "x".repeat(1500), "127.0.0.1");
+
+        // Then
+        assertThat(countRows()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT LENGTH(details) FROM audit_logs", Integer.class))
+                .isEqualTo(1000);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM audit_logs", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte volle Ringpuffer ablehnen und freigegebene Slots wiederverwenden")
+    void shouldRejectWhenRingBufferFull() {
+        // Given
+        AuditLogWriter.RingBuffer<Integer> buffer = new AuditLogWriter.RingBuffer<>(3);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        // When
+        boolean acceptedWhenFull = buffer.offer(99);
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained, 2);
+
+        // Then
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(acceptedWhenFull).isFalse();
+        assertThat(drained).containsExactly(0, 1);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Sollte bei vielen Produzenten jedes Element genau einmal liefern")
+    void shouldDeliverEachElementOnceWithConcurrentProducers() throws Exception {
+        // Given
+        AuditLogWriter.RingBuffer<Integer> buffer = new AuditLogWriter.RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        List<Integer> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int total = 0;
+        while (total < producers * perProducer && System.nanoTime() < deadline) {
+            total += buffer.drainTo(batch, 32);
+            received.addAll(batch);
+            batch.clear();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(total).isEqualTo(producers * perProducer);
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+
+    private AuditLogWriter createWriter(AuditLogWriter.DurabilityMode mode, int capacity, int batchSize) {
+        return new AuditLogWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource), mode, capacity,
+                batchSize, Duration.ofMillis(20), Duration.ofMillis(50), Duration.ofSeconds(5), CLOCK);
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+    }
+}
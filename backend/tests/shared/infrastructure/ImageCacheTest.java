@@ -0,0 +1,196 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für ImageCache (Speicher-LRU und Plattencache in einem temporären Verzeichnis)
+ */
+@DisplayName("ImageCache Tests")
+class ImageCacheTest {
+
+    private static final Duration FRESH_FOR = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-05-01T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Sollte den Speicher nach Bytes begrenzen und verdrängte Bilder von der Platte lesen")
+    void shouldEvictByBytesAndFallBackToDisk() throws IOException {
+        // Given
+        ImageCache cache = new ImageCache(250, directory, 10_000, FRESH_FOR, clock);
+        cache.put("https://picsum.photos/1", image(100, 1), "image/jpeg", null, null);
+        cache.put("https://picsum.photos/2", image(100, 2), "image/jpeg", null, null);
+        cache.get("https://picsum.photos/1");
+
+        // When
+        cache.put("https://picsum.photos/3", image(100, 3), "image/png", null, null);
+
+        // Then
+        ImageCache.ImageCacheStats stats = cache.getStats();
+        assertThat(stats.memoryEntries()).isEqualTo(2);
+        assertThat(stats.memoryBytes()).isEqualTo(200);
+        ImageCache.CachedImage fromDisk = cache.get("https://picsum.photos/2").orElseThrow();
+        assertThat(fromDisk.data()).isNull();
+        assertThat(Files.readAllBytes(fromDisk.file())).isEqualTo(image(100, 2));
+        assertThat(cache.getStats().diskHits()).isEqualTo(1);
+        assertThat(cache.getStats().memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sollte gleichen Inhalt nur einmal ablegen und daraus ein starkes ETag bilden")
+    void shouldStoreContentAddressed() throws IOException {
+        // Given
+        ImageCache cache = new ImageCache(10_000, directory, 10_000, FRESH_FOR, clock);
+
+        // When
+        ImageCache.CachedImage first = cache.put("https://picsum.photos/a", image(64, 7), "image/jpeg", null, null);
+        ImageCache.CachedImage second = cache.put("https://picsum.photos/b", image(64, 7), "image/jpeg", null, null);
+        ImageCache.CachedImage other = cache.put("https://picsum.photos/c", image(64, 8), "image/jpeg", null, null);
+
+        // Then
+        assertThat(first.etag()).isEqualTo(second.etag()).startsWith("\"").endsWith("\"");
+        assertThat(other.etag()).isNotEqualTo(first.etag());
+        try (Stream<Path> blobs = Files.walk(directory.resolve("blobs"))) {
+            assertThat(blobs.filter(Files::isRegularFile).count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte einen fertigen Download übernehmen, ohne ihn in den Heap zu lesen")
+    void shouldStoreDownloadedFile() throws IOException {
+        // Given
+        ImageCache cache = new ImageCache(1600, directory, 10_000, FRESH_FOR, clock);
+        Path small = cache.createDownloadFile();
+        Files.write(small, image(100, 1));
+        Path large = cache.createDownloadFile();
+        Files.write(large, image(200, 2));
+
+        // When
+        ImageCache.CachedImage first = cache.store("https://picsum.photos/1", small, ImageCache.sha256(image(100, 1)),
+                "image/jpeg", "\"up\"", null);
+        ImageCache.CachedImage second = cache.store("https://picsum.photos/2", large, ImageCache.sha256(image(200, 2)),
+                "image/jpeg", null, null);
+
+        // Then
+        assertThat(Files.exists(small)).isFalse();
+        assertThat(first.data()).isNull();
+        assertThat(first.size()).isEqualTo(100);
+        assertThat(Files.readAllBytes(second.file())).isEqualTo(image(200, 2));
+        assertThat(cache.getStats().memoryEntries()).isZero();
+        assertThat(cache.get("https://picsum.photos/2")).get()
+                .extracting(ImageCache.CachedImage::etag).isEqualTo(second.etag());
+    }
+
+    @Test
+    @DisplayName("Sollte kleine Treffer auf der Platte in den Speicher übernehmen")
+    void shouldPromoteSmallDiskHits() throws IOException {
+        // Given
+        ImageCache cache = new ImageCache(1600, directory, 10_000, FRESH_FOR, clock);
+        Path small = cache.createDownloadFile();
+        Files.write(small, image(100, 1));
+        Path large = cache.createDownloadFile();
+        Files.write(large, image(200, 2));
+        cache.store("https://picsum.photos/1", small, ImageCache.sha256(image(100, 1)), "image/jpeg", null, null);
+        cache.store("https://picsum.photos/2", large, ImageCache.sha256(image(200, 2)), "image/jpeg", null, null);
+
+        // When
+        ImageCache.CachedImage promoted = cache.get("https://picsum.photos/1").orElseThrow();
+        ImageCache.CachedImage again = cache.get("https://picsum.photos/1").orElseThrow();
+        ImageCache.CachedImage streamed = cache.get("https://picsum.photos/2").orElseThrow();
+
+        // Then
+        assertThat(promoted.data()).isEqualTo(image(100, 1));
+        assertThat(again.data()).isEqualTo(image(100, 1));
+        assertThat(streamed.data()).isNull();
+        ImageCache.ImageCacheStats stats = cache.getStats();
+        assertThat(stats.diskHits()).isEqualTo(2);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.memoryEntries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sollte nach einem Neustart aus dem Plattencache liefern")
+    void shouldSurviveRestart() throws IOException {
+        // Given
+        new ImageCache(10_000, directory, 10_000, FRESH_FOR, clock)
+                .put("https://picsum.photos/1", image(50, 3), "image/png", "\"up-1\"", "Wed, 01 May 2024 09:00:00 GMT");
+
+        // When
+        ImageCache reopened = new ImageCache(10_000, directory, 10_000, FRESH_FOR, clock);
+
+        // Then
+        ImageCache.CachedImage image = reopened.get("https://picsum.photos/1").orElseThrow();
+        assertThat(Files.readAllBytes(image.file())).isEqualTo(image(50, 3));
+        assertThat(image.size()).isEqualTo(50);
+        assertThat(image.contentType()).isEqualTo("image/png");
+        assertThat(image.upstreamEtag()).isEqualTo("\"up-1\"");
+        assertThat(image.upstreamLastModified()).isEqualTo("Wed, 01 May 2024 09:00:00 GMT");
+        assertThat(reopened.isFresh(image)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte nach Ablauf veraltet sein und nach Revalidierung wieder frisch")
+    void shouldExpireAndRevalidate() {
+        // Given
+        ImageCache cache = new ImageCache(10_000, directory, 10_000, FRESH_FOR, clock);
+        ImageCache.CachedImage image = cache.put("https://picsum.photos/1", image(10, 1), "image/jpeg", "\"up\"", null);
+
+        // When
+        clock.advance(FRESH_FOR);
+        boolean freshBefore = cache.isFresh(cache.get("https://picsum.photos/1").orElseThrow());
+        ImageCache.CachedImage revalidated = cache.revalidated(image);
+
+        // Then
+        assertThat(freshBefore).isFalse();
+        assertThat(cache.isFresh(revalidated)).isTrue();
+        assertThat(revalidated.etag()).isEqualTo(image.etag());
+        ImageCache reopened = new ImageCache(10_000, directory, 10_000, FRESH_FOR, clock);
+        assertThat(reopened.isFresh(reopened.get("https://picsum.photos/1").orElseThrow())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte die Platte begrenzen und die am längsten ungenutzten Bilder verdrängen")
+    void shouldBoundDiskUsage() {
+        // Given
+        ImageCache cache = new ImageCache(0, directory, 300, FRESH_FOR, clock);
+        for (int i = 0; i < 3; i++) {
+            cache.put("https://picsum.photos/" + i, image(100, i), "image/jpeg", null, null);
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        // When
+        cache.put("https://picsum.photos/3", image(100, 3), "image/jpeg", null, null);
+
+        // Then
+        assertThat(cache.getStats().diskBytes()).isLessThanOrEqualTo(270);
+        assertThat(cache.get("https://picsum.photos/0")).isEmpty();
+        assertThat(cache.get("https://picsum.photos/3")).isPresent();
+    }
+
+    private static byte[] image(int size, int seed) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) seed);
+        return data;
+    }
+}
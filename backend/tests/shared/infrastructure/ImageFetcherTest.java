@@ -0,0 +1,172 @@
+package de.rentacar.shared.infrastructure;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für ImageFetcher gegen einen lokalen HTTP-Server
+ */
+@DisplayName("ImageFetcher Tests")
+class ImageFetcherTest {
+
+    private static final int MAX_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private ImageCache imageCache;
+    private ImageFetcher fetcher;
+    private final AtomicInteger oversizedChunksSent = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/image.jpg", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = image(10_000);
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/huge.jpg", exchange -> {
+            // Ohne Content-Length: die Grenze greift erst beim Lesen
+            exchange.getResponseHeaders().add("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 1024; i++) {
+                    out.write(new byte[16 * 1024]);
+                    out.flush();
+                    oversizedChunksSent.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // Client hat abgebrochen
+            }
+        });
+        server.createContext("/moved.jpg", exchange -> redirect(exchange, "/image.jpg"));
+        server.createContext("/internal.jpg", exchange ->
+                redirect(exchange, "http://localhost:" + server.getAddress().getPort() + "/image.jpg"));
+        server.createContext("/loop.jpg", exchange -> redirect(exchange, "/loop.jpg"));
+        server.start();
+        imageCache = new ImageCache(1024 * 1024, directory, 10 * 1024 * 1024, Duration.ofHours(1), Clock.systemUTC());
+        fetcher = new ImageFetcher(imageCache, Set.of("127.0.0.1"), MAX_BYTES, 1000, 5000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        fetcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte das Bild in eine Datei laden und dabei hashen")
+    void shouldDownloadToFile() throws IOException {
+        // When
+        ImageFetcher.Download download = fetcher.fetch(uri("/image.jpg"), null).join();
+
+        // Then
+        assertThat(download.status()).isEqualTo(200);
+        assertThat(download.size()).isEqualTo(10_000);
+        assertThat(download.digest()).isEqualTo(ImageCache.sha256(image(10_000)));
+        assertThat(download.contentType()).isEqualTo("image/jpeg");
+        assertThat(download.upstreamEtag()).isEqualTo("\"v1\"");
+        assertThat(Files.readAllBytes(download.file())).isEqualTo(image(10_000));
+    }
+
+    @Test
+    @DisplayName("Sollte bedingt anfragen und 304 ohne Download liefern")
+    void shouldRevalidateConditionally() {
+        // Given
+        ImageCache.CachedImage cached = imageCache.put(uri("/image.jpg").toString(), image(10_000), "image/jpeg",
+                "\"v1\"", null);
+
+        // When
+        ImageFetcher.Download download = fetcher.fetch(uri("/image.jpg"), cached).join();
+
+        // Then
+        assertThat(download.status()).isEqualTo(304);
+        assertThat(download.file()).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte den Download beim Überschreiten der Grenze abbrechen und die Datei löschen")
+    void shouldAbortOversizedDownload() throws IOException {
+        // When
+        ImageFetcher.Download download = fetcher.fetch(uri("/huge.jpg"), null).join();
+
+        // Then
+        assertThat(download.tooLarge()).isTrue();
+        assertThat(download.file()).isNull();
+        assertThat(oversizedChunksSent.get()).isLessThan(1024);
+        try (Stream<Path> files = Files.list(directory.resolve("tmp"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte Weiterleitungen auf erlaubte Hosts folgen")
+    void shouldFollowAllowedRedirect() {
+        // When
+        ImageFetcher.Download download = fetcher.fetch(uri("/moved.jpg"), null).join();
+
+        // Then
+        assertThat(download.status()).isEqualTo(200);
+        assertThat(download.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("Sollte Weiterleitungen auf nicht erlaubte Hosts und Endlosschleifen abbrechen")
+    void shouldRejectDisallowedAndLoopingRedirects() {
+        // When
+        ImageFetcher.Download internal = fetcher.fetch(uri("/internal.jpg"), null).join();
+        ImageFetcher.Download loop = fetcher.fetch(uri("/loop.jpg"), null).join();
+
+        // Then
+        assertThat(internal.error()).hasMessageContaining("localhost");
+        assertThat(internal.file()).isNull();
+        assertThat(loop.error()).hasMessageContaining("Too many redirects");
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+        exchange.close();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static byte[] image(int size) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) 42);
+        return data;
+    }
+}
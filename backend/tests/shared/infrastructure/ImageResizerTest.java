@@ -0,0 +1,185 @@
+package de.rentacar.shared.infrastructure;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests für ImageResizer (Varianten im ImageCache eines temporären Verzeichnisses)
+ */
+@DisplayName("ImageResizer Tests")
+class ImageResizerTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageCache imageCache;
+    private ImageResizer resizer;
+
+    @BeforeEach
+    void setUp() {
+        imageCache = new ImageCache(10 * 1024 * 1024, directory, 100 * 1024 * 1024, Duration.ofHours(1),
+                Clock.systemUTC());
+        resizer = new ImageResizer(imageCache, 2, 16, 40_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        resizer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte JPEG proportional auf die Breite verkleinern")
+    void shouldResizeJpeg() throws IOException {
+        // Given
+        ImageCache.CachedImage original = imageCache.put("https://picsum.photos/1", encode(1600, 900, "jpeg", false),
+                "image/jpeg", null, null);
+
+        // When
+        ImageCache.CachedImage variant = resizer.resize(original, 320, 70).join();
+
+        // Then
+        BufferedImage image = decode(variant.data());
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(180);
+        assertThat(variant.contentType()).isEqualTo("image/jpeg");
+        assertThat(variant.size()).isLessThan(original.size());
+        assertThat(variant.upstreamEtag()).isEqualTo(original.etag());
+    }
+
+    @Test
+    @DisplayName("Sollte PNG mit Transparenz als PNG ausliefern")
+    void shouldKeepPngWithAlpha() throws IOException {
+        // Given
+        ImageCache.CachedImage original = imageCache.put("https://picsum.photos/2", encode(400, 400, "png", true),
+                "image/png", null, null);
+
+        // When
+        ImageCache.CachedImage variant = resizer.resize(original, 100, 80).join();
+
+        // Then
+        BufferedImage image = decode(variant.data());
+        assertThat(variant.contentType()).isEqualTo("image/png");
+        assertThat(image.getWidth()).isEqualTo(100);
+        assertThat(image.getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte schmale oder unlesbare Bilder unverändert liefern")
+    void shouldReturnOriginalWhenNotResizable() throws IOException {
+        // Given
+        ImageCache.CachedImage narrow = imageCache.put("https://picsum.photos/3", encode(120, 80, "jpeg", false),
+                "image/jpeg", null, null);
+        ImageCache.CachedImage unreadable = imageCache.put("https://picsum.photos/4", new byte[]{1, 2, 3, 4},
+                "image/webp", null, null);
+
+        // When
+        ImageCache.CachedImage narrowVariant = resizer.resize(narrow, 200, 80).join();
+        ImageCache.CachedImage unreadableVariant = resizer.resize(unreadable, 200, 80).join();
+
+        // Then
+        assertThat(narrowVariant.etag()).isEqualTo(narrow.etag());
+        assertThat(unreadableVariant.etag()).isEqualTo(unreadable.etag());
+        assertThat(resizer.getStats().resized()).isZero();
+        assertThat(imageCache.get("https://picsum.photos/3#w=200,q=80")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte PNG-Varianten unabhängig von der Qualität nur einmal erzeugen")
+    void shouldIgnoreQualityForPng() throws IOException {
+        // Given
+        ImageCache.CachedImage original = imageCache.put("https://picsum.photos/7", encode(400, 400, "png", true),
+                "image/png", null, null);
+
+        // When
+        ImageCache.CachedImage first = resizer.resize(original, 100, 80).join();
+        ImageCache.CachedImage second = resizer.resize(original, 100, 40).join();
+
+        // Then
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(resizer.getStats().resized()).isEqualTo(1);
+        assertThat(imageCache.get("https://picsum.photos/7#w=100")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Sollte gleichzeitige Anfragen zusammenfassen und die Variante aus dem Cache liefern")
+    void shouldDeduplicateAndCacheVariants() throws IOException {
+        // Given
+        ImageCache.CachedImage original = imageCache.put("https://picsum.photos/5", encode(2000, 1000, "jpeg", false),
+                "image/jpeg", null, null);
+
+        // When
+        List<CompletableFuture<ImageCache.CachedImage>> requests = IntStream.range(0, 8)
+                .mapToObj(i -> resizer.resize(original, 200, 80))
+                .toList();
+        List<String> etags = requests.stream().map(CompletableFuture::join).map(ImageCache.CachedImage::etag).toList();
+        ImageCache.CachedImage again = resizer.resize(original, 200, 80).join();
+
+        // Then
+        assertThat(etags).containsOnly(again.etag());
+        assertThat(resizer.getStats().resized()).isEqualTo(1);
+        assertThat(resizer.getStats().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte die Variante neu erzeugen, wenn sich das Original ändert")
+    void shouldRegenerateWhenOriginalChanges() throws IOException {
+        // Given
+        ImageCache.CachedImage first = imageCache.put("https://picsum.photos/6", encode(800, 400, "jpeg", false),
+                "image/jpeg", null, null);
+        resizer.resize(first, 200, 80).join();
+        ImageCache.CachedImage changed = imageCache.put("https://picsum.photos/6", encode(800, 800, "jpeg", false),
+                "image/jpeg", null, null);
+
+        // When
+        ImageCache.CachedImage variant = resizer.resize(changed, 200, 80).join();
+
+        // Then
+        assertThat(decode(variant.data()).getHeight()).isEqualTo(200);
+        assertThat(variant.upstreamEtag()).isEqualTo(changed.etag());
+        assertThat(Files.exists(variant.file())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte ungültige Breiten ablehnen")
+    void shouldRejectInvalidWidth() {
+        assertThatThrownBy(() -> ImageResizer.validate(8, 80)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImageResizer.validate(4096, 80)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImageResizer.validate(200, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] encode(int width, int height, String format, boolean alpha) throws IOException {
+        BufferedImage image = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, alpha ? ((x % 256) << 24) | (y % 256) : (x * 7 + y * 13) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+}
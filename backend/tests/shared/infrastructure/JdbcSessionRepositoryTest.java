@@ -0,0 +1,283 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für JdbcSessionRepository: zwei Anwendungskontexte (Instanzen) mit SessionStoreConfig
+ * teilen sich eine H2-Dateidatenbank
+ */
+@DisplayName("JdbcSessionRepository Tests")
+class JdbcSessionRepositoryTest {
+
+    private static final Duration CACHE_TTL = Duration.ofSeconds(5);
+
+    @TempDir
+    Path dataDirectory;
+
+    private MutableClock clock;
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+    private JdbcSessionRepository repositoryA;
+    private JdbcSessionRepository repositoryB;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.now());
+        url = "jdbc:h2:file:" + dataDirectory.resolve("sessions").toAbsolutePath();
+        nodeA = startNode(url, 100);
+        nodeB = startNode(url, 100);
+        repositoryA = nodeA.getBean(JdbcSessionRepository.class);
+        repositoryB = nodeB.getBean(JdbcSessionRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    @DisplayName("Sollte auf Instanz A angelegte Session auf Instanz B finden")
+    void shouldShareSessionAcrossNodes() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        session.setAttribute("cart", "SUV");
+
+        // When
+        repositoryA.save(session);
+        JdbcSessionRepository.StoredSession loaded = repositoryB.findById(session.getId());
+
+        // Then
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.<String>getAttribute("cart")).isEqualTo("SUV");
+        assertThat(loaded.getCreationTime().toEpochMilli()).isEqualTo(session.getCreationTime().toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Sollte wiederholte Abfragen aus dem Front-Cache beantworten")
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        repositoryA.save(session);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            JdbcSessionRepository.StoredSession current = repositoryA.findById(session.getId());
+            current.setLastAccessedTime(clock.instant());
+            repositoryA.save(current);
+        }
+
+        // Then
+        JdbcSessionRepository.SessionStoreStats stats = repositoryA.getStats();
+        assertThat(stats.cacheHits()).isEqualTo(10);
+        assertThat(stats.cacheMisses()).isZero();
+        assertThat(stats.writeThroughs()).isEqualTo(1);
+        assertThat(stats.pendingTouches()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sollte Zugriffszeit verzögert schreiben und nach dem Flush auf anderer Instanz sehen")
+    void shouldWriteBehindLastAccessTime() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        repositoryA.save(session);
+        Instant initialAccess = repositoryB.findById(session.getId()).getLastAccessedTime();
+
+        // When
+        clock.advance(Duration.ofMinutes(10));
+        JdbcSessionRepository.StoredSession touched = repositoryA.findById(session.getId());
+        touched.setLastAccessedTime(clock.instant());
+        repositoryA.save(touched);
+        Instant beforeFlush = readLastAccess(session.getId());
+        repositoryA.flushPendingTouches();
+
+        // Then
+        assertThat(beforeFlush.toEpochMilli()).isEqualTo(initialAccess.toEpochMilli());
+        assertThat(readLastAccess(session.getId()).toEpochMilli()).isEqualTo(clock.instant().toEpochMilli());
+        assertThat(repositoryB.findById(session.getId()).getLastAccessedTime().toEpochMilli())
+                .isEqualTo(clock.instant().toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Sollte Session nicht als abgelaufen verwerfen, wenn eine andere Instanz sie verlängert hat")
+    void shouldReloadLocallyExpiredSession() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        session.setMaxInactiveInterval(Duration.ofMinutes(30));
+        repositoryA.save(session);
+        repositoryB.findById(session.getId());
+
+        // When
+        clock.advance(Duration.ofMinutes(20));
+        JdbcSessionRepository.StoredSession onA = repositoryA.findById(session.getId());
+        onA.setLastAccessedTime(clock.instant());
+        repositoryA.save(onA);
+        repositoryA.flushPendingTouches();
+        clock.advance(Duration.ofMinutes(20));
+
+        // Then
+        assertThat(repositoryB.findById(session.getId())).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Sollte Logout nach Ablauf der Cache-Gültigkeit auf allen Instanzen wirksam machen")
+    void shouldPropagateDeletion() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        repositoryA.save(session);
+        assertThat(repositoryB.findById(session.getId())).isNotNull();
+
+        // When
+        repositoryA.deleteById(session.getId());
+        clock.advance(CACHE_TTL);
+
+        // Then
+        assertThat(repositoryA.findById(session.getId())).isNull();
+        assertThat(repositoryB.findById(session.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte Session-ID-Wechsel übernehmen und gelöschte Sessions nicht wiederbeleben")
+    void shouldRenameSessionOnIdChange() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        repositoryA.save(session);
+        String originalId = session.getId();
+
+        // When
+        JdbcSessionRepository.StoredSession loaded = repositoryA.findById(originalId);
+        String newId = loaded.changeSessionId();
+        repositoryA.save(loaded);
+
+        // Then
+        assertThat(repositoryB.findById(originalId)).isNull();
+        assertThat(repositoryB.findById(newId)).isNotNull();
+
+        JdbcSessionRepository.StoredSession stale = repositoryB.findById(newId);
+        repositoryA.deleteById(newId);
+        stale.setAttribute("cart", "SUV");
+        repositoryB.save(stale);
+        clock.advance(CACHE_TTL);
+        assertThat(repositoryA.findById(newId)).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte Sessions eines Benutzers instanzübergreifend finden")
+    void shouldFindSessionsByPrincipalName() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "max");
+        repositoryA.save(session);
+
+        // When / Then
+        assertThat(repositoryB.findByPrincipalName("max")).containsOnlyKeys(session.getId());
+        assertThat(repositoryB.findByPrincipalName("anna")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte abgelaufene Sessions beim Aufräumen entfernen")
+    void shouldCleanupExpiredSessions() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        session.setMaxInactiveInterval(Duration.ofMinutes(1));
+        repositoryA.save(session);
+
+        // When
+        clock.advance(Duration.ofMinutes(2));
+        repositoryB.cleanupExpiredSessions();
+
+        // Then
+        assertThat(new JdbcTemplate(nodeA.getBean(DataSource.class))
+                .queryForObject("SELECT COUNT(*) FROM " + JdbcSessionRepository.TABLE, Integer.class)).isZero();
+        assertThat(repositoryA.findById(session.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte Ablauf einer Session nach der Clock des Repositories bestimmen")
+    void shouldUseRepositoryClockForExpiry() {
+        // Given
+        JdbcSessionRepository.StoredSession session = repositoryA.createSession();
+        session.setMaxInactiveInterval(Duration.ofMinutes(1));
+
+        // When
+        boolean expiredBefore = session.isExpired();
+        clock.advance(Duration.ofMinutes(2));
+
+        // Then
+        assertThat(expiredBefore).isFalse();
+        assertThat(session.isExpired()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte bei vollem Cache veraltete Einträge verdrängen")
+    void shouldEvictStaleEntriesWhenCacheFull() {
+        // Given
+        AnnotationConfigApplicationContext smallNode = startNode(url, 2);
+        JdbcSessionRepository repository = smallNode.getBean(JdbcSessionRepository.class);
+        try {
+            for (int i = 0; i < 2; i++) {
+                repository.save(repository.createSession());
+            }
+            assertThat(repository.getStats().cachedSessions()).isEqualTo(2);
+
+            // When
+            clock.advance(CACHE_TTL);
+            JdbcSessionRepository.StoredSession fresh = repository.createSession();
+            repository.save(fresh);
+            repository.findById(fresh.getId());
+
+            // Then
+            JdbcSessionRepository.SessionStoreStats stats = repository.getStats();
+            assertThat(stats.cachedSessions()).isEqualTo(1);
+            assertThat(stats.evictions()).isEqualTo(2);
+            assertThat(stats.cacheHits()).isEqualTo(1);
+        } finally {
+            smallNode.close();
+        }
+    }
+
+    private Instant readLastAccess(String sessionId) {
+        Long lastAccess = new JdbcTemplate(nodeA.getBean(DataSource.class)).queryForObject(
+                "SELECT last_access_time FROM " + JdbcSessionRepository.TABLE + " WHERE session_id = ?",
+                Long.class, sessionId);
+        return Instant.ofEpochMilli(lastAccess);
+    }
+
+    private AnnotationConfigApplicationContext startNode(String url, int maxCachedSessions) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "rentacar.session.store", "jdbc",
+                "server.servlet.session.timeout", "30m",
+                "rentacar.session.cache-ttl-ms", String.valueOf(CACHE_TTL.toMillis()),
+                "rentacar.session.max-cached-sessions", String.valueOf(maxCachedSessions))));
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.registerBean(Clock.class, () -> clock);
+        context.registerBean(DataSource.class, () -> new DriverManagerDataSource(url, "sa", ""));
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(context.getBean(DataSource.class)));
+        context.register(SessionStoreConfig.class);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,226 @@
+package de.rentacar.shared.infrastructure;
+
+import de.rentacar.shared.MutableClock;
+import de.rentacar.shared.domain.AuditLog;
+import de.rentacar.shared.domain.AuditLogFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für SegmentedAuditLog (Segmentdateien in einem temporären Verzeichnis)
+ */
+@DisplayName("SegmentedAuditLog Tests")
+class SegmentedAuditLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final Duration MAX_SEGMENT_AGE = Duration.ofHours(1);
+    private static final Duration COMPRESS_AFTER = Duration.ofHours(2);
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-05-01T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Sollte Einträge nach Zeitraum, Benutzer und Ressource finden")
+    void shouldScanByTimeUserAndResource() throws IOException {
+        // Given
+        SegmentedAuditLog auditLog = openLog();
+        auditLog.append("max", "BOOKING_CREATED", "Booking", "1", "Buchung angelegt", "10.0.0.1");
+        clock.advance(Duration.ofMinutes(10));
+        auditLog.append("anna", "BOOKING_CREATED", "Booking", "2", null, "10.0.0.2");
+        clock.advance(Duration.ofMinutes(10));
+        auditLog.append("max", "BOOKING_CANCELLED", "Booking", "1", "Storniert", "10.0.0.1");
+
+        // When
+        List<AuditLog> byUser = auditLog.scan(filter(null, null, "max", null, null), -1, 100);
+        List<AuditLog> byResource = auditLog.scan(filter(null, null, null, "Booking", "2"), -1, 100);
+        List<AuditLog> byTime = auditLog.scan(filter(LocalDateTime.of(2024, 5, 1, 10, 5),
+                LocalDateTime.of(2024, 5, 1, 10, 15), null, null, null), -1, 100);
+
+        // Then
+        assertThat(byUser).extracting(AuditLog::getAction).containsExactly("BOOKING_CREATED", "BOOKING_CANCELLED");
+        assertThat(byUser.get(0).getDetails()).isEqualTo("Buchung angelegt");
+        assertThat(byUser.get(0).getTimestamp()).isEqualTo(LocalDateTime.of(2024, 5, 1, 10, 0));
+        assertThat(byResource).extracting(AuditLog::getUsername).containsExactly("anna");
+        assertThat(byResource.get(0).getDetails()).isNull();
+        assertThat(byTime).extracting(AuditLog::getId).containsExactly(1L);
+        assertThat(auditLog.scan(filter(null, null, "unbekannt", null, null), -1, 100)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte volle Segmente versiegeln und über alle Segmente lesen")
+    void shouldRollOverFullSegments() throws IOException {
+        // Given
+        SegmentedAuditLog auditLog = openLog();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            clock.advance(Duration.ofSeconds(1));
+            auditLog.append("user" + (i % 5), "VEHICLE_UPDATED", "Vehicle", String.valueOf(i), "Details " + i, "10.0.0.1");
+        }
+
+        // Then
+        SegmentedAuditLog.SegmentStats stats = auditLog.getStats();
+        assertThat(stats.segments()).isGreaterThan(1);
+        assertThat(stats.sealedSegments()).isEqualTo(stats.segments() - 1);
+        assertThat(stats.records()).isEqualTo(200);
+        List<AuditLog> all = auditLog.scan(filter(null, null, null, null, null), -1, 1000);
+        assertThat(all).hasSize(200);
+        assertThat(all.get(199).getId()).isEqualTo(199L);
+        assertThat(auditLog.scan(filter(null, null, "user3", null, null), -1, 1000)).hasSize(40);
+        assertThat(auditLog.scan(filter(null, null, null, null, null), -1, 10)).hasSize(10);
+        assertThat(auditLog.scan(filter(LocalDateTime.of(2024, 5, 1, 10, 3, 0), null, null, null, null), -1, 1000))
+                .first().extracting(AuditLog::getResourceId).isEqualTo("179");
+    }
+
+    @Test
+    @DisplayName("Sollte versiegelte Segmente auf die geschriebenen Datensätze kürzen")
+    void shouldTruncateSealedSegment() throws IOException {
+        // Given
+        AuditSegment segment = AuditSegment.create(directory, 0, SEGMENT_SIZE, clock.millis());
+        segment.append(clock.millis(), "max", "BOOKING_CREATED", "Booking", "1", "Buchung angelegt", "10.0.0.1");
+        segment.append(clock.millis(), "anna", "BOOKING_CREATED", "Booking", "2", null, "10.0.0.2");
+        assertThat(Files.size(segment.dataFile())).isEqualTo(SEGMENT_SIZE);
+
+        // When
+        segment.seal();
+
+        // Then
+        assertThat(Files.size(segment.dataFile())).isEqualTo(segment.getSize()).isLessThan(SEGMENT_SIZE);
+        try (AuditSegment.RecordReader reader = AuditSegment.open(directory, 0, SEGMENT_SIZE).openReader(Long.MIN_VALUE)) {
+            assertThat(reader.next().username()).isEqualTo("max");
+            assertThat(reader.next().username()).isEqualTo("anna");
+            assertThat(reader.next()).isNull();
+            assertThat(reader.isCorrupt()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte nach einem Neustart vorhandene Segmente lesen und fortsetzen")
+    void shouldReopenExistingSegments() throws IOException {
+        // Given
+        SegmentedAuditLog first = openLog();
+        for (int i = 0; i < 50; i++) {
+            first.append("max", "CUSTOMER_UPDATED", "Customer", String.valueOf(i), null, "10.0.0.1");
+        }
+        first.close();
+
+        // When
+        SegmentedAuditLog second = openLog();
+        second.append("anna", "CUSTOMER_UPDATED", "Customer", "50", null, "10.0.0.2");
+
+        // Then
+        List<AuditLog> all = second.scan(filter(null, null, null, null, null), -1, 1000);
+        assertThat(all).hasSize(51);
+        assertThat(all.get(50).getId()).isEqualTo(50L);
+        assertThat(all.get(50).getUsername()).isEqualTo("anna");
+    }
+
+    @Test
+    @DisplayName("Sollte einen unvollständigen letzten Datensatz beim Öffnen verwerfen")
+    void shouldDiscardTornRecord() throws IOException {
+        // Given
+        SegmentedAuditLog first = openLog();
+        first.append("max", "RENTAL_CHECKOUT", "Rental", "1", null, "10.0.0.1");
+        first.append("max", "RENTAL_CHECKIN", "Rental", "1", null, "10.0.0.1");
+        int end = first.getStats().activeSegmentBytes();
+        first.close();
+        try (FileChannel channel = FileChannel.open(directory.resolve(AuditSegment.fileName(0) + ".seg"),
+                StandardOpenOption.WRITE)) {
+            ByteBuffer garbage = ByteBuffer.allocate(28).putInt(20).putInt(12345).put(new byte[20]);
+            channel.write(garbage.flip(), end);
+        }
+
+        // When
+        SegmentedAuditLog second = openLog();
+        second.append("anna", "DAMAGE_REPORT_CREATED", "DamageReport", "7", null, "10.0.0.2");
+
+        // Then
+        assertThat(second.getStats().corruptRecords()).isEqualTo(1);
+        assertThat(second.scan(filter(null, null, null, null, null), -1, 100))
+                .extracting(AuditLog::getAction)
+                .containsExactly("RENTAL_CHECKOUT", "RENTAL_CHECKIN", "DAMAGE_REPORT_CREATED");
+    }
+
+    @Test
+    @DisplayName("Sollte alte Segmente versiegeln, komprimieren und weiterhin lesen")
+    void shouldSealAndCompressOldSegments() throws IOException {
+        // Given
+        SegmentedAuditLog auditLog = openLog();
+        auditLog.append("max", "VEHICLE_ADDED", "Vehicle", "1", "Neues Fahrzeug", "10.0.0.1");
+        clock.advance(MAX_SEGMENT_AGE);
+        auditLog.maintain();
+        auditLog.append("max", "VEHICLE_UPDATED", "Vehicle", "1", null, "10.0.0.1");
+
+        // When
+        clock.advance(COMPRESS_AFTER);
+        auditLog.maintain();
+
+        // Then
+        SegmentedAuditLog.SegmentStats stats = auditLog.getStats();
+        assertThat(stats.sealedSegments()).isEqualTo(2);
+        assertThat(stats.compressedSegments()).isEqualTo(1);
+        assertThat(Files.exists(directory.resolve(AuditSegment.fileName(0) + ".seg.gz"))).isTrue();
+        assertThat(Files.exists(directory.resolve(AuditSegment.fileName(0) + ".seg"))).isFalse();
+        assertThat(auditLog.scan(filter(null, null, null, "Vehicle", "1"), -1, 100))
+                .extracting(AuditLog::getAction)
+                .containsExactly("VEHICLE_ADDED", "VEHICLE_UPDATED");
+
+        SegmentedAuditLog reopened = openLog();
+        assertThat(reopened.scan(filter(null, null, "max", null, null), -1, 100)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Sollte nach Aktion filtern und ab dem Cursor weiterlesen")
+    void shouldFilterByActionAndContinueAfterCursor() throws IOException {
+        // Given
+        SegmentedAuditLog auditLog = openLog();
+        for (int i = 0; i < 120; i++) {
+            auditLog.append("max", i % 2 == 0 ? "BOOKING_CREATED" : "BOOKING_CONFIRMED", "Booking",
+                    String.valueOf(i), null, "10.0.0.1");
+        }
+        AuditLogFilter created = new AuditLogFilter(null, null, null, "BOOKING_CREATED", "Booking", null);
+
+        // When
+        List<AuditLog> firstPage = auditLog.scan(created, -1, 25);
+        List<AuditLog> secondPage = auditLog.scan(created, firstPage.get(24).getId(), 100);
+
+        // Then
+        assertThat(firstPage).extracting(AuditLog::getAction).containsOnly("BOOKING_CREATED");
+        assertThat(secondPage).hasSize(35);
+        assertThat(secondPage.get(0).getId()).isEqualTo(firstPage.get(24).getId() + 2);
+    }
+
+    private static AuditLogFilter filter(LocalDateTime from, LocalDateTime to, String username,
+                                         String resourceType, String resourceId) {
+        return new AuditLogFilter(from, to, username, null, resourceType, resourceId);
+    }
+
+    private SegmentedAuditLog openLog() throws IOException {
+        SegmentedAuditLog auditLog = new SegmentedAuditLog(true, directory, SEGMENT_SIZE, MAX_SEGMENT_AGE,
+                COMPRESS_AFTER, clock);
+        auditLog.open();
+        return auditLog;
+    }
+}
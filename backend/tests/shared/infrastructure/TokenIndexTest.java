@@ -0,0 +1,68 @@
+package de.rentacar.shared.infrastructure;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für TokenIndex
+ */
+@DisplayName("TokenIndex Tests")
+class TokenIndexTest {
+
+    @Test
+    @DisplayName("Sollte Tokens ohne Diakritika und Groß-/Kleinschreibung zerlegen")
+    void shouldNormalizeTokens() {
+        assertThat(TokenIndex.tokenize("München-Süd, Straße 5")).containsExactly("munchen", "sud", "strasse", "5");
+        assertThat(TokenIndex.tokenize("  ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte Tippfehler nur im fehlertoleranten Modus finden")
+    void shouldMatchTyposOnlyWhenFuzzy() {
+        // Given
+        TokenIndex exact = new TokenIndex(false);
+        TokenIndex fuzzy = new TokenIndex(true);
+        exact.index(1L, "Schmidt");
+        fuzzy.index(1L, "Schmidt");
+
+        // When / Then
+        assertThat(exact.search("schmitd", 10)).isEmpty();
+        assertThat(fuzzy.search("schmitd", 10)).containsExactly(1L);
+        assertThat(fuzzy.search("sch", 10)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Sollte exakte vor Präfix- und Präfix- vor Tippfehler-Treffern einordnen")
+    void shouldRankExactPrefixFuzzy() {
+        // Given
+        TokenIndex index = new TokenIndex(true);
+        index.index(1L, "Meiers");
+        index.index(2L, "Meyer");
+        index.index(3L, "Meier");
+
+        // When / Then
+        assertThat(index.search("meier", 10)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Sollte entfernte Tokens auch aus der fehlertoleranten Suche nehmen")
+    void shouldForgetRemovedTokens() {
+        // Given
+        TokenIndex index = new TokenIndex(true);
+        index.index(1L, "Schmidt");
+        index.index(2L, "Weber");
+
+        // When
+        index.remove(1L);
+        index.index(2L, "Wagner");
+
+        // Then
+        assertThat(index.search("schmitd", 10)).isEmpty();
+        assertThat(index.search("weber", 10)).isEmpty();
+        assertThat(index.search("wagner", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.tokenCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,129 @@
+package de.rentacar.shared.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit-Tests für BoundedPasswordEncoder
+ */
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte Passwörter auf dem eigenen Pool hashen und prüfen")
+    void shouldEncodeAndMatch() {
+        // Given
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 8, Duration.ofSeconds(5));
+
+        // When
+        String hash = encoder.encode("geheim");
+
+        // Then
+        assertThat(encoder.matches("geheim", hash)).isTrue();
+        assertThat(encoder.matches("falsch", hash)).isFalse();
+        BoundedPasswordEncoder.PasswordHashingStats stats = encoder.getStats();
+        assertThat(stats.completedHashes()).isEqualTo(3);
+        assertThat(stats.threads()).isEqualTo(2);
+        assertThat(stats.queueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte bei voller Warteschlange sofort mit Retry-After ablehnen")
+    void shouldRejectWhenSaturated() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(started, release), 1, 1, Duration.ofSeconds(5));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitForQueueDepth(1);
+
+        // When / Then
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .satisfies(e -> assertThat(((PasswordHashingUnavailableException) e).getRetryAfterSeconds()).isPositive());
+        assertThat(encoder.getStats().rejectedHashes()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    @DisplayName("Sollte nach Überschreiten der Wartezeit abbrechen")
+    void shouldTimeOutWaitingCaller() {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(started, release), 1, 4, Duration.ofMillis(50));
+
+        // When / Then
+        try {
+            assertThatThrownBy(() -> encoder.encode("a"))
+                    .isInstanceOf(PasswordHashingUnavailableException.class);
+            assertThat(encoder.getStats().timedOutHashes()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte Hashes mit geringerem Work-Factor zum Upgrade markieren")
+    void shouldRequestUpgradeForWeakerHashes() {
+        // Given
+        String weakHash = new BCryptPasswordEncoder(4).encode("geheim");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, Duration.ofSeconds(5));
+
+        // When / Then
+        assertThat(encoder.upgradeEncoding(weakHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("geheim"))).isFalse();
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.getStats().queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+}
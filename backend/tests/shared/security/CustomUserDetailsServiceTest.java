@@ -0,0 +1,165 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.customer.domain.Customer;
+import de.rentacar.customer.domain.CustomerRepository;
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für CustomUserDetailsService mit UserDetailsCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomUserDetailsService Tests")
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private MutableClock clock;
+    private UserDetailsCache userDetailsCache;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        userDetailsCache = new UserDetailsCache(Duration.ofMinutes(5), 2, clock);
+        userDetailsService = new CustomUserDetailsService(userRepository, customerRepository, userDetailsCache);
+    }
+
+    @Test
+    @DisplayName("Sollte Benutzer beim zweiten Laden aus dem Cache liefern")
+    void shouldServeSecondLoadFromCache() {
+        // Given
+        stubUser("max", 7L);
+
+        // When
+        RentACarUserDetails first = (RentACarUserDetails) userDetailsService.loadUserByUsername("max");
+        first.eraseCredentials();
+        RentACarUserDetails second = (RentACarUserDetails) userDetailsService.loadUserByUsername("max");
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("hash");
+        assertThat(second.getCustomerId()).isEqualTo(7L);
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_CUSTOMER");
+        verify(userRepository, times(1)).findByUsername("max");
+        verify(customerRepository, times(1)).findIdByUsername("max");
+    }
+
+    @Test
+    @DisplayName("Sollte nach Invalidierung erneut aus der Datenbank laden")
+    void shouldReloadAfterInvalidation() {
+        // Given
+        stubUser("max", 7L);
+        userDetailsService.loadUserByUsername("max");
+
+        // When
+        userDetailsCache.invalidate("max");
+        userDetailsService.loadUserByUsername("max");
+
+        // Then
+        verify(userRepository, times(2)).findByUsername("max");
+    }
+
+    @Test
+    @DisplayName("Sollte Einträge nach Ablauf der TTL neu laden")
+    void shouldReloadAfterTtl() {
+        // Given
+        stubUser("max", null);
+        userDetailsService.loadUserByUsername("max");
+
+        // When
+        clock.advance(Duration.ofMinutes(6));
+        UserDetails reloaded = userDetailsService.loadUserByUsername("max");
+
+        // Then
+        assertThat(reloaded.getUsername()).isEqualTo("max");
+        verify(userRepository, times(2)).findByUsername("max");
+    }
+
+    @Test
+    @DisplayName("Sollte vor einer Invalidierung geladene Daten nicht cachen")
+    void shouldNotCacheStaleLoad() {
+        // Given
+        long generation = userDetailsCache.generation();
+        RentACarUserDetails stale = new RentACarUserDetails(1L, null, "max", "old", false, Set.of());
+
+        // When
+        userDetailsCache.evict("max");
+        userDetailsCache.put(stale, generation);
+
+        // Then
+        assertThat(userDetailsCache.get("max")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte Cache-Größe begrenzen")
+    void shouldBoundCacheSize() {
+        // Given
+        stubUser("a", null);
+        stubUser("b", null);
+        stubUser("c", null);
+
+        // When
+        userDetailsService.loadUserByUsername("a");
+        userDetailsService.loadUserByUsername("b");
+        userDetailsService.loadUserByUsername("c");
+
+        // Then
+        assertThat(userDetailsCache.size()).isEqualTo(2);
+        assertThat(userDetailsCache.get("a")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte neu erzeugten Hash bei User und Customer speichern")
+    void shouldPersistUpgradedPassword() {
+        // Given
+        User user = User.builder().username("max").password("old").enabled(true).build();
+        Customer customer = Customer.builder().username("max").password("old").build();
+        when(userRepository.findByUsername("max")).thenReturn(Optional.of(user));
+        when(customerRepository.findByUsername("max")).thenReturn(Optional.of(customer));
+        RentACarUserDetails details = new RentACarUserDetails(1L, 7L, "max", "old", true,
+                Set.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+
+        // When
+        UserDetails upgraded = userDetailsService.updatePassword(details, "new");
+
+        // Then
+        assertThat(upgraded.getPassword()).isEqualTo("new");
+        assertThat(((RentACarUserDetails) upgraded).getCustomerId()).isEqualTo(7L);
+        assertThat(user.getPassword()).isEqualTo("new");
+        assertThat(customer.getPassword()).isEqualTo("new");
+        verify(userRepository).save(user);
+        verify(customerRepository).save(customer);
+    }
+
+    private void stubUser(String username, Long customerId) {
+        User user = User.builder()
+                .username(username)
+                .password("hash")
+                .roles(Set.of(Role.ROLE_CUSTOMER))
+                .enabled(true)
+                .build();
+        user.setId(1L);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(customerRepository.findIdByUsername(username)).thenReturn(Optional.ofNullable(customerId));
+    }
+}
@@ -0,0 +1,131 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit-Tests für JwtTokenService
+ */
+@DisplayName("JwtTokenService Tests")
+class JwtTokenServiceTest {
+
+    private static final String SECRET = "test-geheimnis-mit-mindestens-32-byte";
+
+    private MutableClock clock;
+    private JwtTokenService jwtTokenService;
+    private RentACarUserDetails customer;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        jwtTokenService = new JwtTokenService(true, SECRET, Duration.ofMinutes(15), clock);
+        customer = new RentACarUserDetails(10L, 5L, "customer", "hash", true,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+    }
+
+    @Test
+    @DisplayName("Sollte Benutzer-ID, Kunden-ID und Rollen aus dem Token wiederherstellen")
+    void shouldRoundTripClaims() {
+        // Given
+        String token = jwtTokenService.createAccessToken(customer);
+
+        // When
+        RentACarUserDetails principal = jwtTokenService.parseAccessToken(token).orElseThrow();
+
+        // Then
+        assertThat(principal.getUsername()).isEqualTo("customer");
+        assertThat(principal.getUserId()).isEqualTo(10L);
+        assertThat(principal.getCustomerId()).isEqualTo(5L);
+        assertThat(principal.getPassword()).isEmpty();
+        assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_CUSTOMER");
+    }
+
+    @Test
+    @DisplayName("Sollte Mitarbeiter ohne Kunden-ID unterstützen")
+    void shouldSupportMissingCustomerId() {
+        // Given
+        RentACarUserDetails employee = new RentACarUserDetails(2L, null, "employee", "hash", true,
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+
+        // When
+        RentACarUserDetails principal = jwtTokenService.parseAccessToken(
+                jwtTokenService.createAccessToken(employee)).orElseThrow();
+
+        // Then
+        assertThat(principal.getCustomerId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Sollte abgelaufene Tokens ablehnen")
+    void shouldRejectExpiredToken() {
+        // Given
+        String token = jwtTokenService.createAccessToken(customer);
+
+        // When
+        clock.advance(Duration.ofMinutes(16));
+
+        // Then
+        assertThat(jwtTokenService.parseAccessToken(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte manipulierte oder fremd signierte Tokens ablehnen")
+    void shouldRejectTamperedToken() {
+        // Given
+        String token = jwtTokenService.createAccessToken(customer);
+        JwtTokenService otherNode = new JwtTokenService(true, "ein-anderes-geheimnis-mit-mindestens-32-byte",
+                Duration.ofMinutes(15), clock);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "x." + parts[2];
+
+        // Then
+        assertThat(jwtTokenService.parseAccessToken(tampered)).isEmpty();
+        assertThat(otherNode.parseAccessToken(token)).isEmpty();
+        assertThat(jwtTokenService.parseAccessToken("kein-token")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Sollte Tokens auf jedem Knoten mit gleichem Geheimnis akzeptieren")
+    void shouldAcceptTokenOnAnyNode() {
+        // Given
+        JwtTokenService otherNode = new JwtTokenService(true, SECRET, Duration.ofMinutes(15), clock);
+
+        // When / Then
+        assertThat(otherNode.parseAccessToken(jwtTokenService.createAccessToken(customer))).isPresent();
+    }
+
+    @Test
+    @DisplayName("Sollte den Start im Token-Modus ohne eigenes oder mit zu kurzem Geheimnis verweigern")
+    void shouldRequireDedicatedSecretInTokenMode() {
+        assertThatThrownBy(() -> new JwtTokenService("token", "", 15))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("RENTACAR_JWT_SECRET");
+        assertThatThrownBy(() -> new JwtTokenService("token", "rentacar-secret-key", 15))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("32 Byte");
+        assertThat(new JwtTokenService("token", SECRET, 15).isEnabled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte im Session-Modus ohne Geheimnis starten")
+    void shouldStartWithoutSecretInSessionMode() {
+        // When
+        JwtTokenService sessionMode = new JwtTokenService("session", "", 15);
+
+        // Then
+        assertThat(sessionMode.isEnabled()).isFalse();
+        assertThat(sessionMode.parseAccessToken(jwtTokenService.createAccessToken(customer))).isEmpty();
+    }
+}
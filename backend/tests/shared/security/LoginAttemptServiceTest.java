@@ -0,0 +1,131 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für LoginAttemptService
+ */
+@DisplayName("LoginAttemptService Tests")
+class LoginAttemptServiceTest {
+
+    private MutableClock clock;
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        loginAttemptService = new LoginAttemptService(5, Duration.ofMinutes(15), Duration.ofMinutes(15), 3, clock);
+    }
+
+    @Test
+    @DisplayName("Sollte nach fünf Fehlversuchen blockieren")
+    void shouldBlockAfterMaxAttempts() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+        }
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "max")).isTrue();
+
+        // When
+        loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+
+        // Then
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "max")).isFalse();
+        assertThat(loginAttemptService.isAllowed("10.0.0.2", "max")).isFalse();
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "anna")).isFalse();
+        assertThat(loginAttemptService.getStats().blocks()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte nach Ablauf der Sperre wieder erlauben und neu zählen")
+    void shouldUnblockAfterBlockDuration() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+        }
+
+        // When
+        clock.advance(Duration.ofMinutes(16));
+        loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+
+        // Then
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "max")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte Fehlversuche außerhalb des Zeitfensters nicht mehr zählen")
+    void shouldSlideWindow() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+        }
+
+        // When
+        clock.advance(Duration.ofMinutes(16));
+        loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+
+        // Then
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "max")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte Zähler nach erfolgreichem Login zurücksetzen")
+    void shouldResetOnSuccess() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+        }
+
+        // When
+        loginAttemptService.recordSuccessfulAttempt("10.0.0.1", "max");
+        loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+
+        // Then
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "max")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte Anzahl verfolgter Schlüssel begrenzen und blockierte Einträge behalten")
+    void shouldBoundTrackedKeys() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            loginAttemptService.recordFailedAttempt("10.0.0.1", "blocked");
+        }
+
+        // When
+        for (int i = 2; i < 10; i++) {
+            clock.advance(Duration.ofSeconds(1));
+            loginAttemptService.recordFailedAttempt("10.0.0." + i, "user" + i);
+        }
+
+        // Then
+        LoginAttemptService.LoginAttemptStats stats = loginAttemptService.getStats();
+        assertThat(stats.trackedIps()).isLessThanOrEqualTo(3);
+        assertThat(stats.trackedUsernames()).isLessThanOrEqualTo(3);
+        assertThat(stats.evictions()).isPositive();
+        assertThat(loginAttemptService.isAllowed("10.0.0.1", "blocked")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sollte abgelaufene Einträge beim Aufräumen entfernen")
+    void shouldSweepExpiredEntries() {
+        // Given
+        loginAttemptService.recordFailedAttempt("10.0.0.1", "max");
+
+        // When
+        clock.advance(Duration.ofMinutes(20));
+        loginAttemptService.cleanup();
+
+        // Then
+        assertThat(loginAttemptService.getStats().trackedIps()).isZero();
+        assertThat(loginAttemptService.getStats().trackedUsernames()).isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package de.rentacar.shared.security;
+
+import de.rentacar.booking.domain.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für OwnershipEvaluator
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OwnershipEvaluator Tests")
+class OwnershipEvaluatorTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private OwnershipEvaluator ownershipEvaluator;
+
+    private Authentication customerAuthentication;
+
+    @BeforeEach
+    void setUp() {
+        ownershipEvaluator = new OwnershipEvaluator(bookingRepository, 2);
+        RentACarUserDetails principal = new RentACarUserDetails(10L, 5L, "customer", "hash", true,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        customerAuthentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("Sollte Kunden-ID aus dem Principal ohne Datenbankzugriff prüfen")
+    void shouldCheckCustomerIdFromPrincipal() {
+        assertThat(ownershipEvaluator.isCustomer(customerAuthentication, 5L)).isTrue();
+        assertThat(ownershipEvaluator.isCustomer(customerAuthentication, 6L)).isFalse();
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    @DisplayName("Sollte Buchungsbesitz nur einmal laden und danach aus dem Cache beantworten")
+    void shouldCacheBookingOwnership() {
+        // Given
+        when(bookingRepository.findCustomerIdById(100L)).thenReturn(Optional.of(5L));
+
+        // When
+        boolean first = ownershipEvaluator.ownsBooking(customerAuthentication, 100L);
+        boolean second = ownershipEvaluator.ownsBooking(customerAuthentication, 100L);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(bookingRepository, times(1)).findCustomerIdById(100L);
+    }
+
+    @Test
+    @DisplayName("Sollte bei vollem Cache nur die am längsten ungenutzte Buchung verdrängen")
+    void shouldEvictLeastRecentlyUsedBooking() {
+        // Given
+        when(bookingRepository.findCustomerIdById(anyLong())).thenReturn(Optional.of(5L));
+        ownershipEvaluator.ownsBooking(customerAuthentication, 100L);
+        ownershipEvaluator.ownsBooking(customerAuthentication, 101L);
+        ownershipEvaluator.ownsBooking(customerAuthentication, 100L);
+
+        // When
+        ownershipEvaluator.ownsBooking(customerAuthentication, 102L);
+        ownershipEvaluator.ownsBooking(customerAuthentication, 100L);
+        ownershipEvaluator.ownsBooking(customerAuthentication, 101L);
+
+        // Then
+        verify(bookingRepository, times(1)).findCustomerIdById(100L);
+        verify(bookingRepository, times(2)).findCustomerIdById(101L);
+        verify(bookingRepository, times(1)).findCustomerIdById(102L);
+    }
+
+    @Test
+    @DisplayName("Sollte fremde oder unbekannte Buchungen ablehnen")
+    void shouldRejectForeignOrUnknownBookings() {
+        // Given
+        when(bookingRepository.findCustomerIdById(200L)).thenReturn(Optional.of(7L));
+        when(bookingRepository.findCustomerIdById(300L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThat(ownershipEvaluator.ownsBooking(customerAuthentication, 200L)).isFalse();
+        assertThat(ownershipEvaluator.ownsBooking(customerAuthentication, 300L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sollte Principals ohne Kundenkonto ablehnen")
+    void shouldRejectPrincipalWithoutCustomerAccount() {
+        // Given
+        Authentication anonymous = new UsernamePasswordAuthenticationToken("employee", null, List.of());
+
+        // When/Then
+        assertThat(ownershipEvaluator.isCustomer(anonymous, 5L)).isFalse();
+        assertThat(ownershipEvaluator.ownsBooking(anonymous, 100L)).isFalse();
+        verifyNoInteractions(bookingRepository);
+    }
+}
@@ -0,0 +1,116 @@
+package de.rentacar.shared.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für RefreshTokenService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(14),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Sollte nur den Hash des Tokens speichern")
+    void shouldStoreOnlyHash() {
+        // When
+        String rawToken = refreshTokenService.issue("max");
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken stored = captor.getValue();
+        assertThat(stored.getTokenHash()).isEqualTo(RefreshTokenService.hash(rawToken)).isNotEqualTo(rawToken);
+        assertThat(stored.getUsername()).isEqualTo("max");
+        assertThat(stored.getExpiresAt()).isEqualTo(LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).plusDays(14));
+    }
+
+    @Test
+    @DisplayName("Sollte Token beim Erneuern widerrufen und Nachfolger derselben Familie ausstellen")
+    void shouldRotateToken() {
+        // Given
+        RefreshToken current = token("family-1", null, LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(current));
+
+        // When
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotate("raw");
+
+        // Then
+        assertThat(rotated.username()).isEqualTo("max");
+        assertThat(rotated.refreshToken()).isNotEqualTo("raw");
+        assertThat(current.getRevokedAt()).isNotNull();
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+        assertThat(captor.getAllValues().get(1).getFamilyId()).isEqualTo("family-1");
+    }
+
+    @Test
+    @DisplayName("Sollte bei Wiederverwendung die gesamte Familie widerrufen")
+    void shouldRevokeFamilyOnReuse() {
+        // Given
+        RefreshToken used = token("family-1", LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusMinutes(5),
+                LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("raw"))).thenReturn(Optional.of(used));
+
+        // When / Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw"))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("Sollte abgelaufene und unbekannte Tokens ablehnen")
+    void shouldRejectExpiredAndUnknownTokens() {
+        // Given
+        RefreshToken expired = token("family-1", null, LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired"))).thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("expired")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(" ")).isInstanceOf(BadCredentialsException.class);
+    }
+
+    private RefreshToken token(String familyId, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        return RefreshToken.builder()
+                .tokenHash(RefreshTokenService.hash("raw"))
+                .familyId(familyId)
+                .username("max")
+                .revokedAt(revokedAt)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
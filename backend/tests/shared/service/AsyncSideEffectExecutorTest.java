@@ -0,0 +1,124 @@
+package de.rentacar.shared.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für AsyncSideEffectExecutor
+ */
+@DisplayName("AsyncSideEffectExecutor Tests")
+class AsyncSideEffectExecutorTest {
+
+    @TempDir
+    Path directory;
+
+    private AsyncSideEffectExecutor executor;
+    private Path deadLetterFile;
+
+    @BeforeEach
+    void setUp() {
+        deadLetterFile = directory.resolve("dead-letter.jsonl");
+        executor = new AsyncSideEffectExecutor(1, 10, 3, 1, deadLetterFile.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte Aufgabe ohne Transaktion sofort asynchron ausführen")
+    void shouldRunTaskWithoutTransaction() throws InterruptedException {
+        // Given
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.runAfterCommit("test", done::countDown);
+
+        // Then
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte fehlgeschlagene Aufgabe wiederholen")
+    void shouldRetryFailedTask() throws InterruptedException {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        executor.submit("flaky", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("SMTP nicht erreichbar");
+            }
+            done.countDown();
+        });
+
+        // Then
+        assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(executor.getStats().retried()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte nach maximaler Anzahl Versuche aufgeben")
+    void shouldGiveUpAfterMaxAttempts() throws InterruptedException {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        executor.submit("broken", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("dauerhaft defekt");
+        });
+
+        // Then
+        long deadline = System.currentTimeMillis() + 2000;
+        while (executor.getStats().failed() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.getStats().failed()).isEqualTo(1);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Sollte endgültig fehlgeschlagene Aufgabe mit Nutzdaten in die Dead-Letter-Datei schreiben")
+    void shouldWriteDeadLetterAfterMaxAttempts() throws Exception {
+        // When
+        executor.runAfterCommit("Audit CUSTOMER_REGISTERED max", () -> {
+            throw new IllegalStateException("Datenbank nicht erreichbar");
+        }, Map.of("action", "CUSTOMER_REGISTERED", "username", "max"));
+
+        // Then
+        long deadline = System.currentTimeMillis() + 2000;
+        while (executor.getStats().deadLettered() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        List<String> lines = readLines();
+        assertThat(executor.getStats().failed()).isEqualTo(1);
+        assertThat(executor.getStats().deadLettered()).isEqualTo(1);
+        assertThat(lines).singleElement().satisfies(line -> assertThat(line)
+                .contains("\"description\":\"Audit CUSTOMER_REGISTERED max\"")
+                .contains("\"attempts\":3")
+                .contains("\"action\":\"CUSTOMER_REGISTERED\"")
+                .contains("Datenbank nicht erreichbar"));
+    }
+
+    private List<String> readLines() throws IOException {
+        return Files.exists(deadLetterFile) ? Files.readAllLines(deadLetterFile) : List.of();
+    }
+}
@@ -0,0 +1,163 @@
+package de.rentacar.shared.web;
+
+import de.rentacar.shared.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für ApiRateLimiter
+ */
+@DisplayName("ApiRateLimiter Tests")
+class ApiRateLimiterTest {
+
+    private MutableClock clock;
+    private ApiRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        rateLimiter = new ApiRateLimiter(true, List.of(
+                new ApiRateLimiter.RouteGroup("search", List.of("/api/vehicles", "/api/vehicles/**"), 5, 1.0, 2),
+                new ApiRateLimiter.RouteGroup("default", List.of("/api/**"), 100, 50.0, 0)
+        ), 3, clock);
+    }
+
+    @Test
+    @DisplayName("Sollte Burst bis zur Kapazität erlauben und danach mit Retry-After ablehnen")
+    void shouldAllowBurstThenReject() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            ApiRateLimiter.Decision decision = rateLimiter.tryAcquire("ip:1", "/api/vehicles");
+            assertThat(decision.isAllowed()).isTrue();
+            decision.release();
+        }
+
+        // When
+        ApiRateLimiter.Decision rejected = rateLimiter.tryAcquire("ip:1", "/api/vehicles/search");
+
+        // Then
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(rateLimiter.tryAcquire("ip:2", "/api/vehicles").isAllowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:1", "/api/bookings").isAllowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Sollte Tokens mit der konfigurierten Rate nachfüllen")
+    void shouldRefillOverTime() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("ip:1", "/api/vehicles").release();
+        }
+
+        // When
+        clock.advance(Duration.ofSeconds(2));
+
+        // Then
+        assertThat(rateLimiter.tryAcquire("ip:1", "/api/vehicles").isAllowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:1", "/api/vehicles").isAllowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("ip:1", "/api/vehicles").isAllowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sollte bei ausgeschöpfter Parallelität Last abwerfen")
+    void shouldShedWhenConcurrencyExhausted() {
+        // Given
+        ApiRateLimiter.Decision first = rateLimiter.tryAcquire("ip:1", "/api/vehicles");
+        ApiRateLimiter.Decision second = rateLimiter.tryAcquire("ip:2", "/api/vehicles");
+
+        // When
+        ApiRateLimiter.Decision shed = rateLimiter.tryAcquire("ip:3", "/api/vehicles");
+        first.release();
+        ApiRateLimiter.Decision afterRelease = rateLimiter.tryAcquire("ip:3", "/api/vehicles");
+
+        // Then
+        assertThat(second.isAllowed()).isTrue();
+        assertThat(shed.isAllowed()).isFalse();
+        assertThat(afterRelease.isAllowed()).isTrue();
+        assertThat(rateLimiter.getStats().get(0).shedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sollte Anzahl verfolgter Clients begrenzen")
+    void shouldBoundTrackedClients() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("ip:" + i, "/api/bookings").release();
+        }
+
+        // When
+        rateLimiter.tryAcquire("ip:99", "/api/bookings").release();
+        clock.advance(Duration.ofSeconds(5));
+        rateLimiter.tryAcquire("ip:100", "/api/bookings").release();
+
+        // Then
+        ApiRateLimiter.RateLimitStats stats = rateLimiter.getStats().get(1);
+        assertThat(stats.overflowedRequests()).isEqualTo(1);
+        assertThat(stats.trackedClients()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Sollte volle Buckets beim Aufräumen entfernen")
+    void shouldSweepIdleBuckets() {
+        // Given
+        rateLimiter.tryAcquire("ip:1", "/api/bookings").release();
+
+        // When
+        clock.advance(Duration.ofSeconds(1));
+        rateLimiter.sweepIdleBuckets();
+
+        // Then
+        assertThat(rateLimiter.getStats().get(1).trackedClients()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte Pfade ohne passende Gruppe nicht begrenzen")
+    void shouldIgnoreUnmatchedPaths() {
+        for (int i = 0; i < 500; i++) {
+            assertThat(rateLimiter.tryAcquire("ip:1", "/images/car.png").isAllowed()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Sollte unter Nebenläufigkeit nie mehr als die Kapazität erlauben")
+    void shouldNotOverAdmitUnderContention() throws Exception {
+        // Given
+        ApiRateLimiter limiter = new ApiRateLimiter(true, List.of(
+                new ApiRateLimiter.RouteGroup("default", List.of("/api/**"), 50, 0.001, 0)), 10, clock);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    if (limiter.tryAcquire("ip:1", "/api/bookings").isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(allowed.get()).isEqualTo(50);
+    }
+}
@@ -1,28 +1,123 @@
 package de.rentacar.shared.web;
 
+import de.rentacar.shared.infrastructure.ImageCache;
+import de.rentacar.shared.infrastructure.ImageFetcher;
+import de.rentacar.shared.infrastructure.ImageResizer;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 public class ImageProxyControllerTest {
 
+    private static final String IMAGE_URL = "https://images.unsplash.com/photo-1?w=800";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private ImageCache imageCache;
+    private ImageProxyController ctrl;
+
+    @BeforeEach
+    public void setUp() {
+        imageCache = new ImageCache(1, cacheDirectory.toString(), 8, 3600);
+        ctrl = new ImageProxyController(imageCache, new ImageFetcher(imageCache, 2 * 1024 * 1024, 3000, 8000, 1),
+                new ImageResizer(imageCache, 1, 4, 40_000_000));
+    }
+
     @Test
-    public void blocksDisallowedHostsWith403() {
-        ImageProxyController ctrl = new ImageProxyController();
-        ResponseEntity<byte[]> resp = ctrl.proxyImage("http://example.com/image.jpg");
+    public void blocksDisallowedHostsWith403() throws IOException {
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage("http://example.com/image.jpg", null, null, null).join();
         Assertions.assertEquals(HttpStatus.FORBIDDEN, resp.getStatusCode());
         Assertions.assertNotNull(resp.getBody());
-        Assertions.assertTrue(new String(resp.getBody()).contains("Host not allowed"));
+        Assertions.assertTrue(new String(body(resp)).contains("Host not allowed"));
     }
 
     @Test
-    public void returnsBadRequestOnMalformedUrl() {
-        ImageProxyController ctrl = new ImageProxyController();
-        ResponseEntity<byte[]> resp = ctrl.proxyImage("ht!tp:/bad");
+    public void returnsBadRequestOnMalformedUrl() throws IOException {
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage("ht!tp:/bad", null, null, null).join();
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
         Assertions.assertNotNull(resp.getBody());
-        Assertions.assertTrue(new String(resp.getBody()).contains("Image proxy error"));
+        Assertions.assertTrue(new String(body(resp)).contains("Image proxy error"));
+    }
+
+    @Test
+    public void servesFreshCacheEntryWithStrongEtag() throws IOException {
+        byte[] data = "jpeg-bytes".getBytes(StandardCharsets.UTF_8);
+        String etag = imageCache.put(IMAGE_URL, data, "image/jpeg", "\"upstream\"", null).etag();
+
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage(IMAGE_URL, null, null, null).join();
+
+        Assertions.assertEquals(HttpStatus.OK, resp.getStatusCode());
+        Assertions.assertArrayEquals(data, body(resp));
+        Assertions.assertEquals(etag, resp.getHeaders().getETag());
+        Assertions.assertFalse(etag.startsWith("W/"));
+    }
+
+    @Test
+    public void answersMatchingIfNoneMatchWith304() {
+        String etag = imageCache.put(IMAGE_URL, "jpeg-bytes".getBytes(StandardCharsets.UTF_8), "image/jpeg", null, null)
+                .etag();
+
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage(IMAGE_URL, null, null, "\"other\", " + etag).join();
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, resp.getStatusCode());
+        Assertions.assertNull(resp.getBody());
+        Assertions.assertEquals(etag, resp.getHeaders().getETag());
     }
-}
 
+    @Test
+    public void streamsDiskEntriesFromFile() throws IOException {
+        byte[] data = new byte[4096];
+        Arrays.fill(data, (byte) 7);
+        new ImageCache(0, cacheDirectory.toString(), 8, 3600).put(IMAGE_URL, data, "image/png", null, null);
+
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage(IMAGE_URL, null, null, null).join();
+
+        Assertions.assertEquals(HttpStatus.OK, resp.getStatusCode());
+        Assertions.assertEquals(4096, resp.getHeaders().getContentLength());
+        Assertions.assertArrayEquals(data, body(resp));
+    }
+
+    @Test
+    public void servesResizedVariant() throws IOException {
+        BufferedImage original = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(original, "jpeg", jpeg);
+        String originalEtag = imageCache.put(IMAGE_URL, jpeg.toByteArray(), "image/jpeg", null, null).etag();
+
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage(IMAGE_URL, 200, 70, null).join();
+
+        Assertions.assertEquals(HttpStatus.OK, resp.getStatusCode());
+        Assertions.assertNotEquals(originalEtag, resp.getHeaders().getETag());
+        BufferedImage variant = ImageIO.read(new ByteArrayInputStream(body(resp)));
+        Assertions.assertEquals(200, variant.getWidth());
+        Assertions.assertEquals(100, variant.getHeight());
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED,
+                ctrl.proxyImage(IMAGE_URL, 200, 70, resp.getHeaders().getETag()).join().getStatusCode());
+    }
+
+    @Test
+    public void rejectsWidthOutOfRange() {
+        ResponseEntity<StreamingResponseBody> resp = ctrl.proxyImage(IMAGE_URL, 5000, null, null).join();
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
+    }
+
+    private static byte[] body(ResponseEntity<StreamingResponseBody> resp) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resp.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package de.rentacar.shared.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für RateLimitFilter
+ */
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApiRateLimiter rateLimiter = new ApiRateLimiter(true, List.of(
+                new ApiRateLimiter.RouteGroup("images", List.of("/api/assets/**"), 100, 50.0, 1)
+        ), 100, Clock.systemUTC());
+        filter = new RateLimitFilter(rateLimiter);
+    }
+
+    @Test
+    @DisplayName("Sollte den Slot bei asynchroner Antwort erst nach deren Abschluss freigeben")
+    void shouldHoldPermitUntilAsyncCompletes() throws Exception {
+        // Given
+        MockHttpServletRequest first = imageRequest();
+        filter.doFilter(first, new MockHttpServletResponse(), startAsync());
+
+        // When
+        MockHttpServletResponse whileRunning = new MockHttpServletResponse();
+        filter.doFilter(imageRequest(), whileRunning, (request, response) -> { });
+        first.getAsyncContext().complete();
+        MockHttpServletResponse afterCompletion = new MockHttpServletResponse();
+        filter.doFilter(imageRequest(), afterCompletion, (request, response) -> { });
+
+        // Then
+        assertThat(whileRunning.getStatus()).isEqualTo(429);
+        assertThat(afterCompletion.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Sollte den Slot bei synchroner Antwort sofort freigeben")
+    void shouldReleasePermitAfterSynchronousRequest() throws Exception {
+        // Given
+        filter.doFilter(imageRequest(), new MockHttpServletResponse(), (request, response) -> { });
+
+        // When
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        filter.doFilter(imageRequest(), next, (request, response) -> { });
+
+        // Then
+        assertThat(next.getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest imageRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/assets/image");
+        request.setAsyncSupported(true);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> request.startAsync();
+    }
+}
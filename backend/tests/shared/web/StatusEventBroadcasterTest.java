@@ -0,0 +1,234 @@
+package de.rentacar.shared.web;
+
+import de.rentacar.booking.domain.BookingStatus;
+import de.rentacar.booking.domain.BookingStatusChangedEvent;
+import de.rentacar.vehicle.domain.VehicleStatus;
+import de.rentacar.vehicle.domain.VehicleStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit-Tests für StatusEventBroadcaster (Sender-Pool wird manuell ausgeführt)
+ */
+@DisplayName("StatusEventBroadcaster Tests")
+class StatusEventBroadcasterTest {
+
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicLong nanoTime = new AtomicLong(1);
+    private ManualExecutor senderPool;
+    private StatusEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        senderPool = new ManualExecutor();
+        broadcaster = new StatusEventBroadcaster(3, 2, SEND_TIMEOUT, senderPool, RecordingEmitter::new, nanoTime::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte Abonnenten über dem Limit ablehnen")
+    void shouldRejectSubscribersAboveLimit() {
+        // Given
+        assertThat(broadcaster.subscribe("mitarbeiter1")).isPresent();
+        assertThat(broadcaster.subscribe("mitarbeiter2")).isPresent();
+
+        // When
+        var rejected = broadcaster.subscribe("mitarbeiter3");
+
+        // Then
+        assertThat(rejected).isEmpty();
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte bei vollem Puffer die ältesten Ereignisse verwerfen")
+    void shouldDropOldestWhenBufferFull() {
+        // Given
+        broadcaster.subscribe("mitarbeiter1");
+
+        // When
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.onVehicleStatusChanged(
+                    new VehicleStatusChangedEvent(id, "B-AB " + id, VehicleStatus.VERFÜGBAR, VehicleStatus.VERMIETET));
+        }
+
+        // Then
+        assertThat(broadcaster.getPendingEvents())
+                .extracting(StatusEventBroadcaster.StatusEvent::resourceId)
+                .containsExactly(3L, 4L, 5L);
+        assertThat(broadcaster.getDroppedEventCount()).isEqualTo(2);
+        assertThat(senderPool.tasks).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Sollte Inhalt des Domain Events übernehmen und Puffer beim Senden leeren")
+    void shouldForwardEventContentAndDrainBuffer() {
+        // Given
+        broadcaster.subscribe("mitarbeiter1");
+
+        // When
+        broadcaster.onBookingStatusChanged(
+                new BookingStatusChangedEvent(7L, 3L, BookingStatus.BESTÄTIGT, BookingStatus.ABGESCHLOSSEN));
+        List<StatusEventBroadcaster.StatusEvent> pending = broadcaster.getPendingEvents();
+        senderPool.runAll();
+
+        // Then
+        assertThat(pending).singleElement().satisfies(event -> {
+            assertThat(event.type()).isEqualTo("BOOKING_STATUS_CHANGED");
+            assertThat(event.resourceType()).isEqualTo("Booking");
+            assertThat(event.resourceId()).isEqualTo(7L);
+            assertThat(event.previousStatus()).isEqualTo("BESTÄTIGT");
+            assertThat(event.newStatus()).isEqualTo("ABGESCHLOSSEN");
+        });
+        assertThat(broadcaster.getPendingEvents()).isEmpty();
+        assertThat(broadcaster.getDroppedEventCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte Heartbeats über den Sender-Pool statt im Scheduler-Thread senden")
+    void shouldSendHeartbeatThroughSenderPool() {
+        // Given
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe("mitarbeiter1").orElseThrow();
+
+        // When
+        broadcaster.sendHeartbeat();
+
+        // Then
+        assertThat(emitter.sent).hasValue(0);
+        assertThat(senderPool.tasks).hasSize(1);
+
+        senderPool.runAll();
+        assertThat(emitter.sent).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Sollte einen Abonnenten verdrängen, dessen Senden länger als das Timeout hängt")
+    void shouldEvictSubscriberWhoseSendHangs() throws Exception {
+        // Given
+        ExecutorService threadPool = Executors.newSingleThreadExecutor();
+        HangingEmitter emitter = new HangingEmitter();
+        StatusEventBroadcaster hanging = new StatusEventBroadcaster(3, 2, SEND_TIMEOUT, threadPool,
+                () -> emitter, nanoTime::get);
+        hanging.subscribe("mitarbeiter1");
+        hanging.onVehicleStatusChanged(
+                new VehicleStatusChangedEvent(1L, "B-AB 1", VehicleStatus.VERFÜGBAR, VehicleStatus.VERMIETET));
+        assertThat(emitter.entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        nanoTime.addAndGet(SEND_TIMEOUT.toNanos() + 1);
+        hanging.sendHeartbeat();
+
+        // Then
+        assertThat(hanging.getSubscriberCount()).isZero();
+        assertThat(hanging.getSlowEvictionCount()).isEqualTo(1);
+        assertThat(emitter.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        hanging.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sollte Abonnenten ohne laufendes Senden nicht verdrängen")
+    void shouldNotEvictIdleSubscriber() {
+        // Given
+        broadcaster.subscribe("mitarbeiter1");
+
+        // When
+        nanoTime.addAndGet(SEND_TIMEOUT.toNanos() * 2);
+        broadcaster.sendHeartbeat();
+
+        // Then
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(1);
+        assertThat(broadcaster.getSlowEvictionCount()).isZero();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.incrementAndGet();
+        }
+    }
+
+    /**
+     * Simuliert einen Client mit vollem Socket-Puffer: send() kehrt erst nach einer Unterbrechung zurück
+     */
+    private static class HangingEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IOException("Senden unterbrochen", e);
+            }
+        }
+    }
+
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private boolean shutdown;
+
+        void runAll() {
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            pending.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.copyOf(tasks);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
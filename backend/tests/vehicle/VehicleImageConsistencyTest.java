@@ -17,7 +17,7 @@ import java.util.Set;
  *
  * Warum: Verhindert Fehldarstellungen (z. B. Porsche-Bild bei Audi Q5).
  */
-@SpringBootTest
+@SpringBootTest(properties = "rentacar.customer.blind-index-key=test-blind-index-key-mit-mindestens-32-byte")
 public class VehicleImageConsistencyTest {
 
     @Autowired
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +37,12 @@ class VehicleManagementServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private VehicleSearchIndex vehicleSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VehicleManagementService vehicleManagementService;
 
@@ -0,0 +1,103 @@
+package de.rentacar.vehicle.application;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.Vehicle;
+import de.rentacar.vehicle.domain.VehicleRepository;
+import de.rentacar.vehicle.domain.VehicleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit-Tests für VehicleSearchIndex
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VehicleSearchIndex Tests")
+class VehicleSearchIndexTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    private VehicleSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VehicleSearchIndex(vehicleRepository);
+        when(vehicleRepository.findAll()).thenReturn(List.of(
+                vehicle(1L, "BMW", "X3", VehicleType.SUV, "Berlin"),
+                vehicle(2L, "BMW", "X5", VehicleType.SUV, "München"),
+                vehicle(3L, "Volkswagen", "Golf", VehicleType.KOMPAKTKLASSE, "Berlin")
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Sollte Fahrzeuge über Präfixe mehrerer Suchwörter finden")
+    void shouldMatchPrefixesOfAllQueryTokens() {
+        assertThat(index.search("bmw x", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("bm x5", 10)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Sollte exakte Treffer vor Präfixtreffern einordnen")
+    void shouldRankExactMatchesFirst() {
+        index.index(vehicle(4L, "Golfwagen", "Classic", VehicleType.KLEINWAGEN, "Hamburg"));
+
+        assertThat(index.search("golf", 10)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Sollte Standort und Typ ohne Umlaute und Groß-/Kleinschreibung finden")
+    void shouldMatchLocationAndTypeIgnoringCaseAndDiacritics() {
+        assertThat(index.search("MUNCHEN", 10)).containsExactly(2L);
+        assertThat(index.search("suv berlin", 10)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Sollte veraltete Tokens bei Aktualisierung entfernen")
+    void shouldReplaceTokensOnUpdate() {
+        index.index(vehicle(3L, "Volkswagen", "Polo", VehicleType.KLEINWAGEN, "Berlin"));
+
+        assertThat(index.search("golf", 10)).isEmpty();
+        assertThat(index.search("polo", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Sollte entfernte Fahrzeuge nicht mehr finden")
+    void shouldNotFindRemovedVehicles() {
+        index.remove(1L);
+
+        assertThat(index.search("bmw", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte Ergebnisse begrenzen und leere Anfragen ignorieren")
+    void shouldRespectLimitAndIgnoreBlankQueries() {
+        assertThat(index.search("berlin", 1)).containsExactly(1L);
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search(null, 10)).isEmpty();
+    }
+
+    private Vehicle vehicle(Long id, String brand, String model, VehicleType type, String location) {
+        Vehicle vehicle = Vehicle.builder()
+                .licensePlate(LicensePlate.of("B-T " + id))
+                .brand(brand)
+                .model(model)
+                .type(type)
+                .mileage(1000L)
+                .location(location)
+                .dailyPrice(50.0)
+                .build();
+        vehicle.setId(id);
+        return vehicle;
+    }
+}
@@ -0,0 +1,139 @@
+package de.rentacar.vehicle.application;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.VehicleRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für VehicleTelemetryService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VehicleTelemetryService Tests")
+class VehicleTelemetryServiceTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @InjectMocks
+    private VehicleTelemetryService telemetryService;
+
+    @Test
+    @DisplayName("Sollte Messwerte pro Fahrzeug auf den Höchstwert verdichten")
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceReadingsToMaximumPerVehicle() {
+        // Given
+        when(vehicleRepository.updateMileages(anyMap())).thenReturn(2);
+
+        // When
+        telemetryService.ingest(List.of(
+                new VehicleTelemetryService.MileageReading(1L, null, 50100L, Instant.now()),
+                new VehicleTelemetryService.MileageReading(1L, null, 50300L, Instant.now()),
+                new VehicleTelemetryService.MileageReading(1L, null, 50200L, Instant.now()),
+                new VehicleTelemetryService.MileageReading(2L, null, 7000L, null)));
+        int updated = telemetryService.flush();
+
+        // Then
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(vehicleRepository).updateMileages(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 50300L, 2L, 7000L));
+        assertThat(updated).isEqualTo(2);
+        assertThat(telemetryService.getStats().pendingVehicles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte Kennzeichen pro Batch nur einmal auflösen")
+    void shouldResolveLicensePlateOncePerBatch() {
+        // Given
+        when(vehicleRepository.findIdByLicensePlate(any(LicensePlate.class))).thenReturn(Optional.of(7L));
+
+        // When
+        VehicleTelemetryService.IngestionResult result = telemetryService.ingest(List.of(
+                new VehicleTelemetryService.MileageReading(null, "B-AB 1234", 200L, null),
+                new VehicleTelemetryService.MileageReading(null, "B-AB 1234", 250L, null)));
+
+        // Then
+        assertThat(result.accepted()).isEqualTo(2);
+        verify(vehicleRepository, times(1)).findIdByLicensePlate(any(LicensePlate.class));
+    }
+
+    @Test
+    @DisplayName("Sollte ungültige, unbekannte und zukünftige Messwerte verwerfen")
+    void shouldRejectInvalidReadings() {
+        // Given
+        when(vehicleRepository.findIdByLicensePlate(any(LicensePlate.class))).thenReturn(Optional.empty());
+
+        // When
+        VehicleTelemetryService.IngestionResult result = telemetryService.ingest(List.of(
+                new VehicleTelemetryService.MileageReading(1L, null, null, null),
+                new VehicleTelemetryService.MileageReading(1L, null, -5L, null),
+                new VehicleTelemetryService.MileageReading(null, "X-UN 404", 100L, null),
+                new VehicleTelemetryService.MileageReading(1L, null, 100L, Instant.now().plus(1, ChronoUnit.DAYS))));
+
+        // Then
+        assertThat(result.accepted()).isZero();
+        assertThat(result.rejected()).isEqualTo(4);
+        assertThat(telemetryService.flush()).isZero();
+        verify(vehicleRepository, never()).updateMileages(anyMap());
+    }
+
+    @Test
+    @DisplayName("Sollte Messwerte nach fehlgeschlagenem Schreiben erneut schreiben")
+    @SuppressWarnings("unchecked")
+    void shouldRequeueReadingsWhenFlushFails() {
+        // Given
+        when(vehicleRepository.updateMileages(anyMap()))
+                .thenThrow(new IllegalStateException("DB nicht erreichbar"))
+                .thenReturn(1);
+        telemetryService.ingest(List.of(new VehicleTelemetryService.MileageReading(1L, null, 50100L, null)));
+
+        // When
+        assertThatThrownBy(() -> telemetryService.flush()).isInstanceOf(IllegalStateException.class);
+        telemetryService.ingest(List.of(new VehicleTelemetryService.MileageReading(1L, null, 50050L, null)));
+        int updated = telemetryService.flush();
+
+        // Then
+        ArgumentCaptor<Map<Long, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(vehicleRepository, times(2)).updateMileages(captor.capture());
+        assertThat(captor.getAllValues().get(1)).containsExactlyEntriesOf(Map.of(1L, 50100L));
+        assertThat(updated).isEqualTo(1);
+        assertThat(telemetryService.getStats().pendingVehicles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sollte ungültige Kennzeichen einzeln verwerfen und korrekt zählen")
+    void shouldCountInvalidPlatePerItem() {
+        // Given
+        when(vehicleRepository.findIdByLicensePlate(LicensePlate.of("B-AB 1234"))).thenReturn(Optional.of(7L));
+        when(vehicleRepository.findIdByLicensePlate(LicensePlate.of("UNGÜLTIG")))
+                .thenThrow(new IllegalArgumentException("Ungültiges Kennzeichen"));
+
+        // When
+        VehicleTelemetryService.IngestionResult result = telemetryService.ingest(List.of(
+                new VehicleTelemetryService.MileageReading(null, "B-AB 1234", 200L, null),
+                new VehicleTelemetryService.MileageReading(null, "ungültig", 300L, null),
+                new VehicleTelemetryService.MileageReading(2L, null, 400L, null)));
+
+        // Then
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(telemetryService.getStats().pendingVehicles()).isEqualTo(2);
+    }
+}
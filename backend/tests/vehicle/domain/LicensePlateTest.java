@@ -106,4 +106,3 @@ class LicensePlateTest {
         assertThat(result).isEqualTo("B-AB 1234");
     }
 }
-
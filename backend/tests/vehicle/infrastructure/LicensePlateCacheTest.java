@@ -0,0 +1,86 @@
+package de.rentacar.vehicle.infrastructure;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-Tests für LicensePlateCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LicensePlateCache Tests")
+class LicensePlateCacheTest {
+
+    @Mock
+    private VehicleJpaRepository jpaRepository;
+
+    @InjectMocks
+    private LicensePlateCache licensePlateCache;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "B-AB 1234"});
+        rows.add(new Object[]{2L, "M-CD 5678"});
+        when(jpaRepository.findAllLicensePlates()).thenReturn(rows);
+    }
+
+    @Test
+    @DisplayName("Sollte Kennzeichen einmalig laden und unabhängig von Groß-/Kleinschreibung finden")
+    void shouldLoadOnceAndMatchNormalizedPlates() {
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of(" b-ab 1234 "))).contains(1L);
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("M-CD 5678"))).contains(2L);
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("H-XX 1"))).isEmpty();
+
+        verify(jpaRepository, times(1)).findAllLicensePlates();
+    }
+
+    @Test
+    @DisplayName("Sollte Kennzeichen mit abweichenden Leerzeichen nicht zusammenlegen")
+    void shouldNotCollapseInnerWhitespace() {
+        Vehicle vehicle = Vehicle.builder().licensePlate(LicensePlate.of("B-AB  1234")).build();
+        vehicle.setId(3L);
+
+        licensePlateCache.put(vehicle);
+
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("B-AB 1234"))).contains(1L);
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("B-AB  1234"))).contains(3L);
+    }
+
+    @Test
+    @DisplayName("Sollte neue Fahrzeuge aufnehmen und gelöschte entfernen")
+    void shouldPutAndEvictVehicles() {
+        Vehicle vehicle = Vehicle.builder().licensePlate(LicensePlate.of("H-EF 9012")).build();
+        vehicle.setId(3L);
+
+        licensePlateCache.put(vehicle);
+        licensePlateCache.evictVehicle(1L);
+
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("H-EF 9012"))).contains(3L);
+        assertThat(licensePlateCache.findVehicleId(LicensePlate.of("B-AB 1234"))).isEmpty();
+        assertThat(licensePlateCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sollte nach Invalidierung neu aus der Datenbank laden")
+    void shouldReloadAfterInvalidate() {
+        licensePlateCache.findVehicleId(LicensePlate.of("B-AB 1234"));
+
+        licensePlateCache.invalidate();
+        licensePlateCache.findVehicleId(LicensePlate.of("B-AB 1234"));
+
+        verify(jpaRepository, times(2)).findAllLicensePlates();
+    }
+}
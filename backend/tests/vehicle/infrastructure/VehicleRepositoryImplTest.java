@@ -0,0 +1,127 @@
+package de.rentacar.vehicle.infrastructure;
+
+import de.rentacar.vehicle.domain.LicensePlate;
+import de.rentacar.vehicle.domain.Vehicle;
+import de.rentacar.vehicle.domain.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests für VehicleRepositoryImpl: Telemetrie-Flush parallel zu JPA-Schreibzugriffen und Kennzeichen-Lookups (H2)
+ */
+@SpringBootTest(properties = "rentacar.customer.blind-index-key=test-blind-index-key-mit-mindestens-32-byte")
+@DisplayName("VehicleRepositoryImpl Tests")
+class VehicleRepositoryImplTest {
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LicensePlateCache licensePlateCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private TransactionTemplate newTransaction;
+    private Long vehicleId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        vehicleId = vehicleRepository.findAll().get(0).getId();
+    }
+
+    @Test
+    @DisplayName("Sollte den Kilometerstand eines Flushs nicht durch ein veraltet geladenes Fahrzeug zurücksetzen")
+    void shouldKeepFlushedMileageWhenStaleEntityIsSaved() {
+        // Given
+        long[] flushed = new long[1];
+
+        // When
+        transaction.executeWithoutResult(status -> {
+            Vehicle stale = vehicleRepository.findById(vehicleId).orElseThrow();
+            flushed[0] = stale.getMileage() + 500;
+            newTransaction.executeWithoutResult(inner -> vehicleRepository.updateMileages(Map.of(vehicleId, flushed[0])));
+            stale.setLocation("Hamburg Hafen");
+            vehicleRepository.save(stale);
+        });
+
+        // Then
+        assertThat(mileage()).isEqualTo(flushed[0]);
+        assertThat(vehicleRepository.findById(vehicleId).orElseThrow().getLocation()).isEqualTo("Hamburg Hafen");
+    }
+
+    @Test
+    @DisplayName("Sollte einen höheren Kilometerstand aus dem Fahrzeug trotz parallelem Flush übernehmen")
+    void shouldRaiseMileageFromEntityAfterFlush() {
+        // Given
+        long[] checkedIn = new long[1];
+
+        // When
+        transaction.executeWithoutResult(status -> {
+            Vehicle stale = vehicleRepository.findById(vehicleId).orElseThrow();
+            long flushed = stale.getMileage() + 100;
+            newTransaction.executeWithoutResult(inner -> vehicleRepository.updateMileages(Map.of(vehicleId, flushed)));
+            checkedIn[0] = flushed + 250;
+            stale.updateMileage(checkedIn[0]);
+            vehicleRepository.save(stale);
+        });
+
+        // Then
+        assertThat(mileage()).isEqualTo(checkedIn[0]);
+    }
+
+    @Test
+    @DisplayName("Sollte bei Cache-Miss das Kennzeichen aus der Datenbank laden und cachen")
+    void shouldFallBackToDatabaseOnCacheMiss() {
+        // Given - von einem anderen Knoten angelegt: lokal nicht im Cache
+        LicensePlate licensePlate = vehicleRepository.findById(vehicleId).orElseThrow().getLicensePlate();
+        licensePlateCache.evict(licensePlate);
+
+        // When
+        var id = vehicleRepository.findIdByLicensePlate(licensePlate);
+
+        // Then
+        assertThat(id).contains(vehicleId);
+        assertThat(licensePlateCache.findVehicleId(licensePlate)).contains(vehicleId);
+
+        licensePlateCache.evict(licensePlate);
+        assertThat(vehicleRepository.findByLicensePlate(licensePlate))
+                .hasValueSatisfying(vehicle -> assertThat(vehicle.getId()).isEqualTo(vehicleId));
+    }
+
+    @Test
+    @DisplayName("Sollte unbekannte Kennzeichen nicht negativ cachen")
+    void shouldNotCacheUnknownPlates() {
+        // Given
+        LicensePlate unknown = LicensePlate.of("HH-ZZ 9999");
+
+        // When
+        var vehicle = vehicleRepository.findByLicensePlate(unknown);
+
+        // Then
+        assertThat(vehicle).isEmpty();
+        assertThat(licensePlateCache.findVehicleId(unknown)).isEmpty();
+    }
+
+    private long mileage() {
+        return jdbcTemplate.queryForObject("SELECT mileage FROM vehicles WHERE id = ?", Long.class, vehicleId);
+    }
+}
@@ -212,7 +212,7 @@ const VehicleDetailPage = () => {
                 const rawHero = normalizeImageUrl(images[selectedImageIndex])
                 const hero =
                   rawHero && rawHero.startsWith('http')
-                    ? `/api/assets/image?url=${encodeURIComponent(rawHero)}`
+                    ? `/api/assets/image?url=${encodeURIComponent(rawHero)}&width=640`
                     : rawHero
                 if (!hero || heroError) {
                   return (
@@ -255,7 +255,7 @@ const VehicleDetailPage = () => {
                     <img
                       src={
                         (url.startsWith('http')
-                          ? `/api/assets/image?url=${encodeURIComponent(normalizeImageUrlWithWidth(url, 200))}`
+                          ? `/api/assets/image?url=${encodeURIComponent(normalizeImageUrlWithWidth(url, 200))}&width=200`
                           : url) || ''
                       }
                       alt={`${vehicle?.brand || ''} ${vehicle?.model || ''} - View ${idx + 1}`}
@@ -172,7 +172,7 @@ const VehicleListPage = () => {
                   )
                   const hero =
                     rawHero && rawHero.startsWith('http')
-                      ? `/api/assets/image?url=${encodeURIComponent(rawHero)}`
+                      ? `/api/assets/image?url=${encodeURIComponent(rawHero)}&width=640`
                       : rawHero
                   if (!hero) {
                     return (